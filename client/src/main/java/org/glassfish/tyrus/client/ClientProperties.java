@@ -147,6 +147,16 @@ public final class ClientProperties {
      */
     public static final String INCOMING_BUFFER_SIZE = "org.glassfish.tyrus.incomingBufferSize";
 
+    /**
+     * Maximal number of bytes written to the network by one coalesced write ({@link Integer} value).
+     * <p/>
+     * When set to a positive value, frames waiting in the outbound queue of a connection are written together by one
+     * gathering write, up to the configured number of bytes. Completion of each frame is still reported separately.
+     * <p/>
+     * Write coalescing is disabled by default.
+     */
+    public static final String WRITE_COALESCING_LIMIT = "org.glassfish.tyrus.writeCoalescingLimit";
+
     /**
      * When set to {@code true} (boolean value), client runtime preserves used container and reuses it for outgoing
      * connections.
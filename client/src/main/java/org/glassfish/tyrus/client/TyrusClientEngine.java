@@ -725,7 +725,8 @@ public class TyrusClientEngine implements ClientEngine {
                     do {
                         Frame frame = handler.unframe(data);
                         if (frame == null) {
-                            buffer = data;
+                            // all data might have been consumed already (streamed payload); do not hold empty buffer.
+                            buffer = data.hasRemaining() ? data : null;
                             break;
                         } else {
                             for (Extension extension : negotiatedExtensions) {
@@ -115,6 +115,7 @@ class GrizzlyClientFilter extends BaseFilter {
     private final Map<String, String> proxyHeaders;
     private final Callable<Void> grizzlyConnector;
     private final UpgradeRequest upgradeRequest;
+    private final int writeCoalescingLimit;
 
     private volatile boolean done = false;
 
@@ -123,15 +124,17 @@ class GrizzlyClientFilter extends BaseFilter {
     /**
      * Constructs a new {@link GrizzlyClientFilter}.
      *
-     * @param proxy     true when client initiated connection has proxy in the way.
-     * @param sslFilter filter to be "enabled" in case connection is created via proxy.
+     * @param proxy                true when client initiated connection has proxy in the way.
+     * @param sslFilter            filter to be "enabled" in case connection is created via proxy.
+     * @param writeCoalescingLimit maximal number of bytes written by one coalesced write, see {@link GrizzlyWriter}.
      */
     /* package */ GrizzlyClientFilter(ClientEngine engine, boolean proxy,
                                       Filter sslFilter, HttpCodecFilter httpCodecFilter,
                                       URI uri, boolean sharedTransport,
                                       Map<String, String> proxyHeaders,
                                       Callable<Void> grizzlyConnector,
-                                      UpgradeRequest upgradeRequest) {
+                                      UpgradeRequest upgradeRequest,
+                                      int writeCoalescingLimit) {
         this.engine = engine;
         this.proxy = proxy;
         this.sslFilter = sslFilter;
@@ -140,6 +143,7 @@ class GrizzlyClientFilter extends BaseFilter {
         this.proxyHeaders = proxyHeaders;
         this.grizzlyConnector = grizzlyConnector;
         this.upgradeRequest = upgradeRequest;
+        this.writeCoalescingLimit = writeCoalescingLimit;
     }
 
     // ----------------------------------------------------- Methods from Filter
@@ -326,7 +330,7 @@ class GrizzlyClientFilter extends BaseFilter {
      */
     private NextAction handleHandshake(final FilterChainContext ctx, HttpContent content) {
 
-        final GrizzlyWriter grizzlyWriter = new GrizzlyWriter(ctx.getConnection()) {
+        final GrizzlyWriter grizzlyWriter = new GrizzlyWriter(ctx.getConnection(), writeCoalescingLimit) {
             @Override
             public void close() {
                 super.close();
@@ -177,6 +177,7 @@ public class GrizzlyClientSocket {
     private final boolean sharedTransport;
     private final Integer sharedTransportTimeout;
     private final Map<String, String> proxyHeaders;
+    private final int writeCoalescingLimit;
     private final Map<String, Object> properties;
 
     private static volatile TCPNIOTransport transport;
@@ -198,6 +199,8 @@ public class GrizzlyClientSocket {
         this.timeoutMs = timeoutMs;
         this.properties = properties;
         this.proxyHeaders = getProxyHeaders(properties);
+        this.writeCoalescingLimit =
+                Utils.getProperty(properties, ClientProperties.WRITE_COALESCING_LIMIT, Integer.class, 0);
 
         try {
             this.workerThreadPoolConfig = getWorkerThreadPoolConfig(properties);
@@ -381,7 +384,7 @@ public class GrizzlyClientSocket {
                     createFilterChain(clientEngine, null, clientSSLEngineConfigurator,
                                       !(proxy.type() == Proxy.Type.DIRECT), requestURI, sharedTransport,
                                       sharedTransportTimeout, proxyHeaders, grizzlyConnector, sslHandshakeFuture,
-                                      upgradeRequest));
+                                      upgradeRequest, writeCoalescingLimit));
 
             connectionGrizzlyFuture = connectorHandler.connect(connectAddress);
 
@@ -641,7 +644,8 @@ public class GrizzlyClientSocket {
                                                Map<String, String> proxyHeaders,
                                                Callable<Void> grizzlyConnector,
                                                final TyrusFuture<Void> sslHandshakeFuture,
-                                               final UpgradeRequest upgradeRequest) {
+                                               final UpgradeRequest upgradeRequest,
+                                               int writeCoalescingLimit) {
         FilterChainBuilder clientFilterChainBuilder = FilterChainBuilder.stateless();
         Filter sslFilter = null;
 
@@ -698,7 +702,8 @@ public class GrizzlyClientSocket {
 
         clientFilterChainBuilder.add(new GrizzlyClientFilter(engine, proxy,
                                                              sslFilter, httpCodecFilter, uri, sharedTransport,
-                                                             proxyHeaders, grizzlyConnector, upgradeRequest));
+                                                             proxyHeaders, grizzlyConnector, upgradeRequest,
+                                                             writeCoalescingLimit));
 
         return clientFilterChainBuilder.build();
     }
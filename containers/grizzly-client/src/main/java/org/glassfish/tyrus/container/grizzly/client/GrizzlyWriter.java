@@ -40,6 +40,10 @@
 package org.glassfish.tyrus.container.grizzly.client;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -51,21 +55,42 @@ import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.EmptyCompletionHandler;
 import org.glassfish.grizzly.WriteHandler;
 import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
 
 import static org.glassfish.tyrus.container.grizzly.client.TaskProcessor.Task;
 
 /**
+ * {@link Writer} implementation used by Grizzly client and server containers.
+ * <p/>
+ * When write coalescing is enabled, frames which are waiting for the connection to become writable are passed to
+ * Grizzly by one write (up to the configured number of bytes); completion handler of each frame is still notified
+ * separately.
+ *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
 public class GrizzlyWriter extends Writer {
 
     private final TaskProcessor taskProcessor;
+    private final int coalescingLimit;
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<PendingWrite>();
     final org.glassfish.grizzly.Connection connection;
 
     public GrizzlyWriter(final org.glassfish.grizzly.Connection connection) {
+        this(connection, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param connection      Grizzly connection.
+     * @param coalescingLimit maximal number of bytes written by one coalesced write. Write coalescing is disabled when
+     *                        {@code 0} or negative.
+     */
+    public GrizzlyWriter(final org.glassfish.grizzly.Connection connection, int coalescingLimit) {
         this.connection = connection;
         this.connection.configureBlocking(false);
         this.taskProcessor = new TaskProcessor(new WriterCondition());
+        this.coalescingLimit = coalescingLimit;
     }
 
     @Override
@@ -76,31 +101,35 @@ public class GrizzlyWriter extends Writer {
         }
 
         final Buffer message = Buffers.wrap(connection.getTransport().getMemoryManager(), buffer);
+        write(message, new WriteCompletionHandler<ByteBuffer>(buffer, completionHandler));
+    }
 
-        final EmptyCompletionHandler emptyCompletionHandler = new EmptyCompletionHandler() {
-            @Override
-            public void cancelled() {
-                if (completionHandler != null) {
-                    completionHandler.cancelled();
-                }
-            }
+    @Override
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        if (!connection.isOpen()) {
+            completionHandler.failed(new IllegalStateException("Connection is not open."));
+            return;
+        }
 
-            @Override
-            public void completed(Object result) {
-                if (completionHandler != null) {
-                    completionHandler.completed(buffer);
-                }
-            }
+        final MemoryManager memoryManager = connection.getTransport().getMemoryManager();
 
-            @Override
-            public void failed(Throwable throwable) {
-                if (completionHandler != null) {
-                    completionHandler.failed(throwable);
-                }
-            }
-        };
+        // composite buffer - grizzly will use gathering write, buffers are not copied.
+        Buffer message = Buffers.wrap(memoryManager, buffers[0]);
+        for (int i = 1; i < buffers.length; i++) {
+            message = Buffers.appendBuffers(memoryManager, message, Buffers.wrap(memoryManager, buffers[i]));
+        }
+
+        write(message, new WriteCompletionHandler<ByteBuffer[]>(buffers, completionHandler));
+    }
 
-        taskProcessor.processTask(new WriteTask(connection, message, emptyCompletionHandler));
+    private void write(Buffer message, EmptyCompletionHandler completionHandler) {
+        if (coalescingLimit > 0) {
+            // every pending write has its own task, so all of them are written before subsequent close task.
+            pendingWrites.offer(new PendingWrite(message, completionHandler));
+            taskProcessor.processTask(new CoalescingWriteTask());
+        } else {
+            taskProcessor.processTask(new WriteTask(connection, message, completionHandler));
+        }
     }
 
     private class WriterCondition implements TaskProcessor.Condition {
@@ -170,6 +199,125 @@ public class GrizzlyWriter extends Writer {
         }
     }
 
+    /**
+     * Frame waiting to be written by {@link CoalescingWriteTask}.
+     */
+    private static class PendingWrite {
+        private final Buffer message;
+        private final EmptyCompletionHandler completionHandler;
+
+        private PendingWrite(Buffer message, EmptyCompletionHandler completionHandler) {
+            this.message = message;
+            this.completionHandler = completionHandler;
+        }
+    }
+
+    /**
+     * Writes all pending frames up to the coalescing limit (at least one) by one write. Tasks are executed one at a
+     * time, so there is only one thread polling the pending writes.
+     */
+    private class CoalescingWriteTask extends Task {
+
+        @Override
+        public void execute() {
+            PendingWrite pendingWrite = pendingWrites.poll();
+            if (pendingWrite == null) {
+                // already written by previous task.
+                return;
+            }
+
+            final PendingWrite first = pendingWrite;
+            final MemoryManager memoryManager = connection.getTransport().getMemoryManager();
+            Buffer message = first.message;
+            List<EmptyCompletionHandler> completionHandlers = null;
+
+            while ((pendingWrite = pendingWrites.peek()) != null
+                    && message.remaining() + pendingWrite.message.remaining() <= coalescingLimit) {
+                pendingWrites.poll();
+
+                if (completionHandlers == null) {
+                    completionHandlers = new ArrayList<EmptyCompletionHandler>();
+                    completionHandlers.add(first.completionHandler);
+                }
+                completionHandlers.add(pendingWrite.completionHandler);
+                message = Buffers.appendBuffers(memoryManager, message, pendingWrite.message);
+            }
+
+            //noinspection unchecked
+            connection.write(message, completionHandlers == null
+                    ? first.completionHandler : new CoalescedCompletionHandler(completionHandlers));
+        }
+    }
+
+    /**
+     * Notifies completion handlers of all coalesced frames.
+     */
+    private static class CoalescedCompletionHandler extends EmptyCompletionHandler {
+        private final List<EmptyCompletionHandler> completionHandlers;
+
+        private CoalescedCompletionHandler(List<EmptyCompletionHandler> completionHandlers) {
+            this.completionHandlers = completionHandlers;
+        }
+
+        @Override
+        public void cancelled() {
+            for (EmptyCompletionHandler completionHandler : completionHandlers) {
+                completionHandler.cancelled();
+            }
+        }
+
+        @Override
+        public void completed(Object result) {
+            for (EmptyCompletionHandler completionHandler : completionHandlers) {
+                //noinspection unchecked
+                completionHandler.completed(result);
+            }
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            for (EmptyCompletionHandler completionHandler : completionHandlers) {
+                completionHandler.failed(throwable);
+            }
+        }
+    }
+
+    /**
+     * Translates Grizzly write completion to Tyrus {@link CompletionHandler}.
+     *
+     * @param <T> type of written data.
+     */
+    private static class WriteCompletionHandler<T> extends EmptyCompletionHandler {
+        private final T data;
+        private final CompletionHandler<T> completionHandler;
+
+        private WriteCompletionHandler(T data, CompletionHandler<T> completionHandler) {
+            this.data = data;
+            this.completionHandler = completionHandler;
+        }
+
+        @Override
+        public void cancelled() {
+            if (completionHandler != null) {
+                completionHandler.cancelled();
+            }
+        }
+
+        @Override
+        public void completed(Object result) {
+            if (completionHandler != null) {
+                completionHandler.completed(data);
+            }
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            if (completionHandler != null) {
+                completionHandler.failed(throwable);
+            }
+        }
+    }
+
     private class CloseTask extends Task {
         private final Connection connection;
 
@@ -52,6 +52,7 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.OutboundOverflowPolicy;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.Utils;
 import org.glassfish.tyrus.core.cluster.ClusterContext;
@@ -122,8 +123,23 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_SESSIONS_PER_APP, Integer.class);
         final Integer maxSessionsPerRemoteAddr =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR, Integer.class);
+        final Integer maxSessionRatePerRemoteAddr = Utils.getProperty(
+                localProperties, TyrusWebSocketEngine.MAX_SESSION_RATE_PER_REMOTE_ADDR, Integer.class);
+        final Integer maxSessionBurstPerRemoteAddr = Utils.getProperty(
+                localProperties, TyrusWebSocketEngine.MAX_SESSION_BURST_PER_REMOTE_ADDR, Integer.class);
         final Boolean parallelBroadcastEnabled =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED, Boolean.class);
+        final Integer batchSize =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.BATCH_SIZE, Integer.class);
+        final Integer batchLingerTime =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.BATCH_LINGER_TIME, Integer.class);
+        final Integer maxOutboundBytes =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_OUTBOUND_BYTES, Integer.class);
+        final OutboundOverflowPolicy outboundOverflowPolicy =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.OUTBOUND_OVERFLOW_POLICY,
+                                  OutboundOverflowPolicy.class);
+        final Integer writeCoalescingLimit =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.WRITE_COALESCING_LIMIT, Integer.class, 0);
         final DebugContext.TracingType tracingType =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class,
                                   DebugContext.TracingType.OFF);
@@ -140,7 +156,13 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                                         .applicationEventListener(applicationEventListener)
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
+                                        .maxSessionRatePerRemoteAddr(maxSessionRatePerRemoteAddr)
+                                        .maxSessionBurstPerRemoteAddr(maxSessionBurstPerRemoteAddr)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .batchSize(batchSize)
+                                        .batchLingerTime(batchLingerTime)
+                                        .maxOutboundBytes(maxOutboundBytes)
+                                        .outboundOverflowPolicy(outboundOverflowPolicy)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
@@ -196,7 +218,7 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
 
                 // idle timeout set to indefinite.
                 server.getListener("grizzly").getKeepAlive().setIdleTimeoutInSeconds(-1);
-                server.getListener("grizzly").registerAddOn(new WebSocketAddOn(this, contextPath));
+                server.getListener("grizzly").registerAddOn(new WebSocketAddOn(this, contextPath, writeCoalescingLimit));
 
                 final WebSocketEngine webSocketEngine = getWebSocketEngine();
 
@@ -110,7 +110,7 @@ class GrizzlyServerFilter extends BaseFilter {
 
     private final ServerContainer serverContainer;
     private final String contextPath;
-
+    private final int writeCoalescingLimit;
 
     // ------------------------------------------------------------ Constructors
 
@@ -122,8 +122,23 @@ class GrizzlyServerFilter extends BaseFilter {
      *                        "/a" will be divided into context path "" and url-pattern "/a".
      */
     public GrizzlyServerFilter(ServerContainer serverContainer, String contextPath) {
+        this(serverContainer, contextPath, 0);
+    }
+
+    /**
+     * Constructs a new {@link GrizzlyServerFilter}.
+     *
+     * @param serverContainer      server container.
+     * @param contextPath          the context path of the deployed application. If the value is "" or "/", a request
+     *                             URI "/a" will be divided into context path "" and url-pattern "/a".
+     * @param writeCoalescingLimit maximal number of bytes written by one coalesced write, {@code 0} disables write
+     *                             coalescing. See {@link
+     *                             org.glassfish.tyrus.core.TyrusWebSocketEngine#WRITE_COALESCING_LIMIT}.
+     */
+    public GrizzlyServerFilter(ServerContainer serverContainer, String contextPath, int writeCoalescingLimit) {
         this.serverContainer = serverContainer;
         this.contextPath = contextPath.endsWith("/") ? contextPath : contextPath + "/";
+        this.writeCoalescingLimit = writeCoalescingLimit;
     }
 
     // ----------------------------------------------------- Methods from Filter
@@ -262,7 +277,7 @@ class GrizzlyServerFilter extends BaseFilter {
                 write(ctx, upgradeResponse);
 
                 final org.glassfish.tyrus.spi.Connection connection = upgradeInfo
-                        .createConnection(new GrizzlyWriter(ctx.getConnection()),
+                        .createConnection(new GrizzlyWriter(ctx.getConnection(), writeCoalescingLimit),
                                           new org.glassfish.tyrus.spi.Connection.CloseListener() {
                                               @Override
                                               public void close(CloseReason reason) {
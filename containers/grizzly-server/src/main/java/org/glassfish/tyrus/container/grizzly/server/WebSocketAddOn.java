@@ -59,10 +59,16 @@ public class WebSocketAddOn implements AddOn {
 
     private final ServerContainer serverContainer;
     private final String contextPath;
+    private final int writeCoalescingLimit;
 
     WebSocketAddOn(ServerContainer serverContainer, String contextPath) {
+        this(serverContainer, contextPath, 0);
+    }
+
+    WebSocketAddOn(ServerContainer serverContainer, String contextPath, int writeCoalescingLimit) {
         this.serverContainer = serverContainer;
         this.contextPath = contextPath;
+        this.writeCoalescingLimit = writeCoalescingLimit;
     }
 
     @Override
@@ -72,7 +78,7 @@ public class WebSocketAddOn implements AddOn {
 
         if (httpServerFilterIdx >= 0) {
             // Insert the WebSocketFilter right before HttpServerFilter
-            builder.add(httpServerFilterIdx, new GrizzlyServerFilter(serverContainer, contextPath));
+            builder.add(httpServerFilterIdx, new GrizzlyServerFilter(serverContainer, contextPath, writeCoalescingLimit));
         }
     }
 }
@@ -288,6 +288,11 @@ class ClientFilter extends Filter {
         public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
             downstreamFilter.write(buffer, completionHandler);
         }
+
+        @Override
+        public void write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+            downstreamFilter.write(buffers, completionHandler);
+        }
     }
 
     private JdkUpgradeRequest createHandshakeUpgradeRequest(final UpgradeRequest upgradeRequest) {
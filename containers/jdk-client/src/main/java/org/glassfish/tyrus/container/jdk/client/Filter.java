@@ -74,6 +74,18 @@ class Filter {
     void write(ByteBuffer data, CompletionHandler<ByteBuffer> completionHandler) {
     }
 
+    /**
+     * Perform gathering write operation for this filter and invokes write method on the next filter in the filter
+     * chain.
+     * <p/>
+     * Buffers are written in the given order; the completion handler is invoked once all of them have been written.
+     *
+     * @param data              on which write operation is performed.
+     * @param completionHandler will be invoked when the write operation is completed or has failed.
+     */
+    void write(ByteBuffer[] data, CompletionHandler<ByteBuffer[]> completionHandler) {
+    }
+
     /**
      * Close the filter, invokes close operation on the next filter in the filter chain.
      * <p/>
@@ -238,4 +250,20 @@ class Filter {
      */
     void processError(Throwable t) {
     }
+
+    /**
+     * Check whether any of the buffers has remaining bytes.
+     *
+     * @param buffers buffers to be checked.
+     * @return {@code true} if at least one of the buffers has remaining bytes, {@code false} otherwise.
+     */
+    static boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
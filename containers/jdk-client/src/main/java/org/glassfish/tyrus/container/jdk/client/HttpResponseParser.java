@@ -39,95 +39,180 @@
  */
 package org.glassfish.tyrus.container.jdk.client;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import org.glassfish.tyrus.core.TyrusUpgradeResponse;
 import org.glassfish.tyrus.core.Utils;
 
 /**
+ * Incremental parser of HTTP upgrade response.
+ * <p/>
+ * The response is parsed line by line directly from the buffers passed to {@link #appendData(java.nio.ByteBuffer)};
+ * only a line split between two buffers is copied. Parsing stops right after the empty line terminating the headers,
+ * bytes which follow it (the first WebSocket frames) are left in the buffer.
+ *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
 class HttpResponseParser {
 
-    private static final String ENCODING = "ISO-8859-1";
-    private static final String LINE_SEPARATOR = "\r\n";
+    private static final Charset ENCODING = StandardCharsets.ISO_8859_1;
     private static final int BUFFER_STEP_SIZE = 256;
     // this is package private because of the test
     static final int BUFFER_MAX_SIZE = 16384;
 
     private volatile boolean complete = false;
-    private volatile ByteBuffer buffer;
-    private volatile State findEndState = State.INIT;
-
-    HttpResponseParser() {
-        buffer = ByteBuffer.allocate(1024);
-        buffer.flip(); //buffer created for read
-    }
-
+    private volatile boolean destroyed = false;
+
+    // parser state, kept between the parts of the response.
+    private volatile TyrusUpgradeResponse response = null;
+    private volatile int responseSize = 0;
+    // beginning of a line split between buffers; ends with '\r' when the line separator is split.
+    private volatile byte[] line = null;
+    private volatile int lineLength = 0;
+
+    /**
+     * Get the parsed response.
+     *
+     * @return parsed response.
+     * @throws ParseException when the response is not complete.
+     */
     TyrusUpgradeResponse parseUpgradeResponse() throws ParseException {
-        String response = bufferToString();
-        String[] tokens = response.split(LINE_SEPARATOR);
-        TyrusUpgradeResponse tyrusUpgradeResponse = new TyrusUpgradeResponse();
-        parseFirstLine(tokens, tyrusUpgradeResponse);
-        List<String> lines = new LinkedList<>();
-        lines.addAll(Arrays.asList(tokens).subList(1, tokens.length));
-        Map<String, String> headers = parseHeaders(lines);
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            final List<String> values = tyrusUpgradeResponse.getHeaders().get(entry.getKey());
-            if (values == null) {
-                tyrusUpgradeResponse.getHeaders().put(entry.getKey(), Utils.parseHeaderValue(entry.getValue()));
-            } else {
-                values.addAll(Utils.parseHeaderValue(entry.getValue()));
-            }
+        if (!complete) {
+            throw new ParseException("Incomplete HTTP response");
         }
-        return tyrusUpgradeResponse;
+        return response;
     }
 
     boolean isComplete() {
         return complete;
     }
 
+    /**
+     * Parse the next part of the response.
+     * <p/>
+     * When the end of the response is found, the position of {@code data} is set right after it.
+     *
+     * @param data part of the response.
+     * @throws ParseException when the response is invalid or too big.
+     */
     void appendData(ByteBuffer data) throws ParseException {
-        if (buffer == null) {
-            // parser was already destroyed.
+        if (destroyed || complete) {
             return;
         }
 
-        int responseEndPosition = getEndPosition(data);
-        if (responseEndPosition == -1) {
-            checkResponseSize(data);
-            buffer = Utils.appendBuffers(buffer, data, BUFFER_MAX_SIZE, BUFFER_STEP_SIZE);
-            return;
+        while (data.hasRemaining()) {
+            final int lineStart = data.position();
+            final int lineEnd = findLineEnd(data, lineStart);
+            final int parsedEnd = lineEnd == -1 ? data.limit() : lineEnd + 1;
+
+            responseSize += parsedEnd - lineStart;
+            if (responseSize > BUFFER_MAX_SIZE) {
+                throw new ParseException(
+                        "Upgrade response too big, sizes only up to " + BUFFER_MAX_SIZE + "B are supported.");
+            }
+
+            data.position(parsedEnd);
+
+            if (lineEnd == -1) {
+                appendToLine(data, lineStart, parsedEnd);
+                return;
+            }
+
+            final String responseLine;
+            if (lineLength == 0 && data.hasArray()) {
+                // the whole line is in this buffer, without '\r' before lineEnd.
+                responseLine = new String(data.array(), data.arrayOffset() + lineStart, lineEnd - 1 - lineStart,
+                                          ENCODING);
+            } else {
+                appendToLine(data, lineStart, lineEnd);
+                responseLine = new String(line, 0, lineLength - 1, ENCODING);
+                lineLength = 0;
+            }
+
+            if (parseLine(responseLine)) {
+                complete = true;
+                return;
+            }
         }
+    }
 
-        int limit = data.limit();
-        data.limit(responseEndPosition + 1);
-        checkResponseSize(data);
-        buffer = Utils.appendBuffers(buffer, data, BUFFER_MAX_SIZE, BUFFER_STEP_SIZE);
-        data.limit(limit);
-        data.position(responseEndPosition + 1);
-        complete = true;
+    void destroy() {
+        destroyed = true;
+        line = null;
+    }
+
+    void clear() {
+        complete = false;
+        response = null;
+        responseSize = 0;
+        lineLength = 0;
     }
 
-    private void checkResponseSize(ByteBuffer partToBeAppended) throws ParseException {
-        if (buffer.remaining() + partToBeAppended.remaining() > BUFFER_MAX_SIZE) {
-            throw new ParseException(
-                    "Upgrade response too big, sizes only up to " + BUFFER_MAX_SIZE + "B are supported.");
+    /**
+     * Find the end of the current line - '\n' of "\r\n" separator.
+     *
+     * @param data  buffer with the response.
+     * @param start position of the first byte of the line in the buffer.
+     * @return index of '\n' which ends the line or {@code -1} if the line does not end in the buffer.
+     */
+    private int findLineEnd(ByteBuffer data, int start) {
+        boolean afterCr = lineLength > 0 && line[lineLength - 1] == '\r';
+
+        for (int i = start; i < data.limit(); i++) {
+            final byte b = data.get(i);
+            if (b == '\n' && afterCr) {
+                return i;
+            }
+            afterCr = b == '\r';
         }
+
+        return -1;
     }
 
-    private void parseFirstLine(String[] responseLines, TyrusUpgradeResponse tyrusUpgradeResponse) throws
-            ParseException {
-        if (responseLines.length == 0) {
+    private void appendToLine(ByteBuffer data, int start, int end) {
+        final int length = end - start;
+        if (line == null || line.length < lineLength + length) {
+            final int size = Math.max(lineLength + length, line == null ? BUFFER_STEP_SIZE : line.length * 2);
+            line = line == null ? new byte[size] : Arrays.copyOf(line, size);
+        }
+
+        final int position = data.position();
+        data.position(start);
+        data.get(line, lineLength, length);
+        data.position(position);
+        lineLength += length;
+    }
+
+    /**
+     * Parse one line of the response.
+     *
+     * @param responseLine line without the line separator.
+     * @return {@code true} if the line was the last one (the empty line after headers).
+     * @throws ParseException when the status line is invalid.
+     */
+    private boolean parseLine(String responseLine) throws ParseException {
+        if (response == null) {
+            response = new TyrusUpgradeResponse();
+            parseFirstLine(responseLine, response);
+            return false;
+        }
+
+        if (responseLine.isEmpty()) {
+            return true;
+        }
+
+        parseHeader(responseLine, response);
+        return false;
+    }
+
+    private void parseFirstLine(String firstLine, TyrusUpgradeResponse tyrusUpgradeResponse) throws ParseException {
+        if (firstLine.isEmpty()) {
             throw new ParseException("Empty HTTP response");
         }
-        String firstLine = responseLines[0];
         int versionEndIndex = firstLine.indexOf(' ');
         if (versionEndIndex == -1) {
             throw new ParseException("Unexpected format of the first line of a HTTP response: " + firstLine);
@@ -146,101 +231,22 @@ class HttpResponseParser {
         }
         tyrusUpgradeResponse.setStatus(status);
         tyrusUpgradeResponse.setReasonPhrase(reasonPhrase);
-
     }
 
-    private Map<String, String> parseHeaders(List<String> headerLines) {
-        Map<String, String> headers = new HashMap<>();
-        for (String headerLine : headerLines) {
-            int separatorIndex = headerLine.indexOf(':');
-            if (separatorIndex != -1) {
-                String headerKey = headerLine.substring(0, separatorIndex);
-                String headerValue = headerLine.substring(separatorIndex + 1);
-
-                if (headers.containsKey(headerKey)) {
-                    headers.put(headerKey, headers.get(headerKey) + ", " + headerValue);
-                } else {
-                    headers.put(headerKey, headerValue);
-                }
-            }
-        }
-        return headers;
-    }
-
-    private String bufferToString() {
-        byte[] bytes = Utils.getRemainingArray(buffer);
-        String str;
-        try {
-            str = new String(bytes, ENCODING);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Unsupported encoding" + ENCODING, e);
+    private void parseHeader(String headerLine, TyrusUpgradeResponse tyrusUpgradeResponse) {
+        int separatorIndex = headerLine.indexOf(':');
+        if (separatorIndex == -1) {
+            return;
         }
-        return str;
-    }
-
-    void destroy() {
-        buffer = null;
-    }
-
-    void clear() {
-        buffer.clear();
-        buffer.flip();
-        complete = false;
-        findEndState = State.INIT;
-    }
 
-    private int getEndPosition(ByteBuffer buffer) {
-        byte[] bytes = buffer.array();
-
-        for (int i = buffer.position(); i < buffer.limit(); i++) {
-            byte b = bytes[i];
-            switch (findEndState) {
-                case INIT: {
-                    if (b == '\r') {
-                        findEndState = State.R;
-                    }
-                    break;
-                }
-                case R: {
-                    if (b == '\n') {
-                        findEndState = State.RN;
-                    } else {
-                        findEndReset(b);
-                    }
-                    break;
-                }
-                case RN: {
-                    if (b == '\r') {
-                        findEndState = State.RNR;
-                    } else {
-                        findEndState = State.INIT;
-                    }
-                    break;
-                }
-                case RNR: {
-                    if (b == '\n') {
-                        return i;
-                    } else {
-                        findEndReset(b);
-                    }
-                    break;
-                }
-            }
-        }
-        return -1;
-    }
+        String headerKey = headerLine.substring(0, separatorIndex);
+        List<String> headerValues = Utils.parseHeaderValue(headerLine.substring(separatorIndex + 1));
 
-    private void findEndReset(byte b) {
-        findEndState = State.INIT;
-        if (b == '\r') {
-            findEndState = State.R;
+        final List<String> values = tyrusUpgradeResponse.getHeaders().get(headerKey);
+        if (values == null) {
+            tyrusUpgradeResponse.getHeaders().put(headerKey, headerValues);
+        } else {
+            values.addAll(headerValues);
         }
     }
-
-    private enum State {
-        INIT,
-        R,
-        RN,
-        RNR,
-    }
 }
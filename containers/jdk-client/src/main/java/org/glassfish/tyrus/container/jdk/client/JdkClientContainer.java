@@ -121,6 +121,8 @@ public class JdkClientContainer implements ClientContainer {
 
         final Integer containerIdleTimeout =
                 Utils.getProperty(properties, ClientProperties.SHARED_CONTAINER_IDLE_TIMEOUT, Integer.class);
+        final Integer writeCoalescingLimit =
+                Utils.getProperty(properties, ClientProperties.WRITE_COALESCING_LIMIT, Integer.class);
 
         final ThreadPoolConfig finalThreadPoolConfig = threadPoolConfig;
         final Callable<Void> jdkConnector = new Callable<Void>() {
@@ -143,12 +145,12 @@ public class JdkClientContainer implements ClientContainer {
                     TransportFilter transportFilter =
                             createTransportFilter(SSL_INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout);
                     SslFilter sslFilter = createSslFilter(cec, properties, transportFilter, uri);
-                    writeQueue = createTaskQueueFilter(sslFilter);
+                    writeQueue = createTaskQueueFilter(sslFilter, writeCoalescingLimit);
 
                 } else {
                     TransportFilter transportFilter =
                             createTransportFilter(INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout);
-                    writeQueue = createTaskQueueFilter(transportFilter);
+                    writeQueue = createTaskQueueFilter(transportFilter, writeCoalescingLimit);
                 }
 
                 final ClientFilter clientFilter =
@@ -304,8 +306,8 @@ public class JdkClientContainer implements ClientContainer {
         return new TransportFilter(sslInputBufferSize, threadPoolConfig, containerIdleTimeout);
     }
 
-    private TaskQueueFilter createTaskQueueFilter(Filter downstreamFilter) {
-        return new TaskQueueFilter(downstreamFilter);
+    private TaskQueueFilter createTaskQueueFilter(Filter downstreamFilter, Integer writeCoalescingLimit) {
+        return new TaskQueueFilter(downstreamFilter, writeCoalescingLimit == null ? 0 : writeCoalescingLimit);
     }
 
     private ClientFilter createClientFilter(Map<String, Object> properties, Filter downstreamFilter,
@@ -170,6 +170,52 @@ class SslFilter extends Filter {
         }
     }
 
+    @Override
+    void write(final ByteBuffer[] applicationData, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        // before SSL is started write just passes through
+        if (!sslStarted) {
+            downstreamFilter.write(applicationData, completionHandler);
+            return;
+        }
+
+        handleWrite(networkOutputBuffer, applicationData, downstreamFilter, completionHandler);
+    }
+
+    private void handleWrite(final ByteBuffer networkOutputBuffer, final ByteBuffer[] applicationData,
+                             final Filter downstreamFilter,
+                             final CompletionHandler<ByteBuffer[]> completionHandler) {
+        try {
+            networkOutputBuffer.clear();
+            final SSLEngineResult wrapResult = sslEngine.wrap(applicationData, networkOutputBuffer);
+            // nothing is consumed when the engine is closed or the network buffer is too small; wrapping again
+            // would never make progress.
+            if (wrapResult.getStatus() != SSLEngineResult.Status.OK
+                    || (wrapResult.bytesConsumed() == 0 && hasRemaining(applicationData))) {
+                completionHandler.failed(new SSLException(
+                        "Application data could not be wrapped, SSL engine result: " + wrapResult.getStatus()));
+                return;
+            }
+            networkOutputBuffer.flip();
+            downstreamFilter.write(networkOutputBuffer, new CompletionHandler<ByteBuffer>() {
+                @Override
+                public void completed(ByteBuffer result) {
+                    if (hasRemaining(applicationData)) {
+                        handleWrite(networkOutputBuffer, applicationData, downstreamFilter, completionHandler);
+                    } else {
+                        completionHandler.completed(applicationData);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                    completionHandler.failed(throwable);
+                }
+            });
+        } catch (SSLException e) {
+            handleSslError(e);
+        }
+    }
+
     @Override
     void close() {
         if (!sslStarted) {
@@ -40,6 +40,9 @@
 package org.glassfish.tyrus.container.jdk.client;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -56,6 +59,9 @@ import org.glassfish.tyrus.spi.CompletionHandler;
  * methods called before {@link #close()} will be processed. Including {@link #startSsl()} methods in the queue ensures
  * that no {@link #write(java.nio.ByteBuffer, org.glassfish.tyrus.spi.CompletionHandler)} method will be passed to
  * {@link org.glassfish.tyrus.container.jdk.client.SslFilter} while it performs SSL handshake.
+ * <p/>
+ * When write coalescing is enabled, all write tasks waiting in the queue (up to configured number of bytes) are
+ * passed to the downstream filter as one gathering write and their completion handlers are notified once it completes.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
@@ -63,6 +69,7 @@ class TaskQueueFilter extends Filter {
 
     private final Queue<Task> taskQueue = new ConcurrentLinkedQueue<>();
     private final AtomicBoolean taskLock = new AtomicBoolean(false);
+    private final int coalescingLimit;
 
     /**
      * Constructor.
@@ -70,7 +77,19 @@ class TaskQueueFilter extends Filter {
      * @param downstreamFilter a filter that is positioned directly under this filter.
      */
     TaskQueueFilter(Filter downstreamFilter) {
+        this(downstreamFilter, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param downstreamFilter a filter that is positioned directly under this filter.
+     * @param coalescingLimit  maximal number of bytes written by one coalesced write. Write coalescing is disabled
+     *                         when {@code 0} or negative.
+     */
+    TaskQueueFilter(Filter downstreamFilter, int coalescingLimit) {
         super(downstreamFilter);
+        this.coalescingLimit = coalescingLimit;
     }
 
     @Override
@@ -81,15 +100,71 @@ class TaskQueueFilter extends Filter {
         }
     }
 
+    @Override
+    void write(ByteBuffer[] data, CompletionHandler<ByteBuffer[]> completionHandler) {
+        taskQueue.offer(new GatheringWriteTask(data, completionHandler));
+        if (taskLock.compareAndSet(false, true)) {
+            processTask();
+        }
+    }
+
     private void processTask() {
         final Task task = taskQueue.poll();
         if (task == null) {
             taskLock.set(false);
+
+            // a task might have been offered after the poll, but before the lock was released
+            if (!taskQueue.isEmpty() && taskLock.compareAndSet(false, true)) {
+                processTask();
+            }
             return;
         }
+
+        if (coalescingLimit > 0 && task instanceof QueuedWrite && taskQueue.peek() instanceof QueuedWrite) {
+            coalesce((QueuedWrite) task).execute(this);
+            return;
+        }
+
         task.execute(this);
     }
 
+    /**
+     * Join given write task with write tasks waiting in the queue.
+     * <p/>
+     * Only the thread holding the task lock polls the queue, so the task returned by {@link Queue#peek()} is the one
+     * which will be polled.
+     *
+     * @param first first write task.
+     * @return task writing data of the first task and all subsequent write tasks up to the coalescing limit.
+     */
+    private Task coalesce(QueuedWrite first) {
+        final List<QueuedWrite> writes = new ArrayList<>();
+        final List<ByteBuffer> buffers = new ArrayList<>();
+
+        long length = 0;
+        QueuedWrite write = first;
+        do {
+            writes.add(write);
+            for (ByteBuffer buffer : write.getBuffers()) {
+                buffers.add(buffer);
+                length += buffer.remaining();
+            }
+
+            final Task next = taskQueue.peek();
+            if (!(next instanceof QueuedWrite) || length + ((QueuedWrite) next).remaining() > coalescingLimit) {
+                break;
+            }
+
+            write = (QueuedWrite) taskQueue.poll();
+        } while (true);
+
+        if (writes.size() == 1) {
+            return first;
+        }
+
+        return new CoalescedWriteTask(buffers.toArray(new ByteBuffer[buffers.size()]), writes);
+    }
+
     @Override
     void close() {
         // close task
@@ -142,10 +217,42 @@ class TaskQueueFilter extends Filter {
         void execute(TaskQueueFilter queueFilter);
     }
 
+    /**
+     * A write task which can be coalesced with other write tasks.
+     */
+    static interface QueuedWrite extends Task {
+
+        /**
+         * Get buffers to be written.
+         *
+         * @return buffers to be written.
+         */
+        ByteBuffer[] getBuffers();
+
+        /**
+         * Get number of bytes to be written.
+         *
+         * @return number of bytes to be written.
+         */
+        long remaining();
+
+        /**
+         * Notify completion handler of the task about successful write.
+         */
+        void completed();
+
+        /**
+         * Notify completion handler of the task about failed write.
+         *
+         * @param throwable failure.
+         */
+        void failed(Throwable throwable);
+    }
+
     /**
      * A task that writes data to the downstreamFilter.
      */
-    static class WriteTask implements Task {
+    static class WriteTask implements QueuedWrite {
         private final ByteBuffer data;
         private final org.glassfish.tyrus.spi.CompletionHandler<ByteBuffer> completionHandler;
 
@@ -185,9 +292,140 @@ class TaskQueueFilter extends Filter {
             return completionHandler;
         }
 
+        @Override
+        public ByteBuffer[] getBuffers() {
+            return new ByteBuffer[]{data};
+        }
+
+        @Override
+        public long remaining() {
+            return data.remaining();
+        }
+
+        @Override
+        public void completed() {
+            completionHandler.completed(data);
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            completionHandler.failed(throwable);
+        }
+
         @Override
         public String toString() {
             return "WriteTask{data=" + data + ", completionHandler=" + completionHandler + '}';
         }
     }
+
+    /**
+     * A task that writes data from more buffers to the downstreamFilter.
+     */
+    static class GatheringWriteTask implements QueuedWrite {
+        private final ByteBuffer[] data;
+        private final CompletionHandler<ByteBuffer[]> completionHandler;
+
+        GatheringWriteTask(ByteBuffer[] data, CompletionHandler<ByteBuffer[]> completionHandler) {
+            this.data = data;
+            this.completionHandler = completionHandler;
+        }
+
+        @Override
+        public void execute(final TaskQueueFilter queueFilter) {
+            queueFilter.downstreamFilter.write(data, new CompletionHandler<ByteBuffer[]>() {
+
+                @Override
+                public void failed(Throwable throwable) {
+                    completionHandler.failed(throwable);
+                    queueFilter.processTask();
+                }
+
+                @Override
+                public void completed(ByteBuffer[] result) {
+                    if (hasRemaining(result)) {
+                        execute(queueFilter);
+                        return;
+                    }
+
+                    completionHandler.completed(data);
+                    queueFilter.processTask();
+                }
+            });
+        }
+
+        @Override
+        public ByteBuffer[] getBuffers() {
+            return data;
+        }
+
+        @Override
+        public long remaining() {
+            long remaining = 0;
+            for (ByteBuffer buffer : data) {
+                remaining += buffer.remaining();
+            }
+            return remaining;
+        }
+
+        @Override
+        public void completed() {
+            completionHandler.completed(data);
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            completionHandler.failed(throwable);
+        }
+
+        @Override
+        public String toString() {
+            return "GatheringWriteTask{data=" + Arrays.toString(data) + ", completionHandler=" + completionHandler
+                    + '}';
+        }
+    }
+
+    /**
+     * A task that writes data of more write tasks by one gathering write.
+     */
+    static class CoalescedWriteTask implements Task {
+        private final ByteBuffer[] data;
+        private final List<QueuedWrite> writes;
+
+        CoalescedWriteTask(ByteBuffer[] data, List<QueuedWrite> writes) {
+            this.data = data;
+            this.writes = writes;
+        }
+
+        @Override
+        public void execute(final TaskQueueFilter queueFilter) {
+            queueFilter.downstreamFilter.write(data, new CompletionHandler<ByteBuffer[]>() {
+
+                @Override
+                public void failed(Throwable throwable) {
+                    for (QueuedWrite write : writes) {
+                        write.failed(throwable);
+                    }
+                    queueFilter.processTask();
+                }
+
+                @Override
+                public void completed(ByteBuffer[] result) {
+                    if (hasRemaining(result)) {
+                        execute(queueFilter);
+                        return;
+                    }
+
+                    for (QueuedWrite write : writes) {
+                        write.completed();
+                    }
+                    queueFilter.processTask();
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "CoalescedWriteTask{writes=" + writes.size() + ", data=" + Arrays.toString(data) + '}';
+        }
+    }
 }
@@ -148,6 +148,27 @@ class TransportFilter extends Filter {
         });
     }
 
+    @Override
+    void write(ByteBuffer[] data, final org.glassfish.tyrus.spi.CompletionHandler<ByteBuffer[]> completionHandler) {
+        socketChannel.write(data, 0, data.length, 0, TimeUnit.MILLISECONDS, data,
+                            new CompletionHandler<Long, ByteBuffer[]>() {
+
+                                @Override
+                                public void completed(Long result, ByteBuffer[] buffers) {
+                                    if (hasRemaining(buffers)) {
+                                        write(buffers, completionHandler);
+                                        return;
+                                    }
+                                    completionHandler.completed(buffers);
+                                }
+
+                                @Override
+                                public void failed(Throwable exc, ByteBuffer[] buffers) {
+                                    completionHandler.failed(exc);
+                                }
+                            });
+    }
+
     @Override
     void close() {
         if (!socketChannel.isOpen()) {
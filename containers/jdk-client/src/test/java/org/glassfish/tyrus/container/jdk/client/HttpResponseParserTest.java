@@ -0,0 +1,191 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2014-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.glassfish.tyrus.core.TyrusUpgradeResponse;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link HttpResponseParser}.
+ */
+public class HttpResponseParserTest {
+
+    private static final String RESPONSE = "HTTP/1.1 101 Switching Protocols\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo=\r\n"
+            + "Sec-WebSocket-Extensions: a; x=1\r\n"
+            + "sec-websocket-extensions: b, c\r\n"
+            + "X-Line: with\rcarriage return\r\n"
+            + "\r\n";
+
+    // beginning of a text frame sent by the server right after the response.
+    private static final byte[] FRAME = {(byte) 0x81, 0x02, 'h', 'i'};
+
+    @Test
+    public void testWholeResponse() throws ParseException {
+        final HttpResponseParser parser = new HttpResponseParser();
+        // slice with non-zero array offset.
+        final ByteBuffer data = ((ByteBuffer) ByteBuffer.wrap(concat(FRAME, bytes(RESPONSE))).position(FRAME.length)).slice();
+
+        parser.appendData(data);
+
+        assertTrue(parser.isComplete());
+        assertFalse(data.hasRemaining());
+        assertResponse(parser.parseUpgradeResponse());
+    }
+
+    @Test
+    public void testSplitResponse() throws ParseException {
+        final int responseLength = bytes(RESPONSE).length;
+        final byte[] response = concat(bytes(RESPONSE), FRAME);
+
+        // every split of the response, the first part is a slice of an array, the second one a direct buffer.
+        for (int split = 1; split < responseLength; split++) {
+            final HttpResponseParser parser = new HttpResponseParser();
+
+            final ByteBuffer first = ByteBuffer.wrap(response, 0, split).slice();
+            parser.appendData(first);
+            assertFalse(parser.isComplete());
+            assertFalse(first.hasRemaining());
+
+            final ByteBuffer second = ByteBuffer.allocateDirect(response.length - split);
+            second.put(response, split, response.length - split).flip();
+            parser.appendData(second);
+
+            assertTrue(parser.isComplete());
+            assertResponse(parser.parseUpgradeResponse());
+            assertFrame(second);
+        }
+    }
+
+    @Test
+    public void testByteByByte() throws ParseException {
+        final HttpResponseParser parser = new HttpResponseParser();
+        final byte[] response = bytes(RESPONSE);
+
+        for (byte b : response) {
+            assertFalse(parser.isComplete());
+            parser.appendData(ByteBuffer.wrap(new byte[]{b}));
+        }
+
+        assertTrue(parser.isComplete());
+        assertResponse(parser.parseUpgradeResponse());
+    }
+
+    @Test
+    public void testClear() throws ParseException {
+        final HttpResponseParser parser = new HttpResponseParser();
+        parser.appendData(ByteBuffer.wrap(bytes("HTTP/1.1 200 Connection established\r\n\r\n")));
+        assertTrue(parser.isComplete());
+        assertEquals(200, parser.parseUpgradeResponse().getStatus());
+
+        parser.clear();
+        assertFalse(parser.isComplete());
+
+        final ByteBuffer data = ByteBuffer.wrap(concat(bytes(RESPONSE), FRAME));
+        parser.appendData(data);
+        assertResponse(parser.parseUpgradeResponse());
+        assertFrame(data);
+    }
+
+    @Test
+    public void testInvalidStatusLine() {
+        final HttpResponseParser parser = new HttpResponseParser();
+        try {
+            parser.appendData(ByteBuffer.wrap(bytes("HTTP/1.1 abc Switching Protocols\r\n")));
+            fail();
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTooLargeResponse() throws ParseException {
+        final HttpResponseParser parser = new HttpResponseParser();
+        parser.appendData(ByteBuffer.wrap(bytes("HTTP/1.1 101 Switching Protocols\r\n")));
+
+        final byte[] header = bytes("X-Large: " + new String(new char[1000]).replace('\0', 'A') + "\r\n");
+        try {
+            for (int i = 0; i < HttpResponseParser.BUFFER_MAX_SIZE / header.length + 1; i++) {
+                parser.appendData(ByteBuffer.wrap(header));
+            }
+            fail();
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    private static void assertResponse(TyrusUpgradeResponse response) {
+        assertEquals(101, response.getStatus());
+        assertEquals("Switching Protocols", response.getReasonPhrase());
+        assertEquals(Arrays.asList("websocket"), response.getHeaders().get("Upgrade"));
+        assertEquals(Arrays.asList("Upgrade"), response.getHeaders().get("Connection"));
+        assertEquals(Arrays.asList("s3pPLMBiTxaQ9kYGzzhZRbK+xOo="), response.getHeaders().get("sec-websocket-accept"));
+        assertEquals(Arrays.asList("a; x=1", "b", "c"), response.getHeaders().get("Sec-WebSocket-Extensions"));
+        assertEquals(Arrays.asList("with\rcarriage return"), response.getHeaders().get("X-Line"));
+        assertEquals(5, response.getHeaders().size());
+    }
+
+    private static void assertFrame(ByteBuffer data) {
+        final byte[] remaining = new byte[data.remaining()];
+        data.get(remaining);
+        assertTrue(Arrays.equals(FRAME, remaining));
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        final byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
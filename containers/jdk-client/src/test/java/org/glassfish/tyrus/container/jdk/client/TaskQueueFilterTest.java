@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests write coalescing in {@link TaskQueueFilter}.
+ */
+public class TaskQueueFilterTest {
+
+    @Test
+    public void testQueuedWritesCoalesced() {
+        final RecordingFilter downstream = new RecordingFilter();
+        final TaskQueueFilter filter = new TaskQueueFilter(downstream, 1024);
+        final AtomicInteger completed = new AtomicInteger(0);
+
+        // the first write goes directly to the downstream filter, the others wait in the queue
+        for (int i = 0; i < 4; i++) {
+            filter.write(ByteBuffer.wrap(new byte[10]), new CountingHandler(completed));
+        }
+
+        assertEquals(1, downstream.writes.size());
+
+        downstream.completeNext();
+        assertEquals(1, completed.get());
+        assertEquals(2, downstream.writes.size());
+        assertEquals(3, downstream.writes.get(1).length);
+
+        downstream.completeNext();
+        assertEquals(4, completed.get());
+    }
+
+    @Test
+    public void testCoalescingLimit() {
+        final RecordingFilter downstream = new RecordingFilter();
+        final TaskQueueFilter filter = new TaskQueueFilter(downstream, 20);
+        final AtomicInteger completed = new AtomicInteger(0);
+
+        for (int i = 0; i < 5; i++) {
+            filter.write(ByteBuffer.wrap(new byte[10]), new CountingHandler(completed));
+        }
+
+        downstream.completeNext();
+        assertEquals(2, downstream.writes.get(1).length);
+
+        downstream.completeNext();
+        assertEquals(3, completed.get());
+        assertEquals(3, downstream.writes.size());
+        assertEquals(2, downstream.writes.get(2).length);
+
+        downstream.completeNext();
+        assertEquals(5, completed.get());
+    }
+
+    @Test
+    public void testCoalescingDisabled() {
+        final RecordingFilter downstream = new RecordingFilter();
+        final TaskQueueFilter filter = new TaskQueueFilter(downstream);
+        final AtomicInteger completed = new AtomicInteger(0);
+
+        for (int i = 0; i < 3; i++) {
+            filter.write(ByteBuffer.wrap(new byte[10]), new CountingHandler(completed));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            downstream.completeNext();
+        }
+
+        assertEquals(3, completed.get());
+        assertEquals(3, downstream.writes.size());
+        for (ByteBuffer[] write : downstream.writes) {
+            assertEquals(1, write.length);
+        }
+    }
+
+    /**
+     * Filter recording all writes and completing them only when asked to.
+     */
+    private static class RecordingFilter extends Filter {
+
+        private final List<ByteBuffer[]> writes = new ArrayList<>();
+        private final List<Runnable> pending = new ArrayList<>();
+
+        RecordingFilter() {
+            super(null);
+        }
+
+        @Override
+        void write(final ByteBuffer data, final CompletionHandler<ByteBuffer> completionHandler) {
+            writes.add(new ByteBuffer[]{data});
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    data.position(data.limit());
+                    completionHandler.completed(data);
+                }
+            });
+        }
+
+        @Override
+        void write(final ByteBuffer[] data, final CompletionHandler<ByteBuffer[]> completionHandler) {
+            writes.add(data);
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (ByteBuffer buffer : data) {
+                        buffer.position(buffer.limit());
+                    }
+                    completionHandler.completed(data);
+                }
+            });
+        }
+
+        void completeNext() {
+            pending.remove(0).run();
+        }
+    }
+
+    private static class CountingHandler extends CompletionHandler<ByteBuffer> {
+
+        private final AtomicInteger counter;
+
+        CountingHandler(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void completed(ByteBuffer result) {
+            counter.incrementAndGet();
+        }
+    }
+}
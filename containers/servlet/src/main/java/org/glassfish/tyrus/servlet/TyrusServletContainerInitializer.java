@@ -60,6 +60,7 @@ import javax.servlet.ServletException;
 import javax.servlet.annotation.HandlesTypes;
 
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.OutboundOverflowPolicy;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.server.TyrusServerContainer;
@@ -98,8 +99,17 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
         final Integer maxSessionsPerApp = getIntContextParam(ctx, TyrusWebSocketEngine.MAX_SESSIONS_PER_APP);
         final Integer maxSessionsPerRemoteAddr = getIntContextParam(
                 ctx, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR);
+        final Integer maxSessionRatePerRemoteAddr = getIntContextParam(
+                ctx, TyrusWebSocketEngine.MAX_SESSION_RATE_PER_REMOTE_ADDR);
+        final Integer maxSessionBurstPerRemoteAddr = getIntContextParam(
+                ctx, TyrusWebSocketEngine.MAX_SESSION_BURST_PER_REMOTE_ADDR);
         final Boolean parallelBroadcastEnabled = getBooleanContextParam(
                 ctx, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED);
+        final Integer batchSize = getIntContextParam(ctx, TyrusWebSocketEngine.BATCH_SIZE);
+        final Integer batchLingerTime = getIntContextParam(ctx, TyrusWebSocketEngine.BATCH_LINGER_TIME);
+        final Integer maxOutboundBytes = getIntContextParam(ctx, TyrusWebSocketEngine.MAX_OUTBOUND_BYTES);
+        final OutboundOverflowPolicy outboundOverflowPolicy = getEnumContextParam(
+                ctx, TyrusWebSocketEngine.OUTBOUND_OVERFLOW_POLICY, OutboundOverflowPolicy.class, null);
         final DebugContext.TracingType tracingType = getEnumContextParam(
                 ctx, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class, DebugContext.TracingType.OFF);
         final DebugContext.TracingThreshold tracingThreshold =
@@ -115,7 +125,13 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                                         .incomingBufferSize(incomingBufferSize)
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
+                                        .maxSessionRatePerRemoteAddr(maxSessionRatePerRemoteAddr)
+                                        .maxSessionBurstPerRemoteAddr(maxSessionBurstPerRemoteAddr)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .batchSize(batchSize)
+                                        .batchLingerTime(batchLingerTime)
+                                        .maxOutboundBytes(maxOutboundBytes)
+                                        .outboundOverflowPolicy(outboundOverflowPolicy)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
@@ -142,8 +158,15 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
         }
         LOGGER.config("WSADL enabled: " + wsadlEnabled);
 
+        Integer writeCoalescingLimit = getIntContextParam(ctx, TyrusWebSocketEngine.WRITE_COALESCING_LIMIT);
+        if (writeCoalescingLimit == null) {
+            writeCoalescingLimit = 0;
+        }
+        LOGGER.config("Write coalescing limit: " + writeCoalescingLimit);
+
         TyrusServletFilter filter =
-                new TyrusServletFilter((TyrusWebSocketEngine) serverContainer.getWebSocketEngine(), wsadlEnabled);
+                new TyrusServletFilter((TyrusWebSocketEngine) serverContainer.getWebSocketEngine(), wsadlEnabled,
+                                       writeCoalescingLimit);
 
         // HttpSessionListener registration
         ctx.addListener(filter);
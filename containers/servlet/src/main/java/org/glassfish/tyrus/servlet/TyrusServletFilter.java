@@ -90,6 +90,7 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
     private static final Logger LOGGER = Logger.getLogger(TyrusServletFilter.class.getName());
     private final TyrusWebSocketEngine engine;
     private final boolean wsadlEnabled;
+    private final int writeCoalescingLimit;
 
     // I don't like this map, but it seems like it is necessary. I am forced to handle subscriptions
     // for HttpSessionListener because the listener itself must be registered *before* ServletContext
@@ -108,8 +109,13 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
     }
 
     TyrusServletFilter(TyrusWebSocketEngine engine, boolean wsadlEnabled) {
+        this(engine, wsadlEnabled, 0);
+    }
+
+    TyrusServletFilter(TyrusWebSocketEngine engine, boolean wsadlEnabled, int writeCoalescingLimit) {
         this.engine = engine;
         this.wsadlEnabled = wsadlEnabled;
+        this.writeCoalescingLimit = writeCoalescingLimit;
     }
 
     @Override
@@ -210,7 +216,7 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
 
             final TyrusHttpUpgradeHandlerProxy handler = new TyrusHttpUpgradeHandlerProxy();
 
-            final TyrusServletWriter webSocketConnection = new TyrusServletWriter(handler);
+            final TyrusServletWriter webSocketConnection = new TyrusServletWriter(handler, writeCoalescingLimit);
 
             final RequestContext requestContext = RequestContext.Builder
                     .create()
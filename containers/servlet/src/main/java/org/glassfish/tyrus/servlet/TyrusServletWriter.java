@@ -41,8 +41,10 @@ package org.glassfish.tyrus.servlet;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,12 +56,16 @@ import org.glassfish.tyrus.spi.Writer;
 
 /**
  * {@link org.glassfish.tyrus.spi.Writer} implementation used in Servlet integration.
+ * <p/>
+ * When write coalescing is enabled, frames queued while the {@link ServletOutputStream} is not ready are written by
+ * one write (up to the configured number of bytes) when it becomes ready again.
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
 class TyrusServletWriter extends Writer implements WriteListener {
 
     private final TyrusHttpUpgradeHandler tyrusHttpUpgradeHandler;
+    private final int coalescingLimit;
     private final Deque<QueuedFrame> queue = new LinkedList<QueuedFrame>();
 
     private static final Logger LOGGER = Logger.getLogger(TyrusServletWriter.class.getName());
@@ -77,10 +83,69 @@ class TyrusServletWriter extends Writer implements WriteListener {
     private static class QueuedFrame {
         public final CompletionHandler<ByteBuffer> completionHandler;
         public final ByteBuffer dataFrame;
+        public final CompletionHandler<ByteBuffer[]> gatheringCompletionHandler;
+        public final ByteBuffer[] dataFrames;
 
         QueuedFrame(CompletionHandler<ByteBuffer> completionHandler, ByteBuffer dataFrame) {
             this.completionHandler = completionHandler;
             this.dataFrame = dataFrame;
+            this.gatheringCompletionHandler = null;
+            this.dataFrames = null;
+        }
+
+        QueuedFrame(CompletionHandler<ByteBuffer[]> completionHandler, ByteBuffer[] dataFrames) {
+            this.completionHandler = null;
+            this.dataFrame = null;
+            this.gatheringCompletionHandler = completionHandler;
+            this.dataFrames = dataFrames;
+        }
+
+        void write(TyrusServletWriter writer) {
+            if (dataFrames == null) {
+                writer._write(dataFrame, completionHandler);
+            } else {
+                writer._write(dataFrames, gatheringCompletionHandler);
+            }
+        }
+
+        long remaining() {
+            if (dataFrames == null) {
+                return dataFrame.remaining();
+            }
+
+            long remaining = 0;
+            for (ByteBuffer buffer : dataFrames) {
+                remaining += buffer.remaining();
+            }
+            return remaining;
+        }
+
+        void copyTo(ByteBuffer target) {
+            if (dataFrames == null) {
+                target.put(dataFrame.duplicate());
+            } else {
+                for (ByteBuffer buffer : dataFrames) {
+                    target.put(buffer.duplicate());
+                }
+            }
+        }
+
+        void completed() {
+            if (completionHandler != null) {
+                completionHandler.completed(dataFrame);
+            }
+            if (gatheringCompletionHandler != null) {
+                gatheringCompletionHandler.completed(dataFrames);
+            }
+        }
+
+        void failed(Throwable t) {
+            if (completionHandler != null) {
+                completionHandler.failed(t);
+            }
+            if (gatheringCompletionHandler != null) {
+                gatheringCompletionHandler.failed(t);
+            }
         }
     }
 
@@ -90,7 +155,19 @@ class TyrusServletWriter extends Writer implements WriteListener {
      * @param tyrusHttpUpgradeHandler encapsulated {@link TyrusHttpUpgradeHandler} instance.
      */
     public TyrusServletWriter(TyrusHttpUpgradeHandler tyrusHttpUpgradeHandler) {
+        this(tyrusHttpUpgradeHandler, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tyrusHttpUpgradeHandler encapsulated {@link TyrusHttpUpgradeHandler} instance.
+     * @param coalescingLimit         maximal number of bytes written by one coalesced write. Write coalescing is
+     *                                disabled when {@code 0} or negative.
+     */
+    public TyrusServletWriter(TyrusHttpUpgradeHandler tyrusHttpUpgradeHandler, int coalescingLimit) {
         this.tyrusHttpUpgradeHandler = tyrusHttpUpgradeHandler;
+        this.coalescingLimit = coalescingLimit;
     }
 
     @Override
@@ -98,10 +175,57 @@ class TyrusServletWriter extends Writer implements WriteListener {
         LOGGER.log(Level.FINEST, "OnWritePossible called");
 
         while (!queue.isEmpty() && servletOutputStream.isReady()) {
+            if (coalescingLimit > 0 && queue.size() > 1) {
+                writeCoalesced();
+                continue;
+            }
+
             final QueuedFrame queuedFrame = queue.poll();
             assert queuedFrame != null;
 
-            _write(queuedFrame.dataFrame, queuedFrame.completionHandler);
+            queuedFrame.write(this);
+        }
+    }
+
+    /**
+     * Write queued frames (up to the coalescing limit) by one write. The first queued frame is written directly,
+     * without copying, when no other frame fits under the limit together with it.
+     */
+    private void writeCoalesced() {
+        final QueuedFrame first = queue.poll();
+        long length = first.remaining();
+
+        if (queue.isEmpty() || length + queue.peek().remaining() > coalescingLimit) {
+            first.write(this);
+            return;
+        }
+
+        final List<QueuedFrame> frames = new ArrayList<QueuedFrame>();
+        frames.add(first);
+
+        do {
+            final QueuedFrame queuedFrame = queue.poll();
+            frames.add(queuedFrame);
+            length += queuedFrame.remaining();
+        } while (!queue.isEmpty() && length + queue.peek().remaining() <= coalescingLimit);
+
+        final ByteBuffer joined = ByteBuffer.allocate((int) length);
+        for (QueuedFrame queuedFrame : frames) {
+            queuedFrame.copyTo(joined);
+        }
+
+        try {
+            servletOutputStream.write(joined.array(), 0, joined.position());
+            servletOutputStream.flush();
+        } catch (Exception e) {
+            for (QueuedFrame queuedFrame : frames) {
+                queuedFrame.failed(e);
+            }
+            return;
+        }
+
+        for (QueuedFrame queuedFrame : frames) {
+            queuedFrame.completed();
         }
     }
 
@@ -111,13 +235,37 @@ class TyrusServletWriter extends Writer implements WriteListener {
 
         QueuedFrame queuedFrame;
         while ((queuedFrame = queue.poll()) != null) {
-            queuedFrame.completionHandler.failed(t);
+            queuedFrame.failed(t);
         }
     }
 
     @Override
     public synchronized void write(final ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+        if (!obtainOutputStream(completionHandler)) {
+            return;
+        }
+
+        if (queue.isEmpty() && servletOutputStream.isReady()) {
+            _write(buffer, completionHandler);
+        } else {
+            enqueue(new QueuedFrame(completionHandler, buffer));
+        }
+    }
+
+    @Override
+    public synchronized void write(final ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+        if (!obtainOutputStream(completionHandler)) {
+            return;
+        }
 
+        if (queue.isEmpty() && servletOutputStream.isReady()) {
+            _write(buffers, completionHandler);
+        } else {
+            enqueue(new QueuedFrame(completionHandler, buffers));
+        }
+    }
+
+    private boolean obtainOutputStream(CompletionHandler<?> completionHandler) {
         // first write
         if (servletOutputStream == null) {
             try {
@@ -125,40 +273,51 @@ class TyrusServletWriter extends Writer implements WriteListener {
             } catch (IOException e) {
                 LOGGER.log(Level.CONFIG, "ServletOutputStream cannot be obtained", e);
                 completionHandler.failed(e);
-                return;
+                return false;
             }
         }
 
-        if (queue.isEmpty() && servletOutputStream.isReady()) {
-            _write(buffer, completionHandler);
-        } else {
-            final QueuedFrame queuedFrame = new QueuedFrame(completionHandler, buffer);
-            queue.offer(queuedFrame);
+        return true;
+    }
 
-            if (!isListenerSet) {
-                isListenerSet = true;
-                servletOutputStream.setWriteListener(this);
-            }
+    private void enqueue(QueuedFrame queuedFrame) {
+        queue.offer(queuedFrame);
+
+        if (!isListenerSet) {
+            isListenerSet = true;
+            servletOutputStream.setWriteListener(this);
         }
     }
 
     private void _write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
 
         try {
-            if (buffer.hasArray()) {
-                byte[] array = buffer.array();
-                servletOutputStream.write(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
-            } else {
-                final int remaining = buffer.remaining();
-                final byte[] array = new byte[remaining];
-                buffer.get(array);
-                servletOutputStream.write(array);
+            writeBuffer(buffer);
+            servletOutputStream.flush();
+
+            if (completionHandler != null) {
+                completionHandler.completed(buffer);
+            }
+        } catch (Exception e) {
+            if (completionHandler != null) {
+                completionHandler.failed(e);
             }
+        }
+    }
+
+    private void _write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
 
+        try {
+            // write is allowed only once per positive isReady() check - the buffers are written by one write.
+            if (buffers.length == 1) {
+                writeBuffer(buffers[0]);
+            } else {
+                writeBuffer(join(buffers));
+            }
             servletOutputStream.flush();
 
             if (completionHandler != null) {
-                completionHandler.completed(buffer);
+                completionHandler.completed(buffers);
             }
         } catch (Exception e) {
             if (completionHandler != null) {
@@ -167,6 +326,32 @@ class TyrusServletWriter extends Writer implements WriteListener {
         }
     }
 
+    private static ByteBuffer join(ByteBuffer[] buffers) {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer joined = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : buffers) {
+            joined.put(buffer.duplicate());
+        }
+        joined.flip();
+        return joined;
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            servletOutputStream.write(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            final int remaining = buffer.remaining();
+            final byte[] array = new byte[remaining];
+            buffer.get(array);
+            servletOutputStream.write(array);
+        }
+    }
+
     @Override
     public void close() {
         try {
@@ -0,0 +1,238 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+/**
+ * Aggregate result of a broadcast.
+ * <p/>
+ * Instead of a future for every recipient, the broadcast returns one instance of this class, which counts the sends
+ * which succeeded, failed or are still pending. The instance is also a {@link Future}, which is completed (always
+ * successfully) once all the sends are completed; failures can be observed by {@link #getFailed()} or by {@link
+ * FailureListener} passed to the broadcast.
+ *
+ * @see TyrusSession#broadcastAsync(PreparedMessage, FailureListener)
+ */
+public final class BroadcastResult implements Future<Void> {
+
+    /**
+     * Listener notified about every failed send.
+     */
+    public static interface FailureListener {
+
+        /**
+         * Called when the message could not be sent to a session.
+         *
+         * @param session   session to which the message could not be sent.
+         * @param throwable failure.
+         */
+        void onFailure(Session session, Throwable throwable);
+    }
+
+    private final TyrusFuture<Void> future = new TyrusFuture<Void>();
+    private final AtomicInteger started = new AtomicInteger(0);
+    private final AtomicInteger succeeded = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+
+    /**
+     * Sends which are not completed yet plus one for every fan-out task which is not finished yet (including the one
+     * started by the constructor).
+     */
+    private final AtomicInteger outstanding = new AtomicInteger(1);
+    private final FailureListener failureListener;
+
+    /**
+     * Handler shared by all the sends when no {@link FailureListener} is set.
+     */
+    private final SendHandler sendHandler = new SendHandler() {
+        @Override
+        public void onResult(SendResult result) {
+            if (result.isOK()) {
+                sendSucceeded();
+            } else {
+                sendFailed(null, result.getException());
+            }
+        }
+    };
+
+    /**
+     * Create new result; the first fan-out task is started.
+     *
+     * @param failureListener listener notified about failed sends, can be {@code null}.
+     */
+    BroadcastResult(FailureListener failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Send the message to given session.
+     *
+     * @param message   message to be sent.
+     * @param webSocket socket to be used for sending the message.
+     * @param session   session of the socket, used only for notifying {@link FailureListener}.
+     */
+    void send(PreparedMessage message, TyrusWebSocket webSocket, final Session session) {
+        started.incrementAndGet();
+        outstanding.incrementAndGet();
+
+        try {
+            if (failureListener == null) {
+                message.send(webSocket, sendHandler);
+            } else {
+                message.send(webSocket, new SendHandler() {
+                    @Override
+                    public void onResult(SendResult result) {
+                        if (result.isOK()) {
+                            sendSucceeded();
+                        } else {
+                            sendFailed(session, result.getException());
+                        }
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            // session closed in the meantime.
+            sendFailed(session, e);
+        }
+    }
+
+    /**
+     * Fan-out task was started; {@link #taskFinished()} has to be called when it finishes.
+     */
+    void taskStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Fan-out task finished - all its sends were started.
+     */
+    void taskFinished() {
+        decrementOutstanding();
+    }
+
+    /**
+     * Get the number of sessions to which the message was sent successfully.
+     *
+     * @return number of successful sends.
+     */
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    /**
+     * Get the number of sessions to which the message could not be sent.
+     *
+     * @return number of failed sends.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Get the number of sends which were started, but are not completed yet.
+     *
+     * @return number of pending sends.
+     */
+    public int getPending() {
+        return started.get() - succeeded.get() - failed.get();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+        return future.get();
+    }
+
+    @Override
+    public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastResult{succeeded=" + succeeded + ", failed=" + failed + ", pending=" + getPending() + '}';
+    }
+
+    private void sendSucceeded() {
+        succeeded.incrementAndGet();
+        decrementOutstanding();
+    }
+
+    private void sendFailed(Session session, Throwable throwable) {
+        failed.incrementAndGet();
+
+        try {
+            if (failureListener != null) {
+                failureListener.onFailure(session, throwable);
+            }
+        } finally {
+            decrementOutstanding();
+        }
+    }
+
+    private void decrementOutstanding() {
+        if (outstanding.decrementAndGet() == 0) {
+            future.setResult(null);
+        }
+    }
+}
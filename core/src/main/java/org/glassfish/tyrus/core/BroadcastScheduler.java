@@ -0,0 +1,264 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the sends of a broadcast on an executor.
+ * <p/>
+ * Recipients are not divided into fixed chunks up front. Every worker repeatedly claims the next chunk of recipients
+ * from the shared iterator, so a worker which got cheap sends takes over the work of a slower one instead of waiting
+ * for it. Size of the chunk adapts to the measured cost of one send - a chunk should take about {@link
+ * #TARGET_CHUNK_NANOS} - and shrinks when only a little work is left, so that the workers finish at about the same
+ * time.
+ * <p/>
+ * The calling thread only submits the workers and returns; broadcasts which are too small to be split are executed
+ * by the calling thread.
+ */
+class BroadcastScheduler {
+
+    /**
+     * Single operation executed for every item of a broadcast.
+     *
+     * @param <T> type of the item.
+     */
+    static interface Task<T> {
+
+        /**
+         * Execute the operation on given item.
+         *
+         * @param item item of the broadcast.
+         */
+        void execute(T item);
+    }
+
+    /**
+     * Minimal number of items claimed by a worker at once.
+     */
+    static final int MIN_CHUNK = 16;
+
+    /**
+     * Maximal number of items claimed by a worker at once.
+     */
+    static final int MAX_CHUNK = 4096;
+
+    /**
+     * Time one chunk should take to execute. Long enough to make claiming of the chunk cheap, short enough to let
+     * idle workers take over the rest of the work.
+     */
+    static final long TARGET_CHUNK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final long INITIAL_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(2);
+
+    private final int parallelism;
+
+    /**
+     * Exponentially weighted moving average of the time needed for executing the task on one item. Updates are not
+     * atomic, an update lost by a race does not matter for an estimate.
+     */
+    private volatile long costNanos = INITIAL_COST_NANOS;
+
+    /**
+     * Create new scheduler using all available processors.
+     */
+    BroadcastScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create new scheduler.
+     *
+     * @param parallelism maximal number of workers executing one broadcast.
+     */
+    BroadcastScheduler(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Execute the task on all the items.
+     * <p/>
+     * The method does not wait for the workers; {@code result}, when set, is informed about every started and
+     * finished worker.
+     *
+     * @param items    items of the broadcast. Iterator does not have to be thread safe, but it has to be weakly
+     *                 consistent when the underlying collection can be modified concurrently.
+     * @param size     estimated number of the items.
+     * @param task     task executed for every item.
+     * @param executor executor running the workers. The workers are executed by the calling thread when {@code
+     *                 null}.
+     * @param result   result of the broadcast, can be {@code null}.
+     * @param <T>      type of the item.
+     */
+    <T> void execute(Iterator<T> items, int size, Task<? super T> task, Executor executor, BroadcastResult result) {
+        final int workers = executor == null ? 1 : getWorkerCount(size);
+        final Run<T> run = new Run<T>(items, size, workers, task, result);
+
+        if (workers == 1) {
+            run.work();
+            return;
+        }
+
+        for (int i = 0; i < workers; i++) {
+            if (result != null) {
+                result.taskStarted();
+            }
+            try {
+                executor.execute(run);
+            } catch (RejectedExecutionException e) {
+                run.run();
+            }
+        }
+    }
+
+    /**
+     * Get the number of workers used for a broadcast to given number of items.
+     *
+     * @param size number of the items.
+     * @return number of workers.
+     */
+    int getWorkerCount(int size) {
+        final int chunkSize = getChunkSize(Integer.MAX_VALUE, 1);
+        return (int) Math.max(1, Math.min(parallelism, ((long) size + chunkSize - 1) / chunkSize));
+    }
+
+    /**
+     * Get the number of items the next claimed chunk should contain.
+     *
+     * @param remaining estimated number of items which were not claimed yet.
+     * @param workers   number of workers executing the broadcast.
+     * @return size of the next chunk.
+     */
+    int getChunkSize(int remaining, int workers) {
+        // leave at least the same amount of work for the others.
+        final long guided = remaining / (2L * workers);
+        final long chunk = Math.min(TARGET_CHUNK_NANOS / costNanos, guided);
+        return (int) Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, chunk));
+    }
+
+    /**
+     * Get the estimated time of executing the task on one item.
+     *
+     * @return estimated time in nanoseconds.
+     */
+    long getCostNanos() {
+        return costNanos;
+    }
+
+    /**
+     * Record the time a chunk took.
+     *
+     * @param count number of items of the chunk.
+     * @param nanos time of executing the task on all the items of the chunk.
+     */
+    void recordChunk(int count, long nanos) {
+        final long cost = costNanos;
+        final long sample = Math.max(1, nanos / count);
+        costNanos = Math.max(1, cost + (sample - cost) / 8);
+    }
+
+    /**
+     * State of a broadcast shared by its workers.
+     */
+    private class Run<T> implements Runnable {
+
+        private final Iterator<T> items;
+        private final int workers;
+        private final int bufferSize;
+        private final Task<? super T> task;
+        private final BroadcastResult result;
+
+        // guarded by this.
+        private int remaining;
+
+        Run(Iterator<T> items, int size, int workers, Task<? super T> task, BroadcastResult result) {
+            this.items = items;
+            this.remaining = size;
+            this.workers = workers;
+            this.bufferSize = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size));
+            this.task = task;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                work();
+            } finally {
+                if (result != null) {
+                    result.taskFinished();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void work() {
+            final Object[] chunk = new Object[bufferSize];
+            int count;
+
+            while ((count = claim(chunk)) > 0) {
+                final long start = System.nanoTime();
+
+                for (int i = 0; i < count; i++) {
+                    final T item = (T) chunk[i];
+                    chunk[i] = null;
+                    task.execute(item);
+                }
+
+                recordChunk(count, System.nanoTime() - start);
+            }
+        }
+
+        private synchronized int claim(Object[] chunk) {
+            final int chunkSize = Math.min(chunk.length, getChunkSize(remaining, workers));
+            int count = 0;
+
+            while (count < chunkSize && items.hasNext()) {
+                chunk[count++] = items.next();
+            }
+
+            remaining -= count;
+            return count;
+        }
+    }
+}
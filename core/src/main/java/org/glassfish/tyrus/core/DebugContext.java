@@ -42,6 +42,7 @@ package org.glassfish.tyrus.core;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,15 +60,27 @@ import org.glassfish.tyrus.spi.UpgradeResponse;
  * <p/>
  * Log records are provided with a session ID, so that log records from a single upgrade request can be easily linked
  * together in a log of a busy server or client.
+ * <p/>
+ * Handshakes which are not traced and whose messages would not be logged can share {@link #NO_OP}, so that no debug
+ * context is allocated for them.
  *
  * @author Petr Janouch (petr.janouch at oracle.com)
  */
 public class DebugContext {
 
-    // is not thread safe - it is assumed that it will be used only in the "handshake phase"
-    private List<LogRecord> logRecords = new ArrayList<LogRecord>();
-    // is not thread safe - it is assumed that it will be used only in the "handshake phase"
-    private Map<String, List<String>> tracingHeaders = new HashMap<String, List<String>>();
+    /**
+     * Shared debug context with tracing OFF.
+     * <p/>
+     * The context does not collect tracing headers and does not postpone logging; messages that are loggable are
+     * logged immediately, without a session ID. Setting a session ID and flushing do nothing, so the instance can be
+     * used by any number of handshakes and sessions at the same time.
+     */
+    public static final DebugContext NO_OP = new NoOpDebugContext();
+
+    // is not thread safe - it is assumed that it will be used only in the "handshake phase"; created lazily.
+    private List<LogRecord> logRecords = null;
+    // is not thread safe - it is assumed that it will be used only in the "handshake phase"; created lazily.
+    private Map<String, List<String>> tracingHeaders = null;
     private final long startTimestamp;
     private final Level tracingLevel;
     private String sessionId = null;
@@ -107,6 +120,40 @@ public class DebugContext {
         appendLogMessageWithThrowable(logger, loggingLevel, type, null, messageParts);
     }
 
+    /**
+     * Append a message to the log, the logging will be postponed until the message can be provided with a session ID.
+     * <p/>
+     * Same as {@link #appendLogMessage(Logger, Level, Type, Object...)}, without creating an array of message parts.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart  message part that will be stringified to create a log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart) {
+        if (logger.isLoggable(loggingLevel)) {
+            logMessage(logger, loggingLevel, type, null, String.valueOf(messagePart));
+        }
+    }
+
+    /**
+     * Append a message to the log, the logging will be postponed until the message can be provided with a session ID.
+     * <p/>
+     * Same as {@link #appendLogMessage(Logger, Level, Type, Object...)}, without creating an array of message parts.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first message part.
+     * @param messagePart2 second message part, appended to the first one to create a log message.
+     */
+    public void appendLogMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                 Object messagePart2) {
+        if (logger.isLoggable(loggingLevel)) {
+            logMessage(logger, loggingLevel, type, null, String.valueOf(messagePart1) + messagePart2);
+        }
+    }
+
     /**
      * Append a message to the log and to the list of trace messages that are sent in handshake response.
      * The logging will be postponed until the message can be provided with a session ID. Randomly generated session ID
@@ -121,6 +168,44 @@ public class DebugContext {
         appendTraceMessageWithThrowable(logger, loggingLevel, type, null, messageParts);
     }
 
+    /**
+     * Append a message to the log and to the list of trace messages that are sent in handshake response.
+     * <p/>
+     * Same as {@link #appendTraceMessage(Logger, Level, Type, Object...)}, without creating an array of message parts.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart  message part that will be stringified to create a log message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart) {
+        if (isTraced(loggingLevel)) {
+            appendTracingHeader(String.valueOf(messagePart));
+        }
+
+        appendLogMessage(logger, loggingLevel, type, messagePart);
+    }
+
+    /**
+     * Append a message to the log and to the list of trace messages that are sent in handshake response.
+     * <p/>
+     * Same as {@link #appendTraceMessage(Logger, Level, Type, Object...)}, without creating an array of message parts.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param messagePart1 first message part.
+     * @param messagePart2 second message part, appended to the first one to create a log message.
+     */
+    public void appendTraceMessage(Logger logger, Level loggingLevel, Type type, Object messagePart1,
+                                   Object messagePart2) {
+        if (isTraced(loggingLevel)) {
+            appendTracingHeader(String.valueOf(messagePart1) + messagePart2);
+        }
+
+        appendLogMessage(logger, loggingLevel, type, messagePart1, messagePart2);
+    }
+
     /**
      * Append a message to the log, the logging will be postponed until the message can be provided with a session ID.
      * Randomly generated session ID is used if a session has not been created.
@@ -134,18 +219,26 @@ public class DebugContext {
     public void appendLogMessageWithThrowable(Logger logger, Level loggingLevel, Type type, Throwable t,
                                               Object... messageParts) {
         if (logger.isLoggable(loggingLevel)) {
+            logMessage(logger, loggingLevel, type, t, stringifyMessageParts(messageParts));
+        }
+    }
 
-            String message = stringifyMessageParts(messageParts);
-
-            if (sessionId == null) {
-                logRecords.add(new LogRecord(logger, loggingLevel, type, message, t, false));
-            } else {
-                if (t != null) {
-                    logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()), t);
-                } else {
-                    logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()));
-                }
-            }
+    /**
+     * Append a message to the log, the logging will be postponed until the message can be provided with a session ID.
+     * <p/>
+     * Same as {@link #appendLogMessageWithThrowable(Logger, Level, Type, Throwable, Object...)}, without creating an
+     * array of message parts.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param t            throwable that has been thrown.
+     * @param messagePart  message part that will be stringified to create a log message.
+     */
+    public void appendLogMessageWithThrowable(Logger logger, Level loggingLevel, Type type, Throwable t,
+                                              Object messagePart) {
+        if (logger.isLoggable(loggingLevel)) {
+            logMessage(logger, loggingLevel, type, t, String.valueOf(messagePart));
         }
     }
 
@@ -162,7 +255,7 @@ public class DebugContext {
      */
     public void appendTraceMessageWithThrowable(Logger logger, Level loggingLevel, Type type, Throwable t,
                                                 Object... messageParts) {
-        if (this.tracingLevel.intValue() <= loggingLevel.intValue()) {
+        if (isTraced(loggingLevel)) {
             String message = stringifyMessageParts(messageParts);
             appendTracingHeader(message);
         }
@@ -179,7 +272,7 @@ public class DebugContext {
      */
     public void appendStandardOutputMessage(Type type, String message) {
         if (sessionId == null) {
-            logRecords.add(new LogRecord(null, Level.OFF, type, message, null, true));
+            getLogRecords().add(new LogRecord(null, Level.OFF, type, message, null, true));
         } else {
             System.out.println(formatLogMessage(message, type, System.nanoTime()));
         }
@@ -205,6 +298,10 @@ public class DebugContext {
             sessionId = UUID.randomUUID().toString();
         }
 
+        if (logRecords == null) {
+            return;
+        }
+
         for (LogRecord logRecord : logRecords) {
             if (logRecord.printToSout) {
                 System.out.println(formatLogMessage(logRecord.message, logRecord.type, logRecord.timestamp));
@@ -229,10 +326,49 @@ public class DebugContext {
      * @return tracing headers.
      */
     public Map<String, List<String>> getTracingHeaders() {
+        if (tracingHeaders == null) {
+            return Collections.emptyMap();
+        }
         return tracingHeaders;
     }
 
+    /**
+     * Log a message or postpone its logging until a session ID is set. The message has already been checked to be
+     * loggable.
+     *
+     * @param logger       logger to be used to log the message.
+     * @param loggingLevel message level.
+     * @param type         type of the message.
+     * @param t            throwable that has been thrown, can be {@code null}.
+     * @param message      message to be logged.
+     */
+    void logMessage(Logger logger, Level loggingLevel, Type type, Throwable t, String message) {
+        if (sessionId == null) {
+            getLogRecords().add(new LogRecord(logger, loggingLevel, type, message, t, false));
+        } else {
+            if (t != null) {
+                logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()), t);
+            } else {
+                logger.log(loggingLevel, formatLogMessage(message, type, System.nanoTime()));
+            }
+        }
+    }
+
+    private boolean isTraced(Level loggingLevel) {
+        return tracingLevel.intValue() <= loggingLevel.intValue();
+    }
+
+    private List<LogRecord> getLogRecords() {
+        if (logRecords == null) {
+            logRecords = new ArrayList<LogRecord>();
+        }
+        return logRecords;
+    }
+
     private void appendTracingHeader(String message) {
+        if (tracingHeaders == null) {
+            tracingHeaders = new HashMap<String, List<String>>();
+        }
         String headerName = UpgradeResponse.TRACING_HEADER_PREFIX + String.format("%02d%n", tracingHeaders.size());
         tracingHeaders.put(headerName,
                            Arrays.asList("[" + (System.nanoTime() - startTimestamp) / 1000000 + " ms] " + message));
@@ -286,6 +422,32 @@ public class DebugContext {
         return sb.toString();
     }
 
+    /**
+     * {@link DebugContext} shared by untraced handshakes, see {@link #NO_OP}.
+     */
+    private static final class NoOpDebugContext extends DebugContext {
+
+        @Override
+        void logMessage(Logger logger, Level loggingLevel, Type type, Throwable t, String message) {
+            logger.log(loggingLevel, message, t);
+        }
+
+        @Override
+        public void appendStandardOutputMessage(Type type, String message) {
+            System.out.println(message);
+        }
+
+        @Override
+        public void setSessionId(String sessionId) {
+            // shared - the session ID of one of the sessions would be used for messages of all of them.
+        }
+
+        @Override
+        public void flush() {
+            // nothing is postponed.
+        }
+    }
+
     private static class LogRecord {
         /**
          * Logger that will be used to log the message.
@@ -48,6 +48,9 @@ import java.util.concurrent.ScheduledExecutorService;
  */
 public abstract class ExecutorServiceProvider {
 
+    private volatile IdleTimeoutWheel idleTimeoutWheel = null;
+    private volatile HeartbeatSweeper heartbeatSweeper = null;
+
     /**
      * Get the {@link ExecutorService}.
      *
@@ -61,4 +64,40 @@ public abstract class ExecutorServiceProvider {
      * @return scheduled executor service.
      */
     public abstract ScheduledExecutorService getScheduledExecutorService();
-}
\ No newline at end of file
+
+    /**
+     * Get the {@link IdleTimeoutWheel} checking idle timeouts of the sessions; the wheel is advanced by {@link
+     * #getScheduledExecutorService()}.
+     *
+     * @return idle timeout wheel.
+     */
+    IdleTimeoutWheel getIdleTimeoutWheel() {
+        if (idleTimeoutWheel == null) {
+            synchronized (this) {
+                if (idleTimeoutWheel == null) {
+                    idleTimeoutWheel = new IdleTimeoutWheel(this);
+                }
+            }
+        }
+
+        return idleTimeoutWheel;
+    }
+
+    /**
+     * Get the {@link HeartbeatSweeper} sending heartbeats of the sessions; the sweeps are run by {@link
+     * #getScheduledExecutorService()}.
+     *
+     * @return heartbeat sweeper.
+     */
+    HeartbeatSweeper getHeartbeatSweeper() {
+        if (heartbeatSweeper == null) {
+            synchronized (this) {
+                if (heartbeatSweeper == null) {
+                    heartbeatSweeper = new HeartbeatSweeper(this);
+                }
+            }
+        }
+
+        return heartbeatSweeper;
+    }
+}
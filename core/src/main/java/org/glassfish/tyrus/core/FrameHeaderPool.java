@@ -0,0 +1,91 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides small buffers for outgoing WebSocket frame headers.
+ * <p/>
+ * Headers are sliced from a larger per-thread chunk, so framing a message does not need separate allocation for its
+ * header. Slices are never returned to the pool - the chunk is garbage collected once all the frames sliced from it
+ * are written and released by the transport.
+ */
+final class FrameHeaderPool {
+
+    /**
+     * Maximal frame header size - 2 bytes (opcode and length code), 8 bytes (extended payload length) and 4 bytes
+     * (masking key).
+     */
+    static final int MAX_HEADER_SIZE = 14;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private static final ThreadLocal<ByteBuffer> CHUNK = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(CHUNK_SIZE);
+        }
+    };
+
+    private FrameHeaderPool() {
+    }
+
+    /**
+     * Get empty buffer with capacity of {@link #MAX_HEADER_SIZE} bytes.
+     *
+     * @return empty buffer, position set to {@code 0}, limit set to {@link #MAX_HEADER_SIZE}.
+     */
+    static ByteBuffer allocate() {
+        ByteBuffer chunk = CHUNK.get();
+
+        if (chunk.remaining() < MAX_HEADER_SIZE) {
+            chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            CHUNK.set(chunk);
+        }
+
+        final ByteBuffer header = chunk.slice();
+        header.limit(MAX_HEADER_SIZE);
+        chunk.position(chunk.position() + MAX_HEADER_SIZE);
+
+        return header;
+    }
+}
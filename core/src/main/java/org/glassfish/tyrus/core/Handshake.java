@@ -67,6 +67,10 @@ public final class Handshake {
     private static final int RESPONSE_CODE_VALUE = 101;
     private static final String VERSION = "13";
 
+    // values of headers which are the same in all server handshake responses.
+    private static final List<String> UPGRADE_RESPONSE_VALUE = Collections.singletonList(UpgradeRequest.WEBSOCKET);
+    private static final List<String> CONNECTION_RESPONSE_VALUE = Collections.singletonList(UpgradeRequest.UPGRADE);
+
     private List<String> subProtocols = new ArrayList<String>();
     private List<Extension> extensions = new ArrayList<Extension>(); // client extensions
     // client side handshake request
@@ -284,25 +288,25 @@ public final class Handshake {
     /*,TyrusUpgradeResponse response*/) {
         response.setStatus(101);
 
-        response.getHeaders().put(UpgradeRequest.UPGRADE, Arrays.asList(UpgradeRequest.WEBSOCKET));
-        response.getHeaders().put(UpgradeRequest.CONNECTION, Arrays.asList(UpgradeRequest.UPGRADE));
+        final Map<String, List<String>> responseHeaders = response.getHeaders();
+        responseHeaders.put(UpgradeRequest.UPGRADE, UPGRADE_RESPONSE_VALUE);
+        responseHeaders.put(UpgradeRequest.CONNECTION, CONNECTION_RESPONSE_VALUE);
         response.setReasonPhrase(UpgradeRequest.RESPONSE_CODE_MESSAGE);
-        response.getHeaders().put(HandshakeResponse.SEC_WEBSOCKET_ACCEPT, Arrays.asList(secKey.getSecKey()));
+        responseHeaders.put(HandshakeResponse.SEC_WEBSOCKET_ACCEPT, Collections.singletonList(secKey.getSecKey()));
 
         final List<String> protocols = request.getHeaders().get(HandshakeRequest.SEC_WEBSOCKET_PROTOCOL);
-        final List<Extension> extensions =
-                TyrusExtension.fromString(request.getHeaders().get(HandshakeRequest.SEC_WEBSOCKET_EXTENSIONS));
 
         if (subProtocols != null && !subProtocols.isEmpty()) {
             String protocol = endpointWrapper.getNegotiatedProtocol(protocols);
             if (protocol != null && !protocol.isEmpty()) {
-                response.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_PROTOCOL, Arrays.asList(protocol));
+                responseHeaders.put(HandshakeRequest.SEC_WEBSOCKET_PROTOCOL, Collections.singletonList(protocol));
             }
         }
 
+        // extensions requested by the client have been parsed in createServerHandshake.
         final List<Extension> negotiatedExtensions = endpointWrapper.getNegotiatedExtensions(extensions);
         if (!negotiatedExtensions.isEmpty()) {
-            response.getHeaders().put(
+            responseHeaders.put(
                     HandshakeRequest.SEC_WEBSOCKET_EXTENSIONS,
                     Utils.getStringList(negotiatedExtensions, new Utils.Stringifier<Extension>() {
                         @Override
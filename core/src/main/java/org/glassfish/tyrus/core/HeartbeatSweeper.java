@@ -0,0 +1,285 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends periodic heartbeats (pongs) of sessions.
+ * <p/>
+ * Instead of one periodic task per session, sessions with the same heartbeat interval share a bucket swept by one
+ * periodic task. Sessions of a bucket are divided into phases and every run of the task sweeps one phase, so the
+ * heartbeats of a bucket are spread across the interval instead of being sent in one burst; every session still gets
+ * one heartbeat per interval.
+ * <p/>
+ * Sessions can be registered to skip the heartbeat when there was any traffic since the previous one (see {@link
+ * Registration#touch()}).
+ */
+class HeartbeatSweeper {
+
+    private static final Logger LOGGER = Logger.getLogger(HeartbeatSweeper.class.getName());
+
+    /**
+     * Maximal number of phases of one bucket.
+     */
+    static final int MAX_PHASES = 16;
+
+    /**
+     * Minimal time between two sweeps of one bucket in milliseconds.
+     */
+    static final long MIN_PHASE_MILLIS = 10;
+
+    private final ExecutorServiceProvider executorServiceProvider;
+
+    // guarded by this.
+    private final Map<Long, Bucket> buckets = new HashMap<Long, Bucket>();
+
+    /**
+     * Create new sweeper.
+     *
+     * @param executorServiceProvider provider of the executor running the sweeps.
+     */
+    HeartbeatSweeper(ExecutorServiceProvider executorServiceProvider) {
+        this.executorServiceProvider = executorServiceProvider;
+    }
+
+    /**
+     * Register new heartbeat.
+     *
+     * @param interval   interval between heartbeats in milliseconds.
+     * @param skipActive {@code true} when the heartbeat should not be sent if there was any traffic since the
+     *                   previous one.
+     * @param heartbeat  task sending the heartbeat.
+     * @return registration of the heartbeat, which has to be cancelled when the heartbeat is not needed anymore.
+     */
+    synchronized Registration register(long interval, boolean skipActive, Runnable heartbeat) {
+        Bucket bucket = buckets.get(interval);
+        if (bucket == null) {
+            bucket = new Bucket(interval);
+            buckets.put(interval, bucket);
+        }
+
+        final Registration registration = new Registration(bucket, skipActive, heartbeat);
+        bucket.add(registration);
+        bucket.start(executorServiceProvider.getScheduledExecutorService());
+        return registration;
+    }
+
+    /**
+     * Get the number of buckets, one for every heartbeat interval in use.
+     *
+     * @return number of buckets.
+     */
+    synchronized int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Get current time used by the sweeper.
+     *
+     * @return current time in nanoseconds.
+     */
+    long currentTime() {
+        return System.nanoTime();
+    }
+
+    private synchronized void cancel(Registration registration) {
+        final Bucket bucket = registration.bucket;
+        if (bucket.remove(registration) && bucket.size == 0) {
+            buckets.remove(bucket.interval);
+            bucket.stop();
+        }
+    }
+
+    /**
+     * Sessions with the same heartbeat interval.
+     */
+    private final class Bucket implements Runnable {
+
+        private final long interval;
+        private final Set<Registration>[] phases;
+
+        // guarded by HeartbeatSweeper.this.
+        private int size = 0;
+        private int nextAssignedPhase = 0;
+        private ScheduledExecutorService scheduler = null;
+        private ScheduledFuture<?> future = null;
+
+        // accessed only by the sweeping task.
+        private int nextSweptPhase = 0;
+
+        @SuppressWarnings("unchecked")
+        Bucket(long interval) {
+            this.interval = interval;
+
+            final int phaseCount = (int) Math.max(1, Math.min(MAX_PHASES, interval / MIN_PHASE_MILLIS));
+            this.phases = new Set[phaseCount];
+            for (int i = 0; i < phaseCount; i++) {
+                phases[i] = Collections.newSetFromMap(new ConcurrentHashMap<Registration, Boolean>());
+            }
+        }
+
+        void add(Registration registration) {
+            registration.phase = nextAssignedPhase;
+            nextAssignedPhase = (nextAssignedPhase + 1) % phases.length;
+            phases[registration.phase].add(registration);
+            size++;
+        }
+
+        boolean remove(Registration registration) {
+            if (phases[registration.phase].remove(registration)) {
+                size--;
+                return true;
+            }
+            return false;
+        }
+
+        void start(ScheduledExecutorService current) {
+            // the executor can be shut down and replaced by the provider - the task has to be moved to the new one.
+            if (current != scheduler) {
+                stop();
+                final long period = TimeUnit.MILLISECONDS.toNanos(interval) / phases.length;
+                future = current.scheduleAtFixedRate(this, period, period, TimeUnit.NANOSECONDS);
+                scheduler = current;
+            }
+        }
+
+        void stop() {
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+                scheduler = null;
+            }
+        }
+
+        @Override
+        public void run() {
+            final Set<Registration> phase = phases[nextSweptPhase];
+            nextSweptPhase = (nextSweptPhase + 1) % phases.length;
+
+            for (Registration registration : phase) {
+                registration.sweep();
+            }
+        }
+    }
+
+    /**
+     * Heartbeat of one session.
+     */
+    final class Registration {
+
+        private final Bucket bucket;
+        private final boolean skipActive;
+        private final Runnable heartbeat;
+        private volatile long lastActivity;
+        private volatile boolean cancelled = false;
+
+        // guarded by HeartbeatSweeper.this.
+        private int phase;
+
+        // accessed only by the sweeping task.
+        private long lastHeartbeat;
+
+        private Registration(Bucket bucket, boolean skipActive, Runnable heartbeat) {
+            this.bucket = bucket;
+            this.skipActive = skipActive;
+            this.heartbeat = heartbeat;
+            this.lastActivity = currentTime();
+            this.lastHeartbeat = lastActivity;
+        }
+
+        /**
+         * Report traffic on the session; used only when the registration skips active sessions.
+         */
+        void touch() {
+            if (skipActive) {
+                lastActivity = currentTime();
+            }
+        }
+
+        /**
+         * Cancel the heartbeat.
+         */
+        void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                HeartbeatSweeper.this.cancel(this);
+            }
+        }
+
+        /**
+         * Get the information whether the heartbeat was cancelled.
+         *
+         * @return {@code true} when the heartbeat was cancelled.
+         */
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void sweep() {
+            if (cancelled) {
+                return;
+            }
+
+            if (skipActive && lastActivity - lastHeartbeat > 0) {
+                lastHeartbeat = currentTime();
+                return;
+            }
+
+            try {
+                heartbeat.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Heartbeat could not be sent: " + e.getMessage(), e);
+            }
+
+            // heartbeat itself is a traffic on the session.
+            lastHeartbeat = currentTime();
+        }
+    }
+}
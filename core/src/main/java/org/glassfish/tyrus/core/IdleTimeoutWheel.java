@@ -0,0 +1,352 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed wheel timer checking idle timeouts of sessions.
+ * <p/>
+ * Restarting an idle timeout by cancelling a task and scheduling a new one on {@link ScheduledExecutorService} locks
+ * the queue of the executor and reorders its heap on every message. Timeout registered in the wheel is not
+ * rescheduled when there is activity on the session, the activity only updates its last activity timestamp (see
+ * {@link Timeout#touch()}). The wheel is advanced by one periodic task and a timeout is checked only when the wheel
+ * reaches its slot; it is then either expired or moved to the slot of its new deadline. The periodic task is
+ * stopped when there is no timeout left in the wheel and started again when a new timeout is registered.
+ * <p/>
+ * Timeouts expire up to one tick later than requested.
+ */
+class IdleTimeoutWheel {
+
+    private static final Logger LOGGER = Logger.getLogger(IdleTimeoutWheel.class.getName());
+
+    /**
+     * Default duration of one tick in milliseconds.
+     */
+    static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * Default number of slots of the wheel.
+     */
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final ExecutorServiceProvider executorServiceProvider;
+    private final long tickNanos;
+    private final long startTime;
+    private final int mask;
+    private final List<Timeout>[] slots;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<Timeout>();
+    private final Runnable tickTask = new Runnable() {
+        @Override
+        public void run() {
+            expireTimeouts(currentTime());
+            stopIfEmpty();
+        }
+    };
+
+    /**
+     * Executor running the tick task; changes when the executor of the provider is shut down and replaced.
+     */
+    private volatile ScheduledExecutorService scheduler = null;
+
+    /**
+     * Periodic execution of the tick task, {@code null} when the task is not scheduled.
+     */
+    private volatile ScheduledFuture<?> tickFuture = null;
+
+    // guarded by slots.
+    private long tick = 0;
+    private int timeoutCount = 0;
+
+    /**
+     * Create new wheel with default tick duration and size.
+     *
+     * @param executorServiceProvider provider of the executor which advances the wheel.
+     */
+    IdleTimeoutWheel(ExecutorServiceProvider executorServiceProvider) {
+        this(executorServiceProvider, DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Create new wheel.
+     *
+     * @param executorServiceProvider provider of the executor which advances the wheel. The wheel is advanced only by
+     *                                {@link #expireTimeouts(long)} when {@code null}.
+     * @param tickDuration            duration of one tick.
+     * @param unit                    time unit of {@code tickDuration}.
+     * @param wheelSize               number of slots of the wheel, rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    IdleTimeoutWheel(ExecutorServiceProvider executorServiceProvider, long tickDuration, TimeUnit unit,
+                     int wheelSize) {
+        if (tickDuration < 1) {
+            throw new IllegalArgumentException("tickDuration");
+        }
+        if (wheelSize < 1 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize");
+        }
+
+        final int size = Integer.highestOneBit(wheelSize - 1 == 0 ? 1 : (wheelSize - 1) << 1);
+
+        this.executorServiceProvider = executorServiceProvider;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.slots = new List[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayList<Timeout>();
+        }
+        this.startTime = currentTime();
+    }
+
+    /**
+     * Register new timeout.
+     *
+     * @param timeout time of inactivity after which the timeout expires.
+     * @param unit    time unit of {@code timeout}.
+     * @param task    task executed when the timeout expires.
+     * @return registered timeout; activity is reported by {@link Timeout#touch()}.
+     */
+    Timeout schedule(long timeout, TimeUnit unit, Runnable task) {
+        final Timeout result = new Timeout(unit.toNanos(timeout), task);
+        newTimeouts.add(result);
+        start();
+        return result;
+    }
+
+    /**
+     * Advance the wheel to given time and execute tasks of expired timeouts.
+     *
+     * @param now current time, as returned by {@link #currentTime()}.
+     */
+    void expireTimeouts(long now) {
+        final List<Timeout> expired = new ArrayList<Timeout>();
+
+        synchronized (slots) {
+            transferNewTimeouts();
+
+            final long currentTick = (now - startTime) / tickNanos;
+            if (currentTick - tick > mask) {
+                // the wheel was not advanced for more than one round; one round checks all the timeouts.
+                tick = currentTick - mask;
+            }
+
+            while (tick <= currentTick) {
+                expireTimeouts(tick, now, expired);
+                tick++;
+            }
+        }
+
+        for (Timeout timeout : expired) {
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Idle timeout task failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Get current time used by the wheel.
+     *
+     * @return current time in nanoseconds.
+     */
+    long currentTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Get the information whether the wheel is advanced by the periodic task.
+     *
+     * @return {@code true} when the tick task is scheduled.
+     */
+    boolean isTicking() {
+        return tickFuture != null;
+    }
+
+    private void start() {
+        if (executorServiceProvider == null) {
+            return;
+        }
+
+        final ScheduledExecutorService current = executorServiceProvider.getScheduledExecutorService();
+        if (tickFuture == null || current != scheduler) {
+            synchronized (this) {
+                if (tickFuture == null || current != scheduler) {
+                    // align the task with the ticks of the wheel, otherwise timeouts expire up to two ticks later.
+                    final long delay = tickNanos - (currentTime() - startTime) % tickNanos;
+                    tickFuture = current.scheduleAtFixedRate(tickTask, delay, tickNanos, TimeUnit.NANOSECONDS);
+                    scheduler = current;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the tick task when there is no timeout in the wheel.
+     */
+    private void stopIfEmpty() {
+        synchronized (this) {
+            final ScheduledFuture<?> future = tickFuture;
+            if (future == null || !isEmpty()) {
+                return;
+            }
+
+            tickFuture = null;
+            future.cancel(false);
+        }
+
+        // timeout registered right before the task was stopped might have seen it still running.
+        if (!newTimeouts.isEmpty()) {
+            start();
+        }
+    }
+
+    private boolean isEmpty() {
+        synchronized (slots) {
+            return timeoutCount == 0 && newTimeouts.isEmpty();
+        }
+    }
+
+    private void transferNewTimeouts() {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (!timeout.cancelled) {
+                timeout.targetTick = Math.max(tick, getTargetTick(timeout.getDeadline()));
+                slots[(int) (timeout.targetTick & mask)].add(timeout);
+                timeoutCount++;
+            }
+        }
+    }
+
+    private void expireTimeouts(long currentTick, long now, List<Timeout> expired) {
+        final int slotIndex = (int) (currentTick & mask);
+        final List<Timeout> slot = slots[slotIndex];
+        int kept = 0;
+
+        for (int i = 0; i < slot.size(); i++) {
+            final Timeout timeout = slot.get(i);
+            if (timeout.cancelled) {
+                timeoutCount--;
+                continue;
+            }
+
+            if (timeout.targetTick <= currentTick) {
+                final long deadline = timeout.getDeadline();
+                if (deadline - now <= 0) {
+                    timeout.cancelled = true;
+                    timeoutCount--;
+                    expired.add(timeout);
+                    continue;
+                }
+
+                // there was an activity - move the timeout to its new deadline.
+                timeout.targetTick = getTargetTick(deadline);
+                final int targetIndex = (int) (timeout.targetTick & mask);
+                if (targetIndex != slotIndex) {
+                    slots[targetIndex].add(timeout);
+                    continue;
+                }
+            }
+
+            slot.set(kept++, timeout);
+        }
+
+        slot.subList(kept, slot.size()).clear();
+    }
+
+    private long getTargetTick(long deadline) {
+        return (deadline - startTime + tickNanos - 1) / tickNanos;
+    }
+
+    /**
+     * Timeout registered in the wheel.
+     */
+    final class Timeout {
+
+        private final long timeoutNanos;
+        private final Runnable task;
+        private volatile long lastActivity;
+        private volatile boolean cancelled = false;
+
+        // guarded by slots.
+        private long targetTick;
+
+        private Timeout(long timeoutNanos, Runnable task) {
+            this.timeoutNanos = timeoutNanos;
+            this.task = task;
+            this.lastActivity = currentTime();
+        }
+
+        /**
+         * Report an activity - the timeout starts again from now.
+         */
+        void touch() {
+            lastActivity = currentTime();
+        }
+
+        /**
+         * Cancel the timeout; its task won't be executed.
+         */
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * Get the information whether the timeout was cancelled or expired.
+         *
+         * @return {@code true} when the timeout was cancelled or expired.
+         */
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        private long getDeadline() {
+            return lastActivity + timeoutNanos;
+        }
+    }
+}
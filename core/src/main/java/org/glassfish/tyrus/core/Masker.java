@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2012-2014 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012-2015 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -41,8 +41,18 @@
 package org.glassfish.tyrus.core;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ * Masks and unmasks WebSocket frame payload (see RFC 6455, chapter 5.3).
+ * <p/>
+ * Payload is processed 8 bytes at a time, remaining bytes (at most 7) are processed one by one. Masking key position
+ * is tracked across invocations, so the payload can be processed in more chunks.
+ */
 class Masker {
+
+    private static final int WORD_SIZE = 8;
+
     private volatile ByteBuffer buffer;
     private volatile byte[] mask;
     private volatile int index = 0;
@@ -69,24 +79,90 @@ class Masker {
         return bytes;
     }
 
+    /**
+     * Read and unmask given number of bytes from the buffer set by {@link #setBuffer(ByteBuffer)}.
+     * <p/>
+     * Bytes are unmasked in place in the buffer (if it is not read only) and then copied to returned array.
+     *
+     * @param count number of bytes to be read.
+     * @return unmasked bytes.
+     */
     public byte[] unmask(int count) {
-        byte[] bytes = get(count);
+        final ByteBuffer localBuffer = buffer;
+
+        if (mask != null && !localBuffer.isReadOnly()) {
+            unmask(localBuffer, localBuffer.position(), count);
+            return get(count);
+        }
+
+        final byte[] bytes = get(count);
         if (mask != null) {
-            for (int i = 0; i < bytes.length; i++) {
-                bytes[i] ^= mask[index++ % ProtocolHandler.MASK_SIZE];
-            }
+            mask(bytes, 0, bytes, count);
         }
 
         return bytes;
     }
 
+    /**
+     * Unmask bytes in place.
+     * <p/>
+     * Works for both heap and direct buffers, position and limit of the buffer are not changed.
+     *
+     * @param buffer   buffer containing masked bytes. Cannot be read only.
+     * @param position position of the first byte to be unmasked.
+     * @param length   number of bytes to be unmasked.
+     */
+    public void unmask(ByteBuffer buffer, int position, int length) {
+        if (mask == null) {
+            return;
+        }
+
+        final int rotation = index;
+        final int end = position + length;
+        final long wordMask = wordMask(rotation, buffer.order());
+
+        int i = position;
+        for (; i + WORD_SIZE <= end; i += WORD_SIZE) {
+            buffer.putLong(i, buffer.getLong(i) ^ wordMask);
+        }
+        for (int j = rotation; i < end; i++, j++) {
+            buffer.put(i, (byte) (buffer.get(i) ^ mask[j & 3]));
+        }
+
+        index = (rotation + length) & 3;
+    }
+
+    /**
+     * Mask (or just copy, when there is no masking key) bytes into target array.
+     * <p/>
+     * Source and target can be the same array.
+     *
+     * @param target   target array.
+     * @param location position in the target array where the first masked byte will be written.
+     * @param bytes    source bytes, starting at position {@code 0}.
+     * @param length   number of bytes to be masked.
+     */
     public void mask(byte[] target, int location, byte[] bytes, int length) {
         if (bytes != null && target != null) {
-            for (int i = 0; i < length; i++) {
-                target[location + i] = mask == null
-                        ? bytes[i]
-                        : (byte) (bytes[i] ^ mask[index++ % ProtocolHandler.MASK_SIZE]);
+            if (mask == null) {
+                System.arraycopy(bytes, 0, target, location, length);
+                return;
+            }
+
+            final int rotation = index;
+            final long wordMask = wordMask(rotation, ByteOrder.BIG_ENDIAN);
+            final ByteBuffer source = ByteBuffer.wrap(bytes);
+            final ByteBuffer destination = ByteBuffer.wrap(target);
+
+            int i = 0;
+            for (; i + WORD_SIZE <= length; i += WORD_SIZE) {
+                destination.putLong(location + i, source.getLong(i) ^ wordMask);
             }
+            for (int j = rotation; i < length; i++, j++) {
+                target[location + i] = (byte) (bytes[i] ^ mask[j & 3]);
+            }
+
+            index = (rotation + length) & 3;
         }
     }
 
@@ -101,4 +177,20 @@ class Masker {
     public void readMask() {
         mask = get(ProtocolHandler.MASK_SIZE);
     }
+
+    /**
+     * Create 8 byte mask - masking key repeated twice, starting at given masking key position.
+     *
+     * @param rotation position in the masking key of the first byte.
+     * @param order    byte order of the buffer the mask will be applied to.
+     * @return masking key suitable for masking 8 bytes at once.
+     */
+    private long wordMask(int rotation, ByteOrder order) {
+        long wordMask = 0;
+        for (int i = 0; i < WORD_SIZE; i++) {
+            wordMask = (wordMask << 8) | (mask[(rotation + i) & 3] & 0xFF);
+        }
+
+        return order == ByteOrder.BIG_ENDIAN ? wordMask : Long.reverseBytes(wordMask);
+    }
 }
@@ -114,6 +114,19 @@ public class MessageHandlerManager {
      * @param decoders registered {@link Decoder}s.
      */
     static MessageHandlerManager fromDecoderInstances(List<Decoder> decoders) {
+        return new MessageHandlerManager(getDecoderClasses(decoders));
+    }
+
+    /**
+     * Get classes of {@link Decoder} instances.
+     * <p/>
+     * The returned list can be shared by all managers created for the same endpoint, see
+     * {@link #MessageHandlerManager(java.util.List)}.
+     *
+     * @param decoders registered {@link Decoder}s.
+     * @return unmodifiable list of decoder classes.
+     */
+    static List<Class<? extends Decoder>> getDecoderClasses(List<Decoder> decoders) {
         List<Class<? extends Decoder>> decoderList = new ArrayList<Class<? extends Decoder>>();
         for (Decoder decoder : decoders) {
             if (decoder instanceof CoderWrapper) {
@@ -123,7 +136,7 @@ public class MessageHandlerManager {
             }
         }
 
-        return new MessageHandlerManager(decoderList);
+        return Collections.unmodifiableList(decoderList);
     }
 
     /**
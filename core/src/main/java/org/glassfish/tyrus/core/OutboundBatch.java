@@ -0,0 +1,261 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.core.l10n.LocalizationMessages;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * Outbound buffer of one connection used when batching of outgoing messages is allowed.
+ * <p/>
+ * Serialized frames are collected and written by one gathering {@link Writer#write(ByteBuffer[], CompletionHandler)}
+ * call when {@link #flush(Writer)} is invoked, when the amount of collected bytes reaches configured batch size or
+ * when configured linger time elapses after the first frame was added to an empty batch. Completion handlers of the
+ * collected frames are notified once the gathering write is completed.
+ * <p/>
+ * Frames are added, flushed and the batching is disabled only by the thread which writes queued frames of the
+ * connection (see {@link ProtocolHandler}), so the batch is never written concurrently with other frames. Flush
+ * after the linger time is therefore not done by the scheduler thread, it only runs the task passed to the
+ * constructor, which queues the flush.
+ */
+final class OutboundBatch {
+
+    /**
+     * Default batch size in bytes.
+     */
+    static final int DEFAULT_BATCH_SIZE = 16384;
+
+    private static final Logger LOGGER = Logger.getLogger(OutboundBatch.class.getName());
+
+    private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    private final List<CompletionHandler<?>> handlers = new ArrayList<CompletionHandler<?>>();
+
+    private final Runnable lingerFlush;
+
+    private volatile boolean enabled = false;
+
+    // guarded by "this"
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long lingerTime = 0;
+    private ScheduledExecutorService scheduler;
+    private int bufferedBytes = 0;
+    private ScheduledFuture<?> lingerTask;
+
+    /**
+     * Create new batch.
+     *
+     * @param lingerFlush task run by the scheduler when the linger time elapses; it is supposed to call {@link
+     *                    #flush(Writer, TyrusFuture)} in order with other outgoing frames.
+     */
+    OutboundBatch(Runnable lingerFlush) {
+        this.lingerFlush = lingerFlush;
+    }
+
+    /**
+     * Configure the batch.
+     *
+     * @param batchSize  size in bytes which triggers the flush. Values lower than {@code 1} are ignored.
+     * @param lingerTime maximal time in milliseconds for which the frames are kept in the batch. {@code 0} or
+     *                   negative value means that the batch is flushed only when it is full or when flush is
+     *                   requested.
+     * @param scheduler  scheduler used for flushing the batch after the linger time. Can be {@code null} when
+     *                   linger time is not set.
+     */
+    synchronized void configure(int batchSize, long lingerTime, ScheduledExecutorService scheduler) {
+        if (batchSize > 0) {
+            this.batchSize = batchSize;
+        }
+        this.lingerTime = scheduler == null ? 0 : lingerTime;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Get information whether the frames are being batched.
+     *
+     * @return {@code true} when batching is enabled.
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable batching. Collected frames are flushed when the batching is disabled, in the same critical
+     * section, so no frame can be written directly before them.
+     *
+     * @param enabled {@code true} to enable batching.
+     * @param writer  writer used for flushing the batch. Can be {@code null} when the batch is empty.
+     */
+    synchronized void setEnabled(boolean enabled, Writer writer) {
+        this.enabled = enabled;
+
+        if (!enabled && !buffers.isEmpty()) {
+            writeBatch(writer, null);
+        }
+    }
+
+    /**
+     * Add serialized frame to the batch.
+     *
+     * @param writer            writer used when the batch needs to be flushed.
+     * @param frame             serialized frame.
+     * @param completionHandler handler notified when the frame is written, the result passed to it is always {@code
+     *                          null}.
+     * @return {@code true} when the frame was added to the batch, {@code false} when batching is disabled and the
+     * frame has to be written directly.
+     */
+    boolean add(Writer writer, ByteBuffer[] frame, CompletionHandler<?> completionHandler) {
+        if (!enabled) {
+            return false;
+        }
+
+        synchronized (this) {
+            // re-check; batching could be disabled and the batch flushed in the meantime.
+            if (!enabled) {
+                return false;
+            }
+
+            final boolean empty = buffers.isEmpty();
+
+            for (ByteBuffer buffer : frame) {
+                buffers.add(buffer);
+                bufferedBytes += buffer.remaining();
+            }
+            handlers.add(completionHandler);
+
+            if (bufferedBytes >= batchSize) {
+                writeBatch(writer, null);
+            } else if (empty && lingerTime > 0) {
+                lingerTask = scheduler.schedule(lingerFlush, lingerTime, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write all the collected frames.
+     *
+     * @param writer writer used for writing the frames.
+     * @return future completed when all the collected frames are written.
+     */
+    Future<Void> flush(Writer writer) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        flush(writer, future);
+        return future;
+    }
+
+    /**
+     * Write all the collected frames.
+     *
+     * @param writer writer used for writing the frames.
+     * @param future future to be completed when all the collected frames are written.
+     */
+    void flush(Writer writer, TyrusFuture<Void> future) {
+        synchronized (this) {
+            if (buffers.isEmpty()) {
+                future.setResult(null);
+            } else {
+                writeBatch(writer, future);
+            }
+        }
+    }
+
+    /**
+     * Write the batch; has to be called when holding the lock, so the batches are passed to the writer in order.
+     */
+    private void writeBatch(Writer writer, final TyrusFuture<Void> future) {
+        if (lingerTask != null) {
+            lingerTask.cancel(false);
+            lingerTask = null;
+        }
+
+        final ByteBuffer[] toWrite = buffers.toArray(new ByteBuffer[buffers.size()]);
+        final List<CompletionHandler<?>> toNotify = new ArrayList<CompletionHandler<?>>(handlers);
+        buffers.clear();
+        handlers.clear();
+        bufferedBytes = 0;
+
+        LOGGER.log(Level.FINEST, "Flushing {0} batched frames.", toNotify.size());
+
+        writer.write(toWrite, new CompletionHandler<ByteBuffer[]>() {
+            @Override
+            public void cancelled() {
+                for (CompletionHandler<?> handler : toNotify) {
+                    handler.cancelled();
+                }
+                if (future != null) {
+                    future.setFailure(new RuntimeException(LocalizationMessages.FRAME_WRITE_CANCELLED()));
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                for (CompletionHandler<?> handler : toNotify) {
+                    handler.failed(throwable);
+                }
+                if (future != null) {
+                    future.setFailure(throwable);
+                }
+            }
+
+            @Override
+            public void completed(ByteBuffer[] result) {
+                for (CompletionHandler<?> handler : toNotify) {
+                    handler.completed(null);
+                }
+                if (future != null) {
+                    future.setResult(null);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+/**
+ * Action taken when a message sent to a session does not fit into the outbound byte limit of the session.
+ * <p/>
+ * The limit covers whole data messages which were accepted for sending but whose write has not completed yet. Partial
+ * messages, control frames and close frames are never dropped and are not counted.
+ *
+ * @see TyrusWebSocketEngine#MAX_OUTBOUND_BYTES
+ * @see TyrusWebSocketEngine#OUTBOUND_OVERFLOW_POLICY
+ */
+public enum OutboundOverflowPolicy {
+
+    /**
+     * The new message is dropped; its send fails with {@link OutboundLimitExceededException}.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest messages which were not passed to the container yet are dropped until the new message fits into the
+     * limit. The new message is dropped when it does not fit even when no such message is left.
+     */
+    DROP_OLDEST,
+
+    /**
+     * All messages which were not passed to the container yet are dropped and replaced by the new message, so the
+     * slow client receives only the latest state. The new message is always accepted.
+     */
+    CONFLATE,
+
+    /**
+     * The session is closed with {@link javax.websocket.CloseReason.CloseCodes#TRY_AGAIN_LATER} and all the messages
+     * which were not passed to the container yet, including the new one, are dropped.
+     */
+    CLOSE
+}
@@ -0,0 +1,332 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import javax.websocket.EncodeException;
+import javax.websocket.SendHandler;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.core.frame.BinaryFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+import org.glassfish.tyrus.core.frame.TyrusFrame;
+import org.glassfish.tyrus.core.l10n.LocalizationMessages;
+
+import static org.glassfish.tyrus.core.Utils.checkNotNull;
+
+/**
+ * Message which is encoded and framed once and then can be sent to any number of sessions.
+ * <p/>
+ * Sending the same message to many sessions using standard {@link javax.websocket.RemoteEndpoint} methods means the
+ * message is encoded (by {@link javax.websocket.Encoder}, to UTF-8) and serialized into a WebSocket frame for every
+ * recipient. Prepared message does all that only once; sending it to a server side session without frame processing
+ * extension is just a write of the already serialized frame.
+ * <p/>
+ * Sessions with negotiated {@link org.glassfish.tyrus.core.extension.ExtendedExtension}s keep per-connection state
+ * of the extensions (see {@link org.glassfish.tyrus.core.extension.ExtendedExtension.ExtensionContext}), so the
+ * frame has to be processed for each of them separately; the same applies to the client side, which has to mask
+ * every frame by different masking key. The message is not encoded again in that case, only framed. The exception
+ * are server side sessions whose all frame processing extensions are {@link
+ * org.glassfish.tyrus.core.extension.ShareableOutgoingExtension}s with stateless context (for example compression
+ * without context takeover) - the frame is processed once for every group of such sessions with the same extension
+ * configuration.
+ * <p/>
+ * Instances are immutable and thread safe.
+ *
+ * @see TyrusRemoteEndpoint#sendPreparedMessage(PreparedMessage)
+ * @see TyrusRemoteEndpoint#sendPreparedMessage(PreparedMessage, SendHandler)
+ * @see TyrusSession#broadcast(PreparedMessage)
+ */
+public final class PreparedMessage {
+
+    private final String text;
+    private final byte[] data;
+    private final TyrusFrame.FrameType frameType;
+
+    /**
+     * Serialized frame, created lazily.
+     */
+    private volatile ByteBuffer frame;
+    private volatile long payloadLength;
+
+    /**
+     * Frames processed by extensions, keyed by {@link ProtocolHandler#getOutgoingProcessingKey()}. Created lazily.
+     */
+    private volatile ConcurrentMap<Object, ByteBuffer> processedFrames;
+
+    private PreparedMessage(String text) {
+        this.text = text;
+        this.data = null;
+        this.frameType = TyrusFrame.FrameType.TEXT;
+    }
+
+    private PreparedMessage(byte[] data) {
+        this.text = null;
+        this.data = data;
+        this.frameType = TyrusFrame.FrameType.BINARY;
+    }
+
+    /**
+     * Create prepared text message.
+     *
+     * @param text message.
+     * @return new prepared message.
+     */
+    public static PreparedMessage text(String text) {
+        checkNotNull(text, "text");
+        return new PreparedMessage(text);
+    }
+
+    /**
+     * Create prepared binary message.
+     * <p/>
+     * Remaining bytes of given buffer are copied, the buffer can be reused once this method returns.
+     *
+     * @param data message.
+     * @return new prepared message.
+     */
+    public static PreparedMessage binary(ByteBuffer data) {
+        checkNotNull(data, "data");
+        return new PreparedMessage(Utils.getRemainingArray(data));
+    }
+
+    /**
+     * Create prepared message from an object.
+     * <p/>
+     * The object is encoded by the first suitable {@link javax.websocket.Encoder} configured for the endpoint of given
+     * session, the same way as it would be encoded by {@link javax.websocket.RemoteEndpoint.Basic#sendObject(Object)}.
+     * The resulting message can be sent to sessions of other endpoints as well.
+     *
+     * @param object  message.
+     * @param session session which endpoint configuration will be used for encoding the object. Has to be an
+     *                instance of {@link TyrusSession}.
+     * @return new prepared message.
+     * @throws EncodeException when the object cannot be encoded.
+     * @throws IOException     when the encoding fails.
+     */
+    public static PreparedMessage object(Object object, Session session) throws EncodeException, IOException {
+        checkNotNull(object, "object");
+        checkNotNull(session, "session");
+
+        if (!(session instanceof TyrusSession)) {
+            throw new IllegalArgumentException("Session has to be an instance of " + TyrusSession.class.getName());
+        }
+
+        if (object instanceof String) {
+            return new PreparedMessage((String) object);
+        }
+
+        final TyrusSession tyrusSession = (TyrusSession) session;
+        final Object encoded = tyrusSession.getEndpointWrapper().doEncode(tyrusSession, object);
+
+        if (encoded instanceof String) {
+            return new PreparedMessage((String) encoded);
+        } else if (encoded instanceof ByteBuffer) {
+            return new PreparedMessage(Utils.getRemainingArray((ByteBuffer) encoded));
+        } else if (encoded instanceof StringWriter) {
+            return new PreparedMessage(((StringWriter) encoded).getBuffer().toString());
+        } else if (encoded instanceof ByteArrayOutputStream) {
+            return new PreparedMessage(((ByteArrayOutputStream) encoded).toByteArray());
+        }
+
+        throw new EncodeException(object, LocalizationMessages.ENCODING_FAILED());
+    }
+
+    /**
+     * Get information about message type.
+     *
+     * @return {@code true} for text message, {@code false} for binary message.
+     */
+    public boolean isText() {
+        return text != null;
+    }
+
+    /**
+     * Send the message using given socket.
+     *
+     * @param webSocket socket to be used for sending the message.
+     * @return future representing the outcome of the send operation.
+     */
+    Future<Frame> send(TyrusWebSocket webSocket) {
+        final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+
+        final ByteBuffer frame = getFrame(protocolHandler);
+        if (frame == null) {
+            return text != null ? webSocket.sendText(text) : webSocket.sendBinary(data);
+        }
+
+        final Future<Frame> future = webSocket.sendRawFrame(frame.duplicate());
+        webSocket.getMessageEventListener().onFrameSent(frameType, payloadLength);
+        return future;
+    }
+
+    /**
+     * Send the message using given socket.
+     *
+     * @param webSocket socket to be used for sending the message.
+     * @param handler   handler notified when the message is sent.
+     */
+    void send(TyrusWebSocket webSocket, SendHandler handler) {
+        final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+
+        final ByteBuffer frame = getFrame(protocolHandler);
+        if (frame == null) {
+            if (text != null) {
+                webSocket.sendText(text, handler);
+            } else {
+                webSocket.sendBinary(data, handler);
+            }
+            return;
+        }
+
+        webSocket.sendRawFrame(frame.duplicate(), handler);
+        webSocket.getMessageEventListener().onFrameSent(frameType, payloadLength);
+    }
+
+    /**
+     * Text of the message, {@code null} for binary message.
+     *
+     * @return text of the message.
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * Data of binary message, {@code null} for text message. The array must not be modified.
+     *
+     * @return binary data.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Get the message serialized as a frame which can be sent by given protocol handler.
+     * <p/>
+     * Returned buffer is shared, it has to be {@link ByteBuffer#duplicate() duplicated} before it is passed to a
+     * writer.
+     *
+     * @param protocolHandler protocol handler of the recipient.
+     * @return serialized frame or {@code null} when the message has to be framed by the protocol handler itself.
+     */
+    private ByteBuffer getFrame(ProtocolHandler protocolHandler) {
+        if (protocolHandler.isClient()) {
+            return null;
+        }
+
+        if (!protocolHandler.hasExtensions()) {
+            return getFrame();
+        }
+
+        final Object key = protocolHandler.getOutgoingProcessingKey();
+        if (key == null) {
+            return null;
+        }
+
+        ConcurrentMap<Object, ByteBuffer> frames = processedFrames;
+        if (frames == null) {
+            synchronized (this) {
+                frames = processedFrames;
+                if (frames == null) {
+                    frames = new ConcurrentHashMap<Object, ByteBuffer>(4, 0.75f, 1);
+                    processedFrames = frames;
+                }
+            }
+        }
+
+        ByteBuffer result = frames.get(key);
+        if (result == null) {
+            final Frame dataFrame = createFrame();
+            // the unprocessed frame, which sets the payload length otherwise, is not built for this recipient.
+            payloadLength = dataFrame.getPayloadLength();
+            result = protocolHandler.frameShared(dataFrame);
+            final ByteBuffer previous = frames.putIfAbsent(key, result);
+            if (previous != null) {
+                result = previous;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the message serialized as unmasked frame.
+     * <p/>
+     * Returned buffer is shared, it has to be {@link ByteBuffer#duplicate() duplicated} before it is passed to a
+     * writer.
+     *
+     * @return serialized frame.
+     */
+    private ByteBuffer getFrame() {
+        ByteBuffer result = frame;
+
+        if (result == null) {
+            final Frame dataFrame = createFrame();
+            final ByteBuffer payload = dataFrame.getPayloadBuffer();
+            final int payloadLength = payload.remaining();
+            final int headerLength = payloadLength <= 125 ? 2 : (payloadLength <= 0xFFFF ? 4 : 10);
+
+            final ByteBuffer buffer = ByteBuffer.allocate(headerLength + payloadLength);
+            ProtocolHandler.putHeader(buffer, (byte) (0x80 | dataFrame.getOpcode()), payloadLength);
+            buffer.put(payload);
+            buffer.flip();
+
+            result = buffer;
+            this.payloadLength = payloadLength;
+            frame = result;
+        }
+
+        return result;
+    }
+
+    private Frame createFrame() {
+        return text != null ? new TextFrame(text, false, true) : new BinaryFrame(data, false, true);
+    }
+}
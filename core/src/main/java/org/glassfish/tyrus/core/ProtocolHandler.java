@@ -43,14 +43,21 @@ package org.glassfish.tyrus.core;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -61,11 +68,14 @@ import javax.websocket.SendResult;
 import javax.websocket.server.HandshakeRequest;
 
 import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.extension.ShareableOutgoingExtension;
 import org.glassfish.tyrus.core.frame.BinaryFrame;
 import org.glassfish.tyrus.core.frame.CloseFrame;
 import org.glassfish.tyrus.core.frame.Frame;
 import org.glassfish.tyrus.core.frame.TextFrame;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
+import org.glassfish.tyrus.core.frame.Utf8Decoder;
+import org.glassfish.tyrus.core.frame.Utf8Encoder;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
 import org.glassfish.tyrus.spi.CompletionHandler;
@@ -91,6 +101,23 @@ public final class ProtocolHandler {
     private final boolean client;
     private final MaskingKeyGenerator maskingKeyGenerator;
     private final ParsingState parsingState = new ParsingState();
+    /**
+     * Incoming text frames are processed sequentially, so the decoder can be reused for the whole connection.
+     */
+    private final Utf8Decoder utf8Decoder = new Utf8Decoder();
+    /**
+     * Outgoing whole messages are collected here when batching is allowed.
+     */
+    private final OutboundBatch batch = new OutboundBatch(new Runnable() {
+        @Override
+        public void run() {
+            try {
+                flushBatch();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Batch could not be flushed.", e);
+            }
+        }
+    });
 
     private volatile TyrusWebSocket webSocket;
     private volatile byte outFragmentedType;
@@ -102,22 +129,68 @@ public final class ProtocolHandler {
     private volatile ExtendedExtension.ExtensionContext extensionContext;
     private volatile ByteBuffer remainder = null;
     private volatile boolean hasExtensions = false;
+    private volatile Object outgoingProcessingKey = null;
     private volatile MessageEventListener messageEventListener = MessageEventListener.NO_OP;
-    private volatile SendingFragmentState sendingFragment = SendingFragmentState.IDLE;
 
     /**
-     * Synchronizes all public send* (including stream variants) methods.
-     * <p/>
-     * The reason for this lock is that we need to have consistent value in {#sendingFragment} field to be able to
-     * determine the sending state of this particular instance/session.
+     * Sending state of this particular instance/session, changed by {@code stream} methods.
      */
-    private final Lock lock = new ReentrantLock();
+    private final AtomicReference<SendingFragmentState> sendingFragment =
+            new AtomicReference<SendingFragmentState>(SendingFragmentState.IDLE);
 
     /**
      * If partial message is being send and we want to send partial message with different type or other whole message,
-     * we need to wait until "idleCondition" is signalled.
+     * we need to wait until "idleMonitor" is notified.
      */
-    private final Condition idleCondition = lock.newCondition();
+    private final Object idleMonitor = new Object();
+
+    /**
+     * Outgoing frames which were not yet passed to the {@link Writer}.
+     * <p/>
+     * Senders do not take any lock. Queued frames are processed (extensions, framing, masking) and passed to the
+     * writer in order by one thread at a time - the one which managed to set {@link #draining}; see {@link
+     * #writeQueued(QueuedFrame)}.
+     */
+    private final Queue<QueuedFrame> outboundQueue = new ConcurrentLinkedQueue<QueuedFrame>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile Thread drainingThread = null;
+
+    /**
+     * Whole messages which were queued after the first frame of a partial message (they passed {@link
+     * #checkSendingFragment()} right before the partial message was started). They are written once the partial
+     * message is finished. Accessed only by the thread writing queued frames.
+     */
+    private final Queue<QueuedFrame> deferredFrames = new LinkedList<QueuedFrame>();
+
+    /**
+     * Outbound byte limit; see {@link #configureOutboundLimit(long, OutboundOverflowPolicy)}. {@code 0} means that
+     * outgoing messages are not limited.
+     */
+    private volatile long maxOutboundBytes = 0;
+    private volatile OutboundOverflowPolicy overflowPolicy = OutboundOverflowPolicy.CLOSE;
+    private volatile boolean overflowClosed = false;
+
+    /**
+     * Size of whole messages which were accepted for sending, but were not written yet (held messages included).
+     */
+    private final AtomicLong outboundBytes = new AtomicLong(0);
+
+    /**
+     * Size of whole messages which were passed to the writer, but were not written yet.
+     */
+    private final AtomicLong writerBytes = new AtomicLong(0);
+
+    /**
+     * Whole messages held back while the writer has not finished writing previous messages. Held messages can be
+     * dropped when the outbound byte limit is exceeded or replaced by a newer message with the same conflation key;
+     * they are passed to the writer together once it finishes.
+     */
+    private final Queue<HeldFrame> heldFrames = new ConcurrentLinkedQueue<HeldFrame>();
+    /**
+     * Held messages by their conflation keys. Created lazily, accessed only by the thread writing queued frames.
+     */
+    private Map<Object, HeldFrame> heldFramesByKey = null;
+    private final AtomicBoolean heldFramesRelease = new AtomicBoolean(false);
 
     /**
      * Sending state.
@@ -193,6 +266,107 @@ public final class ProtocolHandler {
         return hasExtensions;
     }
 
+    /**
+     * Configure batching of outgoing messages.
+     *
+     * @param batchSize  number of bytes which triggers the write of collected messages. Values lower than {@code 1}
+     *                   are ignored and {@value OutboundBatch#DEFAULT_BATCH_SIZE} bytes is used.
+     * @param lingerTime maximal time in milliseconds for which the messages are kept in the batch, {@code 0} means
+     *                   that the batch is written only when it is full or when it is flushed.
+     * @param scheduler  scheduler used for writing the batch after the linger time elapses. Linger time is ignored
+     *                   when {@code null}.
+     * @see #setBatchingAllowed(boolean)
+     */
+    public void configureBatching(int batchSize, long lingerTime, ScheduledExecutorService scheduler) {
+        batch.configure(batchSize, lingerTime, scheduler);
+    }
+
+    /**
+     * Configure the limit of outgoing bytes.
+     * <p/>
+     * Whole data messages which were accepted for sending, but not written yet, are counted. While the writer has
+     * not finished writing previous messages, new messages are held back in this handler, so they can be dropped
+     * according to the policy when a message which does not fit into the limit is sent. A message bigger than the
+     * limit is accepted when no other message is pending. Partial messages and control frames are neither counted
+     * nor dropped. Messages are not held back when batching is allowed, {@link OutboundOverflowPolicy#DROP_OLDEST}
+     * and {@link OutboundOverflowPolicy#CONFLATE} drop only the new message in that case.
+     *
+     * @param maxOutboundBytes maximal number of pending outgoing bytes. Values lower than {@code 1} disable the limit.
+     * @param policy           action taken when the limit is exceeded. {@link OutboundOverflowPolicy#CLOSE} is used
+     *                         when {@code null}.
+     */
+    public void configureOutboundLimit(long maxOutboundBytes, OutboundOverflowPolicy policy) {
+        this.maxOutboundBytes = maxOutboundBytes > 0 ? maxOutboundBytes : 0;
+        this.overflowPolicy = policy == null ? OutboundOverflowPolicy.CLOSE : policy;
+    }
+
+    /**
+     * Allow or disallow batching of outgoing messages.
+     * <p/>
+     * When allowed, whole data messages are not written immediately, but collected and written together by one
+     * gathering write; see {@link #configureBatching(int, long, ScheduledExecutorService)}. Control frames and
+     * partial messages are never batched, they flush already collected messages and are written directly. Collected
+     * messages are written when batching is disallowed.
+     *
+     * @param batchingAllowed {@code true} when batching is allowed.
+     */
+    public void setBatchingAllowed(boolean batchingAllowed) {
+        if (batchingAllowed || writer == null) {
+            batch.setEnabled(batchingAllowed, null);
+            return;
+        }
+
+        // collected messages have to be written before any message queued after them.
+        queue(new QueuedFrame(false, null) {
+            @Override
+            void write(Writer localWriter) {
+                batch.setEnabled(false, localWriter);
+            }
+        });
+    }
+
+    /**
+     * Get information whether batching of outgoing messages is allowed.
+     *
+     * @return {@code true} when batching is allowed.
+     */
+    public boolean isBatchingAllowed() {
+        return batch.isEnabled();
+    }
+
+    /**
+     * Write all the collected messages.
+     *
+     * @return future completed when all the collected messages are written.
+     */
+    public Future<Void> flushBatch() {
+        final TyrusFuture<Void> flushFuture = new TyrusFuture<Void>();
+
+        // messages which are still queued have to be collected first.
+        queue(new QueuedFrame(false, null) {
+            @Override
+            void write(Writer localWriter) {
+                batch.flush(localWriter, flushFuture);
+            }
+
+            @Override
+            void failed(Throwable throwable) {
+                flushFuture.setFailure(throwable);
+            }
+        });
+
+        return flushFuture;
+    }
+
+    /**
+     * Get information about side of the connection.
+     *
+     * @return {@code true} when this instance is on client side, {@code false} when on server side.
+     */
+    /* package */ boolean isClient() {
+        return client;
+    }
+
     /**
      * Server side handshake processing.
      *
@@ -210,9 +384,52 @@ public final class ProtocolHandler {
         this.subProtocol = response.getFirstHeaderValue(HandshakeRequest.SEC_WEBSOCKET_PROTOCOL);
         this.extensionContext = extensionContext;
         hasExtensions = extensions != null && extensions.size() > 0;
+        outgoingProcessingKey = hasExtensions ? createOutgoingProcessingKey() : null;
         return handshake;
     }
 
+    /**
+     * Get key identifying processing of outgoing frames by negotiated extensions (server side only).
+     * <p/>
+     * Connections with equal keys produce the same processed frame for the same message, so the message can be
+     * processed once and sent to all of them.
+     *
+     * @return key identifying outgoing processing or {@code null} when outgoing frames of this connection have to be
+     * processed separately (on the client side, with stateful extensions or without extensions).
+     * @see ShareableOutgoingExtension
+     */
+    /* package */ Object getOutgoingProcessingKey() {
+        return outgoingProcessingKey;
+    }
+
+    private Object createOutgoingProcessingKey() {
+        final List<Object> key = new ArrayList<Object>();
+
+        for (Extension extension : extensions) {
+            if (extension instanceof ShareableOutgoingExtension) {
+                final Object extensionKey;
+                try {
+                    extensionKey = ((ShareableOutgoingExtension) extension).getOutgoingProcessingKey(extensionContext);
+                } catch (Throwable t) {
+                    LOGGER.log(Level.FINE, LocalizationMessages.EXTENSION_EXCEPTION(extension.getName(), t
+                            .getMessage()), t);
+                    return null;
+                }
+
+                if (extensionKey == null) {
+                    return null;
+                }
+
+                key.add(extension.getClass());
+                key.add(extensionKey);
+            } else if (extension instanceof ExtendedExtension) {
+                return null;
+            }
+        }
+
+        return key;
+    }
+
     /* package */ List<Extension> getExtensions() {
         return extensions;
     }
@@ -263,81 +480,132 @@ public final class ProtocolHandler {
      */
     /* package */
     final Future<Frame> send(TyrusFrame frame) {
-        return send(frame, null, true);
+        return queue(frame, null);
     }
 
-    private Future<Frame> send(TyrusFrame frame, CompletionHandler<Frame> completionHandler, Boolean useTimeout) {
-        return write(frame, completionHandler, useTimeout);
+    public Future<Frame> send(byte[] data) {
+        checkSendingFragment();
+
+        return queue(new BinaryFrame(data, false, true), null);
     }
 
-    private Future<Frame> send(ByteBuffer frame, CompletionHandler<Frame> completionHandler, Boolean useTimeout) {
-        return write(frame, completionHandler, useTimeout);
+    public void send(final byte[] data, final SendHandler handler) {
+        checkSendingFragment();
+
+        queue(new BinaryFrame(data, false, true), new CompletionHandler<Frame>() {
+            @Override
+            public void failed(Throwable throwable) {
+                handler.onResult(new SendResult(throwable));
+            }
+
+            @Override
+            public void completed(Frame result) {
+                handler.onResult(new SendResult());
+            }
+        });
     }
 
-    public Future<Frame> send(byte[] data) {
-        lock.lock();
-        try {
-            checkSendingFragment();
+    public Future<Frame> send(String data) {
+        checkSendingFragment();
 
-            return send(new BinaryFrame(data, false, true), null, true);
-        } finally {
-            lock.unlock();
-        }
+        return queueText(data, false, true, null);
     }
 
-    public void send(final byte[] data, final SendHandler handler) {
-        lock.lock();
+    public void send(final String data, final SendHandler handler) {
+        checkSendingFragment();
 
-        try {
-            checkSendingFragment();
+        queueText(data, false, true, new CompletionHandler<Frame>() {
+            @Override
+            public void failed(Throwable throwable) {
+                handler.onResult(new SendResult(throwable));
+            }
 
-            send(new BinaryFrame(data, false, true), new CompletionHandler<Frame>() {
-                @Override
-                public void failed(Throwable throwable) {
-                    handler.onResult(new SendResult(throwable));
-                }
+            @Override
+            public void completed(Frame result) {
+                handler.onResult(new SendResult());
+            }
+        });
+    }
 
-                @Override
-                public void completed(Frame result) {
-                    handler.onResult(new SendResult());
-                }
-            }, true);
-        } finally {
-            lock.unlock();
-        }
+    /**
+     * Send text message which can be replaced by a newer message with the same key.
+     * <p/>
+     * While the writer has not finished writing previous messages, the message is held back; when another message
+     * with the same key is sent in the meantime, it replaces the held message in place and the held message is
+     * considered to be sent. Messages are not held back when batching is allowed.
+     *
+     * @param key  conflation key, cannot be {@code null}.
+     * @param data text to be sent.
+     * @return send future.
+     */
+    public Future<Frame> sendConflated(Object key, String data) {
+        checkSendingFragment();
+
+        return queueText(data, false, true, key, null);
     }
 
-    public Future<Frame> send(String data) {
-        lock.lock();
+    /**
+     * Send text message which can be replaced by a newer message with the same key.
+     *
+     * @param key     conflation key, cannot be {@code null}.
+     * @param data    text to be sent.
+     * @param handler {@link SendHandler#onResult(SendResult)} will be called when sending is complete or when the
+     *                message is replaced.
+     * @see #sendConflated(Object, String)
+     */
+    public void sendConflated(Object key, String data, final SendHandler handler) {
+        checkSendingFragment();
 
-        try {
-            checkSendingFragment();
-            return send(new TextFrame(data, false, true));
-        } finally {
-            lock.unlock();
-        }
+        queueText(data, false, true, key, new CompletionHandler<Frame>() {
+            @Override
+            public void failed(Throwable throwable) {
+                handler.onResult(new SendResult(throwable));
+            }
+
+            @Override
+            public void completed(Frame result) {
+                handler.onResult(new SendResult());
+            }
+        });
     }
 
-    public void send(final String data, final SendHandler handler) {
-        lock.lock();
+    /**
+     * Send binary message which can be replaced by a newer message with the same key.
+     *
+     * @param key  conflation key, cannot be {@code null}.
+     * @param data data to be sent.
+     * @return send future.
+     * @see #sendConflated(Object, String)
+     */
+    public Future<Frame> sendConflated(Object key, byte[] data) {
+        checkSendingFragment();
 
-        try {
-            checkSendingFragment();
+        return queue(new BinaryFrame(data, false, true), key, null);
+    }
 
-            send(new TextFrame(data, false, true), new CompletionHandler<Frame>() {
-                @Override
-                public void failed(Throwable throwable) {
-                    handler.onResult(new SendResult(throwable));
-                }
+    /**
+     * Send binary message which can be replaced by a newer message with the same key.
+     *
+     * @param key     conflation key, cannot be {@code null}.
+     * @param data    data to be sent.
+     * @param handler {@link SendHandler#onResult(SendResult)} will be called when sending is complete or when the
+     *                message is replaced.
+     * @see #sendConflated(Object, String)
+     */
+    public void sendConflated(Object key, byte[] data, final SendHandler handler) {
+        checkSendingFragment();
 
-                @Override
-                public void completed(Frame result) {
-                    handler.onResult(new SendResult());
-                }
-            }, true);
-        } finally {
-            lock.unlock();
-        }
+        queue(new BinaryFrame(data, false, true), key, new CompletionHandler<Frame>() {
+            @Override
+            public void failed(Throwable throwable) {
+                handler.onResult(new SendResult(throwable));
+            }
+
+            @Override
+            public void completed(Frame result) {
+                handler.onResult(new SendResult());
+            }
+        });
     }
 
     /**
@@ -347,158 +615,625 @@ public final class ProtocolHandler {
      * @return send future.
      */
     public Future<Frame> sendRawFrame(ByteBuffer data) {
-        lock.lock();
+        checkSendingFragment();
 
-        try {
-            checkSendingFragment();
+        return queueRawFrame(data, null);
+    }
 
-            return send(data, null, true);
-        } finally {
-            lock.unlock();
-        }
+    /**
+     * Raw frame is always whole (not partial).
+     *
+     * @param data    serialized frame.
+     * @param handler {@link SendHandler#onResult(SendResult)} will be called when sending is complete.
+     */
+    public void sendRawFrame(ByteBuffer data, final SendHandler handler) {
+        checkSendingFragment();
+
+        queueRawFrame(data, new CompletionHandler<Frame>() {
+            @Override
+            public void failed(Throwable throwable) {
+                handler.onResult(new SendResult(throwable));
+            }
+
+            @Override
+            public void completed(Frame result) {
+                handler.onResult(new SendResult());
+            }
+        });
     }
 
     /**
      * Check whether current {@link ProtocolHandler} is sending a partial message.
      * <p/>
      * If yes, wait for {@value ProtocolHandler#SEND_TIMEOUT} and if the message still cannot be sent, throw {@link
-     * IllegalStateException}.
+     * IllegalStateException}. The common case - no partial message in progress - does not block nor synchronize.
      */
     private void checkSendingFragment() {
-        final long timeout = System.currentTimeMillis() + SEND_TIMEOUT;
+        if (sendingFragment.get() == SendingFragmentState.IDLE) {
+            return;
+        }
 
-        // idleCondition can be signalled but other thread could be scheduled before this one; of that thread starts
-        // sending another partial message, we should wait again for the condition to be signalled.
-        while (sendingFragment != SendingFragmentState.IDLE) {
-            final long currentTimeMillis = System.currentTimeMillis();
+        final long timeout = System.currentTimeMillis() + SEND_TIMEOUT;
 
-            // timeout already reached.
-            if (currentTimeMillis >= timeout) {
-                throw new IllegalStateException();
-            }
+        synchronized (idleMonitor) {
+            // idleMonitor can be notified but other thread could be scheduled before this one; of that thread starts
+            // sending another partial message, we should wait again.
+            while (sendingFragment.get() != SendingFragmentState.IDLE) {
+                final long currentTimeMillis = System.currentTimeMillis();
 
-            try {
-                if (!idleCondition.await(timeout - currentTimeMillis, TimeUnit.MILLISECONDS)) {
+                // timeout already reached.
+                if (currentTimeMillis >= timeout) {
                     throw new IllegalStateException();
                 }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException(e);
+
+                try {
+                    idleMonitor.wait(timeout - currentTimeMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
             }
         }
     }
 
-    public Future<Frame> stream(boolean last, byte[] bytes, int off, int len) {
-        lock.lock();
+    /**
+     * Mark the end of the partial message and wake up threads waiting in {@link #checkSendingFragment()}.
+     */
+    private void partialMessageFinished() {
+        sendingFragment.set(SendingFragmentState.IDLE);
 
-        try {
-            switch (sendingFragment) {
+        synchronized (idleMonitor) {
+            idleMonitor.notifyAll();
+        }
+    }
+
+    public Future<Frame> stream(boolean last, byte[] bytes, int off, int len) {
+        while (true) {
+            switch (sendingFragment.get()) {
                 case SENDING_BINARY:
-                    Future<Frame> frameFuture = send(
-                            new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), true, last));
+                    Future<Frame> frameFuture =
+                            queue(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), true, last), null);
                     if (last) {
-                        sendingFragment = SendingFragmentState.IDLE;
-                        idleCondition.signalAll();
+                        partialMessageFinished();
                     }
                     return frameFuture;
 
                 case SENDING_TEXT:
                     checkSendingFragment();
-                    sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_BINARY);
-                    return send(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), false, last));
+                    break;
 
                 default:
                     // IDLE
-                    sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_BINARY);
-                    return send(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), false, last));
+                    if (sendingFragment.compareAndSet(
+                            SendingFragmentState.IDLE,
+                            (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_BINARY))) {
+                        return queue(new BinaryFrame(Arrays.copyOfRange(bytes, off, off + len), false, last), null);
+                    }
             }
-
-        } finally {
-            lock.unlock();
         }
     }
 
     public Future<Frame> stream(boolean last, String fragment) {
-        lock.lock();
-
-        try {
-            switch (sendingFragment) {
+        while (true) {
+            switch (sendingFragment.get()) {
                 case SENDING_TEXT:
-                    Future<Frame> frameFuture = send(new TextFrame(fragment, true, last));
+                    Future<Frame> frameFuture = queueText(fragment, true, last, null);
                     if (last) {
-                        sendingFragment = SendingFragmentState.IDLE;
-                        idleCondition.signalAll();
+                        partialMessageFinished();
                     }
                     return frameFuture;
 
                 case SENDING_BINARY:
                     checkSendingFragment();
-                    sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_TEXT);
-                    return send(new TextFrame(fragment, false, last));
+                    break;
 
                 default:
                     // IDLE
-                    sendingFragment = (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_TEXT);
-                    return send(new TextFrame(fragment, false, last));
+                    if (sendingFragment.compareAndSet(
+                            SendingFragmentState.IDLE,
+                            (last ? SendingFragmentState.IDLE : SendingFragmentState.SENDING_TEXT))) {
+                        return queueText(fragment, false, last, null);
+                    }
+            }
+        }
+    }
+
+    public Future<Frame> close(final int code, final String reason) {
+        final CloseFrame outgoingCloseFrame;
+        final CloseReason closeReason = new CloseReason(CloseReason.CloseCodes.getCloseCode(code), reason);
+
+        if (code == CloseReason.CloseCodes.NO_STATUS_CODE.getCode()
+                || code == CloseReason.CloseCodes.CLOSED_ABNORMALLY.getCode()
+                || code == CloseReason.CloseCodes.TLS_HANDSHAKE_FAILURE.getCode()
+                // client side cannot send SERVICE_RESTART or TRY_AGAIN_LATER
+                // will be replaced with NORMAL_CLOSURE
+                || (client && (code == CloseReason.CloseCodes.SERVICE_RESTART.getCode()
+                || code == CloseReason.CloseCodes.TRY_AGAIN_LATER.getCode()))) {
+
+            outgoingCloseFrame = new CloseFrame(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, reason));
+        } else {
+            outgoingCloseFrame = new CloseFrame(closeReason);
+        }
+
+        final Future<Frame> send = queue(outgoingCloseFrame, null);
+
+        webSocket.onClose(new CloseFrame(closeReason));
+
+        return send;
+    }
+
+    private Future<Frame> queue(final TyrusFrame frame, CompletionHandler<Frame> completionHandler) {
+        return queue(frame, null, completionHandler);
+    }
+
+    private Future<Frame> queue(final TyrusFrame frame, Object conflationKey,
+                                CompletionHandler<Frame> completionHandler) {
+        final boolean messageStart = !frame.isControlFrame() && frame.getOpcode() != 0x00;
+        final long size = messageStart && frame.isFin() ? countedSize(frame.getPayloadLength(), conflationKey) : -1;
+
+        return queue(new QueuedFrame(messageStart, size, conflationKey, completionHandler) {
+            @Override
+            void write(Writer localWriter) {
+                ProtocolHandler.this.write(frame, completionHandler, future, localWriter);
+            }
+        });
+    }
+
+    private Future<Frame> queueText(final String text, final boolean continuation, final boolean fin,
+                                    CompletionHandler<Frame> completionHandler) {
+        return queueText(text, continuation, fin, null, completionHandler);
+    }
+
+    private Future<Frame> queueText(final String text, final boolean continuation, final boolean fin,
+                                    Object conflationKey, CompletionHandler<Frame> completionHandler) {
+        final boolean counted = !continuation && fin && (maxOutboundBytes > 0 || conflationKey != null);
+        final long size = counted ? textSize(text) : -1;
+
+        return queue(new QueuedFrame(!continuation, size, conflationKey, completionHandler) {
+            @Override
+            void write(Writer localWriter) {
+                writeText(text, continuation, fin, completionHandler, future, localWriter);
+            }
+        });
+    }
+
+    private Future<Frame> queueRawFrame(final ByteBuffer data, CompletionHandler<Frame> completionHandler) {
+        return queue(new QueuedFrame(true, countedSize(data.remaining(), null), null, completionHandler) {
+            @Override
+            void write(Writer localWriter) {
+                ProtocolHandler.this.write(data, completionHandler, future, localWriter);
+            }
+        });
+    }
+
+    private Future<Frame> queue(QueuedFrame queuedFrame) {
+        if (writer == null) {
+            throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
+        }
+
+        outboundQueue.offer(queuedFrame);
+        writeQueued(queuedFrame);
+
+        return queuedFrame.future;
+    }
+
+    /**
+     * Wait until given frame is handled - passed to the writer by this or another thread.
+     * <p/>
+     * Only one thread at a time writes queued frames. Other senders do not block on a lock, they park until their
+     * frames are written or until they can take over the writing. Since every sender waits for its own frame, the
+     * writing thread can stop as soon as its frame is written; it then wakes up the sender of the first frame left
+     * in the queue, so no frame is left unattended.
+     *
+     * @param queuedFrame frame to be handled.
+     */
+    private void writeQueued(QueuedFrame queuedFrame) {
+        final Thread currentThread = Thread.currentThread();
+        if (drainingThread == currentThread) {
+            // sent from a completion handler invoked by the writer while writing another queued frame.
+            writeQueuedFrames(queuedFrame);
+            return;
+        }
+
+        while (!queuedFrame.handled) {
+            if (draining.compareAndSet(false, true)) {
+                drainingThread = currentThread;
+                try {
+                    writeQueuedFrames(queuedFrame);
+                } finally {
+                    drainingThread = null;
+                    draining.set(false);
+                    wakeUpNextSender();
+                }
+            } else if (queuedFrame.waiter == null) {
+                // writing thread checks the waiter after it stops writing; try to take over once more before parking.
+                queuedFrame.waiter = currentThread;
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    /**
+     * Wake up the sender waiting for the first queued frame, so it can take over the writing.
+     */
+    private void wakeUpNextSender() {
+        final QueuedFrame next = outboundQueue.peek();
+        if (next != null) {
+            final Thread waiter = next.waiter;
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+
+    /**
+     * Write queued frames until given frame is handled. Frames deferred until the end of a partial message are
+     * written by the thread which wrote the last frame of the partial message.
+     *
+     * @param last last frame to be handled.
+     */
+    private void writeQueuedFrames(QueuedFrame last) {
+        while (!last.handled || (outFragmentedType == 0 && !deferredFrames.isEmpty())) {
+            final QueuedFrame queuedFrame = pollQueuedFrame();
+            if (queuedFrame == null) {
+                return;
+            }
+
+            // whole message which passed checkSendingFragment() right before a partial message was started.
+            if (queuedFrame.messageStart && outFragmentedType != 0) {
+                deferredFrames.offer(queuedFrame);
+                queuedFrame.setHandled();
+                continue;
+            }
+
+            try {
+                final Writer localWriter = writer;
+                if (localWriter == null) {
+                    throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
+                }
+
+                if (queuedFrame.size >= 0 || !heldFrames.isEmpty()) {
+                    writeLimited(queuedFrame, localWriter);
+                } else {
+                    queuedFrame.write(localWriter);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Frame could not be written.", e);
+                queuedFrame.failed(e);
+            } finally {
+                queuedFrame.setHandled();
+            }
+        }
+    }
+
+    /**
+     * Apply the outbound byte limit and conflation to given frame and write it, hold it back or drop it.
+     *
+     * @param queuedFrame frame to be handled.
+     * @param localWriter writer to be used.
+     */
+    private void writeLimited(QueuedFrame queuedFrame, Writer localWriter) {
+        if (queuedFrame.size < 0) {
+            // frames which are not counted must not overtake held messages.
+            writeHeldFrames(localWriter);
+            queuedFrame.write(localWriter);
+            return;
+        }
+
+        final long limit = maxOutboundBytes;
+        final OutboundOverflowPolicy policy = overflowPolicy;
+        if (overflowClosed) {
+            queuedFrame.failed(new OutboundLimitExceededException(limit, OutboundOverflowPolicy.CLOSE));
+            return;
+        }
+
+        if (queuedFrame.conflationKey != null && replaceHeldFrame(queuedFrame)) {
+            return;
+        }
+
+        final long size = queuedFrame.size;
+        if (limit > 0 && !fitsOutboundLimit(size, limit)) {
+            final boolean accepted;
+            switch (policy) {
+                case DROP_OLDEST:
+                    HeldFrame oldest;
+                    while (!fitsOutboundLimit(size, limit) && (oldest = heldFrames.poll()) != null) {
+                        dropHeldFrame(oldest, limit, policy);
+                    }
+                    accepted = fitsOutboundLimit(size, limit);
+                    break;
+                case CONFLATE:
+                    dropHeldFrames(limit, policy);
+                    // nothing is held back when batching, the new message would be passed to the writer.
+                    accepted = !batch.isEnabled();
+                    break;
+                case CLOSE:
+                    overflowClosed = true;
+                    dropHeldFrames(limit, policy);
+                    accepted = false;
+                    break;
+                default:
+                    accepted = false;
+            }
+
+            messageEventListener.onOutboundOverflow(policy);
+
+            if (!accepted) {
+                queuedFrame.failed(new OutboundLimitExceededException(limit, policy));
+                if (policy == OutboundOverflowPolicy.CLOSE) {
+                    LOGGER.log(Level.FINE, "Outbound byte limit {0} exceeded, closing the session.", limit);
+                    close(CloseReason.CloseCodes.TRY_AGAIN_LATER.getCode(),
+                          LocalizationMessages.OUTBOUND_LIMIT_CLOSE_REASON());
+                }
+                return;
             }
+        }
+
+        final OutboundBytesHandler handler = countOutboundBytes(queuedFrame);
+
+        if (!batch.isEnabled() && (writerBytes.get() > 0 || !heldFrames.isEmpty())) {
+            final HeldFrame heldFrame = new HeldFrame(queuedFrame);
+            heldFrames.offer(heldFrame);
+            if (queuedFrame.conflationKey != null) {
+                if (heldFramesByKey == null) {
+                    heldFramesByKey = new HashMap<Object, HeldFrame>();
+                }
+                heldFramesByKey.put(queuedFrame.conflationKey, heldFrame);
+            }
+
+            // the writer could have finished in the meantime without noticing the held frame.
+            if (writerBytes.get() == 0) {
+                writeHeldFrames(localWriter);
+            }
+            return;
+        }
+
+        handler.passedToWriter();
+        queuedFrame.write(localWriter);
+    }
+
+    private OutboundBytesHandler countOutboundBytes(QueuedFrame queuedFrame) {
+        final OutboundBytesHandler handler = new OutboundBytesHandler(queuedFrame.completionHandler, queuedFrame.size);
+        queuedFrame.completionHandler = handler;
+        outboundBytes.addAndGet(queuedFrame.size);
+        messageEventListener.onOutboundQueueChanged(queuedFrame.size);
+        return handler;
+    }
+
+    /**
+     * Replace held message with the same conflation key by given frame. The frame takes the place of the replaced
+     * message in the sending order; the sender of the replaced message is notified that the message was sent.
+     *
+     * @param queuedFrame frame with conflation key.
+     * @return {@code true} when a message was replaced, {@code false} when there is no held message with the same
+     * key.
+     */
+    private boolean replaceHeldFrame(QueuedFrame queuedFrame) {
+        final HeldFrame heldFrame = heldFramesByKey == null ? null : heldFramesByKey.get(queuedFrame.conflationKey);
+        if (heldFrame == null) {
+            return false;
+        }
+
+        final QueuedFrame replaced = heldFrame.frame.get();
+        if (replaced == null || !heldFrame.frame.compareAndSet(replaced, queuedFrame)) {
+            // already written or dropped.
+            heldFramesByKey.remove(queuedFrame.conflationKey);
+            return false;
+        }
+
+        countOutboundBytes(queuedFrame);
+        replaced.conflated();
+        return true;
+    }
+
+    private boolean fitsOutboundLimit(long size, long limit) {
+        final long pending = outboundBytes.get();
+        return pending == 0 || pending + size <= limit;
+    }
+
+    /**
+     * Pass all held frames to the writer.
+     *
+     * @param localWriter writer to be used.
+     */
+    private void writeHeldFrames(Writer localWriter) {
+        HeldFrame heldFrame;
+        while ((heldFrame = heldFrames.poll()) != null) {
+            final QueuedFrame queuedFrame = takeHeldFrame(heldFrame);
+            if (queuedFrame == null) {
+                continue;
+            }
+
+            try {
+                ((OutboundBytesHandler) queuedFrame.completionHandler).passedToWriter();
+                queuedFrame.write(localWriter);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Frame could not be written.", e);
+                queuedFrame.failed(e);
+            }
+        }
+    }
+
+    private void dropHeldFrames(long limit, OutboundOverflowPolicy policy) {
+        HeldFrame heldFrame;
+        while ((heldFrame = heldFrames.poll()) != null) {
+            dropHeldFrame(heldFrame, limit, policy);
+        }
+    }
+
+    private void dropHeldFrame(HeldFrame heldFrame, long limit, OutboundOverflowPolicy policy) {
+        final QueuedFrame queuedFrame = takeHeldFrame(heldFrame);
+        if (queuedFrame != null) {
+            queuedFrame.failed(new OutboundLimitExceededException(limit, policy));
+        }
+    }
+
+    /**
+     * Take the frame out of the held frame; has to be called by the thread writing queued frames.
+     */
+    private QueuedFrame takeHeldFrame(HeldFrame heldFrame) {
+        final QueuedFrame queuedFrame = heldFrame.frame.getAndSet(null);
+        if (queuedFrame != null && queuedFrame.conflationKey != null && heldFramesByKey != null) {
+            heldFramesByKey.remove(queuedFrame.conflationKey);
+        }
+        return queuedFrame;
+    }
+
+    /**
+     * Queue a task which passes held frames to the writer. Called when the writer finishes writing all the frames
+     * passed to it.
+     */
+    private void releaseHeldFrames() {
+        if (heldFramesRelease.compareAndSet(false, true)) {
+            try {
+                queue(new QueuedFrame(false, null) {
+                    @Override
+                    void write(Writer localWriter) {
+                        heldFramesRelease.set(false);
+                        writeHeldFrames(localWriter);
+                    }
+                });
+            } catch (IllegalStateException e) {
+                heldFramesRelease.set(false);
+                LOGGER.log(Level.FINE, "Held frames could not be written.", e);
+            }
+        }
+    }
+
+    /**
+     * Get size of a message counted to pending outgoing bytes.
+     *
+     * @param size          size of the message.
+     * @param conflationKey conflation key of the message, can be {@code null}.
+     * @return size of the message when the limit is configured or when the message can be conflated, {@code -1}
+     * otherwise.
+     */
+    private long countedSize(long size, Object conflationKey) {
+        return maxOutboundBytes > 0 || conflationKey != null ? size : -1;
+    }
+
+    private static long textSize(String text) {
+        if (text == null) {
+            return 0;
+        }
+
+        final long encodedLength = Utf8Encoder.encodedLength(text);
+        return encodedLength < 0 ? text.length() : encodedLength;
+    }
 
-        } finally {
-            lock.unlock();
+    private QueuedFrame pollQueuedFrame() {
+        if (outFragmentedType == 0 && !deferredFrames.isEmpty()) {
+            return deferredFrames.poll();
         }
+
+        return outboundQueue.poll();
     }
 
-    public synchronized Future<Frame> close(final int code, final String reason) {
-        final CloseFrame outgoingCloseFrame;
-        final CloseReason closeReason = new CloseReason(CloseReason.CloseCodes.getCloseCode(code), reason);
+    /**
+     * Write text frame.
+     * <p/>
+     * The text is encoded directly into the serialized frame (and masked in the same pass on the client side), so
+     * no intermediate array is created. When an extension is negotiated (it needs to process {@link Frame} instance)
+     * or when the text cannot be encoded by strict UTF-8 encoder, {@link TextFrame} is created and written as usual.
+     *
+     * @param text              text to be sent.
+     * @param continuation      {@code true} when this frame is continuation frame, {@code false} otherwise.
+     * @param fin               {@code true} when this frame is last frame of the message.
+     * @param completionHandler completion handler, can be {@code null}.
+     * @param future            future to be completed when the frame is written.
+     * @param localWriter       writer to be used.
+     */
+    private void writeText(String text, boolean continuation, boolean fin,
+                           CompletionHandler<Frame> completionHandler, TyrusFuture<Frame> future,
+                           Writer localWriter) {
+        final long payloadLength = (hasExtensions || text == null) ? -1 : Utf8Encoder.encodedLength(text);
+        if (payloadLength < 0) {
+            write(new TextFrame(text, continuation, fin), completionHandler, future, localWriter);
+            return;
+        }
 
-        if (code == CloseReason.CloseCodes.NO_STATUS_CODE.getCode()
-                || code == CloseReason.CloseCodes.CLOSED_ABNORMALLY.getCode()
-                || code == CloseReason.CloseCodes.TLS_HANDSHAKE_FAILURE.getCode()
-                // client side cannot send SERVICE_RESTART or TRY_AGAIN_LATER
-                // will be replaced with NORMAL_CLOSURE
-                || (client && (code == CloseReason.CloseCodes.SERVICE_RESTART.getCode()
-                || code == CloseReason.CloseCodes.TRY_AGAIN_LATER.getCode()))) {
+        final byte opcode = checkForLastFrame(continuation ? (byte) 0x00 : (byte) 0x01, fin, false);
+        final int headerLength = headerLength(payloadLength);
+        final byte[] packet = new byte[headerLength + (int) payloadLength];
+        final ByteBuffer header = ByteBuffer.wrap(packet);
+        putHeader(header, opcode, payloadLength);
 
-            outgoingCloseFrame = new CloseFrame(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, reason));
-        } else {
-            outgoingCloseFrame = new CloseFrame(closeReason);
+        byte[] mask = null;
+        if (client) {
+            mask = new Masker(maskingKeyGenerator.nextInt()).getMask();
+            packet[1] |= 0x80;
+            header.put(mask);
         }
 
-        final Future<Frame> send = send(outgoingCloseFrame, null, false);
+        Utf8Encoder.encode(text, packet, headerLength, mask);
 
-        webSocket.onClose(new CloseFrame(closeReason));
+        final TextFrame frame = new TextFrame(text, payloadLength, continuation, fin);
+        final ByteBuffer buffer = ByteBuffer.wrap(packet);
 
-        return send;
+        if (continuation || !fin) {
+            flushBeforeDirectWrite(localWriter);
+        } else if (batch.add(localWriter, new ByteBuffer[]{buffer},
+                             new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame))) {
+            messageEventListener.onFrameSent(frame.getFrameType(), payloadLength);
+            return;
+        }
+
+        localWriter.write(buffer, new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame));
+        messageEventListener.onFrameSent(frame.getFrameType(), payloadLength);
     }
 
-    private Future<Frame> write(final TyrusFrame frame, final CompletionHandler<Frame> completionHandler,
-                                boolean useTimeout) {
-        final Writer localWriter = writer;
-        final TyrusFuture<Frame> future = new TyrusFuture<Frame>();
+    private void write(final TyrusFrame frame, final CompletionHandler<Frame> completionHandler,
+                       final TyrusFuture<Frame> future, final Writer localWriter) {
+        if (batch.isEnabled()) {
+            if (frame.isControlFrame() || frame.getOpcode() == 0x00 || !frame.isFin()) {
+                flushBeforeDirectWrite(localWriter);
+            } else {
+                final ByteBuffer[] byteBuffers = client ? new ByteBuffer[]{frame(frame)} : frameGathering(frame);
+                if (batch.add(localWriter, byteBuffers,
+                              new CompletionHandlerWrapper<ByteBuffer[]>(completionHandler, future, frame))) {
+                    messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
+                    return;
+                }
 
-        if (localWriter == null) {
-            throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
+                // batching has been disabled in the meantime.
+                localWriter.write(byteBuffers,
+                                  new CompletionHandlerWrapper<ByteBuffer[]>(completionHandler, future, frame));
+                messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
+                return;
+            }
         }
 
-        final ByteBuffer byteBuffer = frame(frame);
-        localWriter.write(byteBuffer, new CompletionHandlerWrapper(completionHandler, future, frame));
+        if (client) {
+            final ByteBuffer byteBuffer = frame(frame);
+            localWriter.write(byteBuffer, new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame));
+        } else {
+            final ByteBuffer[] byteBuffers = frameGathering(frame);
+            localWriter.write(byteBuffers,
+                              new CompletionHandlerWrapper<ByteBuffer[]>(completionHandler, future, frame));
+        }
         messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
-
-        return future;
     }
 
-    private Future<Frame> write(final ByteBuffer frame, final CompletionHandler<Frame> completionHandler,
-                                boolean useTimeout) {
-        final Writer localWriter = writer;
-        final TyrusFuture<Frame> future = new TyrusFuture<Frame>();
+    private void write(final ByteBuffer frame, final CompletionHandler<Frame> completionHandler,
+                       final TyrusFuture<Frame> future, final Writer localWriter) {
+        final CompletionHandlerWrapper<ByteBuffer> handler =
+                new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, null);
 
-        if (localWriter == null) {
-            throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
+        if (!batch.add(localWriter, new ByteBuffer[]{frame}, handler)) {
+            localWriter.write(frame, handler);
         }
+    }
 
-        localWriter.write(frame, new CompletionHandlerWrapper(completionHandler, future, null));
-
-        return future;
+    /**
+     * Frames which cannot be batched must not overtake already batched frames.
+     *
+     * @param localWriter writer to be used for flushing the batch.
+     */
+    private void flushBeforeDirectWrite(Writer localWriter) {
+        if (batch.isEnabled()) {
+            batch.flush(localWriter);
+        }
     }
 
     /**
@@ -548,14 +1283,18 @@ public final class ProtocolHandler {
     }
 
     private byte checkForLastFrame(Frame frame) {
-        byte local = frame.getOpcode();
+        return checkForLastFrame(frame.getOpcode(), frame.isFin(), frame.isControlFrame());
+    }
 
-        if (frame.isControlFrame()) {
+    private byte checkForLastFrame(byte opcode, boolean fin, boolean controlFrame) {
+        byte local = opcode;
+
+        if (controlFrame) {
             local |= 0x80;
             return local;
         }
 
-        if (!frame.isFin()) {
+        if (!fin) {
             if (outFragmentedType != 0) {
                 local = 0x00;
             } else {
@@ -573,6 +1312,14 @@ public final class ProtocolHandler {
     }
 
     /* package */ void doClose() {
+        HeldFrame heldFrame;
+        while ((heldFrame = heldFrames.poll()) != null) {
+            final QueuedFrame queuedFrame = heldFrame.frame.getAndSet(null);
+            if (queuedFrame != null) {
+                queuedFrame.failed(new IOException(LocalizationMessages.OUTBOUND_CONNECTION_CLOSED()));
+            }
+        }
+
         final Writer localWriter = writer;
         if (localWriter == null) {
             throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
@@ -586,7 +1333,129 @@ public final class ProtocolHandler {
     }
 
     /* package */ ByteBuffer frame(Frame frame) {
+        frame = processOutgoing(frame);
+
+        final byte opcode = encodeOpcode(frame);
+        final ByteBuffer payload = frame.getPayloadBuffer();
+        final byte[] lengthBytes = encodeLength(frame.getPayloadLength());
+
+        // TODO - length limited to int, it should be long (see RFC 9788, chapter 5.2)
+        // TODO - in that case, we will need to NOT store dataframe inmemory - introduce maskingByteStream or
+        // TODO   maskingByteBuffer
+        final int payloadLength = (int) frame.getPayloadLength();
+        int length = 1 + lengthBytes.length + payloadLength + (client ? MASK_SIZE : 0);
+        int payloadStart = 1 + lengthBytes.length + (client ? MASK_SIZE : 0);
+        final byte[] packet = new byte[length];
+        packet[0] = opcode;
+        System.arraycopy(lengthBytes, 0, packet, 1, lengthBytes.length);
+        // if client, then we need to mask data.
+        if (client) {
+            Integer maskingKey = frame.getMaskingKey();
+            if (maskingKey == null) {
+                // TODO: improve validation/exception handling
+                // TODO: related to ExtendedExtension
+                throw new ProtocolException("Masking key cannot be null when sending message from client to server.");
+            }
+            Masker masker = new Masker(maskingKey);
+            packet[1] |= 0x80;
+            masker.mask(packet, payloadStart, payload.array(), payloadLength);
+            System.arraycopy(masker.getMask(), 0, packet, payloadStart - MASK_SIZE, MASK_SIZE);
+        } else {
+            payload.get(packet, payloadStart, payloadLength);
+        }
+        return ByteBuffer.wrap(packet);
+    }
+
+    /**
+     * Serialize whole message frame which can be shared by all connections with the same {@link
+     * #getOutgoingProcessingKey() outgoing processing key} (server side only).
+     * <p/>
+     * Negotiated extensions are applied, but fragmentation state of this handler is neither used nor changed - the
+     * frame is always final, so it can be written even to a connection which is in the middle of a partial message
+     * (the frame is then deferred by the writing thread).
+     *
+     * @param frame whole message frame.
+     * @return serialized frame.
+     */
+    /* package */ ByteBuffer frameShared(Frame frame) {
+        if (client) {
+            throw new IllegalStateException();
+        }
+
+        frame = processOutgoing(frame);
+
+        final ByteBuffer payload = frame.getPayloadBuffer();
+        final int payloadLength = payload.remaining();
+        final ByteBuffer buffer = ByteBuffer.allocate(headerLength(payloadLength) + payloadLength);
+        putHeader(buffer, encodeRsv(frame, (byte) (0x80 | frame.getOpcode())), payloadLength);
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Serialize frame into header and payload buffers, which are supposed to be written using gathering write.
+     * <p/>
+     * Only the header is written into a buffer obtained from {@link FrameHeaderPool}, payload is not copied at all -
+     * returned payload buffer is backed by the frame payload. Can be used only on the server side, client needs to
+     * mask the payload, which cannot be done without copying it.
+     *
+     * @param frame frame to be serialized.
+     * @return header buffer and payload buffer.
+     */
+    /* package */ ByteBuffer[] frameGathering(Frame frame) {
+        if (client) {
+            throw new IllegalStateException();
+        }
+
+        frame = processOutgoing(frame);
+
+        final ByteBuffer header = FrameHeaderPool.allocate();
+        putHeader(header, encodeOpcode(frame), frame.getPayloadLength());
+        header.flip();
 
+        return new ByteBuffer[]{header, frame.getPayloadBuffer()};
+    }
+
+    /**
+     * Write first byte and payload length of the frame header. Masking bit and key are not written.
+     *
+     * @param header        target buffer.
+     * @param opcode        first byte of the frame header, see {@link #encodeOpcode(Frame)}.
+     * @param payloadLength payload length.
+     */
+    /* package */ static void putHeader(ByteBuffer header, byte opcode, long payloadLength) {
+        header.put(opcode);
+
+        if (payloadLength <= 125) {
+            header.put((byte) payloadLength);
+        } else if (payloadLength <= 0xFFFF) {
+            header.put((byte) 126);
+            header.putShort((short) payloadLength);
+        } else {
+            header.put((byte) 127);
+            header.putLong(payloadLength);
+        }
+    }
+
+    /**
+     * Compute frame header length, including masking key on the client side.
+     *
+     * @param payloadLength payload length.
+     * @return header length in bytes.
+     */
+    private int headerLength(long payloadLength) {
+        final int length = payloadLength <= 125 ? 2 : (payloadLength <= 0xFFFF ? 4 : 10);
+        return client ? length + MASK_SIZE : length;
+    }
+
+    /**
+     * Apply masking key (client side only) and negotiated extensions to outgoing frame.
+     *
+     * @param frame outgoing frame.
+     * @return processed frame.
+     */
+    private Frame processOutgoing(Frame frame) {
         if (client) {
             frame = Frame.builder(frame).maskingKey(maskingKeyGenerator.nextInt()).mask(true).build();
         }
@@ -605,7 +1474,27 @@ public final class ProtocolHandler {
             }
         }
 
-        byte opcode = checkForLastFrame(frame);
+        return frame;
+    }
+
+    /**
+     * Compute first byte of the frame header - FIN flag, RSV flags and opcode.
+     *
+     * @param frame outgoing frame.
+     * @return first byte of the frame header.
+     */
+    private byte encodeOpcode(Frame frame) {
+        return encodeRsv(frame, checkForLastFrame(frame));
+    }
+
+    /**
+     * Add RSV flags of the frame to the first byte of the frame header.
+     *
+     * @param frame  outgoing frame.
+     * @param opcode FIN flag and opcode.
+     * @return first byte of the frame header.
+     */
+    private static byte encodeRsv(Frame frame, byte opcode) {
         if (frame.isRsv1()) {
             opcode |= 0x40;
         }
@@ -615,35 +1504,7 @@ public final class ProtocolHandler {
         if (frame.isRsv3()) {
             opcode |= 0x10;
         }
-
-        final byte[] bytes = frame.getPayloadData();
-        final byte[] lengthBytes = encodeLength(frame.getPayloadLength());
-
-        // TODO - length limited to int, it should be long (see RFC 9788, chapter 5.2)
-        // TODO - in that case, we will need to NOT store dataframe inmemory - introduce maskingByteStream or
-        // TODO   maskingByteBuffer
-        final int payloadLength = (int) frame.getPayloadLength();
-        int length = 1 + lengthBytes.length + payloadLength + (client ? MASK_SIZE : 0);
-        int payloadStart = 1 + lengthBytes.length + (client ? MASK_SIZE : 0);
-        final byte[] packet = new byte[length];
-        packet[0] = opcode;
-        System.arraycopy(lengthBytes, 0, packet, 1, lengthBytes.length);
-        // if client, then we need to mask data.
-        if (client) {
-            Integer maskingKey = frame.getMaskingKey();
-            if (maskingKey == null) {
-                // TODO: improve validation/exception handling
-                // TODO: related to ExtendedExtension
-                throw new ProtocolException("Masking key cannot be null when sending message from client to server.");
-            }
-            Masker masker = new Masker(maskingKey);
-            packet[1] |= 0x80;
-            masker.mask(packet, payloadStart, bytes, payloadLength);
-            System.arraycopy(masker.getMask(), 0, packet, payloadStart - MASK_SIZE, MASK_SIZE);
-        } else {
-            System.arraycopy(bytes, 0, packet, payloadStart, payloadLength);
-        }
-        return ByteBuffer.wrap(packet);
+        return opcode;
     }
 
     /**
@@ -716,7 +1577,21 @@ public final class ProtocolHandler {
                         break;
                     case 3:
                         if (buffer.remaining() < parsingState.length) {
-                            return null;
+                            if (!buffer.hasRemaining() || !isStreamingSupported()) {
+                                return null;
+                            }
+
+                            // deliver what is already available as a fragment; rest of the payload will follow as
+                            // continuation frame(s), so the caller does not need to buffer whole frame.
+                            final int sliceLength = buffer.remaining();
+                            parsingState.masker.setBuffer(buffer);
+                            final Frame slice = buildFrame(false, sliceLength,
+                                                           parsingState.masker.unmask(sliceLength));
+
+                            parsingState.length -= sliceLength;
+                            parsingState.streaming = true;
+
+                            return slice;
                         }
 
                         parsingState.masker.setBuffer(buffer);
@@ -726,14 +1601,7 @@ public final class ProtocolHandler {
                                     LocalizationMessages.DATA_UNEXPECTED_LENGTH(data.length, parsingState.length));
                         }
 
-                        final Frame frame = Frame.builder().fin(parsingState.finalFragment)
-                                                 .rsv1(isBitSet(parsingState.opcode, 6))
-                                                 .rsv2(isBitSet(parsingState.opcode, 5))
-                                                 .rsv3(isBitSet(parsingState.opcode, 4))
-                                                 .opcode((byte) (parsingState.opcode & 0xf))
-                                                 .payloadLength(parsingState.length)
-                                                 .payloadData(data)
-                                                 .build();
+                        final Frame frame = buildFrame(parsingState.finalFragment, parsingState.length, data);
 
                         parsingState.recycle();
 
@@ -749,6 +1617,59 @@ public final class ProtocolHandler {
         }
     }
 
+    /**
+     * Create frame from current parsing state.
+     * <p/>
+     * When the payload is being streamed, all frames except the first one are created as continuation frames.
+     *
+     * @param fin    final fragment flag.
+     * @param length payload length.
+     * @param data   unmasked payload.
+     * @return new frame instance.
+     */
+    private Frame buildFrame(boolean fin, long length, byte[] data) {
+        final byte opcode = parsingState.streaming ? 0x00 : (byte) (parsingState.opcode & 0xf);
+
+        return Frame.builder().fin(fin)
+                    .rsv1(isBitSet(parsingState.opcode, 6))
+                    .rsv2(isBitSet(parsingState.opcode, 5))
+                    .rsv3(isBitSet(parsingState.opcode, 4))
+                    .opcode(opcode)
+                    .payloadLength(length)
+                    .payloadData(data)
+                    .build();
+    }
+
+    /**
+     * Determine whether the payload of currently parsed frame can be delivered in parts, before it is read completely.
+     * <p/>
+     * Only text and binary frames (or their continuations) are streamed and only when there is no negotiated extension
+     * (extensions might need to see the whole frame) and registered message handler is able to consume partial
+     * messages.
+     *
+     * @return {@code true} when partial payload of current frame can be delivered.
+     */
+    private boolean isStreamingSupported() {
+        if (parsingState.streaming) {
+            return true;
+        }
+
+        if (parsingState.controlFrame || hasExtensions || webSocket == null) {
+            return false;
+        }
+
+        final byte opcode = (byte) (parsingState.opcode & 0xf);
+        final byte type = opcode == 0x00 ? inFragmentedType : opcode;
+
+        if (type == 0x01) {
+            return webSocket.isStreamingSupported(true);
+        } else if (type == 0x02) {
+            return webSocket.isStreamingSupported(false);
+        }
+
+        return false;
+    }
+
     /**
      * TODO.
      * <p/>
@@ -784,7 +1705,7 @@ public final class ProtocolHandler {
             }
         }
 
-        TyrusFrame tyrusFrame = TyrusFrame.wrap(frame, inFragmentedType, remainder);
+        TyrusFrame tyrusFrame = TyrusFrame.wrap(frame, inFragmentedType, remainder, utf8Decoder);
 
         // TODO - utf8 decoder needs this state to be shared among decoded frames.
         // TODO - investigate whether it can be removed; (this effectively denies lazy decoding)
@@ -820,10 +1741,185 @@ public final class ProtocolHandler {
         return ((b >> bit & 1) != 0);
     }
 
+    /**
+     * Outgoing frame waiting in {@link #outboundQueue}.
+     */
+    private abstract class QueuedFrame {
+
+        final TyrusFuture<Frame> future = new TyrusFuture<Frame>();
+        /**
+         * Size of the message counted to the outbound byte limit, {@code -1} when the frame is not limited.
+         */
+        final long size;
+        /**
+         * Key of the conflated message, {@code null} when the message cannot be replaced by a newer one.
+         */
+        final Object conflationKey;
+        CompletionHandler<Frame> completionHandler;
+        private final boolean messageStart;
+        /**
+         * {@code true} when the frame was passed to the writer or deferred until the end of a partial message.
+         */
+        private volatile boolean handled = false;
+        /**
+         * Sender parked until the frame is handled, {@code null} when the sender does not wait.
+         */
+        private volatile Thread waiter = null;
+
+        /**
+         * Constructor.
+         *
+         * @param messageStart      {@code true} when the frame starts a new message (whole message or the first frame
+         *                          of a partial message).
+         * @param completionHandler completion handler, can be {@code null}.
+         */
+        QueuedFrame(boolean messageStart, CompletionHandler<Frame> completionHandler) {
+            this(messageStart, -1, null, completionHandler);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param messageStart      {@code true} when the frame starts a new message (whole message or the first frame
+         *                          of a partial message).
+         * @param size              size of the whole message counted to the outbound byte limit, {@code -1} when
+         *                          the frame is not a whole message or when the message is not counted.
+         * @param conflationKey     key of the conflated message, can be {@code null}.
+         * @param completionHandler completion handler, can be {@code null}.
+         */
+        QueuedFrame(boolean messageStart, long size, Object conflationKey,
+                    CompletionHandler<Frame> completionHandler) {
+            this.messageStart = messageStart;
+            this.size = size;
+            this.conflationKey = conflationKey;
+            this.completionHandler = completionHandler;
+        }
+
+        /**
+         * Mark the frame as handled and wake up its sender.
+         */
+        void setHandled() {
+            handled = true;
+
+            final Thread localWaiter = waiter;
+            if (localWaiter != null) {
+                LockSupport.unpark(localWaiter);
+            }
+        }
+
+        /**
+         * Process the frame and pass it to the writer.
+         *
+         * @param localWriter writer to be used.
+         */
+        abstract void write(Writer localWriter);
+
+        /**
+         * Notify the sender that the frame could not be written.
+         *
+         * @param throwable failure.
+         */
+        void failed(Throwable throwable) {
+            if (completionHandler != null) {
+                completionHandler.failed(throwable);
+            }
+            future.setFailure(throwable);
+        }
+
+        /**
+         * Notify the sender that the message was replaced by a newer message with the same conflation key; it is
+         * considered to be sent.
+         */
+        void conflated() {
+            if (completionHandler != null) {
+                completionHandler.completed(null);
+            }
+            future.setResult(null);
+        }
+    }
+
+    /**
+     * Whole message held back in {@link #heldFrames}. The message can be replaced by a newer one with the same
+     * conflation key; the holder is emptied once the message is written or dropped.
+     */
+    private static class HeldFrame {
+
+        final AtomicReference<QueuedFrame> frame;
+
+        HeldFrame(QueuedFrame queuedFrame) {
+            this.frame = new AtomicReference<QueuedFrame>(queuedFrame);
+        }
+    }
+
+    /**
+     * Releases the size of a whole message from the outbound byte counters once the message is written or dropped.
+     */
+    private class OutboundBytesHandler extends CompletionHandler<Frame> {
+
+        private final CompletionHandler<Frame> completionHandler;
+        private final long size;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private volatile boolean passedToWriter = false;
+
+        OutboundBytesHandler(CompletionHandler<Frame> completionHandler, long size) {
+            this.completionHandler = completionHandler;
+            this.size = size;
+        }
+
+        void passedToWriter() {
+            passedToWriter = true;
+            writerBytes.addAndGet(size);
+        }
+
+        @Override
+        public void cancelled() {
+            release();
+            if (completionHandler != null) {
+                completionHandler.cancelled();
+            }
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            release();
+            if (completionHandler != null) {
+                completionHandler.failed(throwable);
+            }
+        }
+
+        @Override
+        public void completed(Frame result) {
+            release();
+            if (completionHandler != null) {
+                completionHandler.completed(result);
+            }
+        }
+
+        @Override
+        public void updated(Frame result) {
+            if (completionHandler != null) {
+                completionHandler.updated(result);
+            }
+        }
+
+        private void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+
+            outboundBytes.addAndGet(-size);
+            messageEventListener.onOutboundQueueChanged(-size);
+
+            if (passedToWriter && writerBytes.addAndGet(-size) == 0 && !heldFrames.isEmpty()) {
+                releaseHeldFrames();
+            }
+        }
+    }
+
     /**
      * Handler passed to the {@link org.glassfish.tyrus.spi.Writer}.
      */
-    private static class CompletionHandlerWrapper extends CompletionHandler<ByteBuffer> {
+    private static class CompletionHandlerWrapper<T> extends CompletionHandler<T> {
 
         private final CompletionHandler<Frame> frameCompletionHandler;
         private final TyrusFuture<Frame> future;
@@ -859,7 +1955,7 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void completed(ByteBuffer result) {
+        public void completed(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.completed(frame);
             }
@@ -870,7 +1966,7 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void updated(ByteBuffer result) {
+        public void updated(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.updated(frame);
             }
@@ -885,6 +1981,7 @@ public final class ProtocolHandler {
         volatile Masker masker;
         volatile boolean finalFragment;
         volatile boolean controlFrame;
+        volatile boolean streaming;
 
         private volatile byte lengthCode = -1;
 
@@ -897,6 +1994,7 @@ public final class ProtocolHandler {
             masker = null;
             finalFragment = false;
             controlFrame = false;
+            streaming = false;
         }
     }
 }
@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of heap buffers used for incomplete incoming frames.
+ * <p/>
+ * Buffers are grouped into size classes (powers of two, from {@value #MIN_CLASS_SIZE} bytes to the configured maximal
+ * class size). A connection borrows a buffer only when it has to keep incomplete frame between two reads and returns
+ * it as soon as all the data were processed, so idle connections do not retain any memory. Requests bigger than the
+ * largest size class are served by plain allocation and such buffers are not pooled.
+ * <p/>
+ * Instances are thread safe.
+ */
+public final class ReadBufferPool {
+
+    /**
+     * Size of the smallest size class.
+     */
+    static final int MIN_CLASS_SIZE = 1024;
+
+    private static final int DEFAULT_MAX_CLASS_SIZE = 64 * 1024;
+    private static final int DEFAULT_MAX_POOLED_BYTES_PER_CLASS = 4 * 1024 * 1024;
+
+    private final SizeClass[] sizeClasses;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create pool with default settings - buffers up to 64 kB are pooled, each size class retains at most 4 MB.
+     */
+    ReadBufferPool() {
+        this(DEFAULT_MAX_CLASS_SIZE, DEFAULT_MAX_POOLED_BYTES_PER_CLASS);
+    }
+
+    /**
+     * Create pool.
+     *
+     * @param maxClassSize           size of the largest pooled buffer. Rounded up to the nearest power of two.
+     * @param maxPooledBytesPerClass amount of memory retained by one size class when buffers are not used. Every
+     *                               class retains at least one buffer.
+     */
+    ReadBufferPool(int maxClassSize, int maxPooledBytesPerClass) {
+        final int classCount = classIndex(Math.max(maxClassSize, MIN_CLASS_SIZE)) + 1;
+
+        sizeClasses = new SizeClass[classCount];
+        for (int i = 0; i < classCount; i++) {
+            final int size = MIN_CLASS_SIZE << i;
+            sizeClasses[i] = new SizeClass(size, Math.max(1, maxPooledBytesPerClass / size));
+        }
+    }
+
+    /**
+     * Get empty buffer with capacity of at least {@code size} bytes.
+     *
+     * @param size minimal requested capacity.
+     * @return cleared buffer (position {@code 0}, limit set to its capacity).
+     */
+    ByteBuffer acquire(int size) {
+        final int index = classIndex(size);
+
+        if (index < sizeClasses.length) {
+            final SizeClass sizeClass = sizeClasses[index];
+            final ByteBuffer buffer = sizeClass.poll();
+
+            if (buffer != null) {
+                hits.incrementAndGet();
+                return buffer;
+            }
+
+            misses.incrementAndGet();
+            return ByteBuffer.allocate(sizeClass.size);
+        }
+
+        misses.incrementAndGet();
+        return ByteBuffer.allocate(size);
+    }
+
+    /**
+     * Return buffer to the pool.
+     * <p/>
+     * Buffer must not be used by the caller after it was released. Buffers which were not created by this pool (or
+     * which would exceed the retained memory limit) are left for the garbage collector.
+     *
+     * @param buffer buffer to be returned.
+     */
+    void release(ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        final int index = classIndex(capacity);
+
+        if (index < sizeClasses.length && sizeClasses[index].size == capacity && buffer.hasArray()) {
+            buffer.clear();
+            sizeClasses[index].offer(buffer);
+        }
+    }
+
+    /**
+     * Get number of buffer requests which were served from the pool.
+     *
+     * @return number of pool hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get number of buffer requests which required new allocation.
+     *
+     * @return number of pool misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Get number of buffers currently retained by the pool.
+     *
+     * @return number of buffers available for reuse.
+     */
+    public int getPooledBufferCount() {
+        int count = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            count += sizeClass.count.get();
+        }
+        return count;
+    }
+
+    private static int classIndex(int size) {
+        if (size <= MIN_CLASS_SIZE) {
+            return 0;
+        }
+
+        // ceil(log2(size)) - log2(MIN_CLASS_SIZE)
+        return (32 - Integer.numberOfLeadingZeros(size - 1)) - (31 - Integer.numberOfLeadingZeros(MIN_CLASS_SIZE));
+    }
+
+    private static class SizeClass {
+
+        private final int size;
+        private final int maxCount;
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        private SizeClass(int size, int maxCount) {
+            this.size = size;
+            this.maxCount = maxCount;
+        }
+
+        private ByteBuffer poll() {
+            final ByteBuffer buffer = buffers.poll();
+            if (buffer != null) {
+                count.decrementAndGet();
+            }
+            return buffer;
+        }
+
+        private void offer(ByteBuffer buffer) {
+            if (count.incrementAndGet() > maxCount) {
+                count.decrementAndGet();
+                return;
+            }
+            buffers.offer(buffer);
+        }
+    }
+}
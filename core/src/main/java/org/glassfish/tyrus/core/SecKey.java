@@ -40,7 +40,7 @@
 
 package org.glassfish.tyrus.core;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -57,6 +57,15 @@ import org.glassfish.tyrus.spi.UpgradeRequest;
 class SecKey {
     private static final Random random = new SecureRandom();
 
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte[] SERVER_KEY_HASH = UpgradeRequest.SERVER_KEY_HASH.getBytes(UTF_8);
+
+    /**
+     * SHA-1 digest of the current thread; {@link MessageDigest#getInstance(String)} looks up the provider on every call.
+     */
+    private static final ThreadLocal<MessageDigest> SHA_1 = new ThreadLocal<MessageDigest>();
+
     private static final int KEY_SIZE = 16;
 
     /**
@@ -95,22 +104,29 @@ class SecKey {
      * @return server key.
      */
     public static SecKey generateServerKey(SecKey clientKey) throws HandshakeException {
-        String key = clientKey.getSecKey() + UpgradeRequest.SERVER_KEY_HASH;
-        final MessageDigest instance;
-        try {
-            instance = MessageDigest.getInstance("SHA-1");
-            instance.update(key.getBytes("UTF-8"));
-            final byte[] digest = instance.digest();
-            if (digest.length != 20) {
-                throw new HandshakeException(LocalizationMessages.SEC_KEY_INVALID_LENGTH(digest.length));
-            }
+        final MessageDigest instance = getSha1();
+        instance.update(clientKey.getSecKey().getBytes(UTF_8));
+        // digest() resets the instance, it is ready for the next key of this thread.
+        final byte[] digest = instance.digest(SERVER_KEY_HASH);
+        if (digest.length != 20) {
+            throw new HandshakeException(LocalizationMessages.SEC_KEY_INVALID_LENGTH(digest.length));
+        }
+
+        return new SecKey(Base64Utils.encodeToString(digest, false));
+    }
 
-            return new SecKey(Base64Utils.encodeToString(digest, false));
-        } catch (NoSuchAlgorithmException e) {
-            throw new HandshakeException(e.getMessage());
-        } catch (UnsupportedEncodingException e) {
-            throw new HandshakeException(e.getMessage());
+    private static MessageDigest getSha1() throws HandshakeException {
+        MessageDigest instance = SHA_1.get();
+        if (instance == null) {
+            try {
+                instance = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new HandshakeException(e.getMessage());
+            }
+            SHA_1.set(instance);
         }
+
+        return instance;
     }
 
     /**
@@ -0,0 +1,196 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of named groups of sessions (rooms, topics, ...) of one endpoint.
+ * <p/>
+ * Members of every group are kept in a concurrent map, so the group can be iterated (and broadcasted to) without
+ * copying and without blocking concurrent joins and leaves. Groups are created when the first session joins and
+ * removed when the last session leaves.
+ *
+ * @see TyrusSession#joinGroup(String)
+ */
+class SessionGroups {
+
+    private final ConcurrentMap<String, ConcurrentMap<TyrusWebSocket, TyrusSession>> groups =
+            new ConcurrentHashMap<String, ConcurrentMap<TyrusWebSocket, TyrusSession>>();
+
+    /**
+     * Names of groups of every session which joined at least one group; used for the cleanup when the session is
+     * closed.
+     */
+    private final ConcurrentMap<TyrusWebSocket, Set<String>> memberships =
+            new ConcurrentHashMap<TyrusWebSocket, Set<String>>();
+
+    /**
+     * Add session to a group.
+     *
+     * @param group   name of the group.
+     * @param session session to be added.
+     * @return {@code true} if the session was not a member of the group.
+     */
+    boolean join(String group, TyrusSession session) {
+        final TyrusWebSocket webSocket = session.getWebSocket();
+
+        Set<String> sessionGroups = memberships.get(webSocket);
+        if (sessionGroups == null) {
+            final Set<String> newSessionGroups =
+                    Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(4, 0.75f, 1));
+            sessionGroups = memberships.putIfAbsent(webSocket, newSessionGroups);
+            if (sessionGroups == null) {
+                sessionGroups = newSessionGroups;
+            }
+        }
+        sessionGroups.add(group);
+
+        boolean added;
+        while (true) {
+            ConcurrentMap<TyrusWebSocket, TyrusSession> members = groups.get(group);
+            if (members == null) {
+                final ConcurrentMap<TyrusWebSocket, TyrusSession> newMembers =
+                        new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
+                members = groups.putIfAbsent(group, newMembers);
+                if (members == null) {
+                    members = newMembers;
+                }
+            }
+
+            added = members.put(webSocket, session) == null;
+
+            // the group could have been removed by the last leaving session in the meantime.
+            if (groups.get(group) == members) {
+                break;
+            }
+        }
+
+        // closed concurrently - the cleanup might have missed this group.
+        if (!session.isOpen()) {
+            leaveAll(session);
+        }
+
+        return added;
+    }
+
+    /**
+     * Remove session from a group.
+     *
+     * @param group   name of the group.
+     * @param session session to be removed.
+     * @return {@code true} if the session was a member of the group.
+     */
+    boolean leave(String group, TyrusSession session) {
+        final TyrusWebSocket webSocket = session.getWebSocket();
+
+        final Set<String> sessionGroups = memberships.get(webSocket);
+        if (sessionGroups != null) {
+            sessionGroups.remove(group);
+        }
+
+        return removeMember(group, webSocket);
+    }
+
+    /**
+     * Remove session from all the groups it is member of. Called when the session is closed.
+     *
+     * @param session closed session.
+     */
+    void leaveAll(TyrusSession session) {
+        final TyrusWebSocket webSocket = session.getWebSocket();
+
+        final Set<String> sessionGroups = memberships.remove(webSocket);
+        if (sessionGroups != null) {
+            for (String group : sessionGroups) {
+                removeMember(group, webSocket);
+            }
+        }
+    }
+
+    /**
+     * Get names of groups the session is member of.
+     *
+     * @param session session.
+     * @return unmodifiable live view of group names.
+     */
+    Set<String> getGroups(TyrusSession session) {
+        final Set<String> sessionGroups = memberships.get(session.getWebSocket());
+        return sessionGroups == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(sessionGroups);
+    }
+
+    /**
+     * Get members of a group.
+     *
+     * @param group name of the group.
+     * @return live map of sockets to sessions of the group members. Must not be modified.
+     */
+    Map<TyrusWebSocket, TyrusSession> getMembers(String group) {
+        final Map<TyrusWebSocket, TyrusSession> members = groups.get(group);
+        return members == null ? Collections.<TyrusWebSocket, TyrusSession>emptyMap() : members;
+    }
+
+    /**
+     * Get names of all non-empty groups.
+     *
+     * @return unmodifiable live view of group names.
+     */
+    Set<String> getGroupNames() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    private boolean removeMember(String group, TyrusWebSocket webSocket) {
+        final ConcurrentMap<TyrusWebSocket, TyrusSession> members = groups.get(group);
+        if (members == null) {
+            return false;
+        }
+
+        final boolean removed = members.remove(webSocket) != null;
+        if (members.isEmpty()) {
+            groups.remove(group, members);
+        }
+
+        return removed;
+    }
+}
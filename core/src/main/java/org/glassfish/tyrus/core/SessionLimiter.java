@@ -0,0 +1,269 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.CloseReason;
+
+import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
+
+/**
+ * {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} limiting open sessions per application, open
+ * sessions per remote address and rate of new sessions per remote address.
+ * <p/>
+ * Opening and closing of sessions does not take any lock: the application limit is a CAS loop on one counter and the
+ * per remote address counters and token buckets are kept in concurrent maps. Refused sessions are reported to
+ * {@link ApplicationEventListener#onSessionRejected(String, TyrusEndpointWrapper.SessionListener.OnOpenResult)}.
+ */
+class SessionLimiter extends TyrusEndpointWrapper.SessionListener {
+
+    /**
+     * Number of lock stripes of the per remote address maps.
+     */
+    private static final int CONCURRENCY_LEVEL = 64;
+
+    /**
+     * Minimal time between two removals of unused token buckets in nanoseconds.
+     */
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxSessionsPerApp;
+    private final int maxSessionsPerRemoteAddr;
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final ApplicationEventListener applicationEventListener;
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final ConcurrentMap<String, AtomicInteger> remoteAddressCounters =
+            new ConcurrentHashMap<String, AtomicInteger>(16, 0.75f, CONCURRENCY_LEVEL);
+    // theoretical arrival time of the next session per remote address, see acquirePermit(...).
+    private final ConcurrentMap<String, AtomicLong> rateBuckets =
+            new ConcurrentHashMap<String, AtomicLong>(16, 0.75f, CONCURRENCY_LEVEL);
+    private final AtomicLong lastSweep;
+
+    /**
+     * Create new limiter.
+     *
+     * @param maxSessionsPerApp        maximal number of open sessions per application, {@code 0} means no limit.
+     * @param maxSessionsPerRemoteAddr maximal number of open sessions per remote address, {@code 0} means no limit.
+     * @param maxSessionRate           maximal number of new sessions per second per remote address, {@code 0} means
+     *                                 no limit.
+     * @param sessionBurst             number of new sessions per remote address which can be opened at once, before
+     *                                 the rate limit applies. Values lower than {@code 1} are treated as {@code 1}.
+     * @param applicationEventListener listener notified about refused sessions.
+     */
+    SessionLimiter(int maxSessionsPerApp, int maxSessionsPerRemoteAddr, int maxSessionRate, int sessionBurst,
+                   ApplicationEventListener applicationEventListener) {
+        this.maxSessionsPerApp = maxSessionsPerApp;
+        this.maxSessionsPerRemoteAddr = maxSessionsPerRemoteAddr;
+        this.emissionInterval = maxSessionRate > 0 ? TimeUnit.SECONDS.toNanos(1) / maxSessionRate : 0;
+        this.burstTolerance = (Math.max(sessionBurst, 1) - 1) * emissionInterval;
+        this.applicationEventListener = applicationEventListener;
+        this.lastSweep = new AtomicLong(currentTime());
+    }
+
+    @Override
+    public OnOpenResult onOpen(final TyrusSession session) {
+        final String remoteAddr = getRemoteAddr(session);
+
+        if (emissionInterval > 0 && !acquirePermit(remoteAddr, currentTime())) {
+            return OnOpenResult.MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED;
+        }
+
+        if (maxSessionsPerApp > 0 && !incrementCounter()) {
+            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
+        }
+
+        if (maxSessionsPerRemoteAddr > 0 && !incrementRemoteAddressCounter(remoteAddr)) {
+            if (maxSessionsPerApp > 0) {
+                counter.decrementAndGet();
+            }
+            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
+        }
+
+        return OnOpenResult.SESSION_ALLOWED;
+    }
+
+    @Override
+    public void onClose(final TyrusSession session, final CloseReason closeReason) {
+        if (maxSessionsPerApp > 0) {
+            counter.decrementAndGet();
+        }
+
+        if (maxSessionsPerRemoteAddr > 0) {
+            final String remoteAddr = getRemoteAddr(session);
+            final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+            // counter which dropped to 0 is not incremented anymore, see incrementRemoteAddressCounter(...).
+            if (remoteAddressCounter != null && remoteAddressCounter.decrementAndGet() == 0) {
+                remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+            }
+        }
+    }
+
+    @Override
+    public void onRejected(final TyrusSession session, final OnOpenResult reason) {
+        applicationEventListener.onSessionRejected(session.getEndpointWrapper().getEndpointPath(), reason);
+    }
+
+    /**
+     * Get the number of sessions counted as open in this application.
+     *
+     * @return number of open sessions, {@code 0} when the number of sessions per application is not limited.
+     */
+    int getOpenSessionCount() {
+        return counter.get();
+    }
+
+    /**
+     * Get the number of sessions counted as open from a remote address.
+     *
+     * @param remoteAddr remote address.
+     * @return number of open sessions, {@code 0} when the number of sessions per remote address is not limited.
+     */
+    int getOpenSessionCount(String remoteAddr) {
+        final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+        return remoteAddressCounter == null ? 0 : remoteAddressCounter.get();
+    }
+
+    /**
+     * Get current time in nanoseconds.
+     * <p/>
+     * Can be overridden in tests.
+     *
+     * @return current time in nanoseconds.
+     */
+    long currentTime() {
+        return System.nanoTime();
+    }
+
+    private boolean incrementCounter() {
+        while (true) {
+            final int count = counter.get();
+            if (count >= maxSessionsPerApp) {
+                return false;
+            }
+            if (counter.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean incrementRemoteAddressCounter(String remoteAddr) {
+        while (true) {
+            AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+            if (remoteAddressCounter == null) {
+                remoteAddressCounter = remoteAddressCounters.putIfAbsent(remoteAddr, new AtomicInteger(1));
+                if (remoteAddressCounter == null) {
+                    return true;
+                }
+            }
+
+            while (true) {
+                final int count = remoteAddressCounter.get();
+                if (count == 0) {
+                    // the last session has just been closed and the counter is being removed; create a new one.
+                    remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+                    break;
+                }
+                if (count >= maxSessionsPerRemoteAddr) {
+                    return false;
+                }
+                if (remoteAddressCounter.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Token bucket of the remote address, implemented as generic cell rate algorithm: instead of the number of tokens,
+     * the bucket holds the theoretical arrival time of the next session. A session is allowed when it does not come
+     * earlier than the burst tolerance before that time, which is then moved by one emission interval.
+     */
+    private boolean acquirePermit(String remoteAddr, long now) {
+        AtomicLong bucket = rateBuckets.get(remoteAddr);
+        if (bucket == null) {
+            bucket = rateBuckets.putIfAbsent(remoteAddr, new AtomicLong(now + emissionInterval));
+            if (bucket == null) {
+                sweep(now);
+                return true;
+            }
+        }
+
+        while (true) {
+            final long arrivalTime = bucket.get();
+            final long base = arrivalTime - now > 0 ? arrivalTime : now;
+            if (base - now > burstTolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrivalTime, base + emissionInterval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove buckets which are full again; a removed bucket is the same as a new one.
+     */
+    private void sweep(long now) {
+        final long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (Map.Entry<String, AtomicLong> entry : rateBuckets.entrySet()) {
+            if (entry.getValue().get() - now <= 0) {
+                rateBuckets.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static String getRemoteAddr(TyrusSession session) {
+        final String remoteAddr = session.getRemoteAddr();
+        // concurrent maps do not allow null keys.
+        return remoteAddr == null ? "" : remoteAddr;
+    }
+}
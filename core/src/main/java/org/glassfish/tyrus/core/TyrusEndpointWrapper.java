@@ -53,18 +53,25 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.security.Principal;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -80,6 +87,8 @@ import javax.websocket.Extension;
 import javax.websocket.MessageHandler;
 import javax.websocket.PongMessage;
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 import javax.websocket.server.HandshakeRequest;
@@ -96,10 +105,6 @@ import org.glassfish.tyrus.core.coder.NoOpTextCoder;
 import org.glassfish.tyrus.core.coder.PrimitiveDecoders;
 import org.glassfish.tyrus.core.coder.ReaderDecoder;
 import org.glassfish.tyrus.core.coder.ToStringEncoder;
-import org.glassfish.tyrus.core.frame.BinaryFrame;
-import org.glassfish.tyrus.core.frame.Frame;
-import org.glassfish.tyrus.core.frame.TextFrame;
-import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
 import org.glassfish.tyrus.spi.UpgradeRequest;
@@ -120,10 +125,10 @@ public class TyrusEndpointWrapper {
     private static final Logger LOGGER = Logger.getLogger(TyrusEndpointWrapper.class.getName());
 
     /**
-     * Used as threshold for parallel broadcast. When the sessions are divided between threads, number of sessions per
-     * thread should not be lower than this constant.
+     * Maximal number of distinct sub-protocol requests for which the negotiated sub-protocol is cached.
      */
-    private static final int MIN_SESSIONS_PER_THREAD = 16;
+    private static final int MAX_NEGOTIATED_PROTOCOLS = 64;
+
     /**
      * The container for this session.
      */
@@ -132,16 +137,27 @@ public class TyrusEndpointWrapper {
     private final String endpointPath;
     private final String serverEndpointPath;
     private final List<CoderWrapper<Decoder>> decoders = new ArrayList<CoderWrapper<Decoder>>();
+    private final List<Class<? extends Decoder>> decoderClasses;
     private final List<CoderWrapper<Encoder>> encoders = new ArrayList<CoderWrapper<Encoder>>();
     private final EndpointConfig configuration;
     private final Class<? extends Endpoint> endpointClass;
     private final Endpoint endpoint;
     private final Map<TyrusWebSocket, TyrusSession> webSocketToSession =
             new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final Collection<Session> openSessionsView = new OpenSessionsView();
     private final Map<String, RemoteSession> clusteredSessions =
             new ConcurrentHashMap<String, RemoteSession>();
+    private final SessionGroups sessionGroups = new SessionGroups();
+    private final BroadcastScheduler broadcastScheduler = new BroadcastScheduler();
     private final ComponentProviderService componentProvider;
     private final ServerEndpointConfig.Configurator configurator;
+    /**
+     * Sub-protocols negotiated by the default configurator, keyed by the sub-protocols requested by client. {@code null}
+     * when the sub-protocol is negotiated by a custom configurator, which could depend on anything else.
+     */
+    private final Map<List<String>, String> negotiatedProtocols;
+    private final boolean defaultExtensionNegotiation;
     private final Method onOpen;
     private final Method onClose;
     private final Method onError;
@@ -242,6 +258,15 @@ public class TyrusEndpointWrapper {
                     }
                 };
 
+        if (configurator != null && configuration instanceof ServerEndpointConfig) {
+            this.negotiatedProtocols = isDefaultNegotiation(configurator, "getNegotiatedSubprotocol")
+                    ? new ConcurrentHashMap<List<String>, String>() : null;
+            this.defaultExtensionNegotiation = isDefaultNegotiation(configurator, "getNegotiatedExtensions");
+        } else {
+            this.negotiatedProtocols = null;
+            this.defaultExtensionNegotiation = false;
+        }
+
         {
             final Class<? extends Endpoint> clazz = endpointClass == null ? endpoint.getClass() : endpointClass;
             Method onOpenMethod = null;
@@ -326,6 +351,9 @@ public class TyrusEndpointWrapper {
             }
         }
 
+        // shared by message handler managers of all sessions.
+        decoderClasses = MessageHandlerManager.getDecoderClasses(getDecoders());
+
         for (Class<? extends Encoder> encoderClass : this.configuration.getEncoders()) {
             Class<?> type = getEncoderClassType(encoderClass);
             encoders.add(new CoderWrapper<Encoder>(encoderClass, type));
@@ -585,8 +613,15 @@ public class TyrusEndpointWrapper {
      */
     List<Extension> getNegotiatedExtensions(List<Extension> clientExtensions) {
         if (configuration instanceof ServerEndpointConfig) {
-            return configurator
-                    .getNegotiatedExtensions(((ServerEndpointConfig) configuration).getExtensions(), clientExtensions);
+            final List<Extension> installedExtensions = ((ServerEndpointConfig) configuration).getExtensions();
+
+            // the default configurator negotiates only extensions both installed and requested.
+            if (defaultExtensionNegotiation
+                    && (clientExtensions == null || clientExtensions.isEmpty() || installedExtensions.isEmpty())) {
+                return Collections.emptyList();
+            }
+
+            return configurator.getNegotiatedExtensions(installedExtensions, clientExtensions);
         } else {
             return Collections.emptyList();
         }
@@ -600,6 +635,20 @@ public class TyrusEndpointWrapper {
      */
     String getNegotiatedProtocol(List<String> clientProtocols) {
         if (configuration instanceof ServerEndpointConfig) {
+            if (negotiatedProtocols != null && clientProtocols != null) {
+                String protocol = negotiatedProtocols.get(clientProtocols);
+                if (protocol == null) {
+                    protocol = configurator.getNegotiatedSubprotocol(
+                            ((ServerEndpointConfig) configuration).getSubprotocols(), clientProtocols);
+
+                    // browsers of the application send only a few distinct combinations.
+                    if (protocol != null && negotiatedProtocols.size() < MAX_NEGOTIATED_PROTOCOLS) {
+                        negotiatedProtocols.put(new ArrayList<String>(clientProtocols), protocol);
+                    }
+                }
+                return protocol;
+            }
+
             return configurator.getNegotiatedSubprotocol(((ServerEndpointConfig) configuration).getSubprotocols(),
                                                          clientProtocols);
         } else {
@@ -607,6 +656,53 @@ public class TyrusEndpointWrapper {
         }
     }
 
+    /**
+     * Check whether the given negotiation method of configurator depends only on the values supported by the endpoint
+     * and requested by the client, i.e. whether it is declared by a {@link CacheableNegotiation} configurator.
+     *
+     * @param configurator configurator of the endpoint.
+     * @param methodName   {@code getNegotiatedSubprotocol} or {@code getNegotiatedExtensions}.
+     * @return {@code true} if the negotiation results can be cached.
+     */
+    private static boolean isDefaultNegotiation(ServerEndpointConfig.Configurator configurator, String methodName) {
+        try {
+            final Class<?> declaringClass =
+                    configurator.getClass().getMethod(methodName, List.class, List.class).getDeclaringClass();
+
+            if (declaringClass == ServerEndpointConfig.Configurator.class) {
+                // ServerEndpointConfig.Configurator delegates to the container default configurator.
+                final ServerEndpointConfig.Configurator containerDefault = getContainerDefaultConfigurator();
+                return containerDefault != null && declaresCacheableNegotiation(
+                        containerDefault.getClass().getMethod(methodName, List.class, List.class).getDeclaringClass());
+            }
+
+            return declaresCacheableNegotiation(declaringClass);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean declaresCacheableNegotiation(Class<?> declaringClass) {
+        // a subclass does not inherit the marker for the negotiation methods it overrides.
+        return Arrays.asList(declaringClass.getInterfaces()).contains(CacheableNegotiation.class);
+    }
+
+    /**
+     * Get the configurator {@link ServerEndpointConfig.Configurator} delegates to, looked up the same way.
+     *
+     * @return container default configurator or {@code null} when there is none.
+     */
+    private static ServerEndpointConfig.Configurator getContainerDefaultConfigurator() {
+        try {
+            final Iterator<ServerEndpointConfig.Configurator> iterator =
+                    ServiceLoader.load(ServerEndpointConfig.Configurator.class).iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        } catch (ServiceConfigurationError e) {
+            LOGGER.log(Level.FINE, "Container default configurator could not be loaded.", e);
+            return null;
+        }
+    }
+
     /**
      * Get the set of open {@link TyrusSession}.
      *
@@ -625,14 +721,51 @@ public class TyrusEndpointWrapper {
     }
 
     Set<RemoteSession> getRemoteSessions() {
-        Set<RemoteSession> result = new HashSet<RemoteSession>();
-
         // clustered mode
-        if (clusterContext != null) {
-            result.addAll(clusteredSessions.values());
+        if (clusterContext == null) {
+            return Collections.emptySet();
         }
 
-        return Collections.unmodifiableSet(result);
+        return Collections.unmodifiableSet(new HashSet<RemoteSession>(clusteredSessions.values()));
+    }
+
+    /**
+     * Get the number of sessions opened to this endpoint.
+     * <p/>
+     * The number is maintained when sessions are opened and closed, it is not computed by iterating the sessions.
+     * A session which is just being closed might still be counted.
+     *
+     * @return number of open sessions.
+     */
+    int getOpenSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Get live view of open sessions.
+     * <p/>
+     * The view is not copied; its iterator is weakly consistent, it never throws
+     * {@link java.util.ConcurrentModificationException} and may or may not reflect sessions opened or closed during
+     * the iteration. {@link Collection#size()} of the view is {@link #getOpenSessionCount()}, which is an upper bound
+     * of the number of iterated sessions - a session which is just being closed is counted, but it is skipped by the
+     * iterator.
+     *
+     * @return unmodifiable view of open sessions.
+     */
+    Collection<Session> getOpenSessionsView() {
+        return openSessionsView;
+    }
+
+    private void addSession(TyrusWebSocket socket, TyrusSession session) {
+        if (webSocketToSession.put(socket, session) == null) {
+            sessionCount.incrementAndGet();
+        }
+    }
+
+    private void removeSession(TyrusWebSocket socket) {
+        if (webSocketToSession.remove(socket) != null) {
+            sessionCount.decrementAndGet();
+        }
     }
 
     /**
@@ -651,7 +784,7 @@ public class TyrusEndpointWrapper {
                                                       Collections.<String, String>emptyMap(), null,
                                                       Collections.<String, List<String>>emptyMap(), null, null, null,
                                                       debugContext);
-        webSocketToSession.put(socket, session);
+        addSession(socket, session);
         return session;
     }
 
@@ -659,6 +792,31 @@ public class TyrusEndpointWrapper {
         return webSocketToSession.get(socket);
     }
 
+    /**
+     * Determine whether incoming message of given type can be delivered to the session associated with given socket
+     * in parts, as they are read from the network.
+     * <p/>
+     * This is true when {@link javax.websocket.MessageHandler.Partial}, {@link Reader} or {@link InputStream} handler
+     * is registered for given message type; whole message handlers need to have the message buffered anyway.
+     *
+     * @param socket {@link TyrusWebSocket} which is receiving the message.
+     * @param text   {@code true} for text messages, {@code false} for binary messages.
+     * @return {@code true} when the message can be delivered in parts, {@code false} otherwise.
+     */
+    boolean isStreamingHandlerPresent(TyrusWebSocket socket, boolean text) {
+        final TyrusSession session = getSession(socket);
+
+        if (session == null) {
+            return false;
+        }
+
+        if (text) {
+            return session.isPartialTextHandlerPresent() || session.isReaderHandlerPresent();
+        } else {
+            return session.isPartialBinaryHandlerPresent() || session.isInputStreamHandlerPresent();
+        }
+    }
+
     /**
      * Called by the provider when the web socket connection is established.
      *
@@ -687,35 +845,40 @@ public class TyrusEndpointWrapper {
                                        upgradeRequest.getUserPrincipal(),
                                        upgradeRequest.getParameterMap(), clusterContext, connectionId,
                                        ((RequestContext) upgradeRequest).getRemoteAddr(), debugContext);
-            webSocketToSession.put(socket, session);
+            addSession(socket, session);
 
             // max open session per endpoint exceeded?
             boolean maxSessionPerEndpointExceeded = configuration instanceof TyrusServerEndpointConfig
                     && ((TyrusServerEndpointConfig) configuration).getMaxSessions() > 0
-                    && webSocketToSession.size() > ((TyrusServerEndpointConfig) configuration).getMaxSessions();
+                    && sessionCount.get() > ((TyrusServerEndpointConfig) configuration).getMaxSessions();
 
-            SessionListener.OnOpenResult onOpenResult = sessionListener.onOpen(session);
+            // session listener is not asked when the session is refused anyway, it would count it as open.
+            SessionListener.OnOpenResult onOpenResult = maxSessionPerEndpointExceeded
+                    ? SessionListener.OnOpenResult.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED : sessionListener.onOpen(session);
 
             // test max open sessions per endpoint and per application
-            if (maxSessionPerEndpointExceeded || !onOpenResult.equals(SessionListener.OnOpenResult.SESSION_ALLOWED)) {
+            if (!onOpenResult.equals(SessionListener.OnOpenResult.SESSION_ALLOWED)) {
                 try {
-                    webSocketToSession.remove(socket);
+                    removeSession(socket);
+                    sessionListener.onRejected(session, onOpenResult);
                     String refuseDetail;
 
-                    if (maxSessionPerEndpointExceeded) {
-                        refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED();
-                    } else {
-                        switch (onOpenResult) {
-                            case MAX_SESSIONS_PER_APP_EXCEEDED:
-                                refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_APP_EXCEEDED();
-                                break;
-                            case MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED:
-                                refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_REMOTEADDR_EXCEEDED();
-                                break;
-                            default:
-                                // should not happen.
-                                refuseDetail = null;
-                        }
+                    switch (onOpenResult) {
+                        case MAX_SESSIONS_PER_ENDPOINT_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_ENDPOINT_EXCEEDED();
+                            break;
+                        case MAX_SESSIONS_PER_APP_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_APP_EXCEEDED();
+                            break;
+                        case MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_REMOTEADDR_EXCEEDED();
+                            break;
+                        case MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED:
+                            refuseDetail = LocalizationMessages.MAX_SESSION_RATE_PER_REMOTEADDR_EXCEEDED();
+                            break;
+                        default:
+                            // should not happen.
+                            refuseDetail = null;
                     }
 
                     debugContext.appendLogMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN,
@@ -745,7 +908,8 @@ public class TyrusEndpointWrapper {
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, t,
                                                            t.getMessage());
             }
-            webSocketToSession.remove(socket);
+            removeSession(socket);
+            sessionGroups.leaveAll(session);
             sessionListener.onClose(session, CloseReasons.UNEXPECTED_CONDITION.getCloseReason());
             try {
                 session.close(CloseReasons.UNEXPECTED_CONDITION.getCloseReason());
@@ -1284,7 +1448,8 @@ public class TyrusEndpointWrapper {
 
             session.setState(TyrusSession.State.CLOSED);
 
-            webSocketToSession.remove(socket);
+            removeSession(socket);
+            sessionGroups.leaveAll(session);
             endpointEventListener.onSessionClosed(session.getId());
             componentProvider.removeSession(session);
             sessionListener.onClose(session, closeReason);
@@ -1322,32 +1487,9 @@ public class TyrusEndpointWrapper {
                 return new HashMap<Session, Future<?>>();
             }
 
-            TyrusWebSocket webSocket = webSocketToSession.keySet().iterator().next();
-            final Frame dataFrame = new TextFrame(message, false, true);
-            final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-            final byte[] frame = new byte[byteBuffer.remaining()];
-            byteBuffer.get(frame);
-            final long payloadLength = dataFrame.getPayloadLength();
-
-            SessionCallable broadcastCallable = new SessionCallable() {
-
-                @Override
-                public Future<?> call(TyrusWebSocket webSocket, TyrusSession session) {
-                    final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
-
-                    // we need to let protocol handler execute extensions if there are any
-                    if (protocolHandler.hasExtensions()) {
-                        final Frame dataFrame = new TextFrame(message, false, true);
-                        return sendBroadcast(webSocket, dataFrame, TyrusFrame.FrameType.TEXT);
-                    } else {
-                        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(frame));
-                        webSocket.getMessageEventListener().onFrameSent(TyrusFrame.FrameType.TEXT, payloadLength);
-                        return frameFuture;
-                    }
-                }
-            };
+            final PreparedMessage preparedMessage = PreparedMessage.text(message);
 
-            return broadcast(broadcastCallable);
+            return broadcastWithFutures(preparedMessage);
         }
     }
 
@@ -1364,10 +1506,10 @@ public class TyrusEndpointWrapper {
 
     private Map<Session, Future<?>> broadcast(final ByteBuffer message, boolean local) {
 
-        final byte[] byteArrayMessage = Utils.getRemainingArray(message);
+        final PreparedMessage preparedMessage = PreparedMessage.binary(message);
 
         if (!local && clusterContext != null) {
-            clusterContext.broadcastBinary(getEndpointPath(), byteArrayMessage);
+            clusterContext.broadcastBinary(getEndpointPath(), preparedMessage.getData());
             // TODO: fix for cluster case
             return new HashMap<Session, Future<?>>();
         } else {
@@ -1376,159 +1518,190 @@ public class TyrusEndpointWrapper {
                 return new HashMap<Session, Future<?>>();
             }
 
-            TyrusWebSocket webSocket = webSocketToSession.keySet().iterator().next();
-            final Frame dataFrame = new BinaryFrame(byteArrayMessage, false, true);
-            final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-            final byte[] frame = new byte[byteBuffer.remaining()];
-            byteBuffer.get(frame);
-            final long payloadLength = dataFrame.getPayloadLength();
-
-            SessionCallable broadcastCallable = new SessionCallable() {
-
-                @Override
-                public Future<?> call(TyrusWebSocket webSocket, TyrusSession session) {
-                    final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
-
-                    // we need to let protocol handler execute extensions if there are any
-                    if (protocolHandler.hasExtensions()) {
-                        final Frame dataFrame = new BinaryFrame(byteArrayMessage, false, true);
-                        return sendBroadcast(webSocket, dataFrame, TyrusFrame.FrameType.BINARY);
-                    } else {
-                        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(frame));
-                        webSocket.getMessageEventListener().onFrameSent(TyrusFrame.FrameType.BINARY, payloadLength);
-                        return frameFuture;
-                    }
-                }
-            };
-
-            return broadcast(broadcastCallable);
+            return broadcastWithFutures(preparedMessage);
         }
     }
 
     /**
-     * Perform broadcast.
+     * Broadcasts prepared message to all connected clients.
      *
-     * @param broadcastCallable callable which serializes a frame to byte[] and passes it to
-     *                          {@link org.glassfish.tyrus.core.TyrusWebSocket}. The {@link
-     *                          org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionCallable} also handles extensions,
-     *                          if any.
-     * @return map of send futures.
-     * @see #broadcast(java.nio.ByteBuffer)
-     * @see #broadcast(java.lang.String)
+     * @param message message to be broadcasted.
+     * @return map of sessions and futures for user to get the information about status of the message. Messages send
+     * from other cluster nodes are not included.
      */
-    private Map<Session, Future<?>> broadcast(SessionCallable broadcastCallable) {
-        if (parallelBroadcastEnabled) {
-            return executeInParallel(broadcastCallable);
+    Map<Session, Future<?>> broadcast(final PreparedMessage message) {
+        if (clusterContext != null) {
+            if (message.isText()) {
+                clusterContext.broadcastText(getEndpointPath(), message.getText());
+            } else {
+                clusterContext.broadcastBinary(getEndpointPath(), message.getData());
+            }
+            return new HashMap<Session, Future<?>>();
         }
 
-        Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+        if (webSocketToSession.isEmpty()) {
+            return new HashMap<Session, Future<?>>();
+        }
 
-        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
-            if (e.getValue().isOpen()) {
-                Future<?> future = broadcastCallable.call(e.getKey(), e.getValue());
-                futures.put(e.getValue(), future);
+        return broadcastWithFutures(message);
+    }
+
+    /**
+     * Broadcasts prepared message to all connected clients without creating a future for every session.
+     * <p/>
+     * Open sessions are not copied, the only objects created for a recipient are those needed for the write itself
+     * (and a handler remembering the session when {@code failureListener} is set).
+     *
+     * @param message         message to be broadcasted.
+     * @param failureListener listener notified about failed sends, can be {@code null}.
+     * @return aggregate result of the broadcast. Messages send from other cluster nodes are not included.
+     */
+    BroadcastResult broadcastAsync(final PreparedMessage message,
+                                   final BroadcastResult.FailureListener failureListener) {
+        final BroadcastResult result = new BroadcastResult(failureListener);
+
+        if (clusterContext != null) {
+            if (message.isText()) {
+                clusterContext.broadcastText(getEndpointPath(), message.getText());
+            } else {
+                clusterContext.broadcastBinary(getEndpointPath(), message.getData());
             }
+        } else {
+            sendBroadcast(message, result, webSocketToSession, failureListener != null);
         }
 
-        return futures;
+        result.taskFinished();
+        return result;
     }
 
     /**
-     * Serialize dataframe and send it to {@link org.glassfish.tyrus.core.TyrusWebSocket}.
+     * Broadcasts prepared message to all members of a session group.
+     * <p/>
+     * Group membership is local to this node, so the message is not sent to other cluster nodes.
      *
-     * @param webSocket {@link org.glassfish.tyrus.core.TyrusWebSocket} instance used for sending the frame.
-     * @param dataFrame frame to be sent.
-     * @param frameType type of the frame (monitoring).
-     * @return future representing outcome of the send operation.
+     * @param group           name of the group.
+     * @param message         message to be broadcasted.
+     * @param failureListener listener notified about failed sends, can be {@code null}.
+     * @return aggregate result of the broadcast.
+     * @see #broadcastAsync(PreparedMessage, BroadcastResult.FailureListener)
      */
-    private Future<?> sendBroadcast(TyrusWebSocket webSocket, Frame dataFrame, TyrusFrame.FrameType frameType) {
-        byte[] tempFrame;
-        final ByteBuffer byteBuffer = webSocket.getProtocolHandler().frame(dataFrame);
-        tempFrame = new byte[byteBuffer.remaining()];
-        byteBuffer.get(tempFrame);
-
-        final Future<Frame> frameFuture = webSocket.sendRawFrame(ByteBuffer.wrap(tempFrame));
-        webSocket.getMessageEventListener()
-                 .onFrameSent(frameType, dataFrame.getPayloadLength());
-        return frameFuture;
+    BroadcastResult broadcastToGroup(String group, PreparedMessage message,
+                                     BroadcastResult.FailureListener failureListener) {
+        final BroadcastResult result = new BroadcastResult(failureListener);
+
+        sendBroadcast(message, result, sessionGroups.getMembers(group), failureListener != null);
+
+        result.taskFinished();
+        return result;
     }
 
     /**
-     * Divides open sessions into subsets on which an operation passed as {@code broadcastCallable} will be executed in
-     * parallel.
+     * Get session groups of this endpoint.
      *
-     * @param broadcastCallable operation to be executed on open sessions.
-     * @return futures of the operations executed on each session.
+     * @return session groups.
      */
-    private Map<Session, Future<?>> executeInParallel(final SessionCallable broadcastCallable) {
-        final List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions =
-                new ArrayList<Map.Entry<TyrusWebSocket, TyrusSession>>();
+    SessionGroups getSessionGroups() {
+        return sessionGroups;
+    }
 
-        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
-            if (e.getValue().isOpen()) {
-                sessions.add(e);
+    /**
+     * Sends the message to all the recipients, in parallel if enabled.
+     *
+     * @param message       message to be broadcasted.
+     * @param result        aggregate result of the broadcast.
+     * @param recipients    live map of sockets to sessions of the recipients.
+     * @param lookupSession {@code true} when the session of each recipient has to be passed to the result.
+     */
+    private void sendBroadcast(final PreparedMessage message, final BroadcastResult result,
+                               final Map<TyrusWebSocket, TyrusSession> recipients, final boolean lookupSession) {
+        if (parallelBroadcastEnabled && container instanceof BaseContainer) {
+            final BroadcastScheduler.Task<TyrusWebSocket> task = new BroadcastScheduler.Task<TyrusWebSocket>() {
+                @Override
+                public void execute(TyrusWebSocket webSocket) {
+                    sendBroadcast(message, result, webSocket, recipients, lookupSession);
+                }
+            };
+
+            broadcastScheduler.execute(recipients.keySet().iterator(), recipients.size(), task,
+                                       getBroadcastExecutor(), result);
+        } else {
+            for (TyrusWebSocket webSocket : recipients.keySet()) {
+                sendBroadcast(message, result, webSocket, recipients, lookupSession);
             }
         }
+    }
 
-        if (sessions.isEmpty()) {
-            return new HashMap<Session, Future<?>>();
+    private void sendBroadcast(PreparedMessage message, BroadcastResult result, TyrusWebSocket webSocket,
+                               Map<TyrusWebSocket, TyrusSession> recipients, boolean lookupSession) {
+        if (webSocket.isConnected()) {
+            result.send(message, webSocket, lookupSession ? recipients.get(webSocket) : null);
         }
+    }
 
-        ExecutorService executor = ((BaseContainer) sessions.get(0).getValue().getContainer()).getExecutorService();
-        Map<Future<Map<Session, Future<?>>>, int[]> submitFutures =
-                new HashMap<Future<Map<Session, Future<?>>>, int[]>();
-
-        int sessionCount = sessions.size();
-        int maxThreadCount = sessionCount / MIN_SESSIONS_PER_THREAD == 0 ? 1 : sessionCount / MIN_SESSIONS_PER_THREAD;
-        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), maxThreadCount);
-
-        for (int i = 0; i < threadCount; i++) {
-
-            final int lowerBound = (sessionCount + threadCount - 1) / threadCount * i;
-            final int upperBound = Math.min((sessionCount + threadCount - 1) / threadCount * (i + 1), sessionCount);
-
-            Future<Map<Session, Future<?>>> submitFuture = executor.submit(new Callable<Map<Session, Future<?>>>() {
-
-                @Override
-                public Map<Session, Future<?>> call() throws Exception {
-                    Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+    /**
+     * Perform broadcast.
+     *
+     * @param message message to be broadcasted.
+     * @return map of send futures.
+     * @see #broadcast(java.nio.ByteBuffer)
+     * @see #broadcast(java.lang.String)
+     */
+    private Map<Session, Future<?>> broadcastWithFutures(final PreparedMessage message) {
+        final Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
 
-                    for (int j = lowerBound; j < upperBound; j++) {
-                        Map.Entry<TyrusWebSocket, TyrusSession> e = sessions.get(j);
-                        Future<?> future = broadcastCallable.call(e.getKey(), e.getValue());
-                        futures.put(e.getValue(), future);
-                    }
-                    return futures;
+        if (!parallelBroadcastEnabled) {
+            for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
+                if (e.getValue().isOpen()) {
+                    // extensions are executed by the prepared message when needed.
+                    futures.put(e.getValue(), message.send(e.getKey()));
                 }
-            });
+            }
 
-            submitFutures.put(submitFuture, new int[]{lowerBound, upperBound});
+            return futures;
         }
 
-        final Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+        // futures are created by the calling thread, so that the map can be returned before the sends are started.
+        final List<Map.Entry<TyrusWebSocket, TyrusFuture<Void>>> sends =
+                new ArrayList<Map.Entry<TyrusWebSocket, TyrusFuture<Void>>>();
 
-        for (Future<Map<Session, Future<?>>> submitFuture : submitFutures.keySet()) {
-            try {
-                futures.putAll(submitFuture.get());
-            } catch (InterruptedException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
-            } catch (ExecutionException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
+        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
+            if (e.getValue().isOpen()) {
+                final TyrusFuture<Void> future = new TyrusFuture<Void>();
+                futures.put(e.getValue(), future);
+                sends.add(new AbstractMap.SimpleImmutableEntry<TyrusWebSocket, TyrusFuture<Void>>(e.getKey(), future));
             }
         }
 
+        final BroadcastScheduler.Task<Map.Entry<TyrusWebSocket, TyrusFuture<Void>>> task =
+                new BroadcastScheduler.Task<Map.Entry<TyrusWebSocket, TyrusFuture<Void>>>() {
+                    @Override
+                    public void execute(Map.Entry<TyrusWebSocket, TyrusFuture<Void>> send) {
+                        final TyrusFuture<Void> future = send.getValue();
+                        try {
+                            message.send(send.getKey(), new SendHandler() {
+                                @Override
+                                public void onResult(SendResult result) {
+                                    if (result.isOK()) {
+                                        future.setResult(null);
+                                    } else {
+                                        future.setFailure(result.getException());
+                                    }
+                                }
+                            });
+                        } catch (RuntimeException e) {
+                            // session closed in the meantime.
+                            future.setFailure(e);
+                        }
+                    }
+                };
+
+        broadcastScheduler.execute(sends.iterator(), sends.size(), task, getBroadcastExecutor(), null);
+
         return futures;
     }
 
-    private void handleSubmitException(Map<Session, Future<?>> futures,
-                                       List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions,
-                                       int[] bounds, Exception e) {
-
-        for (int j = bounds[0]; j < bounds[1]; j++) {
-            TyrusFuture<Void> future = new TyrusFuture<Void>();
-            future.setFailure(e);
-            futures.put(sessions.get(j).getValue(), future);
-        }
+    private ExecutorService getBroadcastExecutor() {
+        return container instanceof BaseContainer ? ((BaseContainer) container).getExecutorService() : null;
     }
 
     /**
@@ -1540,6 +1713,15 @@ public class TyrusEndpointWrapper {
         return (List<Decoder>) (List<?>) decoders;
     }
 
+    /**
+     * Classes of registered {@link Decoder}s.
+     *
+     * @return unmodifiable {@link List} of classes of registered {@link Decoder}s.
+     */
+    List<Class<? extends Decoder>> getDecoderClasses() {
+        return decoderClasses;
+    }
+
     private Class<?> getEncoderClassType(Class<?> encoderClass) {
         if (Encoder.Binary.class.isAssignableFrom(encoderClass)) {
             return ReflectionHelper.getClassType(encoderClass, Encoder.Binary.class);
@@ -1723,7 +1905,20 @@ public class TyrusEndpointWrapper {
             /**
              * Session cannot be opened - the maximal number of open session per remote address exceeded.
              */
-            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED
+            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED,
+
+            /**
+             * Session cannot be opened - the maximal number of open session per endpoint exceeded.
+             * <p/>
+             * Not returned from {@link SessionListener#onOpen(TyrusSession)}, the limit is checked before the listener
+             * is invoked.
+             */
+            MAX_SESSIONS_PER_ENDPOINT_EXCEEDED,
+
+            /**
+             * Session cannot be opened - the maximal rate of new sessions per remote address exceeded.
+             */
+            MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED
         }
 
         /**
@@ -1750,6 +1945,82 @@ public class TyrusEndpointWrapper {
          */
         public void onClose(final TyrusSession session, final CloseReason closeReason) {
         }
+
+        /**
+         * Invoked when a session was not opened, because it was refused by {@link #onOpen(TyrusSession)} or by the
+         * limit of open sessions per endpoint.
+         * <p/>
+         * {@link #onClose(TyrusSession, CloseReason)} is not invoked for a refused session.
+         *
+         * @param session refused session.
+         * @param reason  reason why the session was refused.
+         */
+        public void onRejected(final TyrusSession session, final OnOpenResult reason) {
+        }
+    }
+
+    /**
+     * Unmodifiable live view of open sessions, see {@link #getOpenSessionsView()}.
+     */
+    private class OpenSessionsView extends AbstractCollection<Session> {
+
+        @Override
+        public Iterator<Session> iterator() {
+            final Iterator<TyrusSession> sessions = webSocketToSession.values().iterator();
+
+            return new Iterator<Session>() {
+                private TyrusSession next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && sessions.hasNext()) {
+                        final TyrusSession session = sessions.next();
+                        if (session.isOpen()) {
+                            next = session;
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Session next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Session session = next;
+                    next = null;
+                    return session;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        /**
+         * Get the number of registered sessions; it can be greater than the number of sessions returned by the
+         * iterator, which skips sessions that are just being closed.
+         *
+         * @return upper bound of the number of open sessions.
+         */
+        @Override
+        public int size() {
+            return sessionCount.get();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            // size() counts also sessions which are being closed.
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof TyrusSession && ((TyrusSession) o).isOpen()
+                    && webSocketToSession.get(((TyrusSession) o).getWebSocket()) == o;
+        }
     }
 
     /**
@@ -1892,9 +2163,4 @@ public class TyrusEndpointWrapper {
             return null;
         }
     };
-
-    private static interface SessionCallable {
-
-        Future<?> call(TyrusWebSocket tyrusWebSocket, TyrusSession session);
-    }
 }
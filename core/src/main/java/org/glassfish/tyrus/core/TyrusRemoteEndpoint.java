@@ -100,7 +100,10 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
 
             final Future<?> future = webSocket.sendText(text);
             try {
-                processFuture(future);
+                // whole messages are sent when the batch is flushed.
+                if (!webSocket.isBatchingAllowed()) {
+                    processFuture(future);
+                }
             } finally {
                 session.restartIdleTimeoutExecutor();
             }
@@ -115,7 +118,10 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
 
             final Future<?> future = webSocket.sendBinary(Utils.getRemainingArray(data));
             try {
-                processFuture(future);
+                // whole messages are sent when the batch is flushed.
+                if (!webSocket.isBatchingAllowed()) {
+                    processFuture(future);
+                }
             } finally {
                 session.restartIdleTimeoutExecutor();
             }
@@ -180,7 +186,9 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             checkNotNull(data, "data");
             final Future<?> future = sendSyncObject(data);
             try {
-                future.get();
+                if (!webSocket.isBatchingAllowed()) {
+                    future.get();
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (ExecutionException e) {
@@ -206,7 +214,15 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         }
     }
 
-    static class Async extends TyrusRemoteEndpoint implements javax.websocket.RemoteEndpoint.Async {
+    /**
+     * Asynchronous remote endpoint.
+     * <p/>
+     * In addition to {@link javax.websocket.RemoteEndpoint.Async} methods it supports conflated messages: a message
+     * sent with a key replaces a previously sent message with the same key, if that one was not written yet. This is
+     * useful for feeds where only the latest value per key matters, a slow client then receives fresh values and the
+     * number of pending messages is bounded by the number of keys.
+     */
+    public static class Async extends TyrusRemoteEndpoint implements javax.websocket.RemoteEndpoint.Async {
         private long sendTimeout;
 
         Async(TyrusSession session, TyrusWebSocket socket, TyrusEndpointWrapper endpointWrapper) {
@@ -262,6 +278,79 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
             return sendAsync(data, AsyncMessageType.OBJECT);
         }
 
+        /**
+         * Send text message which replaces a previously sent message with the same key if that one was not written
+         * yet. The replaced message takes the place of the previous one in the sending order; the previous message is
+         * considered to be sent.
+         * <p/>
+         * Messages are held back (and can be replaced) only while previously sent conflated messages are being
+         * written and batching is not allowed.
+         *
+         * @param key  conflation key, e.g. instrument name.
+         * @param text text to be sent.
+         * @return future representing the outcome of the send operation.
+         */
+        public Future<Void> sendConflatedText(Object key, String text) {
+            checkNotNull(key, "key");
+            checkNotNull(text, "text");
+            session.restartIdleTimeoutExecutor();
+            session.getDebugContext().appendLogMessage(
+                    LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_OUT, "Sending conflated text message: ", text);
+            return toVoidFuture(webSocket.sendConflatedText(key, text));
+        }
+
+        /**
+         * Send text message which replaces a previously sent message with the same key if that one was not written
+         * yet.
+         *
+         * @param key     conflation key, e.g. instrument name.
+         * @param text    text to be sent.
+         * @param handler handler notified when the message is sent or replaced.
+         * @see #sendConflatedText(Object, String)
+         */
+        public void sendConflatedText(Object key, String text, SendHandler handler) {
+            checkNotNull(key, "key");
+            checkNotNull(text, "text");
+            checkNotNull(handler, "handler");
+            session.restartIdleTimeoutExecutor();
+            webSocket.sendConflatedText(key, text, handler);
+        }
+
+        /**
+         * Send binary message which replaces a previously sent message with the same key if that one was not written
+         * yet.
+         *
+         * @param key  conflation key, e.g. instrument name.
+         * @param data data to be sent.
+         * @return future representing the outcome of the send operation.
+         * @see #sendConflatedText(Object, String)
+         */
+        public Future<Void> sendConflatedBinary(Object key, ByteBuffer data) {
+            checkNotNull(key, "key");
+            checkNotNull(data, "data");
+            session.restartIdleTimeoutExecutor();
+            session.getDebugContext().appendLogMessage(
+                    LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_OUT, "Sending conflated binary message");
+            return toVoidFuture(webSocket.sendConflatedBinary(key, Utils.getRemainingArray(data)));
+        }
+
+        /**
+         * Send binary message which replaces a previously sent message with the same key if that one was not written
+         * yet.
+         *
+         * @param key     conflation key, e.g. instrument name.
+         * @param data    data to be sent.
+         * @param handler handler notified when the message is sent or replaced.
+         * @see #sendConflatedText(Object, String)
+         */
+        public void sendConflatedBinary(Object key, ByteBuffer data, SendHandler handler) {
+            checkNotNull(key, "key");
+            checkNotNull(data, "data");
+            checkNotNull(handler, "handler");
+            session.restartIdleTimeoutExecutor();
+            webSocket.sendConflatedBinary(key, Utils.getRemainingArray(data), handler);
+        }
+
         @Override
         public long getSendTimeout() {
             return sendTimeout;
@@ -305,8 +394,10 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
                     break;
             }
 
-            final Future<?> finalResult = result;
+            return toVoidFuture(result);
+        }
 
+        private Future<Void> toVoidFuture(final Future<?> finalResult) {
             return new Future<Void>() {
                 @Override
                 public boolean cancel(boolean mayInterruptIfRunning) {
@@ -470,24 +561,83 @@ public abstract class TyrusRemoteEndpoint implements javax.websocket.RemoteEndpo
         webSocket.sendPong(Utils.getRemainingArray(applicationData));
     }
 
+    /**
+     * Send prepared message.
+     * <p/>
+     * The message is sent asynchronously for both {@link javax.websocket.RemoteEndpoint.Basic} and {@link
+     * javax.websocket.RemoteEndpoint.Async} remote endpoints; use returned future to wait for the completion.
+     *
+     * @param message message to be sent.
+     * @return future representing the outcome of the send operation.
+     * @see PreparedMessage
+     */
+    public Future<?> sendPreparedMessage(PreparedMessage message) {
+        checkNotNull(message, "message");
+
+        session.getDebugContext()
+               .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_OUT, "Sending prepared message");
+
+        session.restartIdleTimeoutExecutor();
+        return message.send(webSocket);
+    }
+
+    /**
+     * Send prepared message.
+     * <p/>
+     * The message is sent asynchronously for both {@link javax.websocket.RemoteEndpoint.Basic} and {@link
+     * javax.websocket.RemoteEndpoint.Async} remote endpoints.
+     *
+     * @param message message to be sent.
+     * @param handler handler notified when the message is sent.
+     * @see PreparedMessage
+     */
+    public void sendPreparedMessage(PreparedMessage message, SendHandler handler) {
+        checkNotNull(message, "message");
+        checkNotNull(handler, "handler");
+
+        session.getDebugContext()
+               .appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_OUT, "Sending prepared message");
+
+        session.restartIdleTimeoutExecutor();
+        message.send(webSocket, handler);
+    }
+
     @Override
     public String toString() {
         return "Wrapped: " + getClass().getSimpleName();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Batching is shared by {@link javax.websocket.RemoteEndpoint.Basic} and {@link
+     * javax.websocket.RemoteEndpoint.Async} instances of the same session. Only whole messages are batched; see
+     * {@link ProtocolHandler#setBatchingAllowed(boolean)}.
+     */
     @Override
     public void setBatchingAllowed(boolean allowed) {
-        // TODO: Implement.
+        webSocket.setBatchingAllowed(allowed);
     }
 
     @Override
     public boolean getBatchingAllowed() {
-        return false;  // TODO: Implement.
+        return webSocket.isBatchingAllowed();
     }
 
     @Override
-    public void flushBatch() {
-        // TODO: Implement.
+    public void flushBatch() throws IOException {
+        final Future<Void> future = webSocket.flushBatch();
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else {
+                throw new IOException(e.getCause());
+            }
+        }
     }
 
     public void close(CloseReason cr) {
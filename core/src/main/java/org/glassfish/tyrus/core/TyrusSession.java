@@ -45,6 +45,7 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.security.Principal;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -53,10 +54,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -76,6 +75,8 @@ import org.glassfish.tyrus.core.cluster.SessionEventListener;
 import org.glassfish.tyrus.core.coder.CoderWrapper;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 
+import static org.glassfish.tyrus.core.Utils.checkNotNull;
+
 /**
  * Implementation of the {@link Session}.
  *
@@ -88,41 +89,59 @@ public class TyrusSession implements Session, DistributedSession {
 
     private static final Logger LOGGER = Logger.getLogger(TyrusSession.class.getName());
 
+    private static final AtomicReferenceFieldUpdater<TyrusSession, State> STATE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, State.class, "state");
+    private static final AtomicReferenceFieldUpdater<TyrusSession, IdleTimeoutWheel.Timeout> IDLE_TIMEOUT_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, IdleTimeoutWheel.Timeout.class, "idleTimeout");
+    private static final AtomicReferenceFieldUpdater<TyrusSession, TyrusRemoteEndpoint.Basic> BASIC_REMOTE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, TyrusRemoteEndpoint.Basic.class, "basicRemote");
+    private static final AtomicReferenceFieldUpdater<TyrusSession, TyrusRemoteEndpoint.Async> ASYNC_REMOTE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, TyrusRemoteEndpoint.Async.class, "asyncRemote");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TyrusSession, Map> USER_PROPERTIES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, Map.class, "userProperties");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<TyrusSession, Map> DISTRIBUTED_USER_PROPERTIES_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(TyrusSession.class, Map.class, "distributedUserProperties");
+
     private final WebSocketContainer container;
     private final TyrusEndpointWrapper endpointWrapper;
-    private final TyrusRemoteEndpoint.Basic basicRemote;
-    private final TyrusRemoteEndpoint.Async asyncRemote;
+    private final TyrusWebSocket socket;
     private final boolean isSecure;
     private final URI requestURI;
     private final String queryString;
     private final Map<String, String> pathParameters;
     private final Principal userPrincipal;
     private final Map<String, List<String>> requestParameterMap;
-    private final Object idleTimeoutLock = new Object();
     private final String id;
     private final String connectionId;
-    private final Map<String, Object> userProperties;
     private final MessageHandlerManager handlerManager;
-    private final AtomicReference<State> state = new AtomicReference<State>(State.RUNNING);
-    private final TextBuffer textBuffer = new TextBuffer();
-    private final BinaryBuffer binaryBuffer = new BinaryBuffer();
     private final List<Extension> negotiatedExtensions;
     private final String negotiatedSubprotocol;
     private final String remoteAddr;
     private final DebugContext debugContext;
 
     private final Map<RemoteSession.DistributedMapKey, Object> distributedPropertyMap;
-    private final Map<String, Object> distributedUserProperties;
 
+    // created lazily, most of the sessions never use them.
+    private volatile TyrusRemoteEndpoint.Basic basicRemote;
+    private volatile TyrusRemoteEndpoint.Async asyncRemote;
+    private volatile Map<String, Object> userProperties;
+    private volatile Map<String, Object> distributedUserProperties;
+    private TextBuffer textBuffer;
+    private BinaryBuffer binaryBuffer;
+
+    private volatile State state = State.RUNNING;
     private volatile long maxIdleTimeout = 0;
-    private volatile ScheduledFuture<?> idleTimeoutFuture = null;
+    private volatile IdleTimeoutWheel.Timeout idleTimeout = null;
     private int maxBinaryMessageBufferSize = Integer.MAX_VALUE;
     private int maxTextMessageBufferSize = Integer.MAX_VALUE;
-    private ScheduledExecutorService service;
+    private IdleTimeoutWheel idleTimeoutWheel;
+    private HeartbeatSweeper heartbeatSweeper;
     private ReaderBuffer readerBuffer;
     private InputStreamBuffer inputStreamBuffer;
     private volatile long heartbeatInterval;
-    private volatile ScheduledFuture<?> heartbeatTask;
+    private volatile HeartbeatSweeper.Registration heartbeat;
 
     TyrusSession(WebSocketContainer container, TyrusWebSocket socket, TyrusEndpointWrapper endpointWrapper,
                  String subprotocol, List<Extension> extensions, boolean isSecure,
@@ -137,13 +156,14 @@ public class TyrusSession implements Session, DistributedSession {
         this.isSecure = isSecure;
         this.requestURI = requestURI;
         this.queryString = queryString;
-        this.pathParameters = pathParameters == null ? Collections.<String, String>emptyMap()
+        this.pathParameters = pathParameters == null || pathParameters.isEmpty()
+                ? Collections.<String, String>emptyMap()
                 : Collections.unmodifiableMap(new HashMap<String, String>(pathParameters));
-        this.basicRemote = new TyrusRemoteEndpoint.Basic(this, socket, endpointWrapper);
-        this.asyncRemote = new TyrusRemoteEndpoint.Async(this, socket, endpointWrapper);
-        this.handlerManager = MessageHandlerManager.fromDecoderInstances(endpointWrapper.getDecoders());
+        this.socket = socket;
+        this.handlerManager = new MessageHandlerManager(endpointWrapper.getDecoderClasses());
         this.userPrincipal = principal;
-        this.requestParameterMap = requestParameterMap == null ? Collections.<String, List<String>>emptyMap()
+        this.requestParameterMap = requestParameterMap == null || requestParameterMap.isEmpty()
+                ? Collections.<String, List<String>>emptyMap()
                 : Collections.unmodifiableMap(new HashMap<String, List<String>>(requestParameterMap));
         this.connectionId = connectionId;
         this.remoteAddr = remoteAddr;
@@ -152,7 +172,8 @@ public class TyrusSession implements Session, DistributedSession {
         if (container != null) {
             maxTextMessageBufferSize = container.getDefaultMaxTextMessageBufferSize();
             maxBinaryMessageBufferSize = container.getDefaultMaxBinaryMessageBufferSize();
-            service = ((ExecutorServiceProvider) container).getScheduledExecutorService();
+            idleTimeoutWheel = ((ExecutorServiceProvider) container).getIdleTimeoutWheel();
+            heartbeatSweeper = ((ExecutorServiceProvider) container).getHeartbeatSweeper();
             setMaxIdleTimeout(container.getDefaultMaxSessionIdleTimeout());
         }
 
@@ -184,11 +205,9 @@ public class TyrusSession implements Session, DistributedSession {
         } else {
             id = UUID.randomUUID().toString();
             distributedPropertyMap = null;
-            distributedUserProperties = new HashMap<String, Object>();
         }
 
         debugContext.setSessionId(id);
-        userProperties = new HashMap<String, Object>();
     }
 
     @Override
@@ -204,25 +223,30 @@ public class TyrusSession implements Session, DistributedSession {
     @Override
     public javax.websocket.RemoteEndpoint.Async getAsyncRemote() {
         checkConnectionState(State.CLOSED);
-        return asyncRemote;
+        TyrusRemoteEndpoint.Async remote = asyncRemote;
+        if (remote == null) {
+            ASYNC_REMOTE_UPDATER.compareAndSet(this, null, new TyrusRemoteEndpoint.Async(this, socket, endpointWrapper));
+            remote = asyncRemote;
+        }
+        return remote;
     }
 
     @Override
     public javax.websocket.RemoteEndpoint.Basic getBasicRemote() {
         checkConnectionState(State.CLOSED);
-        return basicRemote;
+        return basicRemote();
     }
 
     @Override
     public boolean isOpen() {
-        return state.get() != State.CLOSED;
+        return state != State.CLOSED;
     }
 
     @Override
     public void close() throws IOException {
         cleanAfterClose();
         changeStateToClosed();
-        basicRemote.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, null));
+        basicRemote().close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, null));
     }
 
     @Override
@@ -230,7 +254,7 @@ public class TyrusSession implements Session, DistributedSession {
         cleanAfterClose();
         checkConnectionState(State.CLOSED);
         changeStateToClosed();
-        basicRemote.close(closeReason);
+        basicRemote().close(closeReason);
     }
 
     @Override
@@ -265,10 +289,35 @@ public class TyrusSession implements Session, DistributedSession {
 
     @Override
     public Set<Session> getOpenSessions() {
-        Set<Session> openSessions = new HashSet<Session>();
-        openSessions.addAll(endpointWrapper.getOpenSessions());
+        return Collections.<Session>unmodifiableSet(endpointWrapper.getOpenSessions());
+    }
+
+    /**
+     * Get the number of sessions opened to the same endpoint.
+     * <p/>
+     * Unlike {@code getOpenSessions().size()}, the sessions are not copied, the count is maintained when sessions are
+     * opened and closed. A session which is just being closed might still be counted. Remote sessions are not
+     * included.
+     *
+     * @return number of open sessions.
+     */
+    public int getOpenSessionCount() {
+        return endpointWrapper.getOpenSessionCount();
+    }
 
-        return Collections.unmodifiableSet(openSessions);
+    /**
+     * Get live view of sessions opened to the same endpoint.
+     * <p/>
+     * Unlike {@link #getOpenSessions()}, the returned collection is not a snapshot, it is not copied. Its iterator is
+     * weakly consistent: it never throws {@link java.util.ConcurrentModificationException} and it may or may not
+     * reflect sessions opened or closed during the iteration. Size of the collection is
+     * {@link #getOpenSessionCount()}, which is an upper bound of the number of iterated sessions - a session which is
+     * just being closed is counted, but it is skipped by the iterator. Remote sessions are not included.
+     *
+     * @return unmodifiable live view of open sessions.
+     */
+    public Collection<Session> getOpenSessionsView() {
+        return endpointWrapper.getOpenSessionsView();
     }
 
     /**
@@ -313,7 +362,7 @@ public class TyrusSession implements Session, DistributedSession {
     public void setMaxIdleTimeout(long maxIdleTimeout) {
         checkConnectionState(State.CLOSED);
         this.maxIdleTimeout = maxIdleTimeout;
-        restartIdleTimeoutExecutor();
+        scheduleIdleTimeout();
         if (distributedPropertyMap != null) {
             distributedPropertyMap.put(RemoteSession.DistributedMapKey.MAX_IDLE_TIMEOUT, maxIdleTimeout);
         }
@@ -423,12 +472,22 @@ public class TyrusSession implements Session, DistributedSession {
 
     @Override
     public Map<String, Object> getUserProperties() {
-        return userProperties;
+        Map<String, Object> properties = userProperties;
+        if (properties == null) {
+            USER_PROPERTIES_UPDATER.compareAndSet(this, null, new HashMap<String, Object>());
+            properties = userProperties;
+        }
+        return properties;
     }
 
     @Override
     public Map<String, Object> getDistributedProperties() {
-        return distributedUserProperties;
+        Map<String, Object> properties = distributedUserProperties;
+        if (properties == null) {
+            DISTRIBUTED_USER_PROPERTIES_UPDATER.compareAndSet(this, null, new HashMap<String, Object>());
+            properties = distributedUserProperties;
+        }
+        return properties;
     }
 
     @Override
@@ -474,6 +533,173 @@ public class TyrusSession implements Session, DistributedSession {
         return endpointWrapper.broadcast(message);
     }
 
+    /**
+     * Broadcasts prepared message to all connected clients, including remote sessions (if any).
+     * <p/>
+     * The message is framed only once for all the sessions without frame processing extensions, see {@link
+     * PreparedMessage}. The broadcast can be executed in parallel, which can be enabled by setting {@link
+     * org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED} to {@code true} in server properties.
+     *
+     * @param message message to be broadcasted.
+     * @return map of local sessions and futures for user to get the information about status of the message.
+     */
+    public Map<Session, Future<?>> broadcast(PreparedMessage message) {
+        return endpointWrapper.broadcast(message);
+    }
+
+    /**
+     * Broadcasts text message to all connected clients, including remote sessions (if any), without creating a
+     * future for every session.
+     *
+     * @param message message to be broadcasted.
+     * @return aggregate result of the broadcast of local sessions.
+     * @see #broadcastAsync(PreparedMessage, BroadcastResult.FailureListener)
+     */
+    public BroadcastResult broadcastAsync(String message) {
+        return broadcastAsync(PreparedMessage.text(message), null);
+    }
+
+    /**
+     * Broadcasts binary message to all connected clients, including remote sessions (if any), without creating a
+     * future for every session.
+     *
+     * @param message message to be broadcasted.
+     * @return aggregate result of the broadcast of local sessions.
+     * @see #broadcastAsync(PreparedMessage, BroadcastResult.FailureListener)
+     */
+    public BroadcastResult broadcastAsync(ByteBuffer message) {
+        return broadcastAsync(PreparedMessage.binary(message), null);
+    }
+
+    /**
+     * Broadcasts prepared message to all connected clients, including remote sessions (if any), without creating a
+     * future for every session.
+     *
+     * @param message message to be broadcasted.
+     * @return aggregate result of the broadcast of local sessions.
+     * @see #broadcastAsync(PreparedMessage, BroadcastResult.FailureListener)
+     */
+    public BroadcastResult broadcastAsync(PreparedMessage message) {
+        return broadcastAsync(message, null);
+    }
+
+    /**
+     * Broadcasts prepared message to all connected clients, including remote sessions (if any), without creating a
+     * future for every session.
+     * <p/>
+     * Unlike {@link #broadcast(PreparedMessage)}, which returns a future for every local session, the result of this
+     * broadcast is one {@link BroadcastResult} counting successful, failed and pending sends. The message is framed
+     * only once, see {@link PreparedMessage}. The broadcast can be executed in parallel, which can be enabled by
+     * setting {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED} to {@code true} in
+     * server properties.
+     *
+     * @param message         message to be broadcasted.
+     * @param failureListener listener notified about every failed send, can be {@code null}.
+     * @return aggregate result of the broadcast of local sessions.
+     */
+    public BroadcastResult broadcastAsync(PreparedMessage message, BroadcastResult.FailureListener failureListener) {
+        checkNotNull(message, "message");
+        return endpointWrapper.broadcastAsync(message, failureListener);
+    }
+
+    /**
+     * Add this session to a named group of sessions of the same endpoint.
+     * <p/>
+     * Groups (rooms, topics, ...) can be broadcasted to by {@link #broadcastToGroup(String, PreparedMessage,
+     * BroadcastResult.FailureListener)}. A group is created when the first session joins it and the session is
+     * removed from all its groups when it is closed. Group membership is local to this node, it is not shared in a
+     * cluster.
+     *
+     * @param group name of the group.
+     * @return {@code true} if this session was not a member of the group.
+     */
+    public boolean joinGroup(String group) {
+        checkNotNull(group, "group");
+        checkConnectionState(State.CLOSED);
+        return endpointWrapper.getSessionGroups().join(group, this);
+    }
+
+    /**
+     * Remove this session from a named group of sessions.
+     *
+     * @param group name of the group.
+     * @return {@code true} if this session was a member of the group.
+     * @see #joinGroup(String)
+     */
+    public boolean leaveGroup(String group) {
+        checkNotNull(group, "group");
+        return endpointWrapper.getSessionGroups().leave(group, this);
+    }
+
+    /**
+     * Get names of groups this session is member of.
+     *
+     * @return unmodifiable view of group names.
+     * @see #joinGroup(String)
+     */
+    public Set<String> getGroups() {
+        return endpointWrapper.getSessionGroups().getGroups(this);
+    }
+
+    /**
+     * Get sessions which are members of a named group.
+     * <p/>
+     * The returned collection is a live view, it is not copied.
+     *
+     * @param group name of the group.
+     * @return unmodifiable view of group members; empty when there is no such group.
+     * @see #joinGroup(String)
+     */
+    public Collection<Session> getGroupMembers(String group) {
+        checkNotNull(group, "group");
+        return Collections.<Session>unmodifiableCollection(
+                endpointWrapper.getSessionGroups().getMembers(group).values());
+    }
+
+    /**
+     * Broadcasts text message to all members of a group.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @return aggregate result of the broadcast.
+     * @see #broadcastToGroup(String, PreparedMessage, BroadcastResult.FailureListener)
+     */
+    public BroadcastResult broadcastToGroup(String group, String message) {
+        return broadcastToGroup(group, PreparedMessage.text(message), null);
+    }
+
+    /**
+     * Broadcasts binary message to all members of a group.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @return aggregate result of the broadcast.
+     * @see #broadcastToGroup(String, PreparedMessage, BroadcastResult.FailureListener)
+     */
+    public BroadcastResult broadcastToGroup(String group, ByteBuffer message) {
+        return broadcastToGroup(group, PreparedMessage.binary(message), null);
+    }
+
+    /**
+     * Broadcasts prepared message to all members of a group.
+     * <p/>
+     * The message is framed only once and the group members are not copied. The broadcast can be executed in
+     * parallel the same way as {@link #broadcastAsync(PreparedMessage, BroadcastResult.FailureListener)}. Members
+     * of the group on other cluster nodes are not included.
+     *
+     * @param group           name of the group.
+     * @param message         message to be broadcasted.
+     * @param failureListener listener notified about every failed send, can be {@code null}.
+     * @return aggregate result of the broadcast.
+     * @see #joinGroup(String)
+     */
+    public BroadcastResult broadcastToGroup(String group, PreparedMessage message,
+                                            BroadcastResult.FailureListener failureListener) {
+        checkNotNull(group, "group");
+        checkNotNull(message, "message");
+        return endpointWrapper.broadcastToGroup(group, message, failureListener);
+    }
+
     /**
      * Return an interval in milliseconds between scheduled periodic Pong messages.
      * A negative value or 0 means that sending of periodic Pong messages is not turned on.
@@ -491,40 +717,69 @@ public class TyrusSession implements Session, DistributedSession {
      * @param heartbeatInterval interval between periodic Pong messages in milliseconds.
      */
     public void setHeartbeatInterval(long heartbeatInterval) {
+        setHeartbeatInterval(heartbeatInterval, false);
+    }
+
+    /**
+     * Set an interval in milliseconds between scheduled periodic Pong messages.
+     * Setting the interval to a negative value or 0 will cancel sending of periodic Pong messages.
+     * <p/>
+     * When {@code skipActive} is {@code true}, the Pong message is not sent if any message was sent or received since
+     * the previous one.
+     *
+     * @param heartbeatInterval interval between periodic Pong messages in milliseconds.
+     * @param skipActive        {@code true} if the Pong message should be sent only when the session was idle since
+     *                          the previous one.
+     */
+    public void setHeartbeatInterval(long heartbeatInterval, boolean skipActive) {
         checkConnectionState(State.CLOSED);
         this.heartbeatInterval = heartbeatInterval;
         cancelHeartBeatTask();
 
-        if (heartbeatInterval < 1) {
+        if (heartbeatInterval < 1 || heartbeatSweeper == null) {
             return;
         }
 
-        heartbeatTask = service.scheduleAtFixedRate(new HeartbeatCommand(), heartbeatInterval, heartbeatInterval,
-                                                    TimeUnit.MILLISECONDS);
+        heartbeat = heartbeatSweeper.register(heartbeatInterval, skipActive, new HeartbeatCommand());
     }
 
+    /**
+     * Restart the idle timeout - called on every activity on the session.
+     * <p/>
+     * Only the last activity timestamps of the timeout and of the heartbeat are updated, the expiration is checked by
+     * {@link IdleTimeoutWheel}.
+     */
     void restartIdleTimeoutExecutor() {
-        if (this.maxIdleTimeout < 1) {
-            synchronized (idleTimeoutLock) {
-                if (idleTimeoutFuture != null) {
-                    idleTimeoutFuture.cancel(true);
-                }
-                return;
-            }
+        final IdleTimeoutWheel.Timeout timeout = idleTimeout;
+        if (timeout != null) {
+            timeout.touch();
         }
 
-        synchronized (idleTimeoutLock) {
-            if (idleTimeoutFuture != null) {
-                idleTimeoutFuture.cancel(false);
-            }
+        final HeartbeatSweeper.Registration registration = heartbeat;
+        if (registration != null) {
+            registration.touch();
+        }
+    }
+
+    private void scheduleIdleTimeout() {
+        final IdleTimeoutWheel.Timeout timeout = maxIdleTimeout < 1 || idleTimeoutWheel == null ? null
+                : idleTimeoutWheel.schedule(maxIdleTimeout, TimeUnit.MILLISECONDS, new IdleTimeoutCommand());
+
+        final IdleTimeoutWheel.Timeout previous = IDLE_TIMEOUT_UPDATER.getAndSet(this, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
 
-            idleTimeoutFuture =
-                    service.schedule(new IdleTimeoutCommand(), this.getMaxIdleTimeout(), TimeUnit.MILLISECONDS);
+    private void cancelIdleTimeout() {
+        final IdleTimeoutWheel.Timeout timeout = idleTimeout;
+        if (timeout != null) {
+            timeout.cancel();
         }
     }
 
     private void checkConnectionState(State... states) {
-        final State sessionState = state.get();
+        final State sessionState = state;
         for (State s : states) {
             if (sessionState == s) {
                 throw new IllegalStateException(LocalizationMessages.CONNECTION_HAS_BEEN_CLOSED());
@@ -570,7 +825,7 @@ public class TyrusSession implements Session, DistributedSession {
 
                     Object object = endpointWrapper.decodeCompleteMessage(this, message, type, decoder);
                     if (object != null) {
-                        final State currentState = state.get();
+                        final State currentState = state;
                         if (currentState != State.CLOSED) {
                             //noinspection unchecked
                             ((MessageHandler.Whole) mh).onMessage(object);
@@ -612,7 +867,7 @@ public class TyrusSession implements Session, DistributedSession {
                     checkMessageSize(message, ((AsyncMessageHandler) handler).getMaxMessageSize());
                 }
 
-                final State currentState = state.get();
+                final State currentState = state;
                 if (currentState != State.CLOSED) {
                     //noinspection unchecked
                     ((MessageHandler.Partial) handler).onMessage(message, last);
@@ -640,6 +895,14 @@ public class TyrusSession implements Session, DistributedSession {
         }
     }
 
+    TyrusWebSocket getWebSocket() {
+        return socket;
+    }
+
+    TyrusEndpointWrapper getEndpointWrapper() {
+        return endpointWrapper;
+    }
+
     boolean isWholeTextHandlerPresent() {
         return handlerManager.isWholeTextHandlerPresent();
     }
@@ -669,7 +932,7 @@ public class TyrusSession implements Session, DistributedSession {
     }
 
     State getState() {
-        return state.get();
+        return state;
     }
 
     String getConnectionId() {
@@ -686,9 +949,9 @@ public class TyrusSession implements Session, DistributedSession {
      * @param state the newly set state.
      */
     void setState(State state) {
-        if (!state.equals(this.state.get())) {
+        if (!state.equals(this.state)) {
             checkConnectionState(State.CLOSED);
-            this.state.set(state);
+            this.state = state;
 
             if (state.equals(State.CLOSED)) {
                 cleanAfterClose();
@@ -697,10 +960,17 @@ public class TyrusSession implements Session, DistributedSession {
     }
 
     TextBuffer getTextBuffer() {
+        // partial messages of one session are read by one thread at a time.
+        if (textBuffer == null) {
+            textBuffer = new TextBuffer();
+        }
         return textBuffer;
     }
 
     BinaryBuffer getBinaryBuffer() {
+        if (binaryBuffer == null) {
+            binaryBuffer = new BinaryBuffer();
+        }
         return binaryBuffer;
     }
 
@@ -732,14 +1002,25 @@ public class TyrusSession implements Session, DistributedSession {
     }
 
     private void changeStateToClosed() {
-        state.compareAndSet(State.RUNNING, State.CLOSED);
-        state.compareAndSet(State.RECEIVING_BINARY, State.CLOSED);
-        state.compareAndSet(State.RECEIVING_TEXT, State.CLOSED);
+        STATE_UPDATER.compareAndSet(this, State.RUNNING, State.CLOSED);
+        STATE_UPDATER.compareAndSet(this, State.RECEIVING_BINARY, State.CLOSED);
+        STATE_UPDATER.compareAndSet(this, State.RECEIVING_TEXT, State.CLOSED);
+    }
+
+    private TyrusRemoteEndpoint.Basic basicRemote() {
+        TyrusRemoteEndpoint.Basic remote = basicRemote;
+        if (remote == null) {
+            BASIC_REMOTE_UPDATER.compareAndSet(this, null, new TyrusRemoteEndpoint.Basic(this, socket, endpointWrapper));
+            remote = basicRemote;
+        }
+        return remote;
     }
 
     private void cancelHeartBeatTask() {
-        if (heartbeatTask != null && !heartbeatTask.isCancelled()) {
-            heartbeatTask.cancel(true);
+        final HeartbeatSweeper.Registration registration = heartbeat;
+        if (registration != null) {
+            heartbeat = null;
+            registration.cancel();
         }
     }
 
@@ -753,6 +1034,7 @@ public class TyrusSession implements Session, DistributedSession {
         }
 
         cancelHeartBeatTask();
+        cancelIdleTimeout();
     }
 
     /**
@@ -797,7 +1079,7 @@ public class TyrusSession implements Session, DistributedSession {
         public void run() {
             TyrusSession session = TyrusSession.this;
 
-            // condition is required because scheduled task can be (for some reason) run even when it is cancelled.
+            // the timeout can expire while the session is being closed.
             if (session.getMaxIdleTimeout() > 0 && session.isOpen()) {
                 try {
                     session.close(new CloseReason(CloseReason.CloseCodes.CLOSED_ABNORMALLY,
@@ -40,7 +40,6 @@
 
 package org.glassfish.tyrus.core;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -54,12 +53,8 @@ import org.glassfish.tyrus.spi.UpgradeResponse;
  */
 public class TyrusUpgradeResponse extends UpgradeResponse {
 
-    private final Map<String, List<String>> headers = new TreeMap<String, List<String>>(new Comparator<String>() {
-        @Override
-        public int compare(String o1, String o2) {
-            return o1.toLowerCase().compareTo(o2.toLowerCase());
-        }
-    });
+    private final Map<String, List<String>> headers =
+            new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
 
     private int status;
     private String reasonPhrase;
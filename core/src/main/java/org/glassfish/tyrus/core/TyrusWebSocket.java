@@ -79,6 +79,12 @@ public class TyrusWebSocket {
     private final AtomicReference<State> state = new AtomicReference<State>(State.NEW);
     private final Lock lock = new ReentrantLock();
 
+    /**
+     * Reason of the close initiated by this side; reported to the endpoint even when the close frame sent by the
+     * remote endpoint as a reply is processed before the initiating thread gets to it.
+     */
+    private volatile CloseReason localCloseReason;
+
     private volatile MessageEventListener messageEventListener = MessageEventListener.NO_OP;
 
     /**
@@ -124,7 +130,8 @@ public class TyrusWebSocket {
         boolean locked = lock.tryLock();
         if (locked) {
             try {
-                final CloseReason closeReason = frame.getCloseReason();
+                final CloseReason closeReason =
+                        localCloseReason == null ? frame.getCloseReason() : localCloseReason;
 
                 if (endpointWrapper != null) {
                     endpointWrapper.onClose(this, closeReason);
@@ -257,6 +264,7 @@ public class TyrusWebSocket {
      */
     public void close(int code, String reason) {
         if (state.compareAndSet(State.CONNECTED, State.CLOSING)) {
+            localCloseReason = new CloseReason(CloseReason.CloseCodes.getCloseCode(code), reason);
             protocolHandler.close(code, reason);
         }
     }
@@ -314,6 +322,58 @@ public class TyrusWebSocket {
         protocolHandler.send(data, handler);
     }
 
+    /**
+     * Send a text frame which can be replaced by a newer frame with the same key before it is written.
+     *
+     * @param key  conflation key.
+     * @param data data to be sent.
+     * @return {@link Future} which could be used to control/check the sending completion state.
+     * @see ProtocolHandler#sendConflated(Object, String)
+     */
+    public Future<Frame> sendConflatedText(Object key, String data) {
+        checkConnectedState();
+        return protocolHandler.sendConflated(key, data);
+    }
+
+    /**
+     * Send a text frame which can be replaced by a newer frame with the same key before it is written.
+     *
+     * @param key     conflation key.
+     * @param data    data to be sent.
+     * @param handler {@link SendHandler#onResult(javax.websocket.SendResult)} will be called when sending is complete.
+     * @see ProtocolHandler#sendConflated(Object, String)
+     */
+    public void sendConflatedText(Object key, String data, SendHandler handler) {
+        checkConnectedState();
+        protocolHandler.sendConflated(key, data, handler);
+    }
+
+    /**
+     * Send a binary frame which can be replaced by a newer frame with the same key before it is written.
+     *
+     * @param key  conflation key.
+     * @param data data to be sent.
+     * @return {@link Future} which could be used to control/check the sending completion state.
+     * @see ProtocolHandler#sendConflated(Object, String)
+     */
+    public Future<Frame> sendConflatedBinary(Object key, byte[] data) {
+        checkConnectedState();
+        return protocolHandler.sendConflated(key, data);
+    }
+
+    /**
+     * Send a binary frame which can be replaced by a newer frame with the same key before it is written.
+     *
+     * @param key     conflation key.
+     * @param data    data to be sent.
+     * @param handler {@link SendHandler#onResult(javax.websocket.SendResult)} will be called when sending is complete.
+     * @see ProtocolHandler#sendConflated(Object, String)
+     */
+    public void sendConflatedBinary(Object key, byte[] data, SendHandler handler) {
+        checkConnectedState();
+        protocolHandler.sendConflated(key, data, handler);
+    }
+
     /**
      * Send a frame to the remote endpoint.
      *
@@ -325,6 +385,46 @@ public class TyrusWebSocket {
         return protocolHandler.sendRawFrame(data);
     }
 
+    /**
+     * Send a frame to the remote endpoint.
+     *
+     * @param data    complete data frame.
+     * @param handler {@link SendHandler#onResult(javax.websocket.SendResult)} will be called when sending is complete.
+     */
+    public void sendRawFrame(ByteBuffer data, SendHandler handler) {
+        checkConnectedState();
+        protocolHandler.sendRawFrame(data, handler);
+    }
+
+    /**
+     * Allow or disallow batching of outgoing messages.
+     *
+     * @param batchingAllowed {@code true} when batching is allowed.
+     * @see ProtocolHandler#setBatchingAllowed(boolean)
+     */
+    public void setBatchingAllowed(boolean batchingAllowed) {
+        protocolHandler.setBatchingAllowed(batchingAllowed);
+    }
+
+    /**
+     * Get information whether batching of outgoing messages is allowed.
+     *
+     * @return {@code true} when batching is allowed.
+     */
+    public boolean isBatchingAllowed() {
+        return protocolHandler.isBatchingAllowed();
+    }
+
+    /**
+     * Write all the messages collected while batching is allowed.
+     *
+     * @return {@link Future} which could be used to control/check the sending completion state.
+     */
+    public Future<Void> flushBatch() {
+        checkConnectedState();
+        return protocolHandler.flushBatch();
+    }
+
     /**
      * Sends a <code>ping</code> frame with the specified payload (if any).
      *
@@ -402,6 +502,17 @@ public class TyrusWebSocket {
         return protocolHandler.stream(last, bytes, off, len);
     }
 
+    /**
+     * Determine whether incoming message of given type can be delivered in parts, before whole frame is read.
+     *
+     * @param text {@code true} for text messages, {@code false} for binary messages.
+     * @return {@code true} when partial delivery is supported by registered message handlers.
+     * @see TyrusEndpointWrapper#isStreamingHandlerPresent(TyrusWebSocket, boolean)
+     */
+    boolean isStreamingSupported(boolean text) {
+        return endpointWrapper != null && endpointWrapper.isStreamingHandlerPresent(this, text);
+    }
+
     ProtocolHandler getProtocolHandler() {
         return protocolHandler;
     }
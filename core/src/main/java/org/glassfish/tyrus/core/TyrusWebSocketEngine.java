@@ -48,7 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,6 +69,7 @@ import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
 import org.glassfish.tyrus.core.uri.Match;
+import org.glassfish.tyrus.core.uri.PathTrie;
 import org.glassfish.tyrus.core.wsadl.model.Application;
 import org.glassfish.tyrus.spi.Connection;
 import org.glassfish.tyrus.spi.ReadHandler;
@@ -107,6 +108,19 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String MAX_SESSIONS_PER_APP = "org.glassfish.tyrus.maxSessionsPerApp";
 
+    /**
+     * Maximal number of bytes written to the network by one coalesced write.
+     * <p/>
+     * When set to a positive value, frames waiting in the outbound queue of a connection are written together by one
+     * write, up to the configured number of bytes. Completion of each frame is still reported separately. The
+     * property is handled by the container (transport), not by this engine.
+     * <p/>
+     * The value must be {@link java.lang.Integer} or its primitive alternative.
+     * <p/>
+     * Write coalescing is disabled by default.
+     */
+    public static final String WRITE_COALESCING_LIMIT = "org.glassfish.tyrus.writeCoalescingLimit";
+
     /**
      * Maximum number of open sessions per unique remote address.
      * <p/>
@@ -117,6 +131,32 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String MAX_SESSIONS_PER_REMOTE_ADDR = "org.glassfish.tyrus.maxSessionsPerRemoteAddr";
 
+    /**
+     * Maximum number of new sessions per second per unique remote address.
+     * <p/>
+     * Sessions opened above this rate are refused with {@link javax.websocket.CloseReason.CloseCodes#TRY_AGAIN_LATER},
+     * the same way as sessions over {@link #MAX_SESSIONS_PER_REMOTE_ADDR}. Short bursts of new sessions are allowed,
+     * see {@link #MAX_SESSION_BURST_PER_REMOTE_ADDR}.
+     * <p/>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Negative values
+     * and zero are ignored.
+     * <p/>
+     * The rate of new sessions per remote address is not limited by default.
+     */
+    public static final String MAX_SESSION_RATE_PER_REMOTE_ADDR = "org.glassfish.tyrus.maxSessionRatePerRemoteAddr";
+
+    /**
+     * Maximum number of new sessions per unique remote address which can be opened at once, regardless of
+     * {@link #MAX_SESSION_RATE_PER_REMOTE_ADDR}.
+     * <p/>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Negative values
+     * and zero are ignored.
+     * <p/>
+     * Default value is the value of {@link #MAX_SESSION_RATE_PER_REMOTE_ADDR}, i.e. sessions for one second can be
+     * opened at once.
+     */
+    public static final String MAX_SESSION_BURST_PER_REMOTE_ADDR = "org.glassfish.tyrus.maxSessionBurstPerRemoteAddr";
+
     /**
      * Property used for configuring the type of tracing supported by the server.
      * <p/>
@@ -164,8 +204,63 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String PARALLEL_BROADCAST_ENABLED = "org.glassfish.tyrus.server.parallelBroadcastEnabled";
 
-    private static final int BUFFER_STEP_SIZE = 256;
+    /**
+     * Size of outbound batch in bytes.
+     * <p/>
+     * When batching of outgoing messages is allowed (see
+     * {@link javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}), messages are collected until their size
+     * reaches this value and then written together.
+     * <p/>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Negative values and zero are
+     * ignored.
+     * <p/>
+     * Default value is 16384.
+     */
+    public static final String BATCH_SIZE = "org.glassfish.tyrus.server.batchSize";
+
+    /**
+     * Maximal time in milliseconds for which outgoing messages are kept in outbound batch.
+     * <p/>
+     * When batching of outgoing messages is allowed (see
+     * {@link javax.websocket.RemoteEndpoint#setBatchingAllowed(boolean)}), collected messages are written when this
+     * time elapses, even when the batch is not full and {@link javax.websocket.RemoteEndpoint#flushBatch()} was not
+     * called.
+     * <p/>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Negative values and zero
+     * are ignored.
+     * <p/>
+     * Messages are not written until the batch is full or flushed by default.
+     */
+    public static final String BATCH_LINGER_TIME = "org.glassfish.tyrus.server.batchLingerTime";
+
+    /**
+     * Maximal number of outgoing bytes per session which were accepted for sending, but were not written yet.
+     * <p/>
+     * Whole data messages sent to a slow client are held back in Tyrus while the container has not finished writing
+     * previous messages; when a message does not fit into this limit, {@link #OUTBOUND_OVERFLOW_POLICY} is applied.
+     * Partial messages and control frames are not limited.
+     * <p/>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Negative values and zero
+     * are ignored.
+     * <p/>
+     * Outgoing messages are not limited by default.
+     */
+    public static final String MAX_OUTBOUND_BYTES = "org.glassfish.tyrus.server.maxOutboundBytes";
+
+    /**
+     * Action taken when a message does not fit into the outbound byte limit of a session; see
+     * {@link #MAX_OUTBOUND_BYTES}.
+     * <p/>
+     * The value must be name of one of {@link org.glassfish.tyrus.core.OutboundOverflowPolicy} constants or its
+     * instance.
+     * <p/>
+     * Default value is {@link org.glassfish.tyrus.core.OutboundOverflowPolicy#CLOSE}.
+     */
+    public static final String OUTBOUND_OVERFLOW_POLICY = "org.glassfish.tyrus.server.outboundOverflowPolicy";
+
     private static final Logger LOGGER = Logger.getLogger(TyrusWebSocketEngine.class.getName());
+    // parent of all Tyrus loggers, decides whether handshakes need their own DebugContext.
+    private static final Logger TYRUS_LOGGER = Logger.getLogger("org.glassfish.tyrus");
 
     private static final UpgradeInfo NOT_APPLICABLE_UPGRADE_INFO =
             new NoConnectionUpgradeInfo(UpgradeStatus.NOT_APPLICABLE);
@@ -177,7 +272,9 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
     private final Set<TyrusEndpointWrapper> endpointWrappers =
             Collections.newSetFromMap(new ConcurrentHashMap<TyrusEndpointWrapper, Boolean>());
+    private final PathTrie pathTrie = new PathTrie();
     private final ComponentProviderService componentProviderService = ComponentProviderService.create();
+    private final ReadBufferPool readBufferPool = new ReadBufferPool();
     private final WebSocketContainer webSocketContainer;
 
     private int incomingBufferSize = 4194315; // 4M (payload) + 11 (frame overhead)
@@ -186,6 +283,10 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
     private final ApplicationEventListener applicationEventListener;
     private final TyrusEndpointWrapper.SessionListener sessionListener;
     private final Boolean parallelBroadcastEnabled;
+    private final int batchSize;
+    private final long batchLingerTime;
+    private final int maxOutboundBytes;
+    private final OutboundOverflowPolicy outboundOverflowPolicy;
 
     private final DebugContext.TracingType tracingType;
     private final DebugContext.TracingThreshold tracingThreshold;
@@ -214,21 +315,39 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      *                                 applied.
      * @param maxSessionsPerRemoteAddr maximal number of open sessions per remote address. If {@code null}, no limit is
      *                                 applied.
+     * @param maxSessionRate           maximal number of new sessions per second per remote address. If {@code null},
+     *                                 no limit is applied.
+     * @param maxSessionBurst          maximal number of new sessions per remote address opened at once. If
+     *                                 {@code null}, the value of {@code maxSessionRate} is used.
      * @param tracingType              type of tracing.
      * @param tracingThreshold         tracing threshold.
      * @param parallelBroadcastEnabled {@code true} if parallel broadcast should be enabled, {@code true} is default.
+     * @param batchSize                size of outbound batch in bytes. If {@code null}, default value will be used.
+     * @param batchLingerTime          maximal time in milliseconds for which messages are kept in outbound batch. If
+     *                                 {@code null}, messages are kept until the batch is full or flushed.
+     * @param maxOutboundBytes         maximal number of pending outgoing bytes per session. If {@code null}, outgoing
+     *                                 messages are not limited.
+     * @param outboundOverflowPolicy   action taken when the outbound byte limit is exceeded. If {@code null},
+     *                                 {@link OutboundOverflowPolicy#CLOSE} will be used.
      */
     private TyrusWebSocketEngine(WebSocketContainer webSocketContainer, Integer incomingBufferSize,
                                  ClusterContext clusterContext, ApplicationEventListener applicationEventListener,
-                                 final Integer maxSessionsPerApp, final Integer maxSessionsPerRemoteAddr,
+                                 Integer maxSessionsPerApp, Integer maxSessionsPerRemoteAddr,
+                                 Integer maxSessionRate, Integer maxSessionBurst,
                                  DebugContext.TracingType tracingType, DebugContext.TracingThreshold tracingThreshold,
-                                 Boolean parallelBroadcastEnabled) {
+                                 Boolean parallelBroadcastEnabled, Integer batchSize, Integer batchLingerTime,
+                                 Integer maxOutboundBytes, OutboundOverflowPolicy outboundOverflowPolicy) {
         if (incomingBufferSize != null) {
             this.incomingBufferSize = incomingBufferSize;
         }
         this.webSocketContainer = webSocketContainer;
         this.clusterContext = clusterContext;
         this.parallelBroadcastEnabled = parallelBroadcastEnabled;
+        this.batchSize = batchSize == null ? OutboundBatch.DEFAULT_BATCH_SIZE : batchSize;
+        this.batchLingerTime = batchLingerTime == null ? 0 : batchLingerTime;
+        this.maxOutboundBytes = maxOutboundBytes == null ? 0 : maxOutboundBytes;
+        this.outboundOverflowPolicy =
+                outboundOverflowPolicy == null ? OutboundOverflowPolicy.CLOSE : outboundOverflowPolicy;
         if (applicationEventListener == null) {
             // create dummy instance in order not to have to check null pointer
             this.applicationEventListener = ApplicationEventListener.NO_OP;
@@ -241,70 +360,27 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         LOGGER.config("Incoming buffer size: " + this.incomingBufferSize);
         LOGGER.config("Max sessions per app: " + maxSessionsPerApp);
         LOGGER.config("Max sessions per remote address: " + maxSessionsPerRemoteAddr);
+        LOGGER.config("Max session rate per remote address: " + maxSessionRate);
+        LOGGER.config("Max session burst per remote address: " + maxSessionBurst);
         // parallel broadcast is enabled by default, so null means true
         LOGGER.config("Parallel broadcast enabled: " + (parallelBroadcastEnabled != null && parallelBroadcastEnabled));
+        LOGGER.config("Batch size: " + this.batchSize);
+        LOGGER.config("Batch linger time: " + this.batchLingerTime);
+        LOGGER.config("Max outbound bytes: " + this.maxOutboundBytes);
+        LOGGER.config("Outbound overflow policy: " + this.outboundOverflowPolicy);
 
         this.tracingType = tracingType;
         this.tracingThreshold = tracingThreshold;
 
-        this.sessionListener = maxSessionsPerApp == null && maxSessionsPerRemoteAddr == null
-                ? NO_OP_SESSION_LISTENER : new TyrusEndpointWrapper.SessionListener() {
-            // Implementation of {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} counting
-            // sessions.
-
-            // limit per application counter
-            private final AtomicInteger counter = new AtomicInteger(0);
-            private final Object counterLock = new Object();
-
-            // limit per remote address counter
-            private final Map<String, AtomicInteger> remoteAddressCounters = new HashMap<String, AtomicInteger>();
-
-            @Override
-            public OnOpenResult onOpen(final TyrusSession session) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        if (counter.get() >= maxSessionsPerApp) {
-                            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
-                        } else {
-                            counter.incrementAndGet();
-                        }
-                    }
-                }
-
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        AtomicInteger remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr());
-                        if (remoteAddressCounter == null) {
-                            remoteAddressCounter = new AtomicInteger(1);
-                            remoteAddressCounters.put(session.getRemoteAddr(), remoteAddressCounter);
-                        } else if (remoteAddressCounter.get() >= maxSessionsPerRemoteAddr) {
-                            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
-                        } else {
-                            remoteAddressCounter.incrementAndGet();
-                        }
-                    }
-                }
-
-                return OnOpenResult.SESSION_ALLOWED;
-            }
-
-            @Override
-            public void onClose(final TyrusSession session, final CloseReason closeReason) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        counter.decrementAndGet();
-                    }
-                }
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        int remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr()).decrementAndGet();
-                        if (remoteAddressCounter == 0) {
-                            remoteAddressCounters.remove(session.getRemoteAddr());
-                        }
-                    }
-                }
-            }
-        };
+        this.sessionListener = maxSessionsPerApp == null && maxSessionsPerRemoteAddr == null && maxSessionRate == null
+                && this.applicationEventListener == ApplicationEventListener.NO_OP
+                ? NO_OP_SESSION_LISTENER
+                : new SessionLimiter(maxSessionsPerApp == null ? 0 : maxSessionsPerApp,
+                                     maxSessionsPerRemoteAddr == null ? 0 : maxSessionsPerRemoteAddr,
+                                     maxSessionRate == null ? 0 : maxSessionRate,
+                                     maxSessionBurst == null ? (maxSessionRate == null ? 1 : maxSessionRate)
+                                             : maxSessionBurst,
+                                     this.applicationEventListener);
     }
 
     private static ProtocolHandler loadHandler(UpgradeRequest request) {
@@ -330,7 +406,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
         final String requestPath = request.getRequestUri();
 
-        for (Match m : Match.getAllMatches(requestPath, endpointWrappers, debugContext)) {
+        for (Match m : pathTrie.getAllMatches(requestPath, debugContext)) {
             final TyrusEndpointWrapper endpointWrapper = m.getEndpointWrapper();
 
             for (Map.Entry<String, String> parameter : m.getParameters().entrySet()) {
@@ -423,9 +499,12 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                                       + Utils.stringifyUpgradeResponse(response) + "\n");
             }
 
+            configureBatching(protocolHandler);
+            protocolHandler.configureOutboundLimit(maxOutboundBytes, outboundOverflowPolicy);
+
             response.getHeaders().putAll(debugContext.getTracingHeaders());
-            return new SuccessfulUpgradeInfo(endpointWrapper, protocolHandler, incomingBufferSize, request, response,
-                                             extensionContext, debugContext);
+            return new SuccessfulUpgradeInfo(endpointWrapper, protocolHandler, incomingBufferSize, readBufferPool,
+                                             request, response, extensionContext, debugContext);
         }
 
         response.setStatus(500);
@@ -434,6 +513,15 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         return NOT_APPLICABLE_UPGRADE_INFO;
     }
 
+    private void configureBatching(ProtocolHandler protocolHandler) {
+        ScheduledExecutorService scheduler = null;
+        if (batchLingerTime > 0 && webSocketContainer instanceof ExecutorServiceProvider) {
+            scheduler = ((ExecutorServiceProvider) webSocketContainer).getScheduledExecutorService();
+        }
+
+        protocolHandler.configureBatching(batchSize, batchLingerTime, scheduler);
+    }
+
     private void logExtensionsAndSubprotocol(ProtocolHandler protocolHandler, DebugContext debugContext) {
         StringBuilder sb = new StringBuilder();
         sb.append("Using negotiated extensions: [");
@@ -471,8 +559,11 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         if (tracingType == DebugContext.TracingType.ALL || tracingType == DebugContext.TracingType.ON_DEMAND
                 && upgradeRequest.getHeader(UpgradeRequest.ENABLE_TRACING_HEADER) != null) {
             debugContext = new DebugContext(threshold);
-        } else {
+        } else if (TYRUS_LOGGER.isLoggable(Level.FINE)) {
             debugContext = new DebugContext();
+        } else {
+            // neither traced nor debug logged - warnings are still logged by the shared context, without session ID.
+            debugContext = DebugContext.NO_OP;
         }
 
         if (thresholdHeaderParsingError != null) {
@@ -498,19 +589,26 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final TyrusWebSocket socket;
         private final TyrusEndpointWrapper endpointWrapper;
         private final int incomingBufferSize;
+        private final ReadBufferPool readBufferPool;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
 
+        /**
+         * Buffer borrowed from {@link #readBufferPool}; not {@code null} only when it contains unprocessed data
+         * (incomplete frame).
+         */
         private volatile ByteBuffer buffer;
 
         private TyrusReadHandler(ProtocolHandler protocolHandler, TyrusWebSocket socket,
                                  TyrusEndpointWrapper endpointWrapper, int incomingBufferSize,
-                                 ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
+                                 ReadBufferPool readBufferPool, ExtendedExtension.ExtensionContext extensionContext,
+                                 DebugContext debugContext) {
             this.extensionContext = extensionContext;
             this.protocolHandler = protocolHandler;
             this.socket = socket;
             this.endpointWrapper = endpointWrapper;
             this.incomingBufferSize = incomingBufferSize;
+            this.readBufferPool = readBufferPool;
             this.debugContext = debugContext;
         }
 
@@ -519,27 +617,19 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             try {
                 if (data != null && data.hasRemaining()) {
 
-                    if (buffer != null) {
-                        data = Utils.appendBuffers(buffer, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                    } else {
-                        int newSize = data.remaining();
-                        if (newSize > incomingBufferSize) {
-                            throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
-                        } else {
-                            final int roundedSize = (newSize % BUFFER_STEP_SIZE) > 0
-                                    ? ((newSize / BUFFER_STEP_SIZE) + 1) * BUFFER_STEP_SIZE : newSize;
-                            final ByteBuffer result =
-                                    ByteBuffer.allocate(roundedSize > incomingBufferSize ? newSize : roundedSize);
-                            result.flip();
-                            data = Utils.appendBuffers(result, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                        }
-                    }
+                    data = append(data);
 
                     do {
                         final Frame incomingFrame = protocolHandler.unframe(data);
 
                         if (incomingFrame == null) {
-                            buffer = data;
+                            if (data.hasRemaining()) {
+                                buffer = data;
+                            } else {
+                                // everything was processed (including streamed payload) - return the buffer.
+                                buffer = null;
+                                readBufferPool.release(data);
+                            }
                             break;
                         } else {
                             Frame frame = incomingFrame;
@@ -564,10 +654,13 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                     } while (true);
                 }
             } catch (WebSocketException e) {
+                releaseBuffer();
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, e,
                                                            e.getMessage());
                 socket.onClose(new CloseFrame(e.getCloseReason()));
             } catch (Exception e) {
+                // the connection is closed, unprocessed data are not needed anymore.
+                releaseBuffer();
                 String message = e.getMessage();
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, e,
                                                            e.getMessage());
@@ -581,6 +674,66 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 }
             }
         }
+
+        /**
+         * Return the borrowed buffer to {@link #readBufferPool} and drop unprocessed data it contains.
+         */
+        private void releaseBuffer() {
+            final ByteBuffer current = buffer;
+            if (current != null) {
+                buffer = null;
+                readBufferPool.release(current);
+            }
+        }
+
+        /**
+         * Append incoming data to the unprocessed data from previous read.
+         * <p/>
+         * Incoming data are always copied to a buffer borrowed from {@link #readBufferPool} (payload is unmasked in
+         * place). When the current buffer is not big enough, bigger one is borrowed and the current one is returned.
+         *
+         * @param data incoming data.
+         * @return buffer containing unprocessed data, ready to be read.
+         */
+        private ByteBuffer append(ByteBuffer data) {
+            final ByteBuffer current = buffer;
+            final int remaining = current == null ? 0 : current.remaining();
+            final int newSize = remaining + data.remaining();
+
+            if (newSize > incomingBufferSize) {
+                throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
+            }
+
+            if (current != null && newSize <= current.capacity()) {
+                current.compact();
+                current.put(data);
+                current.flip();
+                return current;
+            }
+
+            final ByteBuffer result = readBufferPool.acquire(newSize);
+            if (current != null) {
+                result.put(current);
+                readBufferPool.release(current);
+            }
+            result.put(data);
+            result.flip();
+
+            buffer = result;
+            return result;
+        }
+    }
+
+    /**
+     * Get pool of buffers used for incomplete incoming frames.
+     * <p/>
+     * The pool is shared by all connections handled by this engine; its hit and miss counters can be used to monitor
+     * its efficiency.
+     *
+     * @return read buffer pool.
+     */
+    public ReadBufferPool getReadBufferPool() {
+        return readBufferPool;
     }
 
     /**
@@ -605,6 +758,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         checkPath(endpointWrapper);
         LOGGER.log(Level.FINER, "Registered endpoint: " + endpointWrapper);
         endpointWrappers.add(endpointWrapper);
+        pathTrie.add(endpointWrapper);
     }
 
     @Override
@@ -703,6 +857,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public void unregister(TyrusEndpointWrapper endpointWrapper) {
         endpointWrappers.remove(endpointWrapper);
+        pathTrie.remove(endpointWrapper);
         applicationEventListener.onEndpointUnregistered(endpointWrapper.getEndpointPath());
     }
 
@@ -729,18 +884,20 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final TyrusEndpointWrapper endpointWrapper;
         private final ProtocolHandler protocolHandler;
         private final int incomingBufferSize;
+        private final ReadBufferPool readBufferPool;
         private final UpgradeRequest upgradeRequest;
         private final UpgradeResponse upgradeResponse;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
 
         SuccessfulUpgradeInfo(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler,
-                              int incomingBufferSize,
+                              int incomingBufferSize, ReadBufferPool readBufferPool,
                               UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
                               ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
             this.endpointWrapper = endpointWrapper;
             this.protocolHandler = protocolHandler;
             this.incomingBufferSize = incomingBufferSize;
+            this.readBufferPool = readBufferPool;
             this.upgradeRequest = upgradeRequest;
             this.upgradeResponse = upgradeResponse;
             this.extensionContext = extensionContext;
@@ -755,8 +912,9 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         @Override
         public Connection createConnection(Writer writer, Connection.CloseListener closeListener) {
             TyrusConnection tyrusConnection =
-                    new TyrusConnection(endpointWrapper, protocolHandler, incomingBufferSize, writer, closeListener,
-                                        upgradeRequest, upgradeResponse, extensionContext, debugContext);
+                    new TyrusConnection(endpointWrapper, protocolHandler, incomingBufferSize, readBufferPool, writer,
+                                        closeListener, upgradeRequest, upgradeResponse, extensionContext,
+                                        debugContext);
             debugContext.flush();
             return tyrusConnection;
         }
@@ -800,7 +958,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final List<Extension> extensions;
 
         TyrusConnection(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler, int incomingBufferSize,
-                        Writer writer, CloseListener closeListener,
+                        ReadBufferPool readBufferPool, Writer writer, CloseListener closeListener,
                         UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
                         ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
             protocolHandler.setWriter(writer);
@@ -822,8 +980,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                   debugContext);
 
             this.readHandler =
-                    new TyrusReadHandler(protocolHandler, socket, endpointWrapper, incomingBufferSize, extensionContext,
-                                         debugContext);
+                    new TyrusReadHandler(protocolHandler, socket, endpointWrapper, incomingBufferSize, readBufferPool,
+                                         extensionContext, debugContext);
             this.writer = writer;
             this.closeListener = closeListener;
             this.extensionContext = extensionContext;
@@ -876,9 +1034,15 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private ApplicationEventListener applicationEventListener = null;
         private Integer maxSessionsPerApp = null;
         private Integer maxSessionsPerRemoteAddr = null;
+        private Integer maxSessionRatePerRemoteAddr = null;
+        private Integer maxSessionBurstPerRemoteAddr = null;
         private DebugContext.TracingType tracingType = null;
         private DebugContext.TracingThreshold tracingThreshold = null;
         private Boolean parallelBroadcastEnabled = null;
+        private Integer batchSize = null;
+        private Integer batchLingerTime = null;
+        private Integer maxOutboundBytes = null;
+        private OutboundOverflowPolicy outboundOverflowPolicy = null;
 
         /**
          * Create new {@link org.glassfish.tyrus.core.TyrusWebSocketEngine} instance with current set of parameters.
@@ -899,6 +1063,18 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                 maxSessionsPerRemoteAddr = null;
             }
 
+            if (maxSessionRatePerRemoteAddr != null && maxSessionRatePerRemoteAddr <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + MAX_SESSION_RATE_PER_REMOTE_ADDR + " ("
+                        + maxSessionRatePerRemoteAddr + "), expected value greater than 0.");
+                maxSessionRatePerRemoteAddr = null;
+            }
+
+            if (maxSessionBurstPerRemoteAddr != null && maxSessionBurstPerRemoteAddr <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + MAX_SESSION_BURST_PER_REMOTE_ADDR + " ("
+                        + maxSessionBurstPerRemoteAddr + "), expected value greater than 0.");
+                maxSessionBurstPerRemoteAddr = null;
+            }
+
             if (maxSessionsPerApp != null && maxSessionsPerRemoteAddr != null
                     && maxSessionsPerApp < maxSessionsPerRemoteAddr) {
                 LOGGER.log(Level.FINE,
@@ -907,9 +1083,29 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                          maxSessionsPerApp));
             }
 
+            if (batchSize != null && batchSize <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + BATCH_SIZE + " (" + batchSize
+                        + "), expected value greater than 0.");
+                batchSize = null;
+            }
+
+            if (batchLingerTime != null && batchLingerTime <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + BATCH_LINGER_TIME + " (" + batchLingerTime
+                        + "), expected value greater than 0.");
+                batchLingerTime = null;
+            }
+
+            if (maxOutboundBytes != null && maxOutboundBytes <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + MAX_OUTBOUND_BYTES + " (" + maxOutboundBytes
+                        + "), expected value greater than 0.");
+                maxOutboundBytes = null;
+            }
+
             return new TyrusWebSocketEngine(webSocketContainer, incomingBufferSize, clusterContext,
                                             applicationEventListener, maxSessionsPerApp, maxSessionsPerRemoteAddr,
-                                            tracingType, tracingThreshold, parallelBroadcastEnabled);
+                                            maxSessionRatePerRemoteAddr, maxSessionBurstPerRemoteAddr, tracingType,
+                                            tracingThreshold, parallelBroadcastEnabled, batchSize, batchLingerTime,
+                                            maxOutboundBytes, outboundOverflowPolicy);
         }
 
         TyrusWebSocketEngineBuilder(WebSocketContainer webSocketContainer) {
@@ -983,6 +1179,32 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             return this;
         }
 
+        /**
+         * Set maximal number of new sessions per second from remote address.
+         *
+         * @param maxSessionRatePerRemoteAddr maximal number of new sessions per second from remote address. If
+         *                                    {@code null}, no limit is applied.
+         * @return updated builder.
+         * @see #MAX_SESSION_RATE_PER_REMOTE_ADDR
+         */
+        public TyrusWebSocketEngineBuilder maxSessionRatePerRemoteAddr(Integer maxSessionRatePerRemoteAddr) {
+            this.maxSessionRatePerRemoteAddr = maxSessionRatePerRemoteAddr;
+            return this;
+        }
+
+        /**
+         * Set maximal number of new sessions from remote address which can be opened at once.
+         *
+         * @param maxSessionBurstPerRemoteAddr maximal number of new sessions opened at once. If {@code null}, the
+         *                                     maximal number of new sessions per second is used.
+         * @return updated builder.
+         * @see #MAX_SESSION_BURST_PER_REMOTE_ADDR
+         */
+        public TyrusWebSocketEngineBuilder maxSessionBurstPerRemoteAddr(Integer maxSessionBurstPerRemoteAddr) {
+            this.maxSessionBurstPerRemoteAddr = maxSessionBurstPerRemoteAddr;
+            return this;
+        }
+
         /**
          * Set type of tracing.
          *
@@ -1009,6 +1231,57 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             this.parallelBroadcastEnabled = parallelBroadcastEnabled;
             return this;
         }
+
+        /**
+         * Set size of outbound batch.
+         *
+         * @param batchSize size of outbound batch in bytes. If {@code null}, default value will be used.
+         * @return updated builder.
+         * @see #BATCH_SIZE
+         */
+        public TyrusWebSocketEngineBuilder batchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Set maximal time for which outgoing messages are kept in outbound batch.
+         *
+         * @param batchLingerTime linger time in milliseconds. If {@code null}, messages are kept until the batch is
+         *                        full or flushed.
+         * @return updated builder.
+         * @see #BATCH_LINGER_TIME
+         */
+        public TyrusWebSocketEngineBuilder batchLingerTime(Integer batchLingerTime) {
+            this.batchLingerTime = batchLingerTime;
+            return this;
+        }
+
+        /**
+         * Set maximal number of outgoing bytes per session which were accepted for sending, but were not written yet.
+         *
+         * @param maxOutboundBytes maximal number of pending outgoing bytes. If {@code null}, outgoing messages are
+         *                         not limited.
+         * @return updated builder.
+         * @see #MAX_OUTBOUND_BYTES
+         */
+        public TyrusWebSocketEngineBuilder maxOutboundBytes(Integer maxOutboundBytes) {
+            this.maxOutboundBytes = maxOutboundBytes;
+            return this;
+        }
+
+        /**
+         * Set action taken when a message does not fit into the outbound byte limit of a session.
+         *
+         * @param outboundOverflowPolicy overflow policy. If {@code null}, {@link OutboundOverflowPolicy#CLOSE} will
+         *                               be used.
+         * @return updated builder.
+         * @see #OUTBOUND_OVERFLOW_POLICY
+         */
+        public TyrusWebSocketEngineBuilder outboundOverflowPolicy(OutboundOverflowPolicy outboundOverflowPolicy) {
+            this.outboundOverflowPolicy = outboundOverflowPolicy;
+            return this;
+        }
     }
 
     /**
@@ -40,6 +40,8 @@
 
 package org.glassfish.tyrus.core.frame;
 
+import java.nio.ByteBuffer;
+
 /**
  * WebSocket frame representation.
  * <p/>
@@ -189,6 +191,23 @@ public class Frame {
         return tmp;
     }
 
+    /**
+     * Get payload data as {@link ByteBuffer}.
+     * <p/>
+     * Returned buffer is backed by the payload of current {@link Frame} instance, no data are copied. The buffer is
+     * meant to be used for writing the payload to the transport and it must not be modified. Remaining bytes of
+     * returned buffer will be always same as {@link #getPayloadLength()}.
+     *
+     * @return payload data.
+     */
+    public ByteBuffer getPayloadBuffer() {
+        if (payloadData == null) {
+            return ByteBuffer.allocate(0);
+        }
+
+        return ByteBuffer.wrap(payloadData, 0, (int) payloadLength);
+    }
+
     /**
      * Get information about frame type.
      *
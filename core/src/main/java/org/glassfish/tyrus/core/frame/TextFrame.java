@@ -44,13 +44,11 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 
 import org.glassfish.tyrus.core.StrictUtf8;
 import org.glassfish.tyrus.core.TyrusWebSocket;
-import org.glassfish.tyrus.core.Utf8DecodingException;
 
 /**
  * Text frame representation.
@@ -59,12 +57,11 @@ import org.glassfish.tyrus.core.Utf8DecodingException;
  */
 public class TextFrame extends TyrusFrame {
 
-    private final Charset utf8 = new StrictUtf8();
-    private final CharsetDecoder currentDecoder = utf8.newDecoder();
     private final String textPayload;
     private final boolean continuation;
 
-    private ByteBuffer remainder;
+    private final ByteBuffer remainder;
+    private final boolean lazyPayload;
 
     /**
      * Constructor.
@@ -73,9 +70,7 @@ public class TextFrame extends TyrusFrame {
      * @param remainder UTF-8 decoding remainder from previously processed frame.
      */
     public TextFrame(Frame frame, ByteBuffer remainder) {
-        super(frame, FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
-        this.continuation = false;
+        this(frame, remainder, false);
     }
 
     /**
@@ -86,9 +81,24 @@ public class TextFrame extends TyrusFrame {
      * @param continuation {@code true} when this frame is continuation frame, {@code false} otherwise.
      */
     public TextFrame(Frame frame, ByteBuffer remainder, boolean continuation) {
+        this(frame, remainder, continuation, new Utf8Decoder());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param frame        original (text) frame.
+     * @param remainder    UTF-8 decoding remainder from previously processed frame.
+     * @param continuation {@code true} when this frame is continuation frame, {@code false} otherwise.
+     * @param decoder      UTF-8 decoder used for decoding the payload. Usually shared by all frames of one
+     *                     connection.
+     */
+    public TextFrame(Frame frame, ByteBuffer remainder, boolean continuation, Utf8Decoder decoder) {
         super(frame, continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
+        this.textPayload = decoder.decode(getPayloadBuffer(), remainder, isFin());
+        this.remainder = decoder.getRemainder();
         this.continuation = continuation;
+        this.lazyPayload = false;
     }
 
     /**
@@ -101,12 +111,49 @@ public class TextFrame extends TyrusFrame {
      */
     public TextFrame(String message, boolean continuation, boolean fin) {
         super(Frame.builder()
-                   .payloadData(encode(new StrictUtf8(), message))
+                   .payloadData(encode(message))
                    .opcode(continuation ? (byte) 0x00 : (byte) 0x01)
                    .fin(fin)
                    .build(), continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
         this.continuation = continuation;
         this.textPayload = message;
+        this.remainder = null;
+        this.lazyPayload = false;
+    }
+
+    /**
+     * Constructor.
+     * <p/>
+     * Created frame does not hold encoded payload; it represents a text frame which was encoded directly into the
+     * transport buffer (see {@link Utf8Encoder}). The payload is encoded again when requested by {@link
+     * #getPayloadData()} or {@link #getPayloadBuffer()}.
+     *
+     * @param message       text message.
+     * @param payloadLength length of UTF-8 encoded message.
+     * @param continuation  {@code true} when this frame is continuation frame, {@code false} otherwise.
+     * @param fin           {@code true} when this frame is last in current partial message batch. Standard
+     *                      (non-continuous) frames have this bit set to {@code true}.
+     */
+    public TextFrame(String message, long payloadLength, boolean continuation, boolean fin) {
+        super(Frame.builder()
+                   .payloadLength(payloadLength)
+                   .opcode(continuation ? (byte) 0x00 : (byte) 0x01)
+                   .fin(fin)
+                   .build(), continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
+        this.continuation = continuation;
+        this.textPayload = message;
+        this.remainder = null;
+        this.lazyPayload = true;
+    }
+
+    @Override
+    public byte[] getPayloadData() {
+        return lazyPayload ? encode(textPayload) : super.getPayloadData();
+    }
+
+    @Override
+    public ByteBuffer getPayloadBuffer() {
+        return lazyPayload ? ByteBuffer.wrap(encode(textPayload)) : super.getPayloadBuffer();
     }
 
     /**
@@ -144,58 +191,6 @@ public class TextFrame extends TyrusFrame {
 
     }
 
-    private String utf8Decode(boolean finalFragment, byte[] data, ByteBuffer remainder) {
-        final ByteBuffer b = getByteBuffer(data, remainder);
-        int n = (int) (b.remaining() * currentDecoder.averageCharsPerByte());
-        CharBuffer cb = CharBuffer.allocate(n);
-        String res;
-        while (true) {
-            CoderResult result = currentDecoder.decode(b, cb, finalFragment);
-            if (result.isUnderflow()) {
-                if (finalFragment) {
-                    currentDecoder.flush(cb);
-                    if (b.hasRemaining()) {
-                        throw new IllegalStateException(
-                                "Final UTF-8 fragment received, but not all bytes consumed by decode process");
-                    }
-                    currentDecoder.reset();
-                } else {
-                    if (b.hasRemaining()) {
-                        this.remainder = b;
-                    }
-                }
-                cb.flip();
-                res = cb.toString();
-                break;
-            }
-            if (result.isOverflow()) {
-                CharBuffer tmp = CharBuffer.allocate(2 * n + 1);
-                cb.flip();
-                tmp.put(cb);
-                cb = tmp;
-                continue;
-            }
-            if (result.isError() || result.isMalformed()) {
-                throw new Utf8DecodingException();
-            }
-        }
-
-        return res;
-    }
-
-    private ByteBuffer getByteBuffer(final byte[] data, ByteBuffer remainder) {
-        if (remainder == null) {
-            return ByteBuffer.wrap(data);
-        } else {
-            final int rem = remainder.remaining();
-            final byte[] orig = remainder.array();
-            byte[] b = new byte[rem + data.length];
-            System.arraycopy(orig, orig.length - rem, b, 0, rem);
-            System.arraycopy(data, 0, b, rem, data.length);
-            return ByteBuffer.wrap(b);
-        }
-    }
-
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(super.toString());
@@ -203,6 +198,22 @@ public class TextFrame extends TyrusFrame {
         return sb.toString();
     }
 
+    private static byte[] encode(String string) {
+        if (string == null || string.isEmpty()) {
+            return new byte[0];
+        }
+
+        final long length = Utf8Encoder.encodedLength(string);
+        if (length < 0) {
+            // not encodable, let the charset encoder report the error.
+            return encode(new StrictUtf8(), string);
+        }
+
+        final byte[] bytes = new byte[(int) length];
+        Utf8Encoder.encode(string, bytes, 0, null);
+        return bytes;
+    }
+
     private static byte[] encode(Charset charset, String string) {
         if (string == null || string.isEmpty()) {
             return new byte[0];
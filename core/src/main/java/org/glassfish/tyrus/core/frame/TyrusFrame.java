@@ -95,16 +95,29 @@ public abstract class TyrusFrame extends Frame {
      * @return new TyrusFrame.
      */
     public static TyrusFrame wrap(Frame frame, byte inFragmentedType, ByteBuffer remainder) {
+        return wrap(frame, inFragmentedType, remainder, null);
+    }
+
+    /**
+     * {@link TyrusFrame} factory method.
+     *
+     * @param frame            original plain frame.
+     * @param inFragmentedType type of fragment (text or binary).
+     * @param remainder        decoding remainder. Used only for partial text frames.
+     * @param decoder          UTF-8 decoder used for text frames. New decoder is created when {@code null}.
+     * @return new TyrusFrame.
+     */
+    public static TyrusFrame wrap(Frame frame, byte inFragmentedType, ByteBuffer remainder, Utf8Decoder decoder) {
 
         switch (frame.getOpcode()) {
             case 0x00:
                 if ((inFragmentedType & 0x01) == 0x01) {
-                    return new TextFrame(frame, remainder, true);
+                    return new TextFrame(frame, remainder, true, decoder == null ? new Utf8Decoder() : decoder);
                 } else {
                     return new BinaryFrame(frame, true);
                 }
             case 0x01:
-                return new TextFrame(frame, remainder);
+                return new TextFrame(frame, remainder, false, decoder == null ? new Utf8Decoder() : decoder);
             case 0x02:
                 return new BinaryFrame(frame);
             case 0x08:
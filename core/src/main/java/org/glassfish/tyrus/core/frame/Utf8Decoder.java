@@ -0,0 +1,228 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core.frame;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+import org.glassfish.tyrus.core.StrictUtf8;
+import org.glassfish.tyrus.core.Utf8DecodingException;
+
+/**
+ * Strict UTF-8 decoder of text frame payloads.
+ * <p/>
+ * One instance is supposed to be used for all text frames received by a connection, so the {@link CharsetDecoder}
+ * does not need to be created for every frame. Pure ASCII payloads (typical for JSON) are converted directly, without
+ * the decoder. Instances are not thread safe - frames of one connection are processed sequentially.
+ */
+public final class Utf8Decoder {
+
+    /**
+     * ASCII is a subset of ISO-8859-1, which can be converted to {@link String} without any validation.
+     */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * Maximal length of UTF-8 encoded character.
+     */
+    private static final int MAX_CHAR_LENGTH = 4;
+
+    /**
+     * Maximal size of the cached per-thread character buffer. Bigger buffers are not retained.
+     */
+    private static final int MAX_CACHED_CHARS = 16 * 1024;
+
+    private static final ThreadLocal<CharBuffer> CHAR_BUFFER = new ThreadLocal<CharBuffer>() {
+        @Override
+        protected CharBuffer initialValue() {
+            return CharBuffer.allocate(1024);
+        }
+    };
+
+    private final CharsetDecoder decoder = new StrictUtf8().newDecoder();
+
+    private ByteBuffer remainder;
+
+    /**
+     * Decode payload of a text frame.
+     * <p/>
+     * Trailing bytes of non-final fragment which do not form a complete character are available via {@link
+     * #getRemainder()} right after this call and have to be passed to the decoding of the next fragment.
+     *
+     * @param payload       frame payload, has to be backed by an accessible array.
+     * @param remainder     undecoded bytes of the previous fragment, can be {@code null}.
+     * @param finalFragment {@code true} when the payload is the last part of the message.
+     * @return decoded text.
+     * @throws Utf8DecodingException when the payload is not valid UTF-8.
+     */
+    String decode(ByteBuffer payload, ByteBuffer remainder, boolean finalFragment) {
+        this.remainder = null;
+
+        final byte[] data = payload.array();
+        final int start = payload.arrayOffset() + payload.position();
+        final int end = start + payload.remaining();
+
+        if ((remainder == null || !remainder.hasRemaining()) && isAscii(data, start, end)) {
+            return new String(data, start, end - start, ISO_8859_1);
+        }
+
+        final CharBuffer chars = getCharBuffer(end - start + MAX_CHAR_LENGTH);
+        decoder.reset();
+
+        int offset = start;
+        if (remainder != null && remainder.hasRemaining()) {
+            offset = decodeRemainder(data, start, end, remainder, chars, finalFragment);
+            if (offset < 0) {
+                // data were not long enough to complete the character started in previous fragment.
+                return toString(chars);
+            }
+        }
+
+        final ByteBuffer bytes = ByteBuffer.wrap(data, offset, end - offset);
+        checkResult(decoder.decode(bytes, chars, finalFragment));
+
+        if (finalFragment) {
+            checkResult(decoder.flush(chars));
+            if (bytes.hasRemaining()) {
+                throw new IllegalStateException(
+                        "Final UTF-8 fragment received, but not all bytes consumed by decode process");
+            }
+        } else if (bytes.hasRemaining()) {
+            // view of the payload array, no need to copy
+            this.remainder = bytes;
+        }
+
+        return toString(chars);
+    }
+
+    /**
+     * Get undecoded bytes of the last decoded non-final fragment.
+     *
+     * @return remainder or {@code null} when all the bytes were decoded.
+     */
+    ByteBuffer getRemainder() {
+        return remainder;
+    }
+
+    /**
+     * Decode the character which was split between previous and current fragment.
+     * <p/>
+     * Only remainder and first few bytes of the current payload are copied to a small buffer; the rest of the payload
+     * is decoded directly from its array.
+     *
+     * @return index of the first not yet decoded byte in {@code data} or {@code -1} when all the data were consumed
+     * and {@link #remainder} was set.
+     */
+    private int decodeRemainder(byte[] data, int start, int end, ByteBuffer remainder, CharBuffer chars,
+                                boolean finalFragment) {
+        final int remainderLength = remainder.remaining();
+        final int appended = Math.min(MAX_CHAR_LENGTH - remainderLength, end - start);
+
+        final byte[] head = new byte[remainderLength + appended];
+        remainder.duplicate().get(head, 0, remainderLength);
+        System.arraycopy(data, start, head, remainderLength, appended);
+
+        final ByteBuffer headBuffer = ByteBuffer.wrap(head);
+        final boolean endOfInput = finalFragment && appended == end - start;
+        checkResult(decoder.decode(headBuffer, chars, endOfInput));
+
+        final int consumed = headBuffer.position() - remainderLength;
+        if (consumed < 0) {
+            // not even the split character was decoded; all the data are in head buffer.
+            this.remainder = headBuffer;
+            return -1;
+        }
+
+        return start + consumed;
+    }
+
+    private static void checkResult(CoderResult result) {
+        if (result.isError() || result.isMalformed()) {
+            throw new Utf8DecodingException();
+        }
+    }
+
+    private static String toString(CharBuffer chars) {
+        return new String(chars.array(), 0, chars.position());
+    }
+
+    private static CharBuffer getCharBuffer(int capacity) {
+        CharBuffer chars = CHAR_BUFFER.get();
+
+        if (chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(capacity);
+            if (capacity <= MAX_CACHED_CHARS) {
+                CHAR_BUFFER.set(chars);
+            }
+        }
+
+        chars.clear();
+        return chars;
+    }
+
+    /**
+     * Check whether given part of the array contains only ASCII characters.
+     * <p/>
+     * Bytes are processed in blocks of eight, without a branch per byte, which allows the JIT compiler to vectorize
+     * the loop.
+     */
+    private static boolean isAscii(byte[] data, int start, int end) {
+        int i = start;
+
+        for (; i + 8 <= end; i += 8) {
+            if ((data[i] | data[i + 1] | data[i + 2] | data[i + 3]
+                    | data[i + 4] | data[i + 5] | data[i + 6] | data[i + 7]) < 0) {
+                return false;
+            }
+        }
+
+        for (; i < end; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core.frame;
+
+/**
+ * Strict UTF-8 encoder writing directly into a target array.
+ * <p/>
+ * Encoding is split into two passes over the characters - {@link #encodedLength(String)} computes exact size of the
+ * encoded text, so the caller can allocate the target (for example whole WebSocket frame including its header) and
+ * {@link #encode(String, byte[], int, byte[])} writes the encoded bytes, optionally masking them. No intermediate
+ * array is created.
+ */
+public final class Utf8Encoder {
+
+    private static final byte[] NO_MASK = new byte[4];
+
+    private Utf8Encoder() {
+    }
+
+    /**
+     * Compute length of UTF-8 representation of given text.
+     *
+     * @param text text to be encoded.
+     * @return number of bytes needed to encode the text or {@code -1} when the text cannot be encoded by strict UTF-8
+     * encoder (it contains unpaired surrogate).
+     */
+    public static long encodedLength(String text) {
+        final int length = text.length();
+        long encodedLength = length;
+
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+
+            if (c < 0x80) {
+                continue;
+            }
+
+            if (c < 0x800) {
+                encodedLength += 1;
+            } else if (Character.isHighSurrogate(c)) {
+                if (i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    // 4 bytes for 2 chars
+                    encodedLength += 2;
+                    i++;
+                } else {
+                    return -1;
+                }
+            } else if (Character.isLowSurrogate(c)) {
+                return -1;
+            } else {
+                encodedLength += 2;
+            }
+        }
+
+        return encodedLength;
+    }
+
+    /**
+     * Encode text into given array.
+     * <p/>
+     * The text has to be validated by {@link #encodedLength(String)} first and the target array has to be big enough
+     * to hold the encoded text.
+     *
+     * @param text   text to be encoded.
+     * @param target target array.
+     * @param offset position in the target array where the first encoded byte will be written.
+     * @param mask   4 byte masking key applied to encoded bytes (as described in RFC 6455, chapter 5.3), {@code null}
+     *               when the bytes should not be masked.
+     * @return position in the target array right after the last written byte.
+     */
+    public static int encode(String text, byte[] target, int offset, byte[] mask) {
+        final byte[] m = mask == null ? NO_MASK : mask;
+        final int length = text.length();
+        int position = offset;
+        int i = 0;
+
+        // ASCII prefix
+        if (mask == null) {
+            for (; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                target[position++] = (byte) c;
+            }
+        } else {
+            for (; i < length; i++) {
+                final char c = text.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                target[position] = (byte) (c ^ m[(position - offset) & 3]);
+                position++;
+            }
+        }
+
+        for (; i < length; i++) {
+            final char c = text.charAt(i);
+
+            if (c < 0x80) {
+                target[position] = (byte) (c ^ m[(position - offset) & 3]);
+                position++;
+            } else if (c < 0x800) {
+                target[position] = (byte) ((0xc0 | (c >> 6)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | (c & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+            } else if (Character.isHighSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                target[position] = (byte) ((0xf0 | (codePoint >> 18)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | ((codePoint >> 12) & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | ((codePoint >> 6) & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | (codePoint & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+            } else {
+                target[position] = (byte) ((0xe0 | (c >> 12)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | ((c >> 6) & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+                target[position] = (byte) ((0x80 | (c & 0x3f)) ^ m[(position - offset) & 3]);
+                position++;
+            }
+        }
+
+        return position;
+    }
+}
@@ -40,6 +40,7 @@
 package org.glassfish.tyrus.core.monitoring;
 
 import org.glassfish.tyrus.core.Beta;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
 
 /**
  * Listens to application-level events that are interesting for monitoring. Only one listener per application can be
@@ -95,6 +96,15 @@ public interface ApplicationEventListener {
      */
     void onEndpointUnregistered(String endpointPath);
 
+    /**
+     * Called when opening of a session has been refused because of a configured limit, for instance
+     * {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#MAX_SESSIONS_PER_APP}.
+     *
+     * @param endpointPath the path of the endpoint the session was opened to.
+     * @param reason       reason why the session was refused.
+     */
+    void onSessionRejected(String endpointPath, TyrusEndpointWrapper.SessionListener.OnOpenResult reason);
+
     /**
      * An instance of @ApplicationEventListener that does not do anything.
      */
@@ -119,5 +129,10 @@ public interface ApplicationEventListener {
         public void onEndpointUnregistered(String endpointPath) {
             // do nothing
         }
+
+        @Override
+        public void onSessionRejected(String endpointPath, TyrusEndpointWrapper.SessionListener.OnOpenResult reason) {
+            // do nothing
+        }
     };
 }
@@ -40,6 +40,7 @@
 package org.glassfish.tyrus.core.monitoring;
 
 import org.glassfish.tyrus.core.Beta;
+import org.glassfish.tyrus.core.OutboundOverflowPolicy;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 
 /**
@@ -66,6 +67,25 @@ public interface MessageEventListener {
      */
     void onFrameReceived(TyrusFrame.FrameType frameType, long payloadLength);
 
+    /**
+     * Called when the number of outgoing bytes which were accepted for sending, but were not written yet, has
+     * changed.
+     * <p/>
+     * Called only for messages which are counted - when the outbound byte limit is configured (see
+     * {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#MAX_OUTBOUND_BYTES}) or when the message is conflated (see
+     * {@link org.glassfish.tyrus.core.TyrusRemoteEndpoint.Async#sendConflatedText(Object, String)}).
+     *
+     * @param delta change of the number of pending outgoing bytes.
+     */
+    void onOutboundQueueChanged(long delta);
+
+    /**
+     * Called when a message did not fit into the outbound byte limit and the overflow policy was applied.
+     *
+     * @param policy applied policy.
+     */
+    void onOutboundOverflow(OutboundOverflowPolicy policy);
+
     /**
      * An instance of @MessageEventListener that does not do anything.
      */
@@ -81,5 +101,15 @@ public interface MessageEventListener {
         public void onFrameReceived(TyrusFrame.FrameType frameType, long payloadLength) {
             //do nothing
         }
+
+        @Override
+        public void onOutboundQueueChanged(long delta) {
+            //do nothing
+        }
+
+        @Override
+        public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+            //do nothing
+        }
     };
 }
@@ -0,0 +1,224 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core.uri;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
+import org.glassfish.tyrus.core.uri.internal.PathSegment;
+import org.glassfish.tyrus.core.uri.internal.UriComponent;
+
+/**
+ * Segment trie of endpoint paths used for matching of request paths to endpoints.
+ * <p/>
+ * Endpoint paths are decoded and split into segments once, when the endpoint is added. Every node of the trie has
+ * literal children, looked up by the segment, and one template child shared by all path templates with a variable
+ * on that position. The request path is decoded once and the trie is searched depth first, literal child before
+ * template child, so the matches are found in the same order as {@link Match#getAllMatches(String, java.util.Set,
+ * DebugContext)} sorts them with {@link MatchComparator}: the exact match first, then the matches with the longest
+ * literal prefix.
+ * <p/>
+ * Matching does not take any lock and can run concurrently with adding and removing of endpoints.
+ */
+public class PathTrie {
+
+    private static final Logger LOGGER = Logger.getLogger(PathTrie.class.getName());
+
+    private final Node root = new Node();
+
+    /**
+     * Add endpoint.
+     *
+     * @param endpointWrapper endpoint to be added.
+     */
+    public synchronized void add(TyrusEndpointWrapper endpointWrapper) {
+        final List<PathSegment> segments = UriComponent.decodePath(endpointWrapper.getEndpointPath(), true);
+        final List<Integer> variableIndices = new ArrayList<Integer>();
+        final List<String> variableSegments = new ArrayList<String>();
+
+        Node node = root;
+        int index = 0;
+        for (PathSegment pathSegment : segments) {
+            final String segment = pathSegment.getPath();
+            if (Match.isVariable(segment)) {
+                variableIndices.add(index);
+                variableSegments.add(segment);
+                if (node.template == null) {
+                    node.template = new Node();
+                }
+                node = node.template;
+            } else {
+                Node child = node.literals.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.literals.put(segment, child);
+                }
+                node = child;
+            }
+            index++;
+        }
+
+        final int[] indices = new int[variableIndices.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = variableIndices.get(i);
+        }
+        node.endpoint = new Leaf(endpointWrapper, indices, variableSegments.toArray(new String[variableSegments.size()]));
+    }
+
+    /**
+     * Remove endpoint.
+     * <p/>
+     * Nodes of the removed path are kept in the trie, they are reused when an endpoint with the same path is added.
+     *
+     * @param endpointWrapper endpoint to be removed.
+     * @return {@code true} if the endpoint was found and removed.
+     */
+    public synchronized boolean remove(TyrusEndpointWrapper endpointWrapper) {
+        final Node node = find(UriComponent.decodePath(endpointWrapper.getEndpointPath(), true));
+        if (node != null && node.endpoint != null && node.endpoint.endpointWrapper == endpointWrapper) {
+            node.endpoint = null;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Return a list of all endpoints with path matching the request path. The endpoints are in order of match
+     * preference, best match first.
+     *
+     * @param requestPath  request path.
+     * @param debugContext debug context.
+     * @return a list of all endpoints with path matching the request path. The endpoints are in order of match
+     * preference, best match first.
+     * @see Match#getAllMatches(String, java.util.Set, DebugContext)
+     */
+    public List<Match> getAllMatches(String requestPath, DebugContext debugContext) {
+        final List<PathSegment> pathSegments = UriComponent.decodePath(requestPath, true);
+        final String[] segments = new String[pathSegments.size()];
+        int i = 0;
+        for (PathSegment pathSegment : pathSegments) {
+            segments[i++] = pathSegment.getPath();
+        }
+
+        final List<Match> matches = new ArrayList<Match>(1);
+        if (segments.length > 0) {
+            collect(root, segments, 0, matches);
+        }
+
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN,
+                                        "Endpoints matched to the request URI: ", matches);
+        return matches;
+    }
+
+    private static void collect(Node node, String[] segments, int depth, List<Match> matches) {
+        if (depth == segments.length) {
+            final Leaf leaf = node.endpoint;
+            if (leaf != null) {
+                matches.add(leaf.createMatch(segments));
+            }
+            return;
+        }
+
+        final Node literal = node.literals.get(segments[depth]);
+        if (literal != null) {
+            collect(literal, segments, depth + 1, matches);
+        }
+
+        final Node template = node.template;
+        if (template != null) {
+            collect(template, segments, depth + 1, matches);
+        }
+    }
+
+    private Node find(List<PathSegment> segments) {
+        Node current = root;
+        for (PathSegment pathSegment : segments) {
+            final String segment = pathSegment.getPath();
+            current = Match.isVariable(segment) ? current.template : current.literals.get(segment);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private static class Node {
+
+        // written under the trie lock, read without locking.
+        private final Map<String, Node> literals = new ConcurrentHashMap<String, Node>(4);
+        private volatile Node template;
+        private volatile Leaf endpoint;
+    }
+
+    /**
+     * Endpoint with positions and segments of variables of its path.
+     */
+    private static class Leaf {
+
+        private final TyrusEndpointWrapper endpointWrapper;
+        private final int[] variableIndices;
+        private final String[] variableSegments;
+
+        Leaf(TyrusEndpointWrapper endpointWrapper, int[] variableIndices, String[] variableSegments) {
+            this.endpointWrapper = endpointWrapper;
+            this.variableIndices = variableIndices;
+            this.variableSegments = variableSegments;
+        }
+
+        Match createMatch(String[] segments) {
+            final Match match = new Match(endpointWrapper);
+            for (int i = 0; i < variableIndices.length; i++) {
+                final String segment = segments[variableIndices[i]];
+                // same as in Match - request segment equal to the template segment is a literal match.
+                if (!segment.equals(variableSegments[i])) {
+                    match.addParameter(Match.getVariableName(variableSegments[i]), segment, variableIndices[i]);
+                }
+            }
+            return match;
+        }
+    }
+}
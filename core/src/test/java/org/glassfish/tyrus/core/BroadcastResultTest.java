@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link BroadcastResult}.
+ */
+public class BroadcastResultTest {
+
+    @Test
+    public void testAllSucceeded() throws Exception {
+        final BroadcastResult result = new BroadcastResult(null);
+        final PreparedMessage message = PreparedMessage.text("broadcast");
+
+        for (int i = 0; i < 5; i++) {
+            result.send(message, connect(new DeferredWriter(false)), null);
+            assertFalse(result.isDone());
+        }
+        result.taskFinished();
+
+        result.get(1, TimeUnit.SECONDS);
+        assertEquals(5, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(0, result.getPending());
+    }
+
+    @Test
+    public void testFailuresAreReported() throws Exception {
+        final List<Session> failedSessions = new ArrayList<Session>();
+        final BroadcastResult result = new BroadcastResult(new BroadcastResult.FailureListener() {
+            @Override
+            public void onFailure(Session session, Throwable throwable) {
+                assertTrue(throwable instanceof IOException);
+                failedSessions.add(session);
+            }
+        });
+        final PreparedMessage message = PreparedMessage.text("broadcast");
+
+        final Session failing = createSession();
+        result.send(message, connect(new DeferredWriter(false)), createSession());
+        result.send(message, connect(new DeferredWriter(true)), failing);
+        result.taskFinished();
+
+        result.get(1, TimeUnit.SECONDS);
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, failedSessions.size());
+        assertSame(failing, failedSessions.get(0));
+    }
+
+    @Test
+    public void testClosedConnection() throws Exception {
+        final List<Throwable> failures = new ArrayList<Throwable>();
+        final BroadcastResult result = new BroadcastResult(new BroadcastResult.FailureListener() {
+            @Override
+            public void onFailure(Session session, Throwable throwable) {
+                failures.add(throwable);
+            }
+        });
+
+        // no writer - sending throws.
+        result.send(PreparedMessage.text("broadcast"), connect(null), null);
+        result.taskFinished();
+
+        assertTrue(result.isDone());
+        assertEquals(0, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, failures.size());
+    }
+
+    @Test
+    public void testPending() throws Exception {
+        final BroadcastResult result = new BroadcastResult(null);
+        final PreparedMessage message = PreparedMessage.text("broadcast");
+
+        final DeferredWriter writer = new DeferredWriter(false);
+        writer.deferred = true;
+
+        result.taskStarted();
+        result.send(message, connect(writer), null);
+        result.send(message, connect(writer), null);
+        result.taskFinished();
+        result.taskFinished();
+
+        assertEquals(2, result.getPending());
+        assertFalse(result.isDone());
+
+        writer.completeAll();
+
+        assertNull(result.get(1, TimeUnit.SECONDS));
+        assertEquals(2, result.getSucceeded());
+        assertEquals(0, result.getPending());
+    }
+
+    @Test
+    public void testEmptyBroadcast() throws Exception {
+        final BroadcastResult result = new BroadcastResult(null);
+        assertFalse(result.isDone());
+
+        result.taskFinished();
+
+        assertTrue(result.isDone());
+        assertEquals(0, result.getSucceeded());
+        assertFalse(result.cancel(true));
+    }
+
+    private static TyrusWebSocket connect(Writer writer) {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        if (writer != null) {
+            protocolHandler.setWriter(writer);
+        }
+        final TyrusWebSocket webSocket = new TyrusWebSocket(protocolHandler, null);
+        webSocket.onConnect(null, null, null, null, null);
+        return webSocket;
+    }
+
+    private static Session createSession() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class[]{Session.class},
+                                                new InvocationHandler() {
+                                                    @Override
+                                                    public Object invoke(Object proxy, Method method, Object[] args) {
+                                                        return null;
+                                                    }
+                                                });
+    }
+
+    private static class DeferredWriter extends Writer {
+
+        private final boolean fail;
+        private final List<CompletionHandler<ByteBuffer>> handlers = new ArrayList<CompletionHandler<ByteBuffer>>();
+        private volatile boolean deferred = false;
+
+        private DeferredWriter(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            if (deferred) {
+                handlers.add(completionHandler);
+            } else if (fail) {
+                completionHandler.failed(new IOException("Write failed."));
+            } else {
+                completionHandler.completed(buffer);
+            }
+        }
+
+        private void completeAll() {
+            for (CompletionHandler<ByteBuffer> handler : handlers) {
+                handler.completed(null);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link BroadcastScheduler}.
+ */
+public class BroadcastSchedulerTest {
+
+    @Test
+    public void testAllItemsExecuted() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+            final List<Integer> items = createItems(100000);
+            final Set<Integer> executed = Collections.synchronizedSet(new HashSet<Integer>());
+            final BroadcastResult result = new BroadcastResult(null);
+
+            scheduler.execute(items.iterator(), items.size(), new BroadcastScheduler.Task<Integer>() {
+                @Override
+                public void execute(Integer item) {
+                    assertTrue(executed.add(item));
+                }
+            }, executor, result);
+            result.taskFinished();
+
+            result.get(10, TimeUnit.SECONDS);
+            assertEquals(items.size(), executed.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallerDoesNotExecuteLargeBroadcast() throws Exception {
+        final List<Runnable> workers = new ArrayList<Runnable>();
+        final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+        final List<Integer> items = createItems(10000);
+        final List<Integer> executed = new ArrayList<Integer>();
+        final BroadcastResult result = new BroadcastResult(null);
+
+        scheduler.execute(items.iterator(), items.size(), new BroadcastScheduler.Task<Integer>() {
+            @Override
+            public void execute(Integer item) {
+                executed.add(item);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                workers.add(command);
+            }
+        }, result);
+        result.taskFinished();
+
+        assertEquals(4, workers.size());
+        assertTrue(executed.isEmpty());
+        assertFalse(result.isDone());
+
+        for (Runnable worker : workers) {
+            worker.run();
+        }
+
+        assertEquals(items, executed);
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void testSmallBroadcastExecutedByCaller() {
+        final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+        final List<Integer> items = createItems(BroadcastScheduler.MIN_CHUNK);
+        final List<Integer> executed = new ArrayList<Integer>();
+
+        scheduler.execute(items.iterator(), items.size(), new BroadcastScheduler.Task<Integer>() {
+            @Override
+            public void execute(Integer item) {
+                executed.add(item);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new AssertionError("Small broadcast should not be submitted.");
+            }
+        }, null);
+
+        assertEquals(items, executed);
+    }
+
+    @Test
+    public void testRejectedWorkerExecutedByCaller() {
+        final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+        final List<Integer> items = createItems(10000);
+        final List<Integer> executed = new ArrayList<Integer>();
+        final BroadcastResult result = new BroadcastResult(null);
+
+        scheduler.execute(items.iterator(), items.size(), new BroadcastScheduler.Task<Integer>() {
+            @Override
+            public void execute(Integer item) {
+                executed.add(item);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }, result);
+        result.taskFinished();
+
+        assertEquals(items, executed);
+        assertTrue(result.isDone());
+    }
+
+    @Test
+    public void testChunkSizeAdaptsToCost() {
+        final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+
+        // cheap sends - chunks as big as allowed.
+        for (int i = 0; i < 100; i++) {
+            scheduler.recordChunk(1000, 1000);
+        }
+        assertEquals(BroadcastScheduler.MAX_CHUNK, scheduler.getChunkSize(Integer.MAX_VALUE, 4));
+        assertEquals(4, scheduler.getWorkerCount(100000));
+
+        // expensive sends - the smallest chunks.
+        for (int i = 0; i < 100; i++) {
+            scheduler.recordChunk(1, BroadcastScheduler.TARGET_CHUNK_NANOS);
+        }
+        assertEquals(BroadcastScheduler.MIN_CHUNK, scheduler.getChunkSize(Integer.MAX_VALUE, 4));
+
+        // chunk targets the configured time.
+        for (int i = 0; i < 100; i++) {
+            scheduler.recordChunk(1, BroadcastScheduler.TARGET_CHUNK_NANOS / 100);
+        }
+        assertEquals(100, scheduler.getChunkSize(Integer.MAX_VALUE, 4), 10);
+    }
+
+    @Test
+    public void testChunkSizeShrinksAtTheEnd() {
+        final BroadcastScheduler scheduler = new BroadcastScheduler(4);
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.recordChunk(1000, 1000);
+        }
+
+        assertEquals(1000, scheduler.getChunkSize(8000, 4));
+        assertEquals(BroadcastScheduler.MIN_CHUNK, scheduler.getChunkSize(50, 4));
+        assertEquals(1, scheduler.getWorkerCount(BroadcastScheduler.MIN_CHUNK));
+    }
+
+    private static List<Integer> createItems(int count) {
+        final List<Integer> items = new ArrayList<Integer>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+}
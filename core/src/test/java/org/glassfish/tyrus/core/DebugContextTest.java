@@ -0,0 +1,144 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.tyrus.spi.UpgradeResponse;
+
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link DebugContext}, mainly that the shared {@link DebugContext#NO_OP} context does not allocate.
+ */
+public class DebugContextTest {
+
+    private static final Logger LOGGER = Logger.getLogger(DebugContextTest.class.getName());
+
+    private static final int ITERATIONS = 100000;
+
+    @Test
+    public void testNoOpDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threadMXBean = getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final Object messagePart = new Object();
+
+        // warm up - let the methods get compiled.
+        appendMessages(DebugContext.NO_OP, messagePart);
+
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        appendMessages(DebugContext.NO_OP, messagePart);
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        // a few hundred bytes can be allocated by the measurement itself.
+        assertTrue("Allocated " + allocated + " bytes for " + ITERATIONS + " iterations.", allocated < ITERATIONS);
+        assertTrue(DebugContext.NO_OP.getTracingHeaders().isEmpty());
+    }
+
+    @Test
+    public void testNoOpSessionId() {
+        DebugContext.NO_OP.setSessionId("session");
+        DebugContext.NO_OP.appendTraceMessage(LOGGER, Level.WARNING, DebugContext.Type.OTHER, "traced");
+        DebugContext.NO_OP.flush();
+
+        assertTrue(DebugContext.NO_OP.getTracingHeaders().isEmpty());
+    }
+
+    @Test
+    public void testTracingHeaders() {
+        final DebugContext debugContext = new DebugContext(DebugContext.TracingThreshold.TRACE);
+
+        debugContext.appendTraceMessage(LOGGER, Level.FINER, DebugContext.Type.OTHER, "one");
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "two ", 2);
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "three ", 3, " parts");
+        debugContext.appendTraceMessage(LOGGER, Level.FINEST, DebugContext.Type.OTHER, "not traced");
+
+        final Map<String, List<String>> tracingHeaders = debugContext.getTracingHeaders();
+        assertEquals(3, tracingHeaders.size());
+        assertTracingHeader(tracingHeaders, 0, "one");
+        assertTracingHeader(tracingHeaders, 1, "two 2");
+        assertTracingHeader(tracingHeaders, 2, "three 3 parts");
+    }
+
+    @Test
+    public void testTracingOff() {
+        final DebugContext debugContext = new DebugContext();
+
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "one");
+        debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.OTHER, "two ", 2);
+
+        assertTrue(debugContext.getTracingHeaders().isEmpty());
+    }
+
+    private static void appendMessages(DebugContext debugContext, Object messagePart) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            debugContext.appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_IN, "Received message");
+            debugContext.appendLogMessage(LOGGER, Level.FINEST, DebugContext.Type.MESSAGE_OUT, "Sending: ",
+                                          messagePart);
+            debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, "Matched");
+            debugContext.appendTraceMessage(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, "Endpoint: ",
+                                            messagePart);
+        }
+    }
+
+    private static void assertTracingHeader(Map<String, List<String>> tracingHeaders, int index, String message) {
+        final List<String> values =
+                tracingHeaders.get(UpgradeResponse.TRACING_HEADER_PREFIX + String.format("%02d%n", index));
+        assertEquals(1, values.size());
+        assertTrue(values.get(0), values.get(0).endsWith(" " + message));
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue(sunThreadMXBean.isThreadAllocatedMemorySupported());
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadMXBean;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link HeartbeatSweeper}.
+ */
+public class HeartbeatSweeperTest {
+
+    private ScheduledExecutorService scheduledExecutorService;
+    private HeartbeatSweeper sweeper;
+
+    @Before
+    public void setUp() {
+        scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        sweeper = new HeartbeatSweeper(new ExecutorServiceProvider() {
+            @Override
+            public ExecutorService getExecutorService() {
+                return scheduledExecutorService;
+            }
+
+            @Override
+            public ScheduledExecutorService getScheduledExecutorService() {
+                return scheduledExecutorService;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void testOneHeartbeatPerInterval() throws InterruptedException {
+        final List<AtomicInteger> counters = new ArrayList<AtomicInteger>();
+        for (int i = 0; i < 100; i++) {
+            final AtomicInteger counter = new AtomicInteger(0);
+            counters.add(counter);
+            sweeper.register(100, false, new Counter(counter));
+        }
+
+        Thread.sleep(550);
+
+        for (AtomicInteger counter : counters) {
+            assertEquals(5, counter.get(), 1);
+        }
+    }
+
+    @Test
+    public void testHeartbeatsSpreadAcrossInterval() throws InterruptedException {
+        final List<Long> times = Collections.synchronizedList(new ArrayList<Long>());
+        for (int i = 0; i < HeartbeatSweeper.MAX_PHASES; i++) {
+            sweeper.register(320, false, new Runnable() {
+                @Override
+                public void run() {
+                    times.add(System.nanoTime());
+                }
+            });
+        }
+
+        Thread.sleep(400);
+
+        // first round - one heartbeat per phase, 20 ms apart.
+        final List<Long> sorted = new ArrayList<Long>(times);
+        Collections.sort(sorted);
+        assertTrue(sorted.size() >= HeartbeatSweeper.MAX_PHASES);
+        assertTrue(sorted.get(HeartbeatSweeper.MAX_PHASES - 1) - sorted.get(0) > 200 * 1000000L);
+    }
+
+    @Test
+    public void testActiveSessionSkipped() throws InterruptedException {
+        final AtomicInteger active = new AtomicInteger(0);
+        final AtomicInteger idle = new AtomicInteger(0);
+        final HeartbeatSweeper.Registration activeRegistration = sweeper.register(50, true, new Counter(active));
+        sweeper.register(50, true, new Counter(idle));
+
+        for (int i = 0; i < 30; i++) {
+            activeRegistration.touch();
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, active.get());
+        assertTrue(idle.get() >= 4);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final HeartbeatSweeper.Registration first = sweeper.register(20, false, new Counter(counter));
+        final HeartbeatSweeper.Registration second = sweeper.register(30, false, new Counter(counter));
+        assertEquals(2, sweeper.getBucketCount());
+
+        first.cancel();
+        second.cancel();
+        assertTrue(first.isCancelled());
+        assertEquals(0, sweeper.getBucketCount());
+
+        final int count = counter.get();
+        Thread.sleep(100);
+        assertEquals(count, counter.get());
+    }
+
+    private static class Counter implements Runnable {
+
+        private final AtomicInteger counter;
+
+        Counter(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            counter.incrementAndGet();
+        }
+    }
+}
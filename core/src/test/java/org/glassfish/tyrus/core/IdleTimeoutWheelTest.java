@@ -0,0 +1,255 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link IdleTimeoutWheel}.
+ */
+public class IdleTimeoutWheelTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testExpiry() {
+        final ManualWheel wheel = new ManualWheel(8);
+        final AtomicInteger expired = new AtomicInteger(0);
+        final IdleTimeoutWheel.Timeout timeout = wheel.schedule(100, TimeUnit.MILLISECONDS, new Counter(expired));
+
+        wheel.advance(90);
+        assertEquals(0, expired.get());
+        assertFalse(timeout.isCancelled());
+
+        wheel.advance(20);
+        assertEquals(1, expired.get());
+        assertTrue(timeout.isCancelled());
+
+        // expired only once.
+        wheel.advance(1000);
+        assertEquals(1, expired.get());
+    }
+
+    @Test
+    public void testTouchPostponesExpiry() {
+        final ManualWheel wheel = new ManualWheel(8);
+        final AtomicInteger expired = new AtomicInteger(0);
+        final IdleTimeoutWheel.Timeout timeout = wheel.schedule(100, TimeUnit.MILLISECONDS, new Counter(expired));
+
+        for (int i = 0; i < 20; i++) {
+            wheel.advance(50);
+            timeout.touch();
+        }
+        assertEquals(0, expired.get());
+
+        wheel.advance(90);
+        assertEquals(0, expired.get());
+
+        wheel.advance(20);
+        assertEquals(1, expired.get());
+    }
+
+    @Test
+    public void testTimeoutLongerThanOneRound() {
+        // one round of the wheel takes 80 ms.
+        final ManualWheel wheel = new ManualWheel(8);
+        final AtomicInteger expired = new AtomicInteger(0);
+        wheel.schedule(1000, TimeUnit.MILLISECONDS, new Counter(expired));
+
+        wheel.advance(990);
+        assertEquals(0, expired.get());
+
+        wheel.advance(20);
+        assertEquals(1, expired.get());
+    }
+
+    @Test
+    public void testCancel() {
+        final ManualWheel wheel = new ManualWheel(8);
+        final AtomicInteger expired = new AtomicInteger(0);
+        final IdleTimeoutWheel.Timeout timeout = wheel.schedule(100, TimeUnit.MILLISECONDS, new Counter(expired));
+
+        wheel.advance(50);
+        timeout.cancel();
+        wheel.advance(1000);
+
+        assertEquals(0, expired.get());
+    }
+
+    @Test
+    public void testManyTimeouts() {
+        final ManualWheel wheel = new ManualWheel(64);
+        final AtomicInteger expired = new AtomicInteger(0);
+
+        for (int i = 1; i <= 1000; i++) {
+            wheel.schedule(i, TimeUnit.MILLISECONDS, new Counter(expired));
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            wheel.advance(10);
+            assertEquals(i * 10 - 10, expired.get(), 10);
+        }
+        assertEquals(1000, expired.get());
+    }
+
+    @Test
+    public void testAdvancedByScheduledExecutor() throws InterruptedException {
+        final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final IdleTimeoutWheel wheel = new IdleTimeoutWheel(new ExecutorServiceProvider() {
+                @Override
+                public ExecutorService getExecutorService() {
+                    return scheduledExecutorService;
+                }
+
+                @Override
+                public ScheduledExecutorService getScheduledExecutorService() {
+                    return scheduledExecutorService;
+                }
+            });
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            wheel.schedule(50, TimeUnit.MILLISECONDS, new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= 50 * MILLIS);
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTickStoppedWhenEmpty() throws InterruptedException {
+        final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            final IdleTimeoutWheel wheel = new IdleTimeoutWheel(new ExecutorServiceProvider() {
+                @Override
+                public ExecutorService getExecutorService() {
+                    return scheduledExecutorService;
+                }
+
+                @Override
+                public ScheduledExecutorService getScheduledExecutorService() {
+                    return scheduledExecutorService;
+                }
+            });
+            assertFalse(wheel.isTicking());
+
+            for (int i = 0; i < 2; i++) {
+                final CountDownLatch latch = new CountDownLatch(1);
+                wheel.schedule(20, TimeUnit.MILLISECONDS, new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                });
+                assertTrue(wheel.isTicking());
+                assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+                // stopped by the first tick which finds the wheel empty, started again by the next timeout.
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (wheel.isTicking() && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertFalse(wheel.isTicking());
+            }
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Wheel with 10 ms ticks advanced manually.
+     */
+    private static class ManualWheel extends IdleTimeoutWheel {
+
+        private long time = 0;
+
+        ManualWheel(int wheelSize) {
+            super(null, 10, TimeUnit.MILLISECONDS, wheelSize);
+        }
+
+        @Override
+        long currentTime() {
+            return time;
+        }
+
+        void advance(long millis) {
+            // tick by tick, as the executor would.
+            for (long i = 0; i < millis; i++) {
+                time += MILLIS;
+                if (time % (10 * MILLIS) == 0) {
+                    expireTimeouts(time);
+                }
+            }
+            expireTimeouts(time);
+        }
+    }
+
+    private static class Counter implements Runnable {
+
+        private final AtomicInteger counter;
+
+        Counter(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            counter.incrementAndGet();
+        }
+    }
+}
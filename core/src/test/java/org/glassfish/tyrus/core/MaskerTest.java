@@ -0,0 +1,164 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Tests {@link Masker}.
+ */
+public class MaskerTest {
+
+    private static final int MASKING_KEY = 0x1A2B3C4D;
+    private static final int[] LENGTHS = new int[]{0, 1, 3, 4, 7, 8, 9, 15, 16, 17, 125, 126, 1000, 65537};
+
+    @Test
+    public void testMask() {
+        for (int length : LENGTHS) {
+            final byte[] payload = randomBytes(length);
+            final byte[] target = new byte[length + 10];
+
+            new Masker(MASKING_KEY).mask(target, 10, payload, length);
+
+            final byte[] masked = new byte[length];
+            System.arraycopy(target, 10, masked, 0, length);
+            assertArrayEquals("Length: " + length, maskByteByByte(payload, 0), masked);
+        }
+    }
+
+    @Test
+    public void testMaskInChunks() {
+        final byte[] payload = randomBytes(1000);
+        final byte[] target = new byte[payload.length];
+        final Masker masker = new Masker(MASKING_KEY);
+
+        int position = 0;
+        for (int chunk : new int[]{3, 17, 1, 8, 100, 871}) {
+            final byte[] bytes = new byte[chunk];
+            System.arraycopy(payload, position, bytes, 0, chunk);
+            masker.mask(target, position, bytes, chunk);
+            position += chunk;
+        }
+
+        assertArrayEquals(maskByteByByte(payload, 0), target);
+    }
+
+    @Test
+    public void testUnmaskHeap() {
+        testUnmask(false, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testUnmaskDirect() {
+        testUnmask(true, ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void testUnmaskLittleEndian() {
+        testUnmask(false, ByteOrder.LITTLE_ENDIAN);
+        testUnmask(true, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void testUnmaskReadOnly() {
+        final byte[] payload = randomBytes(100);
+        final byte[] masked = maskByteByByte(payload, 0);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(4 + masked.length);
+        buffer.putInt(MASKING_KEY).put(masked).flip();
+
+        final Masker masker = new Masker(buffer.asReadOnlyBuffer());
+        masker.readMask();
+
+        assertArrayEquals(payload, masker.unmask(payload.length));
+    }
+
+    private void testUnmask(boolean direct, ByteOrder order) {
+        for (int length : LENGTHS) {
+            final byte[] payload = randomBytes(length);
+            final byte[] masked = maskByteByByte(payload, 0);
+
+            final ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(5 + masked.length)
+                    : ByteBuffer.allocate(5 + masked.length);
+            buffer.put((byte) 0).putInt(MASKING_KEY).put(masked).flip();
+            buffer.position(1);
+            buffer.order(order);
+
+            final Masker masker = new Masker(buffer);
+            masker.readMask();
+
+            // first chunk unmasked in place, rest using unmask(int)
+            final int firstChunk = length / 3;
+            masker.unmask(buffer, buffer.position(), firstChunk);
+            final byte[] first = new byte[firstChunk];
+            buffer.get(first);
+            final byte[] rest = masker.unmask(length - firstChunk);
+
+            final byte[] result = new byte[length];
+            System.arraycopy(first, 0, result, 0, firstChunk);
+            System.arraycopy(rest, 0, result, firstChunk, rest.length);
+
+            assertArrayEquals("Length: " + length + ", direct: " + direct + ", order: " + order, payload, result);
+        }
+    }
+
+    private static byte[] maskByteByByte(byte[] payload, int index) {
+        final byte[] mask = new byte[]{
+                (byte) (MASKING_KEY >> 24), (byte) (MASKING_KEY >> 16), (byte) (MASKING_KEY >> 8), (byte) MASKING_KEY};
+
+        final byte[] result = new byte[payload.length];
+        for (int i = 0; i < payload.length; i++) {
+            result[i] = (byte) (payload[i] ^ mask[index++ % 4]);
+        }
+        return result;
+    }
+
+    private static byte[] randomBytes(int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Extension;
+import javax.websocket.Session;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.extension.ShareableOutgoingExtension;
+import org.glassfish.tyrus.core.frame.BinaryFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+import org.glassfish.tyrus.core.frame.TyrusFrame;
+import org.glassfish.tyrus.core.monitoring.MessageEventListener;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link PreparedMessage}.
+ */
+public class PreparedMessageTest {
+
+    @Test
+    public void testText() throws Exception {
+        for (int length : new int[]{0, 1, 125, 126, 0xFFFF, 0x10000}) {
+            final char[] chars = new char[length];
+            Arrays.fill(chars, '\u20AC');
+            final String text = new String(chars);
+
+            final PreparedMessage message = PreparedMessage.text(text);
+            assertTrue(message.isText());
+
+            final byte[] expected = toArray(new ProtocolHandler(false, null).frame(new TextFrame(text, false, true)));
+            assertArrayEquals(expected, sendTwice(message));
+        }
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        final byte[] data = new byte[300];
+        Arrays.fill(data, (byte) 7);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        final PreparedMessage message = PreparedMessage.binary(buffer);
+        assertFalse(message.isText());
+        // remaining bytes are copied, the buffer is not consumed.
+        assertEquals(300, buffer.remaining());
+
+        final byte[] expected = toArray(new ProtocolHandler(false, null).frame(new BinaryFrame(data, false, true)));
+
+        // the original buffer can be reused.
+        Arrays.fill(data, (byte) 0);
+        assertArrayEquals(expected, sendTwice(message));
+    }
+
+    @Test
+    public void testClientSideIsMasked() throws Exception {
+        final PreparedMessage message = PreparedMessage.text("masked");
+
+        final CapturingWriter writer = new CapturingWriter();
+        final ProtocolHandler protocolHandler = new ProtocolHandler(true, null);
+        protocolHandler.setWriter(writer);
+        final TyrusWebSocket webSocket = connect(protocolHandler);
+
+        message.send(webSocket).get();
+
+        assertEquals(1, writer.written.size());
+        // mask bit is set.
+        assertTrue((writer.written.get(0)[1] & 0x80) != 0);
+    }
+
+    @Test
+    public void testSharedFrameDuringPartialMessage() throws Exception {
+        final CapturingWriter partialWriter = new CapturingWriter();
+        final ProtocolHandler partialHandler = handshake(partialWriter);
+        final TyrusWebSocket partialSocket = connect(partialHandler);
+
+        final CapturingWriter idleWriter = new CapturingWriter();
+        final TyrusWebSocket idleSocket = connect(handshake(idleWriter));
+
+        final PreparedMessage message = PreparedMessage.text("broadcast");
+
+        partialHandler.stream(false, "first").get();
+
+        // the shared frame is created by the session which is in the middle of a partial message.
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Thread[] sender = new Thread[1];
+            final Future<Frame> sent = executor.submit(new Callable<Frame>() {
+                @Override
+                public Frame call() throws Exception {
+                    sender[0] = Thread.currentThread();
+                    return message.send(partialSocket).get();
+                }
+            });
+
+            // wait until the sender waits for the partial message to be finished.
+            while (sender[0] == null || sender[0].getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+
+            partialHandler.stream(true, "last").get();
+            sent.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        message.send(idleSocket).get();
+
+        assertEquals(3, partialWriter.written.size());
+        // text frame without FIN, final continuation frame, whole text message; RSV1 is set by the extension.
+        assertEquals((byte) 0x41, partialWriter.written.get(0)[0]);
+        assertEquals((byte) 0xC0, partialWriter.written.get(1)[0]);
+        assertEquals((byte) 0xC1, partialWriter.written.get(2)[0]);
+
+        assertEquals(1, idleWriter.written.size());
+        assertArrayEquals(partialWriter.written.get(2), idleWriter.written.get(0));
+    }
+
+    @Test
+    public void testFrameSentWithExtension() throws Exception {
+        final PreparedMessage message = PreparedMessage.text("broadcast");
+        final List<Long> sent = Collections.synchronizedList(new ArrayList<Long>());
+        final MessageEventListener listener = new MessageEventListener() {
+            @Override
+            public void onFrameSent(TyrusFrame.FrameType frameType, long payloadLength) {
+                sent.add(payloadLength);
+            }
+
+            @Override
+            public void onFrameReceived(TyrusFrame.FrameType frameType, long payloadLength) {
+            }
+
+            @Override
+            public void onOutboundQueueChanged(long delta) {
+            }
+
+            @Override
+            public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+            }
+        };
+
+        // the processed frame is created by the first socket and reused by the second one.
+        for (int i = 0; i < 2; i++) {
+            final TyrusWebSocket webSocket = connect(handshake(new CapturingWriter()));
+            webSocket.setMessageEventListener(listener);
+            message.send(webSocket).get();
+        }
+
+        assertEquals(Arrays.asList(9L, 9L), sent);
+    }
+
+    /**
+     * Create server side protocol handler with negotiated {@link SharedExtension}.
+     */
+    private static ProtocolHandler handshake(CapturingWriter writer) throws Exception {
+        final SharedExtension extension = new SharedExtension();
+        final ServerEndpointConfig.Configurator configurator = new ServerEndpointConfig.Configurator() {
+            @Override
+            public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+                return installed;
+            }
+        };
+        final ServerEndpointConfig config = ServerEndpointConfig.Builder.create(Endpoint.class, "/shared")
+                .extensions(Collections.<Extension>singletonList(extension)).configurator(configurator).build();
+
+        final TyrusEndpointWrapper endpointWrapper = new TyrusEndpointWrapper(new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+            }
+        }, config, ComponentProviderService.create(), null, "", configurator, null, null, null, null);
+
+        final RequestContext request = RequestContext.Builder.create().requestURI(URI.create("/shared")).build();
+        request.getHeaders().put(UpgradeRequest.UPGRADE, Collections.singletonList("websocket"));
+        request.getHeaders().put(UpgradeRequest.CONNECTION, Collections.singletonList(UpgradeRequest.UPGRADE));
+        request.getHeaders().put(UpgradeRequest.HOST, Collections.singletonList("localhost"));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_KEY,
+                                 Collections.singletonList("dGhlIHNhbXBsZSBub25jZQ=="));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_EXTENSIONS,
+                                 Collections.singletonList(extension.getName()));
+
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        protocolHandler.handshake(endpointWrapper, request, new TyrusUpgradeResponse(),
+                                  new ExtendedExtension.ExtensionContext() {
+
+                                      private final Map<String, Object> properties = new HashMap<String, Object>();
+
+                                      @Override
+                                      public Map<String, Object> getProperties() {
+                                          return properties;
+                                      }
+                                  });
+        protocolHandler.setWriter(writer);
+        return protocolHandler;
+    }
+
+    /**
+     * Stateless extension which sets RSV1 flag of outgoing frames.
+     */
+    private static class SharedExtension implements ShareableOutgoingExtension {
+
+        @Override
+        public Object getOutgoingProcessingKey(ExtensionContext context) {
+            return "shared";
+        }
+
+        @Override
+        public Frame processIncoming(ExtensionContext context, Frame frame) {
+            return frame;
+        }
+
+        @Override
+        public Frame processOutgoing(ExtensionContext context, Frame frame) {
+            return Frame.builder(frame).rsv1(true).build();
+        }
+
+        @Override
+        public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
+        }
+
+        @Override
+        public void destroy(ExtensionContext context) {
+        }
+
+        @Override
+        public String getName() {
+            return "x-shared";
+        }
+
+        @Override
+        public List<Parameter> getParameters() {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Send the message to two different sockets and check that both received the same frame.
+     */
+    private static byte[] sendTwice(PreparedMessage message) throws Exception {
+        final CapturingWriter writer = new CapturingWriter();
+
+        for (int i = 0; i < 2; i++) {
+            final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+            protocolHandler.setWriter(writer);
+            message.send(connect(protocolHandler)).get();
+        }
+
+        assertEquals(2, writer.written.size());
+        assertArrayEquals(writer.written.get(0), writer.written.get(1));
+        return writer.written.get(0);
+    }
+
+    private static TyrusWebSocket connect(ProtocolHandler protocolHandler) {
+        final TyrusWebSocket webSocket = new TyrusWebSocket(protocolHandler, null);
+        webSocket.onConnect(null, null, null, null, null);
+        return webSocket;
+    }
+
+    private static class CapturingWriter extends Writer {
+
+        private final List<byte[]> written = Collections.synchronizedList(new ArrayList<byte[]>());
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            written.add(toArray(buffer));
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,769 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+
+import org.glassfish.tyrus.core.frame.BinaryFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+import org.glassfish.tyrus.core.frame.TyrusFrame;
+import org.glassfish.tyrus.core.monitoring.MessageEventListener;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ProtocolHandler} framing and unframing.
+ */
+public class ProtocolHandlerTest {
+
+    @Test
+    public void testGatheringFrameBinary() {
+        for (int length : new int[]{0, 1, 125, 126, 127, 0xFFFF, 0x10000, 100000}) {
+            final byte[] payload = new byte[length];
+            Arrays.fill(payload, (byte) 'a');
+
+            final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+            final ByteBuffer[] buffers = protocolHandler.frameGathering(new BinaryFrame(payload, false, true));
+            final ByteBuffer expected = new ProtocolHandler(false, null).frame(new BinaryFrame(payload, false, true));
+
+            assertEquals(2, buffers.length);
+            assertTrue(buffers[0].remaining() <= FrameHeaderPool.MAX_HEADER_SIZE);
+            assertArrayEquals("Payload length: " + length, toArray(expected), join(buffers));
+        }
+    }
+
+    @Test
+    public void testGatheringFrameFragments() {
+        final ProtocolHandler gathering = new ProtocolHandler(false, null);
+        final ProtocolHandler plain = new ProtocolHandler(false, null);
+
+        final TextFrame[] frames = new TextFrame[]{
+                new TextFrame("first", false, false),
+                new TextFrame("second", true, false),
+                new TextFrame("third", true, true)};
+
+        for (TextFrame frame : frames) {
+            assertArrayEquals(toArray(plain.frame(frame)), join(gathering.frameGathering(frame)));
+        }
+    }
+
+    @Test
+    public void testGatheringFramePayloadNotCopied() {
+        final byte[] payload = new byte[]{1, 2, 3};
+
+        final ByteBuffer[] buffers =
+                new ProtocolHandler(false, null).frameGathering(new BinaryFrame(payload, false, true));
+
+        assertTrue(buffers[1].hasArray());
+        assertTrue(buffers[1].array() == payload);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGatheringFrameClient() {
+        new ProtocolHandler(true, null).frameGathering(new BinaryFrame(new byte[]{1}, false, true));
+    }
+
+    @Test
+    public void testUnframeStreaming() {
+        final byte[] payload = new byte[10000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        final ByteBuffer framed = new ProtocolHandler(true, null).frame(new BinaryFrame(payload, false, true));
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        new StreamingWebSocket(protocolHandler, true);
+
+        final ByteBuffer received = ByteBuffer.allocate(payload.length);
+        final List<Frame> frames = new ArrayList<Frame>();
+        while (framed.hasRemaining()) {
+            final ByteBuffer chunk = framed.slice();
+            chunk.limit(Math.min(1000, chunk.remaining()));
+            framed.position(framed.position() + chunk.remaining());
+
+            Frame frame;
+            while ((frame = protocolHandler.unframe(chunk)) != null) {
+                frames.add(frame);
+                received.put(frame.getPayloadData());
+            }
+            assertFalse(chunk.hasRemaining());
+        }
+
+        assertTrue(frames.size() > 1);
+        for (int i = 0; i < frames.size(); i++) {
+            final Frame frame = frames.get(i);
+            assertEquals(i == 0 ? 0x02 : 0x00, frame.getOpcode());
+            assertEquals(i == frames.size() - 1, frame.isFin());
+        }
+        assertArrayEquals(payload, received.array());
+    }
+
+    @Test
+    public void testUnframeStreamingNotSupported() {
+        final byte[] payload = new byte[10000];
+        final ByteBuffer framed = new ProtocolHandler(true, null).frame(new BinaryFrame(payload, false, true));
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        new StreamingWebSocket(protocolHandler, false);
+
+        final ByteBuffer firstPart = framed.duplicate();
+        firstPart.limit(1000);
+        assertNull(protocolHandler.unframe(firstPart));
+
+        framed.position(firstPart.position());
+        final Frame frame = protocolHandler.unframe(framed);
+        assertEquals(0x02, frame.getOpcode());
+        assertTrue(frame.isFin());
+        assertEquals(payload.length, frame.getPayloadLength());
+    }
+
+    @Test
+    public void testSendTextEncodedDirectly() throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < 70000) {
+            sb.append("text \u017Elu\u0165ou\u010Dk\u00FD \u20AC \uD83D\uDE00 ");
+        }
+        final String longText = sb.toString();
+
+        for (boolean client : new boolean[]{false, true}) {
+            for (String text : new String[]{"", "a", "\u20AC", longText.substring(0, 125), longText.substring(0, 200),
+                    longText}) {
+                final ProtocolHandler protocolHandler = new ProtocolHandler(client, new ConstantMaskingKeyGenerator());
+                final CapturingWriter writer = new CapturingWriter();
+                protocolHandler.setWriter(writer);
+
+                protocolHandler.send(text).get();
+
+                final ByteBuffer expected = new ProtocolHandler(client, new ConstantMaskingKeyGenerator())
+                        .frame(new TextFrame(text, false, true));
+                assertArrayEquals(toArray(expected), writer.written);
+            }
+        }
+    }
+
+    @Test
+    public void testStreamTextEncodedDirectly() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(true, new ConstantMaskingKeyGenerator());
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        final ProtocolHandler plain = new ProtocolHandler(true, new ConstantMaskingKeyGenerator());
+
+        protocolHandler.stream(false, "first \u20AC").get();
+        assertArrayEquals(toArray(plain.frame(new TextFrame("first \u20AC", false, false))), writer.written);
+
+        protocolHandler.stream(true, "last").get();
+        assertArrayEquals(toArray(plain.frame(new TextFrame("last", true, true))), writer.written);
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setBatchingAllowed(true);
+        assertTrue(protocolHandler.isBatchingAllowed());
+
+        final Future<Frame> first = protocolHandler.send("first");
+        final Future<Frame> second = protocolHandler.send(new byte[]{1, 2, 3});
+        assertEquals(0, writer.writes);
+        assertFalse(first.isDone());
+
+        protocolHandler.flushBatch().get();
+        assertEquals(1, writer.writes);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+
+        final ProtocolHandler plain = new ProtocolHandler(false, null);
+        final ByteBuffer expected = ByteBuffer.allocate(100);
+        expected.put(plain.frame(new TextFrame("first", false, true)));
+        expected.put(plain.frame(new BinaryFrame(new byte[]{1, 2, 3}, false, true)));
+        expected.flip();
+        assertArrayEquals(toArray(expected), writer.written);
+
+        // nothing to flush.
+        protocolHandler.flushBatch().get();
+        assertEquals(1, writer.writes);
+    }
+
+    @Test
+    public void testBatchingSizeThreshold() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.configureBatching(20, 0, null);
+        protocolHandler.setBatchingAllowed(true);
+
+        protocolHandler.send("0123456789");
+        assertEquals(0, writer.writes);
+
+        // 12 + 12 bytes exceed the batch size.
+        protocolHandler.send("0123456789").get();
+        assertEquals(1, writer.writes);
+        assertEquals(24, writer.written.length);
+    }
+
+    @Test
+    public void testBatchingDisallowedFlushes() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setBatchingAllowed(true);
+
+        final Future<Frame> future = protocolHandler.send("message");
+        protocolHandler.setBatchingAllowed(false);
+        assertTrue(future.isDone());
+        assertEquals(1, writer.writes);
+
+        protocolHandler.send("message").get();
+        assertEquals(2, writer.writes);
+    }
+
+    @Test
+    public void testBatchingLingerTime() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            protocolHandler.configureBatching(1000, 10, scheduler);
+            protocolHandler.setBatchingAllowed(true);
+
+            final Future<Frame> first = protocolHandler.send("first");
+            final Future<Frame> second = protocolHandler.send("second");
+            assertEquals(0, writer.writes);
+
+            // flushed by a frame queued by the scheduler.
+            second.get(5, TimeUnit.SECONDS);
+            assertTrue(first.isDone());
+            assertEquals(1, writer.writes);
+
+            // batching disabled; collected messages are written before the new one.
+            protocolHandler.send("third");
+            protocolHandler.setBatchingAllowed(false);
+            protocolHandler.send("fourth").get();
+            assertEquals(3, writer.writes);
+            assertArrayEquals(toArray(new ProtocolHandler(false, null).frame(new TextFrame("fourth", false, true))),
+                              writer.written);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchingPartialMessageNotBatched() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final CapturingWriter writer = new CapturingWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setBatchingAllowed(true);
+
+        protocolHandler.send("whole");
+        protocolHandler.stream(false, "partial").get();
+
+        // batch is flushed before the partial frame is written.
+        assertEquals(2, writer.writes);
+        assertArrayEquals(toArray(new ProtocolHandler(false, null).frame(new TextFrame("partial", false, false))),
+                          writer.written);
+        protocolHandler.stream(true, "").get();
+    }
+
+    @Test
+    public void testOutboundLimitDropNewest() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        final OutboundListener listener = new OutboundListener();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setMessageEventListener(listener);
+        protocolHandler.configureOutboundLimit(10, OutboundOverflowPolicy.DROP_NEWEST);
+
+        // a message bigger than the limit is accepted when nothing else is pending.
+        final Future<Frame> big = protocolHandler.send("0123456789ab");
+        final Future<Frame> dropped = protocolHandler.send("x");
+        assertDropped(dropped, OutboundOverflowPolicy.DROP_NEWEST);
+        assertEquals(12, listener.queuedBytes.get());
+        assertEquals(1, listener.overflows.get());
+
+        writer.completeAll();
+        assertTrue(big.isDone());
+        assertEquals(0, listener.queuedBytes.get());
+
+        protocolHandler.send("x");
+        writer.completeAll();
+        assertEquals(Arrays.asList("0123456789ab", "x"), writer.payloads());
+        assertEquals(0, listener.queuedBytes.get());
+    }
+
+    @Test
+    public void testOutboundLimitDropOldest() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.configureOutboundLimit(10, OutboundOverflowPolicy.DROP_OLDEST);
+
+        final Future<Frame> first = protocolHandler.send("aaaa");
+        // held back until the first message is written.
+        final Future<Frame> second = protocolHandler.send("bbbb");
+        final Future<Frame> third = protocolHandler.send("cccc");
+        assertEquals(1, writer.handlers.size());
+        assertDropped(second, OutboundOverflowPolicy.DROP_OLDEST);
+
+        writer.completeAll();
+        writer.completeAll();
+        assertTrue(first.isDone());
+        assertTrue(third.isDone());
+        assertEquals(Arrays.asList("aaaa", "cccc"), writer.payloads());
+    }
+
+    @Test
+    public void testOutboundLimitConflate() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        final OutboundListener listener = new OutboundListener();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setMessageEventListener(listener);
+        protocolHandler.configureOutboundLimit(10, OutboundOverflowPolicy.CONFLATE);
+
+        protocolHandler.send("aaaa");
+        final Future<Frame> second = protocolHandler.send("bbbb");
+        final Future<Frame> third = protocolHandler.send("cccc");
+        final Future<Frame> fourth = protocolHandler.send("dddd");
+        assertDropped(second, OutboundOverflowPolicy.CONFLATE);
+        assertDropped(third, OutboundOverflowPolicy.CONFLATE);
+        assertEquals(2, listener.overflows.get());
+        assertEquals(8, listener.queuedBytes.get());
+
+        writer.completeAll();
+        writer.completeAll();
+        assertTrue(fourth.isDone());
+        assertEquals(Arrays.asList("aaaa", "dddd"), writer.payloads());
+        assertEquals(0, listener.queuedBytes.get());
+    }
+
+    @Test
+    public void testOutboundLimitClose() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setWebSocket(new TyrusWebSocket(protocolHandler, null));
+        protocolHandler.configureOutboundLimit(10, OutboundOverflowPolicy.CLOSE);
+
+        protocolHandler.send("aaaa");
+        final Future<Frame> held = protocolHandler.send("bbbb");
+        final Future<Frame> overflow = protocolHandler.send("cccc");
+        assertDropped(held, OutboundOverflowPolicy.CLOSE);
+        assertDropped(overflow, OutboundOverflowPolicy.CLOSE);
+
+        // close frame is written right after the pending message, 1013 (TRY_AGAIN_LATER) is the close code.
+        assertEquals(2, writer.frames.size());
+        final byte[] closeFrame = writer.frames.get(1);
+        assertEquals((byte) 0x88, closeFrame[0]);
+        assertEquals(1013, ((closeFrame[2] & 0xff) << 8) | (closeFrame[3] & 0xff));
+
+        assertDropped(protocolHandler.send("d"), OutboundOverflowPolicy.CLOSE);
+    }
+
+    @Test
+    public void testOutboundLimitPartialMessageFlushesHeld() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        protocolHandler.setWriter(writer);
+        protocolHandler.configureOutboundLimit(10, OutboundOverflowPolicy.DROP_NEWEST);
+
+        protocolHandler.send("aaaa");
+        protocolHandler.send("bbbb");
+        assertEquals(1, writer.handlers.size());
+
+        // partial messages are not limited and must not overtake held messages.
+        protocolHandler.stream(false, "partial");
+        protocolHandler.stream(true, "");
+        assertEquals(Arrays.asList("aaaa", "bbbb", "partial", ""), writer.payloads());
+        writer.completeAll();
+    }
+
+    @Test
+    public void testConflation() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        final OutboundListener listener = new OutboundListener();
+        protocolHandler.setWriter(writer);
+        protocolHandler.setMessageEventListener(listener);
+
+        protocolHandler.sendConflated("BTC", "1");
+        // held back until the first message is written.
+        final Future<Frame> eth = protocolHandler.sendConflated("ETH", "a");
+        final Future<Frame> btc = protocolHandler.sendConflated("BTC", "2");
+        protocolHandler.sendConflated("BTC", "3");
+        protocolHandler.sendConflated("ETH", new byte[]{'b'});
+        assertEquals(1, writer.handlers.size());
+
+        // replaced messages are considered to be sent.
+        assertTrue(eth.isDone());
+        assertTrue(btc.isDone());
+        assertNull(btc.get());
+        assertEquals(3, listener.queuedBytes.get());
+
+        writer.completeAll();
+        writer.completeAll();
+        // replacement keeps the position of the replaced message.
+        assertEquals(Arrays.asList("1", "b", "3"), writer.payloads());
+        assertEquals(0, listener.queuedBytes.get());
+
+        // written messages are not replaced.
+        protocolHandler.sendConflated("BTC", "4");
+        protocolHandler.sendConflated("BTC", "5");
+        protocolHandler.sendConflated("BTC", "6");
+        writer.completeAll();
+        writer.completeAll();
+        assertEquals(Arrays.asList("1", "b", "3", "4", "6"), writer.payloads());
+    }
+
+    @Test
+    public void testConflationMessageWithoutKeyFlushesHeld() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final DeferredWriter writer = new DeferredWriter();
+        protocolHandler.setWriter(writer);
+
+        protocolHandler.sendConflated("BTC", "1");
+        protocolHandler.sendConflated("BTC", "2");
+        protocolHandler.send("plain");
+        protocolHandler.sendConflated("BTC", "3");
+        writer.completeAll();
+        assertEquals(Arrays.asList("1", "2", "plain", "3"), writer.payloads());
+    }
+
+    private static void assertDropped(Future<Frame> future, OutboundOverflowPolicy policy) throws Exception {
+        assertTrue(future.isDone());
+        try {
+            future.get();
+            fail("Message should have been dropped.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof OutboundLimitExceededException);
+            assertEquals(policy, ((OutboundLimitExceededException) e.getCause()).getPolicy());
+        }
+    }
+
+    private static class ConstantMaskingKeyGenerator implements MaskingKeyGenerator {
+
+        @Override
+        public int nextInt() {
+            return 0x12345678;
+        }
+    }
+
+    @Test
+    public void testConcurrentSendersKeepOrder() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final RecordingWriter writer = new RecordingWriter();
+        protocolHandler.setWriter(writer);
+
+        final int threads = 8;
+        final int messages = 1000;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> senders = new ArrayList<Thread>();
+
+        for (int i = 0; i < threads; i++) {
+            final int sender = i;
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < messages; j++) {
+                        if (j % 2 == 0) {
+                            protocolHandler.send(sender + ":" + j);
+                        } else {
+                            protocolHandler.send((sender + ":" + j).getBytes(Charset.forName("UTF-8")));
+                        }
+                    }
+                }
+            };
+            senders.add(thread);
+            thread.start();
+        }
+
+        startLatch.countDown();
+        for (Thread thread : senders) {
+            thread.join();
+        }
+
+        assertFalse(writer.concurrentWrite);
+        assertEquals(threads * messages, writer.frames.size());
+
+        final int[] next = new int[threads];
+        for (byte[] frame : writer.frames) {
+            final String[] payload = payload(frame).split(":");
+            final int sender = Integer.parseInt(payload[0]);
+            assertEquals(next[sender]++, Integer.parseInt(payload[1]));
+        }
+    }
+
+    @Test
+    public void testWholeMessageWaitsForPartialMessage() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final RecordingWriter writer = new RecordingWriter();
+        protocolHandler.setWriter(writer);
+
+        protocolHandler.stream(false, "first");
+
+        final CountDownLatch sentLatch = new CountDownLatch(1);
+        new Thread() {
+            @Override
+            public void run() {
+                protocolHandler.send("whole");
+                sentLatch.countDown();
+            }
+        }.start();
+
+        assertFalse(sentLatch.await(100, TimeUnit.MILLISECONDS));
+        protocolHandler.stream(true, "last");
+        assertTrue(sentLatch.await(1, TimeUnit.SECONDS));
+
+        assertEquals(3, writer.frames.size());
+        assertEquals(0x01, writer.frames.get(0)[0]);
+        assertEquals("first", payload(writer.frames.get(0)));
+        assertEquals((byte) 0x80, writer.frames.get(1)[0]);
+        assertEquals("last", payload(writer.frames.get(1)));
+        assertEquals((byte) 0x81, writer.frames.get(2)[0]);
+        assertEquals("whole", payload(writer.frames.get(2)));
+    }
+
+    @Test(timeout = 5000)
+    public void testSendFromCompletionHandler() throws Exception {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        final RecordingWriter writer = new RecordingWriter();
+        protocolHandler.setWriter(writer);
+
+        final CountDownLatch sentLatch = new CountDownLatch(1);
+        protocolHandler.send("first", new SendHandler() {
+            @Override
+            public void onResult(SendResult result) {
+                try {
+                    // invoked by the writer while writing "first" - must not wait for it.
+                    protocolHandler.send("second").get();
+                    sentLatch.countDown();
+                } catch (Exception e) {
+                    // latch not counted down.
+                }
+            }
+        });
+
+        assertTrue(sentLatch.await(1, TimeUnit.SECONDS));
+        assertEquals(2, writer.frames.size());
+        assertEquals("second", payload(writer.frames.get(1)));
+    }
+
+    /**
+     * Payload of a short unmasked frame.
+     */
+    private static String payload(byte[] frame) {
+        return new String(frame, 2, frame[1], Charset.forName("UTF-8"));
+    }
+
+    /**
+     * Records all written frames and whether the writer was invoked concurrently.
+     */
+    private static class RecordingWriter extends Writer {
+
+        private final List<byte[]> frames = Collections.synchronizedList(new ArrayList<byte[]>());
+        private final AtomicBoolean writing = new AtomicBoolean(false);
+        private volatile boolean concurrentWrite = false;
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            if (!writing.compareAndSet(false, true)) {
+                concurrentWrite = true;
+            }
+            frames.add(toArray(buffer));
+            writing.set(false);
+
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Records written frames and completes the writes only when asked to.
+     */
+    private static class DeferredWriter extends Writer {
+
+        private final List<byte[]> frames = new ArrayList<byte[]>();
+        private final List<CompletionHandler<ByteBuffer>> handlers = new ArrayList<CompletionHandler<ByteBuffer>>();
+
+        @Override
+        public synchronized void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            frames.add(toArray(buffer));
+            handlers.add(completionHandler);
+        }
+
+        /**
+         * Complete all the writes passed to the writer so far.
+         */
+        void completeAll() {
+            final List<CompletionHandler<ByteBuffer>> toComplete;
+            synchronized (this) {
+                toComplete = new ArrayList<CompletionHandler<ByteBuffer>>(handlers);
+                handlers.clear();
+            }
+
+            for (CompletionHandler<ByteBuffer> handler : toComplete) {
+                handler.completed(null);
+            }
+        }
+
+        synchronized List<String> payloads() {
+            final List<String> payloads = new ArrayList<String>();
+            for (byte[] frame : frames) {
+                payloads.add(payload(frame));
+            }
+            return payloads;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class OutboundListener implements MessageEventListener {
+
+        private final AtomicLong queuedBytes = new AtomicLong(0);
+        private final AtomicInteger overflows = new AtomicInteger(0);
+
+        @Override
+        public void onFrameSent(TyrusFrame.FrameType frameType, long payloadLength) {
+        }
+
+        @Override
+        public void onFrameReceived(TyrusFrame.FrameType frameType, long payloadLength) {
+        }
+
+        @Override
+        public void onOutboundQueueChanged(long delta) {
+            queuedBytes.addAndGet(delta);
+        }
+
+        @Override
+        public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+            overflows.incrementAndGet();
+        }
+    }
+
+    private static class CapturingWriter extends Writer {
+
+        private volatile byte[] written;
+        private volatile int writes;
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            writes++;
+            written = toArray(buffer);
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class StreamingWebSocket extends TyrusWebSocket {
+
+        private final boolean streamingSupported;
+
+        StreamingWebSocket(ProtocolHandler protocolHandler, boolean streamingSupported) {
+            super(protocolHandler, null);
+            this.streamingSupported = streamingSupported;
+        }
+
+        @Override
+        boolean isStreamingSupported(boolean text) {
+            return streamingSupported;
+        }
+    }
+
+    private static byte[] join(ByteBuffer[] buffers) {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer result = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : buffers) {
+            result.put(buffer.duplicate());
+        }
+
+        return result.array();
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
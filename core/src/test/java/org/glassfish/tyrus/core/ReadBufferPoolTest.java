@@ -0,0 +1,212 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Extension;
+import javax.websocket.HandshakeResponse;
+import javax.websocket.Session;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.WebSocketEngine;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link ReadBufferPool}.
+ */
+public class ReadBufferPoolTest {
+
+    @Test
+    public void testSizeClasses() {
+        final ReadBufferPool pool = new ReadBufferPool(64 * 1024, 1024 * 1024);
+
+        assertEquals(ReadBufferPool.MIN_CLASS_SIZE, pool.acquire(1).capacity());
+        assertEquals(ReadBufferPool.MIN_CLASS_SIZE, pool.acquire(ReadBufferPool.MIN_CLASS_SIZE).capacity());
+        assertEquals(2 * ReadBufferPool.MIN_CLASS_SIZE, pool.acquire(ReadBufferPool.MIN_CLASS_SIZE + 1).capacity());
+        assertEquals(64 * 1024, pool.acquire(64 * 1024).capacity());
+        assertEquals(64 * 1024 + 1, pool.acquire(64 * 1024 + 1).capacity());
+        assertEquals(5, pool.getMissCount());
+        assertEquals(0, pool.getHitCount());
+    }
+
+    @Test
+    public void testReuse() {
+        final ReadBufferPool pool = new ReadBufferPool(64 * 1024, 1024 * 1024);
+
+        final ByteBuffer buffer = pool.acquire(3000);
+        buffer.put(new byte[]{1, 2, 3});
+        buffer.flip();
+        pool.release(buffer);
+        assertEquals(1, pool.getPooledBufferCount());
+
+        final ByteBuffer reused = pool.acquire(2049);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(reused.capacity(), reused.limit());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(0, pool.getPooledBufferCount());
+    }
+
+    @Test
+    public void testRetainedMemoryLimit() {
+        final ReadBufferPool pool = new ReadBufferPool(64 * 1024, 2 * ReadBufferPool.MIN_CLASS_SIZE);
+
+        for (int i = 0; i < 5; i++) {
+            pool.release(ByteBuffer.allocate(ReadBufferPool.MIN_CLASS_SIZE));
+        }
+        assertEquals(2, pool.getPooledBufferCount());
+
+        // only one buffer of the largest class fits into the limit.
+        pool.release(ByteBuffer.allocate(64 * 1024));
+        pool.release(ByteBuffer.allocate(64 * 1024));
+        assertEquals(3, pool.getPooledBufferCount());
+    }
+
+    @Test
+    public void testReleasedOnProtocolError() throws Exception {
+        final TyrusWebSocketEngine engine = TyrusWebSocketEngine.builder(new TyrusRemoteEndpointTest.TestContainer()).build();
+        engine.register(ServerEndpointConfig.Builder.create(TestEndpoint.class, "/pool")
+                                                   .configurator(new TestConfigurator()).build(), "");
+
+        final RequestContext request = RequestContext.Builder.create().requestURI(URI.create("/pool")).build();
+        request.getHeaders().put(UpgradeRequest.UPGRADE, Collections.singletonList("websocket"));
+        request.getHeaders().put(UpgradeRequest.CONNECTION, Collections.singletonList(UpgradeRequest.UPGRADE));
+        request.getHeaders().put(UpgradeRequest.HOST, Collections.singletonList("localhost"));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_VERSION, Collections.singletonList("13"));
+        request.getHeaders().put(HandshakeRequest.SEC_WEBSOCKET_KEY,
+                                 Collections.singletonList("dGhlIHNhbXBsZSBub25jZQ=="));
+
+        final WebSocketEngine.UpgradeInfo upgradeInfo = engine.upgrade(request, new TyrusUpgradeResponse());
+        assertEquals(WebSocketEngine.UpgradeStatus.SUCCESS, upgradeInfo.getStatus());
+
+        final Connection connection = upgradeInfo.createConnection(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() {
+            }
+        }, new Connection.CloseListener() {
+            @Override
+            public void close(CloseReason reason) {
+            }
+        });
+
+        // masked frame with reserved opcode.
+        connection.getReadHandler().handle(ByteBuffer.wrap(new byte[]{(byte) 0x83, (byte) 0x80, 1, 2, 3, 4}));
+
+        assertEquals(1, engine.getReadBufferPool().getMissCount());
+        assertEquals(1, engine.getReadBufferPool().getPooledBufferCount());
+    }
+
+    public static class TestEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+
+    /**
+     * Configurator which does not need the platform default one.
+     */
+    private static class TestConfigurator extends ServerEndpointConfig.Configurator {
+
+        @Override
+        public String getNegotiatedSubprotocol(List<String> supported, List<String> requested) {
+            return null;
+        }
+
+        @Override
+        public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean checkOrigin(String originHeaderValue) {
+            return true;
+        }
+
+        @Override
+        public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+        }
+
+        @Override
+        public <T> T getEndpointInstance(Class<T> endpointClass) throws InstantiationException {
+            try {
+                return endpointClass.newInstance();
+            } catch (IllegalAccessException e) {
+                throw new InstantiationException(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testForeignBuffersNotPooled() {
+        final ReadBufferPool pool = new ReadBufferPool(64 * 1024, 1024 * 1024);
+
+        pool.release(ByteBuffer.allocate(1500));
+        pool.release(ByteBuffer.allocate(128 * 1024));
+        pool.release(ByteBuffer.allocateDirect(ReadBufferPool.MIN_CLASS_SIZE));
+
+        assertEquals(0, pool.getPooledBufferCount());
+        assertTrue(pool.acquire(100) != null);
+        assertEquals(1, pool.getMissCount());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link SecKey}.
+ */
+public class SecKeyTest {
+
+    // RFC 6455, paragraph 1.3.
+    private static final String CLIENT_KEY = "dGhlIHNhbXBsZSBub25jZQ==";
+    private static final String SERVER_KEY = "s3pPLMBiTxaQ9kYGzzhZRbK+xOo=";
+
+    @Test
+    public void testGenerateServerKey() throws HandshakeException {
+        assertEquals(SERVER_KEY, SecKey.generateServerKey(new SecKey(CLIENT_KEY)).getSecKey());
+        // digest of the thread is reused.
+        assertEquals(SERVER_KEY, SecKey.generateServerKey(new SecKey(CLIENT_KEY)).getSecKey());
+    }
+
+    @Test
+    public void testValidateServerKey() throws HandshakeException {
+        final SecKey clientKey = new SecKey();
+        clientKey.validateServerKey(SecKey.generateServerKey(clientKey).getSecKey());
+    }
+
+    @Test(expected = HandshakeException.class)
+    public void testValidateInvalidServerKey() throws HandshakeException {
+        new SecKey(CLIENT_KEY).validateServerKey(SecKey.generateServerKey(new SecKey()).getSecKey());
+    }
+
+    @Test
+    public void testGenerateServerKeyConcurrently() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final Callable<String> generator = new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    String serverKey = null;
+                    for (int i = 0; i < 1000; i++) {
+                        serverKey = SecKey.generateServerKey(new SecKey(CLIENT_KEY)).getSecKey();
+                        if (!SERVER_KEY.equals(serverKey)) {
+                            break;
+                        }
+                    }
+                    return serverKey;
+                }
+            };
+
+            final Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executorService.submit(generator);
+            }
+            for (Future<?> future : futures) {
+                assertEquals(SERVER_KEY, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
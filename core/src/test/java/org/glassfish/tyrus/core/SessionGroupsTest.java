@@ -0,0 +1,190 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SessionGroups} and group operations of {@link TyrusSession}.
+ */
+public class SessionGroupsTest {
+
+    private final TyrusEndpointWrapper endpointWrapper;
+
+    public SessionGroupsTest() throws DeploymentException {
+        endpointWrapper = new TyrusEndpointWrapper(TestEndpoint.class, null, ComponentProviderService.create(), null,
+                                                   null, null, null, null, null, null);
+    }
+
+    @Test
+    public void testJoinLeave() {
+        final TyrusSession session1 = createSession(null);
+        final TyrusSession session2 = createSession(null);
+
+        assertTrue(session1.joinGroup("room"));
+        assertFalse(session1.joinGroup("room"));
+        assertTrue(session1.joinGroup("other"));
+        assertTrue(session2.joinGroup("room"));
+
+        assertEquals(2, session1.getGroups().size());
+        assertEquals(Collections.singleton("room"), session2.getGroups());
+        assertEquals(2, session1.getGroupMembers("room").size());
+        assertTrue(session1.getGroupMembers("other").contains(session1));
+
+        assertTrue(session1.leaveGroup("other"));
+        assertFalse(session1.leaveGroup("other"));
+        assertTrue(session1.getGroupMembers("other").isEmpty());
+        assertEquals(Collections.singleton("room"), endpointWrapper.getSessionGroups().getGroupNames());
+
+        assertTrue(session2.leaveGroup("room"));
+        assertTrue(session1.leaveGroup("room"));
+        assertTrue(endpointWrapper.getSessionGroups().getGroupNames().isEmpty());
+        assertTrue(session1.getGroups().isEmpty());
+    }
+
+    @Test
+    public void testCleanupOnClose() {
+        final TyrusSession session1 = createSession(null);
+        final TyrusSession session2 = createSession(null);
+
+        session1.joinGroup("a");
+        session1.joinGroup("b");
+        session2.joinGroup("b");
+
+        session1.setState(TyrusSession.State.CLOSED);
+        endpointWrapper.getSessionGroups().leaveAll(session1);
+
+        assertEquals(Collections.singleton("b"), endpointWrapper.getSessionGroups().getGroupNames());
+        assertEquals(Collections.<Session>singletonList(session2),
+                     new ArrayList<Session>(session2.getGroupMembers("b")));
+        assertTrue(session1.getGroups().isEmpty());
+    }
+
+    @Test
+    public void testJoinClosedSession() {
+        final TyrusSession session = createSession(null);
+        session.setState(TyrusSession.State.CLOSED);
+
+        // closed concurrently with the join.
+        endpointWrapper.getSessionGroups().join("room", session);
+
+        assertTrue(endpointWrapper.getSessionGroups().getGroupNames().isEmpty());
+        assertTrue(endpointWrapper.getSessionGroups().getGroups(session).isEmpty());
+    }
+
+    @Test
+    public void testBroadcastToGroup() throws Exception {
+        final CountingWriter inRoom = new CountingWriter();
+        final CountingWriter notInRoom = new CountingWriter();
+
+        final List<TyrusSession> sessions = new ArrayList<TyrusSession>();
+        for (int i = 0; i < 10; i++) {
+            final TyrusSession session = createSession(i % 2 == 0 ? inRoom : notInRoom);
+            if (i % 2 == 0) {
+                session.joinGroup("room");
+            }
+            sessions.add(session);
+        }
+
+        final BroadcastResult result = sessions.get(1).broadcastToGroup("room", "message");
+        result.get(1, TimeUnit.SECONDS);
+
+        assertEquals(5, result.getSucceeded());
+        assertEquals(0, result.getFailed());
+        assertEquals(5, inRoom.count);
+        assertEquals(0, notInRoom.count);
+
+        final BroadcastResult empty = sessions.get(0).broadcastToGroup("nobody", ByteBuffer.wrap(new byte[]{1}));
+        assertTrue(empty.isDone());
+        assertEquals(0, empty.getSucceeded());
+    }
+
+    private TyrusSession createSession(Writer writer) {
+        final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+        if (writer != null) {
+            protocolHandler.setWriter(writer);
+        }
+        final TyrusWebSocket webSocket = new TyrusWebSocket(protocolHandler, null);
+        webSocket.onConnect(null, null, null, null, null);
+
+        return new TyrusSession(null, webSocket, endpointWrapper, null, null, false, null, null, null, null,
+                                new HashMap<String, List<String>>(), null, null, null, new DebugContext());
+    }
+
+    private static class CountingWriter extends Writer {
+
+        private int count = 0;
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            count++;
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static class TestEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+}
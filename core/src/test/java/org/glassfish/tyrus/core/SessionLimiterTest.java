@@ -0,0 +1,253 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener.OnOpenResult;
+import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
+import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SessionLimiter}.
+ */
+public class SessionLimiterTest {
+
+    private static final CloseReason CLOSE_REASON = CloseReasons.NORMAL_CLOSURE.getCloseReason();
+
+    private final TyrusEndpointWrapper endpointWrapper;
+
+    public SessionLimiterTest() throws DeploymentException {
+        endpointWrapper = new TyrusEndpointWrapper(TestEndpoint.class, null, ComponentProviderService.create(), null,
+                                                   "/limit", null, null, null, null, null);
+    }
+
+    @Test
+    public void testMaxSessionsPerApp() {
+        final SessionLimiter limiter = new SessionLimiter(2, 0, 0, 1, ApplicationEventListener.NO_OP);
+
+        final TyrusSession session1 = createSession("a");
+        final TyrusSession session2 = createSession("b");
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session1));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session2));
+        assertEquals(OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED, limiter.onOpen(createSession("c")));
+        assertEquals(2, limiter.getOpenSessionCount());
+
+        limiter.onClose(session1, CLOSE_REASON);
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("c")));
+        assertEquals(2, limiter.getOpenSessionCount());
+    }
+
+    @Test
+    public void testMaxSessionsPerRemoteAddr() {
+        final SessionLimiter limiter = new SessionLimiter(10, 2, 0, 1, ApplicationEventListener.NO_OP);
+
+        final TyrusSession session1 = createSession("a");
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session1));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("b")));
+
+        // refused session is not counted to the application limit.
+        assertEquals(3, limiter.getOpenSessionCount());
+        assertEquals(2, limiter.getOpenSessionCount("a"));
+
+        limiter.onClose(session1, CLOSE_REASON);
+        assertEquals(1, limiter.getOpenSessionCount("a"));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+    }
+
+    @Test
+    public void testRemoteAddrCounterRemoved() {
+        final SessionLimiter limiter = new SessionLimiter(0, 1, 0, 1, ApplicationEventListener.NO_OP);
+
+        final TyrusSession session = createSession("a");
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session));
+        limiter.onClose(session, CLOSE_REASON);
+        assertEquals(0, limiter.getOpenSessionCount("a"));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(1, limiter.getOpenSessionCount("a"));
+    }
+
+    @Test
+    public void testSessionRate() {
+        final ManualLimiter limiter = new ManualLimiter(10, 3);
+
+        // burst of 3 sessions.
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+
+        // other remote addresses have their own bucket.
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("b")));
+
+        // 10 sessions per second = one session per 100 ms.
+        limiter.time += TimeUnit.MILLISECONDS.toNanos(50);
+        assertEquals(OnOpenResult.MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+        limiter.time += TimeUnit.MILLISECONDS.toNanos(50);
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(OnOpenResult.MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+
+        // the bucket is full again after the burst time.
+        limiter.time += TimeUnit.SECONDS.toNanos(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        }
+        assertEquals(OnOpenResult.MAX_SESSION_RATE_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+    }
+
+    @Test
+    public void testRejectedSessionReported() {
+        final List<String> rejected = new ArrayList<String>();
+        final SessionLimiter limiter = new SessionLimiter(1, 0, 0, 1, new ApplicationEventListener() {
+            @Override
+            public void onApplicationInitialized(String applicationName) {
+            }
+
+            @Override
+            public void onApplicationDestroyed() {
+            }
+
+            @Override
+            public EndpointEventListener onEndpointRegistered(String endpointPath, Class<?> endpointClass) {
+                return EndpointEventListener.NO_OP;
+            }
+
+            @Override
+            public void onEndpointUnregistered(String endpointPath) {
+            }
+
+            @Override
+            public void onSessionRejected(String endpointPath, OnOpenResult reason) {
+                rejected.add(endpointPath + " " + reason);
+            }
+        });
+
+        final TyrusSession session = createSession("a");
+        limiter.onRejected(session, OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED);
+
+        assertEquals(1, rejected.size());
+        assertEquals(endpointWrapper.getEndpointPath() + " " + OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED,
+                     rejected.get(0));
+    }
+
+    @Test
+    public void testConcurrentOpenClose() throws InterruptedException {
+        final int threads = 8;
+        final int iterations = 10000;
+        final SessionLimiter limiter = new SessionLimiter(threads * 2, 4, 0, 1, ApplicationEventListener.NO_OP);
+        final AtomicInteger allowed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                final String remoteAddr = String.valueOf(t % 2);
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final TyrusSession session = createSession(remoteAddr);
+                        for (int i = 0; i < iterations; i++) {
+                            if (limiter.onOpen(session) == OnOpenResult.SESSION_ALLOWED) {
+                                allowed.incrementAndGet();
+                                limiter.onClose(session, CLOSE_REASON);
+                            }
+                        }
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(allowed.get() > 0);
+        assertEquals(0, limiter.getOpenSessionCount());
+        assertEquals(0, limiter.getOpenSessionCount("0"));
+        assertEquals(0, limiter.getOpenSessionCount("1"));
+    }
+
+    private TyrusSession createSession(String remoteAddr) {
+        return new TyrusSession(null, new TyrusWebSocket(new ProtocolHandler(false, null), null), endpointWrapper,
+                                null, null, false, null, null, null, null, new HashMap<String, List<String>>(), null,
+                                null, remoteAddr, new DebugContext());
+    }
+
+    private static class ManualLimiter extends SessionLimiter {
+
+        private long time = 0;
+
+        ManualLimiter(int maxSessionRate, int sessionBurst) {
+            super(0, 0, maxSessionRate, sessionBurst, ApplicationEventListener.NO_OP);
+        }
+
+        @Override
+        long currentTime() {
+            return time;
+        }
+    }
+
+    public static class TestEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+}
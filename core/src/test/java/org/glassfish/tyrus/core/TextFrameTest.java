@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+import org.glassfish.tyrus.core.frame.Utf8Decoder;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests UTF-8 decoding of incoming {@link TextFrame}s.
+ */
+public class TextFrameTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testAscii() {
+        final String text = "{\"id\":42,\"name\":\"tyrus\",\"values\":[1,2,3]}";
+        final TextFrame frame = new TextFrame(frame(text.getBytes(UTF_8), true), null, false, new Utf8Decoder());
+
+        assertEquals(text, frame.getTextPayload());
+        assertNull(frame.getRemainder());
+    }
+
+    @Test
+    public void testNonAscii() {
+        final String text = "p\u0159\u00EDli\u0161 \u017Elu\u0165ou\u010Dk\u00FD k\u016F\u0148 \uD83D\uDE00";
+        final TextFrame frame = new TextFrame(frame(text.getBytes(UTF_8), true), null, false, new Utf8Decoder());
+
+        assertEquals(text, frame.getTextPayload());
+    }
+
+    @Test
+    public void testSplitCharacters() {
+        final String text = "a\u00E9b\u20ACc\uD83D\uDE00d";
+        final byte[] bytes = text.getBytes(UTF_8);
+
+        // every possible fragment size, decoder shared by all fragments
+        for (int fragmentSize = 1; fragmentSize < bytes.length; fragmentSize++) {
+            final Utf8Decoder decoder = new Utf8Decoder();
+            final StringBuilder sb = new StringBuilder();
+            ByteBuffer remainder = null;
+
+            for (int offset = 0; offset < bytes.length; offset += fragmentSize) {
+                final int length = Math.min(fragmentSize, bytes.length - offset);
+                final byte[] fragment = new byte[length];
+                System.arraycopy(bytes, offset, fragment, 0, length);
+
+                final TextFrame frame = new TextFrame(frame(fragment, offset + length == bytes.length), remainder,
+                                                      offset > 0, decoder);
+                sb.append(frame.getTextPayload());
+                remainder = frame.getRemainder();
+            }
+
+            assertEquals("Fragment size: " + fragmentSize, text, sb.toString());
+            assertNull(remainder);
+        }
+    }
+
+    @Test(expected = Utf8DecodingException.class)
+    public void testInvalid() {
+        new TextFrame(frame(new byte[]{'a', (byte) 0xC3, 'b'}, true), null, false, new Utf8Decoder());
+    }
+
+    @Test(expected = Utf8DecodingException.class)
+    public void testIncompleteFinalFragment() {
+        final Utf8Decoder decoder = new Utf8Decoder();
+        final TextFrame first = new TextFrame(frame(new byte[]{'a', (byte) 0xE2}, false), null, false, decoder);
+
+        new TextFrame(frame(new byte[]{(byte) 0x82}, true), first.getRemainder(), true, decoder);
+    }
+
+    private static Frame frame(byte[] payload, boolean fin) {
+        return Frame.builder().fin(fin).opcode((byte) 0x01).payloadData(payload).build();
+    }
+}
@@ -452,7 +452,7 @@ public class TyrusRemoteEndpointTest {
         }
     }
 
-    private static class TestContainer extends BaseContainer {
+    static class TestContainer extends BaseContainer {
 
         @Override
         public long getDefaultAsyncSendTimeout() {
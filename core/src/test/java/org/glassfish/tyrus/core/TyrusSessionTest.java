@@ -43,7 +43,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.websocket.DeploymentException;
@@ -56,9 +59,11 @@ import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -471,6 +476,57 @@ public class TyrusSessionTest {
         assertNotNull(session2.getUserProperties().get(test2));
     }
 
+    @Test
+    public void openSessionsViewTest() throws DeploymentException {
+        final TyrusEndpointWrapper.SessionListener sessionListener = new TyrusEndpointWrapper.SessionListener() {
+        };
+        final TyrusEndpointWrapper endpointWrapper =
+                new TyrusEndpointWrapper(EchoEndpoint.class, null, ComponentProviderService.create(), null, "/echo",
+                                         null, sessionListener, null, null, null);
+        final TyrusWebSocket socket1 = new TestRemoteEndpoint();
+        final TyrusWebSocket socket2 = new TestRemoteEndpoint();
+        final TyrusSession session1 =
+                (TyrusSession) endpointWrapper.createSessionForRemoteEndpoint(socket1, null, null, new DebugContext());
+        final TyrusSession session2 =
+                (TyrusSession) endpointWrapper.createSessionForRemoteEndpoint(socket2, null, null, new DebugContext());
+
+        final Collection<Session> view = session1.getOpenSessionsView();
+        assertEquals(2, session1.getOpenSessionCount());
+        assertEquals(2, view.size());
+        assertTrue(view.contains(session1));
+        assertTrue(view.contains(session2));
+        assertEquals(session1.getOpenSessions(), new HashSet<Session>(view));
+
+        endpointWrapper.onClose(socket2, CloseReasons.NORMAL_CLOSURE.getCloseReason());
+
+        // the view is live, it is not a copy.
+        assertEquals(1, session1.getOpenSessionCount());
+        assertEquals(1, view.size());
+        assertFalse(view.contains(session2));
+
+        final Iterator<Session> iterator = view.iterator();
+        assertTrue(iterator.hasNext());
+        assertSame(session1, iterator.next());
+        assertFalse(iterator.hasNext());
+
+        // closed session which is not unregistered yet is counted, but skipped by the iterator.
+        session1.setState(TyrusSession.State.CLOSED);
+        assertEquals(1, view.size());
+        assertFalse(view.contains(session1));
+        assertFalse(view.iterator().hasNext());
+        assertTrue(view.isEmpty());
+
+        endpointWrapper.onClose(socket1, CloseReasons.NORMAL_CLOSURE.getCloseReason());
+        assertEquals(0, session1.getOpenSessionCount());
+        assertTrue(view.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void openSessionsViewUnmodifiableTest() {
+        final TyrusSession session = createSession(endpointWrapper);
+        session.getOpenSessionsView().add(session);
+    }
+
     private TyrusSession createSession(TyrusEndpointWrapper endpointWrapper) {
         return new TyrusSession(null, new TestRemoteEndpoint(), endpointWrapper, null, null, false, null, null, null,
                                 null, new HashMap<String, List<String>>(), null, null, null, new DebugContext());
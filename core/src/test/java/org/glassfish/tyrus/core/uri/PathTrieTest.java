@@ -0,0 +1,164 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core.uri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.core.ComponentProviderService;
+import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that {@link PathTrie} finds the same matches in the same order as {@link Match#getAllMatches(String, Set,
+ * DebugContext)}.
+ */
+public class PathTrieTest {
+
+    private static final String[] ENDPOINT_PATHS = {
+            "/a", "/{var1}", "/a/b", "/{var1}/b", "/a/{var2}", "/a/b/c", "/a/{var2}/{var3}", "/a/{var2}/c",
+            "/{var1}/d", "/b/{var2}", "/{var1}/{var2}/{var3}", "/{x}/b/{z}", "/a/b/c/", "/%7Bx%7D/c", "/a%20b/{c}"
+    };
+
+    private static final String[] REQUEST_PATHS = {
+            "/a", "/b", "/", "/a/b", "/a/c", "/x/b", "/b/d", "/x/d", "/a/b/c", "/a/d/c", "/a/x/y", "/x/b/c",
+            "/x/y/z", "/a/b/c/", "/a/b/c/d", "/%7Bx%7D/c", "/x/c", "/a%20b/c", "/a b/c", "/a/%62/c", ""
+    };
+
+    @Test
+    public void testSameMatchesAsMatch() throws DeploymentException {
+        final Set<TyrusEndpointWrapper> endpoints = new HashSet<TyrusEndpointWrapper>();
+        final PathTrie pathTrie = new PathTrie();
+        for (String path : ENDPOINT_PATHS) {
+            final TestWebSocketEndpoint endpoint = new TestWebSocketEndpoint(path);
+            endpoints.add(endpoint);
+            pathTrie.add(endpoint);
+        }
+
+        for (String requestPath : REQUEST_PATHS) {
+            final List<Match> expected = Match.getAllMatches(requestPath, endpoints, new DebugContext());
+            final List<Match> actual = pathTrie.getAllMatches(requestPath, new DebugContext());
+
+            assertEquals("Wrong matches for " + requestPath, describe(expected), describe(actual));
+        }
+    }
+
+    @Test
+    public void testPathParameters() throws DeploymentException {
+        final PathTrie pathTrie = new PathTrie();
+        pathTrie.add(new TestWebSocketEndpoint("/chat/{room}/{user}"));
+
+        final List<Match> matches = pathTrie.getAllMatches("/chat/main%20room/joe", new DebugContext());
+
+        assertEquals(1, matches.size());
+        final Map<String, String> parameters = matches.get(0).getParameters();
+        assertEquals(2, parameters.size());
+        assertEquals("main room", parameters.get("room"));
+        assertEquals("joe", parameters.get("user"));
+    }
+
+    @Test
+    public void testRemove() throws DeploymentException {
+        final PathTrie pathTrie = new PathTrie();
+        final TestWebSocketEndpoint literal = new TestWebSocketEndpoint("/a/b");
+        final TestWebSocketEndpoint template = new TestWebSocketEndpoint("/a/{b}");
+        pathTrie.add(literal);
+        pathTrie.add(template);
+
+        assertEquals(Arrays.asList("/a/b", "/a/{b} {b=b}"), describe(pathTrie.getAllMatches("/a/b", new DebugContext())));
+
+        assertTrue(pathTrie.remove(literal));
+        assertFalse(pathTrie.remove(literal));
+        assertFalse(pathTrie.remove(new TestWebSocketEndpoint("/a/{b}")));
+        assertEquals(Arrays.asList("/a/{b} {b=b}"), describe(pathTrie.getAllMatches("/a/b", new DebugContext())));
+
+        assertTrue(pathTrie.remove(template));
+        assertTrue(pathTrie.getAllMatches("/a/b", new DebugContext()).isEmpty());
+
+        pathTrie.add(literal);
+        assertEquals(Arrays.asList("/a/b"), describe(pathTrie.getAllMatches("/a/b", new DebugContext())));
+    }
+
+    private static List<String> describe(List<Match> matches) {
+        final List<String> result = new ArrayList<String>();
+        for (Match match : matches) {
+            final String path = match.getEndpointWrapper().getEndpointPath();
+            result.add(match.getParameters().isEmpty() ? path : path + " " + match.getParameters());
+        }
+        return result;
+    }
+
+    private static class TestWebSocketEndpoint extends TyrusEndpointWrapper {
+
+        private final String path;
+
+        private TestWebSocketEndpoint(String path) throws DeploymentException {
+            super(TestEndpoint.class, null, ComponentProviderService.createClient(), null, null, null, null, null,
+                  null, null);
+            this.path = path;
+        }
+
+        @Override
+        public String getEndpointPath() {
+            return path;
+        }
+
+        public static class TestEndpoint extends Endpoint {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+
+            }
+        }
+    }
+}
@@ -44,6 +44,8 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,7 +53,8 @@ import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
-import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.TyrusExtension;
+import org.glassfish.tyrus.core.extension.ShareableOutgoingExtension;
 import org.glassfish.tyrus.core.frame.Frame;
 
 /**
@@ -60,14 +63,19 @@ import org.glassfish.tyrus.core.frame.Frame;
  * http://tools.ietf.org/html/draft-ietf-hybi-permessage-compression-15
  * <p/>
  * <p/>
+ * Server side supports "server_no_context_takeover" parameter - when requested by the client or when the extension
+ * is created with {@code serverNoContextTakeover} set to {@code true}, every outgoing message is compressed
+ * independently on previously sent messages. Such connections do not keep their own compressor and a message
+ * broadcasted to many of them is compressed only once (see {@link ShareableOutgoingExtension}).
+ * <p/>
  * <pre>TODO:
- * - parameters (window sizes, context takeovers).
+ * - parameters (window sizes, client context takeover).
  * - context (some utility methods to get the typed params - T getParam(Class<T>))
  * </pre>
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
-public class PerMessageDeflateExtension implements ExtendedExtension {
+public class PerMessageDeflateExtension implements ShareableOutgoingExtension {
 
     private static final Pool<byte[]> BYTE_ARRAY_POOL = new Pool<byte[]>() {
         @Override
@@ -76,14 +84,46 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
         }
     };
 
+    private static final DeflaterPool DEFLATER_POOL =
+            new DeflaterPool(Runtime.getRuntime().availableProcessors() * 2);
+
     private static final String INFLATER = PerMessageDeflateExtension.class.getName() + ".INFLATER";
     private static final String DEFLATER = PerMessageDeflateExtension.class.getName() + ".DEFLATER";
+    private static final String NO_CONTEXT_TAKEOVER =
+            PerMessageDeflateExtension.class.getName() + ".NO_CONTEXT_TAKEOVER";
+
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+
+    /**
+     * Outgoing processing key of connections without context takeover; all of them use the same compressor settings.
+     */
+    private static final String NO_CONTEXT_TAKEOVER_KEY = "permessage-deflate; server_no_context_takeover";
 
     private static final Logger LOGGER = Logger.getLogger(PerMessageDeflateExtension.class.getName());
     private static final boolean DEBUG = LOGGER.isLoggable(Level.FINE);
 
     private static final byte[] TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
 
+    private final boolean serverNoContextTakeover;
+
+    /**
+     * Create new extension; server side uses context takeover unless the client requests otherwise.
+     */
+    public PerMessageDeflateExtension() {
+        this(false);
+    }
+
+    /**
+     * Create new extension.
+     *
+     * @param serverNoContextTakeover {@code true} when the server side should compress every message independently
+     *                                (without context takeover). On the client side, "server_no_context_takeover" is
+     *                                requested from the server.
+     */
+    public PerMessageDeflateExtension(boolean serverNoContextTakeover) {
+        this.serverNoContextTakeover = serverNoContextTakeover;
+    }
+
     @Override
     public Frame processIncoming(ExtensionContext context, Frame frame) {
         final Inflater decompresser = (Inflater) context.getProperties().get(INFLATER);
@@ -160,82 +200,120 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
 
     @Override
     public Frame processOutgoing(ExtensionContext context, Frame frame) {
-        final Deflater compresser = (Deflater) context.getProperties().get(DEFLATER);
-
         if (DEBUG) {
             LOGGER.fine("Outgoing frame: " + frame);
         }
 
-        if (!frame.isControlFrame()) {
+        if (frame.isControlFrame()) {
+            return frame;
+        }
 
-            List<PartialResultWithLength<byte[]>> wholeResult = new ArrayList<PartialResultWithLength<byte[]>>();
-            int wholeResultLength = 0;
+        final Deflater compresser = (Deflater) context.getProperties().get(DEFLATER);
+        if (compresser != null) {
+            return compress(compresser, frame);
+        }
 
-            // Compress the bytes
-            final int payloadLength = (int) frame.getPayloadLength();
-            compresser.setInput(frame.getPayloadData(), 0, payloadLength);
+        // no context takeover - the frame is compressed independently on previously sent frames.
+        final Deflater pooled = DEFLATER_POOL.take();
+        try {
+            return compress(pooled, frame);
+        } finally {
+            DEFLATER_POOL.recycle(pooled);
+        }
+    }
 
-            int compressedDataLength;
-            do {
-                byte[] output = BYTE_ARRAY_POOL.take();
-                compressedDataLength = compresser.deflate(output, 0, output.length, Deflater.SYNC_FLUSH);
+    private Frame compress(Deflater compresser, Frame frame) {
+        List<PartialResultWithLength<byte[]>> wholeResult = new ArrayList<PartialResultWithLength<byte[]>>();
+        int wholeResultLength = 0;
 
-                if (compressedDataLength > 0) {
-                    wholeResult.add(new PartialResultWithLength<byte[]>(compressedDataLength, output));
-                    wholeResultLength += compressedDataLength;
-                } else {
-                    BYTE_ARRAY_POOL.recycle(output);
-                }
-            } while (compressedDataLength > 0);
+        // Compress the bytes
+        final int payloadLength = (int) frame.getPayloadLength();
+        compresser.setInput(frame.getPayloadData(), 0, payloadLength);
 
-            byte[] completeResult = new byte[wholeResultLength];
-            wholeResultLength = 0;
-            for (PartialResultWithLength<byte[]> partialResult : wholeResult) {
-                int tmp = partialResult.getLength();
-                final byte[] result = partialResult.getResult();
-                System.arraycopy(result, 0, completeResult, wholeResultLength, tmp);
-                BYTE_ARRAY_POOL.recycle(result);
-                wholeResultLength += tmp;
-            }
+        int compressedDataLength;
+        do {
+            byte[] output = BYTE_ARRAY_POOL.take();
+            compressedDataLength = compresser.deflate(output, 0, output.length, Deflater.SYNC_FLUSH);
 
-            boolean strip = false;
-            if (completeResult.length >= 4
-                    && completeResult[completeResult.length - 4] == TAIL[0]
-                    && completeResult[completeResult.length - 3] == TAIL[1]
-                    && completeResult[completeResult.length - 2] == TAIL[2]
-                    && completeResult[completeResult.length - 1] == TAIL[3]) {
-                strip = true;
+            if (compressedDataLength > 0) {
+                wholeResult.add(new PartialResultWithLength<byte[]>(compressedDataLength, output));
+                wholeResultLength += compressedDataLength;
+            } else {
+                BYTE_ARRAY_POOL.recycle(output);
             }
+        } while (compressedDataLength > 0);
+
+        byte[] completeResult = new byte[wholeResultLength];
+        wholeResultLength = 0;
+        for (PartialResultWithLength<byte[]> partialResult : wholeResult) {
+            int tmp = partialResult.getLength();
+            final byte[] result = partialResult.getResult();
+            System.arraycopy(result, 0, completeResult, wholeResultLength, tmp);
+            BYTE_ARRAY_POOL.recycle(result);
+            wholeResultLength += tmp;
+        }
 
-            return Frame.builder(frame)
-                        .payloadData(completeResult)
-                        .payloadLength(strip ? completeResult.length - 4 : completeResult.length)
-                        .rsv1(true).build();
-        } else {
-            return frame;
+        boolean strip = false;
+        if (completeResult.length >= 4
+                && completeResult[completeResult.length - 4] == TAIL[0]
+                && completeResult[completeResult.length - 3] == TAIL[1]
+                && completeResult[completeResult.length - 2] == TAIL[2]
+                && completeResult[completeResult.length - 1] == TAIL[3]) {
+            strip = true;
         }
+
+        return Frame.builder(frame)
+                    .payloadData(completeResult)
+                    .payloadLength(strip ? completeResult.length - 4 : completeResult.length)
+                    .rsv1(true).build();
     }
 
-    private void init(ExtensionContext context) {
+    private static Deflater createDeflater() {
         // TODO: configurable compression level
         Deflater compresser = new Deflater(9, true);
-        Inflater decompresser = new Inflater(true);
-
         compresser.setStrategy(Deflater.DEFAULT_STRATEGY);
+        return compresser;
+    }
+
+    private void init(ExtensionContext context, boolean noContextTakeover) {
+        context.getProperties().put(INFLATER, new Inflater(true));
 
-        context.getProperties().put(INFLATER, decompresser);
-        context.getProperties().put(DEFLATER, compresser);
+        if (noContextTakeover) {
+            context.getProperties().put(NO_CONTEXT_TAKEOVER, Boolean.TRUE);
+        } else {
+            context.getProperties().put(DEFLATER, createDeflater());
+        }
     }
 
     @Override
     public List<Parameter> onExtensionNegotiation(ExtensionContext context, List<Parameter> requestedParameters) {
-        init(context);
+        boolean noContextTakeover = serverNoContextTakeover;
+        if (requestedParameters != null) {
+            for (Parameter parameter : requestedParameters) {
+                if (SERVER_NO_CONTEXT_TAKEOVER.equals(parameter.getName())) {
+                    noContextTakeover = true;
+                }
+            }
+        }
+
+        init(context, noContextTakeover);
+
+        if (noContextTakeover) {
+            return Collections.<Parameter>singletonList(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER,
+                                                                                          null));
+        }
         return Collections.<Parameter>emptyList();
     }
 
     @Override
     public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
-        init(context);
+        // client side compresses always with context takeover.
+        init(context, false);
+    }
+
+    @Override
+    public Object getOutgoingProcessingKey(ExtensionContext context) {
+        return context.getProperties().get(NO_CONTEXT_TAKEOVER) != null ? NO_CONTEXT_TAKEOVER_KEY : null;
     }
 
     @Override
@@ -245,6 +323,7 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
 
         context.getProperties().remove(DEFLATER);
         context.getProperties().remove(INFLATER);
+        context.getProperties().remove(NO_CONTEXT_TAKEOVER);
 
         if (decompresser != null) {
             decompresser.end();
@@ -262,6 +341,10 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
 
     @Override
     public List<Parameter> getParameters() {
+        if (serverNoContextTakeover) {
+            return Collections.<Parameter>singletonList(new TyrusExtension.TyrusParameter(SERVER_NO_CONTEXT_TAKEOVER,
+                                                                                          null));
+        }
         return Collections.<Parameter>emptyList();
     }
 
@@ -324,6 +407,51 @@ public class PerMessageDeflateExtension implements ExtendedExtension {
         }
     }
 
+    /**
+     * Bounded pool of deflaters used for compression without context takeover.
+     * <p/>
+     * Deflater holds native memory which is released only by {@link Deflater#end()}, so the pooled instances are
+     * strongly referenced and the ones which do not fit into the pool are ended right away.
+     */
+    static class DeflaterPool {
+
+        private final BlockingQueue<Deflater> queue;
+
+        /**
+         * Create pool.
+         *
+         * @param capacity maximal number of pooled deflaters.
+         */
+        DeflaterPool(int capacity) {
+            this.queue = new ArrayBlockingQueue<Deflater>(capacity);
+        }
+
+        /**
+         * Gets a deflater from the pool or creates a new one if the pool is empty.
+         *
+         * @return always non-null.
+         */
+        Deflater take() {
+            final Deflater deflater = queue.poll();
+            if (deflater == null) {
+                return createDeflater();
+            }
+            return deflater;
+        }
+
+        /**
+         * Resets the deflater and returns it back to the pool, ends it if the pool is full.
+         *
+         * @param deflater deflater to be recycled.
+         */
+        void recycle(Deflater deflater) {
+            deflater.reset();
+            if (!queue.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
     private static class PartialResultWithLength<T> {
         private final int length;
         private final T result;
@@ -51,6 +51,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 
 import javax.websocket.ClientEndpointConfig;
 import javax.websocket.DeploymentException;
@@ -63,12 +65,17 @@ import javax.websocket.Session;
 import javax.websocket.server.ServerEndpointConfig;
 
 import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.TyrusSession;
+import org.glassfish.tyrus.core.frame.Frame;
 import org.glassfish.tyrus.server.Server;
 import org.glassfish.tyrus.server.TyrusServerConfiguration;
 import org.glassfish.tyrus.test.tools.TestContainer;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Pavel Bucek (pavel.bucek at oracle.com)
@@ -90,6 +97,54 @@ public class PerMessageDeflateExtensionTest extends TestContainer {
         }
     }
 
+    public static class BroadcastApplicationConfig extends TyrusServerConfiguration {
+        public BroadcastApplicationConfig() {
+            super(Collections.<Class<?>>emptySet(), new HashSet<ServerEndpointConfig>() {
+                {
+                    add(ServerEndpointConfig.Builder.create(BroadcastEndpoint.class, "/compressionBroadcastTest")
+                                                    .extensions(Arrays.<Extension>asList(
+                                                            new CountingDeflateExtension(true)))
+                                                    .build());
+                }
+
+                private static final long serialVersionUID = 5384563451335236528L;
+            });
+        }
+    }
+
+    /**
+     * Counts compressed (outgoing) frames; the instance is shared by all sessions of the endpoint.
+     */
+    public static class CountingDeflateExtension extends PerMessageDeflateExtension {
+
+        private static final AtomicInteger OUTGOING = new AtomicInteger(0);
+
+        public CountingDeflateExtension(boolean serverNoContextTakeover) {
+            super(serverNoContextTakeover);
+        }
+
+        @Override
+        public Frame processOutgoing(ExtensionContext context, Frame frame) {
+            if (!frame.isControlFrame()) {
+                OUTGOING.incrementAndGet();
+            }
+            return super.processOutgoing(context, frame);
+        }
+    }
+
+    public static class BroadcastEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(final Session session, EndpointConfig config) {
+            session.addMessageHandler(new MessageHandler.Whole<String>() {
+                @Override
+                public void onMessage(String message) {
+                    ((TyrusSession) session).broadcast(message);
+                }
+            });
+        }
+    }
+
     public static class EchoEndpoint extends Endpoint {
 
         @Override
@@ -167,6 +222,102 @@ public class PerMessageDeflateExtensionTest extends TestContainer {
 
     }
 
+    @Test
+    public void testNoContextTakeoverBroadcast() throws DeploymentException {
+        Server server = startServer(BroadcastApplicationConfig.class);
+        final int clients = 3;
+        final int messages = 5;
+        final CountDownLatch messageLatch = new CountDownLatch(clients * messages);
+        final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        final List<String> extensionHeaders = Collections.synchronizedList(new ArrayList<String>());
+
+        try {
+            final ClientEndpointConfig clientConfiguration =
+                    ClientEndpointConfig.Builder.create()
+                                                .extensions(Arrays.<Extension>asList(new PerMessageDeflateExtension()))
+                                                .configurator(new ClientEndpointConfig.Configurator() {
+                                                    @Override
+                                                    public void afterResponse(HandshakeResponse hr) {
+                                                        for (Map.Entry<String, List<String>> header
+                                                                : hr.getHeaders().entrySet()) {
+                                                            if ("Sec-WebSocket-Extensions"
+                                                                    .equalsIgnoreCase(header.getKey())) {
+                                                                extensionHeaders.addAll(header.getValue());
+                                                            }
+                                                        }
+                                                    }
+                                                }).build();
+
+            final ClientManager client = ClientManager.createClient();
+            final List<Session> sessions = new ArrayList<Session>();
+            for (int i = 0; i < clients; i++) {
+                sessions.add(client.connectToServer(new Endpoint() {
+                    @Override
+                    public void onOpen(Session session, EndpointConfig config) {
+                        session.addMessageHandler(new MessageHandler.Whole<String>() {
+                            @Override
+                            public void onMessage(String message) {
+                                received.add(message);
+                                messageLatch.countDown();
+                            }
+                        });
+                    }
+                }, clientConfiguration, getURI("/compressionBroadcastTest")));
+            }
+
+            assertEquals(clients, extensionHeaders.size());
+            assertTrue(extensionHeaders.get(0), extensionHeaders.get(0).contains("server_no_context_takeover"));
+
+            CountingDeflateExtension.OUTGOING.set(0);
+            final String message = "Always pass on what you have learned. Always pass on what you have learned.";
+            for (int i = 0; i < messages; i++) {
+                // one message at a time, so the count is not influenced by concurrently processed broadcasts.
+                final int expected = clients * (i + 1);
+                sessions.get(0).getBasicRemote().sendText(message + i);
+                for (int j = 0; j < 50 && received.size() < expected; j++) {
+                    Thread.sleep(20);
+                }
+            }
+
+            assertTrue(messageLatch.await(1, TimeUnit.SECONDS));
+            for (int i = 0; i < messages; i++) {
+                assertEquals(clients, Collections.frequency(received, message + i));
+            }
+
+            // every broadcasted message was compressed only once.
+            assertEquals(messages, CountingDeflateExtension.OUTGOING.get());
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @Test
+    public void testDeflaterPoolEndsRejectedDeflaters() {
+        final PerMessageDeflateExtension.DeflaterPool pool = new PerMessageDeflateExtension.DeflaterPool(1);
+
+        final Deflater first = pool.take();
+        final Deflater second = pool.take();
+        first.setInput(new byte[]{1, 2, 3});
+
+        pool.recycle(first);
+        pool.recycle(second);
+
+        // the first one was reset and pooled.
+        assertSame(first, pool.take());
+        assertEquals(0, first.getTotalIn());
+
+        // the second one did not fit into the pool and was ended.
+        try {
+            second.getTotalIn();
+            fail();
+        } catch (NullPointerException e) {
+            // expected - deflater has been closed.
+        }
+    }
+
     public static class LoggingClientEndpointConfigurator extends ClientEndpointConfig.Configurator {
         @Override
         public void beforeRequest(Map<String, List<String>> headers) {
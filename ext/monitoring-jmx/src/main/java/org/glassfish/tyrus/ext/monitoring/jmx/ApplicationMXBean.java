@@ -79,6 +79,14 @@ public interface ApplicationMXBean extends BaseMXBean {
      */
     public int getMaximalOpenSessionsCount();
 
+    /**
+     * Get list of reason - count pairs, which represent sessions refused because of a configured limit, for instance
+     * {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#MAX_SESSIONS_PER_APP}, since the start of monitoring.
+     *
+     * @return list of reason - count pairs of refused sessions.
+     */
+    public List<RejectedSessionCount> getRejectedSessionCounts();
+
     /**
      * Get list of MXBeans representing registered endpoints.
      *
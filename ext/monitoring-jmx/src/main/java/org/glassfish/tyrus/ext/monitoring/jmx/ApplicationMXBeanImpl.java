@@ -57,12 +57,15 @@ class ApplicationMXBeanImpl extends BaseMXBeanImpl implements ApplicationMXBean,
             new ConcurrentHashMap<String, EndpointMXBean>();
     private final Callable<Integer> openSessionsCount;
     private final Callable<Integer> maxOpenSessionsCount;
+    private final Callable<List<RejectedSessionCount>> rejectedSessionCounts;
 
     public ApplicationMXBeanImpl(MessageStatisticsSource sentMessageStatistics,
                                  MessageStatisticsSource receivedMessageStatistics,
                                  Callable<List<EndpointClassNamePathPair>> endpoints,
                                  Callable<List<String>> endpointPaths, Callable<Integer> openSessionsCount,
-                                 Callable<Integer> maxOpenSessionsCount, Callable<List<ErrorCount>> errorCounts,
+                                 Callable<Integer> maxOpenSessionsCount,
+                                 Callable<List<RejectedSessionCount>> rejectedSessionCounts,
+                                 Callable<List<ErrorCount>> errorCounts,
                                  MessageStatisticsMXBean textMessageStatisticsMXBean,
                                  MessageStatisticsMXBean binaryMessageStatisticsMXBean,
                                  MessageStatisticsMXBean controlMessageStatisticsMXBean) {
@@ -72,6 +75,7 @@ class ApplicationMXBeanImpl extends BaseMXBeanImpl implements ApplicationMXBean,
         this.endpointPaths = endpointPaths;
         this.openSessionsCount = openSessionsCount;
         this.maxOpenSessionsCount = maxOpenSessionsCount;
+        this.rejectedSessionCounts = rejectedSessionCounts;
     }
 
     @Override
@@ -99,6 +103,11 @@ class ApplicationMXBeanImpl extends BaseMXBeanImpl implements ApplicationMXBean,
         return maxOpenSessionsCount.call();
     }
 
+    @Override
+    public List<RejectedSessionCount> getRejectedSessionCounts() {
+        return rejectedSessionCounts.call();
+    }
+
     void putEndpointMXBean(String endpointPath, EndpointMXBean endpointMXBean) {
         endpointMXBeans.put(endpointPath, endpointMXBean);
     }
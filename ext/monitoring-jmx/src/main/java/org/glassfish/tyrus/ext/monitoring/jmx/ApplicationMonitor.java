@@ -40,10 +40,14 @@
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener.OnOpenResult;
 
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
@@ -70,6 +74,9 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
     private final AtomicInteger openSessionsCount = new AtomicInteger(0);
     private final Object maxOpenSessionsCountLock = new Object();
     private final boolean monitorOnSessionLevel;
+    // all reasons are added in constructor, the map is not modified afterwards.
+    private final Map<OnOpenResult, AtomicLong> rejectedSessions =
+            new EnumMap<OnOpenResult, AtomicLong>(OnOpenResult.class);
 
     private final ConcurrentMessageStatistics sentTextMessageStatistics = new ConcurrentMessageStatistics();
     private final ConcurrentMessageStatistics sentBinaryMessageStatistics = new ConcurrentMessageStatistics();
@@ -93,6 +100,12 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
      */
     ApplicationMonitor(boolean monitorOnSessionLevel) {
         this.monitorOnSessionLevel = monitorOnSessionLevel;
+
+        for (OnOpenResult reason : OnOpenResult.values()) {
+            if (reason != OnOpenResult.SESSION_ALLOWED) {
+                rejectedSessions.put(reason, new AtomicLong());
+            }
+        }
     }
 
     @Override
@@ -115,7 +128,7 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         applicationMXBean =
                 new ApplicationMXBeanImpl(sentTotalStatistics, receivedTotalStatistics, getEndpoints(),
                                           getEndpointPaths(), getOpenSessionsCount(), getMaxOpenSessionsCount(),
-                                          getErrorCounts(), textMessagesMXBean, binaryMessagesMXBean,
+                                          getRejectedSessionCounts(), getErrorCounts(), textMessagesMXBean, binaryMessagesMXBean,
                                           controlMessagesMXBean);
 
         MBeanPublisher.registerApplicationMXBeans(applicationName, applicationMXBean, textMessagesMXBean,
@@ -148,6 +161,14 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         endpoint.unregister();
     }
 
+    @Override
+    public void onSessionRejected(String endpointPath, OnOpenResult reason) {
+        final AtomicLong counter = rejectedSessions.get(reason);
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+    }
+
     /**
      * Get a {@link Callable} that will provide list of endpoint paths and endpoint
      * class names for currently registered endpoints.
@@ -209,6 +230,24 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
         };
     }
 
+    /**
+     * Get a {@link Callable} that will provide numbers of refused sessions per reason.
+     *
+     * @return {@link Callable} returning list of reason - count pairs of refused sessions.
+     */
+    private Callable<List<RejectedSessionCount>> getRejectedSessionCounts() {
+        return new Callable<List<RejectedSessionCount>>() {
+            @Override
+            public List<RejectedSessionCount> call() {
+                List<RejectedSessionCount> result = new ArrayList<RejectedSessionCount>();
+                for (Map.Entry<OnOpenResult, AtomicLong> entry : rejectedSessions.entrySet()) {
+                    result.add(new RejectedSessionCount(entry.getKey().name(), entry.getValue().get()));
+                }
+                return result;
+            }
+        };
+    }
+
     void onSessionOpened() {
         openSessionsCount.incrementAndGet();
         if (openSessionsCount.get() > maxOpenSessionCount) {
@@ -253,4 +292,14 @@ class ApplicationMonitor extends BaseMonitor implements ApplicationEventListener
     public void onControlMessageReceived(long length) {
         receivedControlMessageStatistics.onMessage(length);
     }
+
+    @Override
+    public void onOutboundQueueChanged(long delta) {
+        // outbound queue is monitored only on endpoint level
+    }
+
+    @Override
+    public void onOutboundOverflow() {
+        // outbound queue is monitored only on endpoint level
+    }
 }
@@ -81,6 +81,22 @@ public interface EndpointMXBean extends BaseMXBean {
      */
     public int getMaximalOpenSessionsCount();
 
+    /**
+     * Get the number of outgoing bytes which were accepted for sending to the sessions of the endpoint, but were not
+     * written yet. Counted only when the outbound byte limit is configured.
+     *
+     * @return the number of pending outgoing bytes.
+     */
+    public long getQueuedOutboundBytes();
+
+    /**
+     * Get the number of times the outbound byte limit was exceeded and the overflow policy was applied since the start
+     * of monitoring.
+     *
+     * @return the number of outbound byte limit overflows.
+     */
+    public long getOutboundOverflowCount();
+
     /**
      * Get list of MXBeans representing currently open sessions. Return an empty list if monitoring is conducted only on
      * endpoint level.
@@ -56,12 +56,15 @@ class EndpointMXBeanImpl extends BaseMXBeanImpl implements EndpointMXBean, Seria
     private final String endpointClassName;
     private final Callable<Integer> openSessionsCount;
     private final Callable<Integer> maxOpenSessionsCount;
+    private final Callable<Long> queuedOutboundBytes;
+    private final Callable<Long> outboundOverflowCount;
     private final Map<String, SessionMXBean> sessionMXBeans = new ConcurrentHashMap<String, SessionMXBean>();
 
     public EndpointMXBeanImpl(
             MessageStatisticsSource sentMessageStatistics, MessageStatisticsSource receivedMessageStatistics,
             String endpointPath, String endpointClassName, Callable<Integer> openSessionsCount,
-            Callable<Integer> maxOpenSessionsCount, Callable<List<ErrorCount>> errorCounts,
+            Callable<Integer> maxOpenSessionsCount, Callable<Long> queuedOutboundBytes,
+            Callable<Long> outboundOverflowCount, Callable<List<ErrorCount>> errorCounts,
             MessageStatisticsMXBean textMessageStatisticsMXBean, MessageStatisticsMXBean binaryMessageStatisticsMXBean,
             MessageStatisticsMXBean controlMessageStatisticsMXBean) {
         super(sentMessageStatistics, receivedMessageStatistics, errorCounts, textMessageStatisticsMXBean,
@@ -70,6 +73,8 @@ class EndpointMXBeanImpl extends BaseMXBeanImpl implements EndpointMXBean, Seria
         this.endpointClassName = endpointClassName;
         this.openSessionsCount = openSessionsCount;
         this.maxOpenSessionsCount = maxOpenSessionsCount;
+        this.queuedOutboundBytes = queuedOutboundBytes;
+        this.outboundOverflowCount = outboundOverflowCount;
     }
 
     @Override
@@ -92,6 +97,16 @@ class EndpointMXBeanImpl extends BaseMXBeanImpl implements EndpointMXBean, Seria
         return maxOpenSessionsCount.call();
     }
 
+    @Override
+    public long getQueuedOutboundBytes() {
+        return queuedOutboundBytes.call();
+    }
+
+    @Override
+    public long getOutboundOverflowCount() {
+        return outboundOverflowCount.call();
+    }
+
     @Override
     public List<SessionMXBean> getSessionMXBeans() {
         return new ArrayList<SessionMXBean>(sessionMXBeans.values());
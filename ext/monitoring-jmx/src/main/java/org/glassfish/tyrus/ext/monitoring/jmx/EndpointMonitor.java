@@ -39,6 +39,8 @@
  */
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
 
 /**
@@ -68,6 +70,9 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
     private final ConcurrentMessageStatistics receivedBinaryMessageStatistics = new ConcurrentMessageStatistics();
     private final ConcurrentMessageStatistics receivedControlMessageStatistics = new ConcurrentMessageStatistics();
 
+    private final AtomicLong queuedOutboundBytes = new AtomicLong(0);
+    private final AtomicLong outboundOverflowCount = new AtomicLong(0);
+
     protected volatile int maxOpenSessionsCount = 0;
 
     EndpointMonitor(ApplicationMonitor applicationMonitor, ApplicationMXBeanImpl applicationMXBean,
@@ -92,8 +97,9 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
                                                 receivedControlMessageStatistics);
         endpointMXBean =
                 new EndpointMXBeanImpl(sentTotalStatistics, receivedTotalStatistics, endpointPath, endpointClassName,
-                                       getOpenSessionsCount(), getMaxOpenSessionsCount(), getErrorCounts(),
-                                       textMessagesMXBean, binaryMessagesMXBean, controlMessagesMXBean);
+                                       getOpenSessionsCount(), getMaxOpenSessionsCount(), getQueuedOutboundBytes(),
+                                       getOutboundOverflowCount(), getErrorCounts(), textMessagesMXBean,
+                                       binaryMessagesMXBean, controlMessagesMXBean);
 
         MBeanPublisher.registerEndpointMXBeans(applicationName, endpointPath, endpointMXBean, textMessagesMXBean,
                                                binaryMessagesMXBean, controlMessagesMXBean);
@@ -132,6 +138,34 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
         };
     }
 
+    /**
+     * Get a {@link Callable} that will provide current number of outgoing bytes which were not written yet.
+     *
+     * @return {@link Callable} returning number of pending outgoing bytes of all sessions of this endpoint.
+     */
+    private Callable<Long> getQueuedOutboundBytes() {
+        return new Callable<Long>() {
+            @Override
+            public Long call() {
+                return queuedOutboundBytes.get();
+            }
+        };
+    }
+
+    /**
+     * Get a {@link Callable} that will provide number of outbound byte limit overflows since the start of monitoring.
+     *
+     * @return {@link Callable} returning number of applied overflow policies.
+     */
+    private Callable<Long> getOutboundOverflowCount() {
+        return new Callable<Long>() {
+            @Override
+            public Long call() {
+                return outboundOverflowCount.get();
+            }
+        };
+    }
+
     @Override
     public void onTextMessageSent(long length) {
         sentTextMessageStatistics.onMessage(length);
@@ -167,4 +201,14 @@ abstract class EndpointMonitor extends BaseMonitor implements EndpointEventListe
         receivedControlMessageStatistics.onMessage(length);
         applicationMonitor.onControlMessageReceived(length);
     }
+
+    @Override
+    public void onOutboundQueueChanged(long delta) {
+        queuedOutboundBytes.addAndGet(delta);
+    }
+
+    @Override
+    public void onOutboundOverflow() {
+        outboundOverflowCount.incrementAndGet();
+    }
 }
@@ -39,6 +39,7 @@
  */
 package org.glassfish.tyrus.ext.monitoring.jmx;
 
+import org.glassfish.tyrus.core.OutboundOverflowPolicy;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
 
@@ -80,4 +81,14 @@ class MessageEventListenerImpl implements MessageEventListener {
             messageListener.onControlMessageReceived(payloadLength);
         }
     }
+
+    @Override
+    public void onOutboundQueueChanged(long delta) {
+        messageListener.onOutboundQueueChanged(delta);
+    }
+
+    @Override
+    public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+        messageListener.onOutboundOverflow();
+    }
 }
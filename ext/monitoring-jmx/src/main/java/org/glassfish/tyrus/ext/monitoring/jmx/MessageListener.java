@@ -58,4 +58,8 @@ interface MessageListener {
     void onBinaryMessageReceived(long length);
 
     void onControlMessageReceived(long length);
+
+    void onOutboundQueueChanged(long delta);
+
+    void onOutboundOverflow();
 }
@@ -137,6 +137,16 @@ class SessionMonitor extends BaseMonitor implements MessageListener {
         messageListener.onControlMessageReceived(length);
     }
 
+    @Override
+    public void onOutboundQueueChanged(long delta) {
+        messageListener.onOutboundQueueChanged(delta);
+    }
+
+    @Override
+    public void onOutboundOverflow() {
+        messageListener.onOutboundOverflow();
+    }
+
     private static class MessageStatistics implements MessageStatisticsSource {
 
         /*
@@ -41,6 +41,8 @@ package org.glassfish.tyrus.ext.monitoring.jmx;
 
 import java.util.concurrent.CountDownLatch;
 
+import org.glassfish.tyrus.core.OutboundOverflowPolicy;
+import org.glassfish.tyrus.core.TyrusEndpointWrapper;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
@@ -104,6 +106,11 @@ class TestApplicationEventListener implements ApplicationEventListener {
         applicationEventListener.onEndpointUnregistered(endpointPath);
     }
 
+    @Override
+    public void onSessionRejected(String endpointPath, TyrusEndpointWrapper.SessionListener.OnOpenResult reason) {
+        applicationEventListener.onSessionRejected(endpointPath, reason);
+    }
+
     private class TestEndpointEventListener implements EndpointEventListener {
 
         private final EndpointEventListener endpointEventListener;
@@ -180,5 +187,15 @@ class TestApplicationEventListener implements ApplicationEventListener {
                 messageReceivedLatch.countDown();
             }
         }
+
+        @Override
+        public void onOutboundQueueChanged(long delta) {
+            messageEventListener.onOutboundQueueChanged(delta);
+        }
+
+        @Override
+        public void onOutboundOverflow(OutboundOverflowPolicy policy) {
+            messageEventListener.onOutboundOverflow(policy);
+        }
     }
 }
@@ -47,8 +47,10 @@ import javax.websocket.HandshakeResponse;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
 
+import org.glassfish.tyrus.core.CacheableNegotiation;
 import org.glassfish.tyrus.core.ComponentProviderService;
 import org.glassfish.tyrus.core.extension.ExtendedExtension;
+import org.glassfish.tyrus.core.extension.ShareableOutgoingExtension;
 import org.glassfish.tyrus.core.frame.Frame;
 
 /**
@@ -56,7 +58,7 @@ import org.glassfish.tyrus.core.frame.Frame;
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
-public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Configurator {
+public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Configurator implements CacheableNegotiation {
 
     private final ComponentProviderService componentProviderService;
 
@@ -108,53 +110,12 @@ public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Config
                         }
 
                         if (!alreadyAdded) {
-                            if (extension instanceof ExtendedExtension) {
-                                final ExtendedExtension extendedExtension = (ExtendedExtension) extension;
-                                result.add(new ExtendedExtension() {
-                                    @Override
-                                    public Frame processIncoming(ExtensionContext context, Frame frame) {
-                                        return extendedExtension.processIncoming(context, frame);
-                                    }
-
-                                    @Override
-                                    public Frame processOutgoing(ExtensionContext context, Frame frame) {
-                                        return extendedExtension.processOutgoing(context, frame);
-                                    }
-
-                                    /**
-                                     * {@inheritDoc}
-                                     * <p/>
-                                     * Please note the TODO. {@link
-                                     * ExtendedExtension#onExtensionNegotiation(ExtensionContext, List)}
-                                     */
-                                    @Override
-                                    public List<Parameter> onExtensionNegotiation(ExtensionContext context,
-                                                                                  List<Parameter> requestedParameters) {
-                                        return extendedExtension
-                                                .onExtensionNegotiation(context, requestedExtension.getParameters());
-                                    }
-
-                                    @Override
-                                    public void onHandshakeResponse(ExtensionContext context,
-                                                                    List<Parameter> responseParameters) {
-                                        extendedExtension.onHandshakeResponse(context, responseParameters);
-                                    }
-
-                                    @Override
-                                    public void destroy(ExtensionContext context) {
-                                        extendedExtension.destroy(context);
-                                    }
-
-                                    @Override
-                                    public String getName() {
-                                        return name;
-                                    }
-
-                                    @Override
-                                    public List<Parameter> getParameters() {
-                                        return extendedExtension.getParameters();
-                                    }
-                                });
+                            if (extension instanceof ShareableOutgoingExtension) {
+                                result.add(new ShareableNegotiatedExtension((ShareableOutgoingExtension) extension,
+                                                                            requestedExtension.getParameters()));
+                            } else if (extension instanceof ExtendedExtension) {
+                                result.add(new NegotiatedExtension((ExtendedExtension) extension,
+                                                                   requestedExtension.getParameters()));
                             } else {
                                 result.add(requestedExtension);
                             }
@@ -181,4 +142,81 @@ public class TyrusServerEndpointConfigurator extends ServerEndpointConfig.Config
         //noinspection unchecked
         return (T) componentProviderService.getEndpointInstance(endpointClass);
     }
+
+    /**
+     * Negotiated {@link ExtendedExtension}, which passes parameters requested by the client to {@link
+     * ExtendedExtension#onExtensionNegotiation(ExtensionContext, List)}.
+     */
+    private static class NegotiatedExtension implements ExtendedExtension {
+
+        private final ExtendedExtension extendedExtension;
+        private final List<Parameter> requestedParameters;
+
+        NegotiatedExtension(ExtendedExtension extendedExtension, List<Parameter> requestedParameters) {
+            this.extendedExtension = extendedExtension;
+            this.requestedParameters = requestedParameters;
+        }
+
+        @Override
+        public Frame processIncoming(ExtensionContext context, Frame frame) {
+            return extendedExtension.processIncoming(context, frame);
+        }
+
+        @Override
+        public Frame processOutgoing(ExtensionContext context, Frame frame) {
+            return extendedExtension.processOutgoing(context, frame);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * Please note the TODO. {@link
+         * ExtendedExtension#onExtensionNegotiation(ExtensionContext, List)}
+         */
+        @Override
+        public List<Parameter> onExtensionNegotiation(ExtensionContext context,
+                                                      List<Parameter> requestedParameters) {
+            return extendedExtension.onExtensionNegotiation(context, this.requestedParameters);
+        }
+
+        @Override
+        public void onHandshakeResponse(ExtensionContext context, List<Parameter> responseParameters) {
+            extendedExtension.onHandshakeResponse(context, responseParameters);
+        }
+
+        @Override
+        public void destroy(ExtensionContext context) {
+            extendedExtension.destroy(context);
+        }
+
+        @Override
+        public String getName() {
+            return extendedExtension.getName();
+        }
+
+        @Override
+        public List<Parameter> getParameters() {
+            return extendedExtension.getParameters();
+        }
+    }
+
+    /**
+     * Negotiated {@link ShareableOutgoingExtension}.
+     */
+    private static class ShareableNegotiatedExtension extends NegotiatedExtension
+            implements ShareableOutgoingExtension {
+
+        private final ShareableOutgoingExtension shareableExtension;
+
+        ShareableNegotiatedExtension(ShareableOutgoingExtension shareableExtension,
+                                     List<Parameter> requestedParameters) {
+            super(shareableExtension, requestedParameters);
+            this.shareableExtension = shareableExtension;
+        }
+
+        @Override
+        public Object getOutgoingProcessingKey(ExtensionContext context) {
+            return shareableExtension.getOutgoingProcessingKey(context);
+        }
+    }
 }
@@ -65,4 +65,59 @@ public abstract class Writer implements Closeable {
      * @param completionHandler completion handler to know the write status.
      */
     public abstract void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler);
+
+    /**
+     * Tyrus runtime calls this method to handover data split into more buffers (typically frame header and frame
+     * payload) to the transport. The transport writes all bytes from all buffers in given order to underlying
+     * connection, ideally using single gathering write operation. Tyrus runtime must not use any of the buffers until
+     * the write is completed.
+     * <p/>
+     * Default implementation copies all buffers into one and delegates to {@link #write(ByteBuffer,
+     * CompletionHandler)}. Transports capable of gathering writes should override this method.
+     *
+     * @param buffers           bytes to write.
+     * @param completionHandler completion handler to know the write status.
+     */
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+
+        final ByteBuffer joined = ByteBuffer.allocate(length);
+        for (ByteBuffer buffer : buffers) {
+            joined.put(buffer);
+        }
+        joined.flip();
+
+        write(joined, new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void cancelled() {
+                if (completionHandler != null) {
+                    completionHandler.cancelled();
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                if (completionHandler != null) {
+                    completionHandler.failed(throwable);
+                }
+            }
+
+            @Override
+            public void completed(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.completed(buffers);
+                }
+            }
+
+            @Override
+            public void updated(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.updated(buffers);
+                }
+            }
+        });
+    }
 }
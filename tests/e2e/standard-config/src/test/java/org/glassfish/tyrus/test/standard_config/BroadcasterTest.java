@@ -55,6 +55,7 @@ import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
 import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.BroadcastResult;
 import org.glassfish.tyrus.core.TyrusSession;
 import org.glassfish.tyrus.server.Server;
 import org.glassfish.tyrus.test.tools.TestContainer;
@@ -148,6 +149,44 @@ public class BroadcasterTest extends TestContainer {
         }
     }
 
+    @Test
+    public void testTyrusAsyncBroadcaster() throws DeploymentException {
+        final CountDownLatch messageLatch = new CountDownLatch(2);
+        Server server = startServer(TyrusAsyncBroadcasterTestEndpoint.class);
+
+        try {
+            final TEndpointAdapter ea1 = new TEndpointAdapter(messageLatch);
+            final TEndpointAdapter ea2 = new TEndpointAdapter(messageLatch);
+
+            final ClientManager client1 = createClient();
+            client1.connectToServer(ea1, cec, getURI(TyrusAsyncBroadcasterTestEndpoint.class));
+            final ClientManager client2 = createClient();
+            client2.connectToServer(ea2, cec, getURI(TyrusAsyncBroadcasterTestEndpoint.class));
+
+            synchronized (ea1) {
+                if (ea1.peer == null) {
+                    ea1.wait();
+                }
+            }
+
+            synchronized (ea2) {
+                if (ea2.peer == null) {
+                    ea2.wait();
+                }
+            }
+
+            ea1.peer.sendText(SENT_MESSAGE);
+
+            assertTrue("Timeout reached. Message latch value: " + messageLatch.getCount(),
+                       messageLatch.await(5, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
     private static class TEndpointAdapter extends TestEndpointAdapter {
         private final CountDownLatch messageLatch;
         public RemoteEndpoint.Basic peer;
@@ -203,4 +242,18 @@ public class BroadcasterTest extends TestContainer {
             ((TyrusSession) session).broadcast(message);
         }
     }
+
+    @ServerEndpoint(value = "/tyrus-async-broadcast")
+    public static class TyrusAsyncBroadcasterTestEndpoint {
+
+        @OnMessage
+        public void message(String message, Session session) throws Exception {
+            final BroadcastResult result = ((TyrusSession) session).broadcastAsync(message);
+            result.get(5, TimeUnit.SECONDS);
+
+            if (result.getSucceeded() != 2 || result.getFailed() != 0) {
+                throw new IllegalStateException("Unexpected broadcast result: " + result);
+            }
+        }
+    }
 }
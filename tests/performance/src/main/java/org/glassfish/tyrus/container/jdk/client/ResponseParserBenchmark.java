@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2014-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.core.TyrusUpgradeResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of an upgrade response by {@link HttpResponseParser}, as done by the JDK client for every new connection.
+ * <p/>
+ * The response arrives in {@code parts} buffers, followed by the first frame sent by the server. Score is the number
+ * of parsed responses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParserBenchmark {
+
+    private static final String RESPONSE = "HTTP/1.1 101 Switching Protocols\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo=\r\n"
+            + "Sec-WebSocket-Protocol: chat\r\n"
+            + "Server: Grizzly 2.3.22\r\n"
+            + "Date: Sat, 17 Oct 2026 10:00:00 GMT\r\n"
+            + "\r\n";
+
+    @Param({"1", "4"})
+    private int parts;
+
+    private ByteBuffer[] buffers;
+
+    @Setup
+    public void setup() {
+        final byte[] response = RESPONSE.getBytes(StandardCharsets.ISO_8859_1);
+        final byte[] data = new byte[response.length + 4];
+        System.arraycopy(response, 0, data, 0, response.length);
+        // text frame "hi" sent by the server right after the response.
+        data[response.length] = (byte) 0x81;
+        data[response.length + 1] = 0x02;
+        data[response.length + 2] = 'h';
+        data[response.length + 3] = 'i';
+
+        buffers = new ByteBuffer[parts];
+        final int partSize = data.length / parts;
+        for (int i = 0; i < parts; i++) {
+            final int end = i == parts - 1 ? data.length : (i + 1) * partSize;
+            buffers[i] = ByteBuffer.wrap(data, i * partSize, end - i * partSize).slice();
+        }
+    }
+
+    @Benchmark
+    public TyrusUpgradeResponse parse() throws ParseException {
+        final HttpResponseParser parser = new HttpResponseParser();
+
+        for (ByteBuffer buffer : buffers) {
+            buffer.rewind();
+            parser.appendData(buffer);
+        }
+
+        if (!parser.isComplete()) {
+            throw new IllegalStateException("Response not complete.");
+        }
+        return parser.parseUpgradeResponse();
+    }
+}
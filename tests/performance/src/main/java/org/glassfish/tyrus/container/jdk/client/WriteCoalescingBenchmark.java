@@ -0,0 +1,207 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes bursts of small frames through {@link TaskQueueFilter} with and without write coalescing.
+ * <p/>
+ * The downstream filter writes to a {@link Pipe} on a separate thread, so frames queue up while a write is in
+ * progress, as they do in front of a real socket. The {@code writes} counter reports the number of the writes, score is
+ * the number of written frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteCoalescingBenchmark {
+
+    private static final int BURST = 64;
+
+    @Param({"16", "256"})
+    public int length;
+
+    @Param({"0", "65536"})
+    public int coalescingLimit;
+
+    private byte[] frame;
+    private Pipe pipe;
+    private ExecutorService ioExecutor;
+    private TaskQueueFilter filter;
+    private CompletionHandler<ByteBuffer> completionHandler;
+    private final Semaphore completed = new Semaphore(0);
+    private volatile long writes;
+
+    /**
+     * Number of writes to the pipe.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long writes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        frame = new byte[length];
+
+        pipe = Pipe.open();
+        final Thread drain = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final ByteBuffer buffer = ByteBuffer.allocate(65536);
+                try {
+                    while (pipe.source().read(buffer) >= 0) {
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    // pipe closed.
+                }
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+
+        ioExecutor = Executors.newSingleThreadExecutor();
+        filter = new TaskQueueFilter(new PipeFilter(), coalescingLimit);
+        completionHandler = new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void completed(ByteBuffer result) {
+                completed.release();
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ioExecutor.shutdownNow();
+        pipe.sink().close();
+        pipe.source().close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void burst(Counters counters) throws InterruptedException {
+        final long before = writes;
+
+        for (int i = 0; i < BURST; i++) {
+            filter.write(ByteBuffer.wrap(frame), completionHandler);
+        }
+        completed.acquire(BURST);
+
+        counters.writes += writes - before;
+    }
+
+    /**
+     * Asynchronously writes all data to the pipe.
+     */
+    private class PipeFilter extends Filter {
+
+        PipeFilter() {
+            super(null);
+        }
+
+        @Override
+        void write(final ByteBuffer data, final CompletionHandler<ByteBuffer> completionHandler) {
+            write(new ByteBuffer[]{data}, new CompletionHandler<ByteBuffer[]>() {
+                @Override
+                public void failed(Throwable throwable) {
+                    completionHandler.failed(throwable);
+                }
+
+                @Override
+                public void completed(ByteBuffer[] result) {
+                    completionHandler.completed(data);
+                }
+            });
+        }
+
+        @Override
+        void write(final ByteBuffer[] data, final CompletionHandler<ByteBuffer[]> completionHandler) {
+            ioExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long remaining = 0;
+                        for (ByteBuffer buffer : data) {
+                            remaining += buffer.remaining();
+                        }
+                        while (remaining > 0) {
+                            remaining -= pipe.sink().write(data);
+                            writes++;
+                        }
+                    } catch (IOException e) {
+                        completionHandler.failed(e);
+                        return;
+                    }
+
+                    completionHandler.completed(data);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends bursts of small messages with and without batching ({@link ProtocolHandler#setBatchingAllowed(boolean)}).
+ * <p/>
+ * Frames are written to a {@link Pipe}, so every {@link Writer} invocation is a real write system call. The
+ * {@code writes} counter reports the number of the writes, score is the number of sent messages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchingBenchmark {
+
+    private static final int BURST = 64;
+
+    @Param({"16", "256"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean batching;
+
+    private String text;
+    private Pipe pipe;
+    private Thread drain;
+    private ProtocolHandler protocolHandler;
+    private volatile long writes;
+
+    /**
+     * Number of writes to the pipe.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long writes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        text = new String(chars);
+
+        pipe = Pipe.open();
+        drain = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final ByteBuffer buffer = ByteBuffer.allocate(65536);
+                try {
+                    while (pipe.source().read(buffer) >= 0) {
+                        buffer.clear();
+                    }
+                } catch (IOException e) {
+                    // pipe closed.
+                }
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+
+        protocolHandler = new ProtocolHandler(false, null);
+        protocolHandler.setWriter(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                write(new ByteBuffer[]{buffer}, null);
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+                try {
+                    long remaining = 0;
+                    for (ByteBuffer buffer : buffers) {
+                        remaining += buffer.remaining();
+                    }
+                    while (remaining > 0) {
+                        remaining -= pipe.sink().write(buffers);
+                        writes++;
+                    }
+                } catch (IOException e) {
+                    if (completionHandler != null) {
+                        completionHandler.failed(e);
+                    }
+                    return;
+                }
+
+                if (completionHandler != null) {
+                    completionHandler.completed(buffers);
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        protocolHandler.setBatchingAllowed(batching);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pipe.sink().close();
+        pipe.source().close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void burst(Counters counters) throws Exception {
+        final long before = writes;
+
+        for (int i = 0; i < BURST; i++) {
+            protocolHandler.send(text);
+        }
+
+        if (batching) {
+            protocolHandler.flushBatch().get();
+        }
+
+        counters.writes += writes - before;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parallel broadcast of a prepared text message to many sessions.
+ * <p/>
+ * The writers complete every write immediately. Score is the time from starting the broadcast to completion of the
+ * last send; {@link #scheduler()} uses {@link BroadcastScheduler}, {@link #fixedChunks()} divides the sessions into
+ * one fixed chunk per processor (the last one sent by the calling thread), as the broadcast did before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    private static final PreparedMessage MESSAGE = PreparedMessage.text("{\"price\":42.5,\"symbol\":\"ABC\"}");
+
+    @Param({"1000", "10000", "100000", "500000"})
+    private int sessions;
+
+    private final BroadcastScheduler scheduler = new BroadcastScheduler();
+    private final int processors = Runtime.getRuntime().availableProcessors();
+    private ExecutorService executor;
+    private List<TyrusWebSocket> webSockets;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        webSockets = new ArrayList<TyrusWebSocket>(sessions);
+
+        final Writer writer = new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        for (int i = 0; i < sessions; i++) {
+            final ProtocolHandler protocolHandler = new ProtocolHandler(false, null);
+            protocolHandler.setWriter(writer);
+            final TyrusWebSocket webSocket = new TyrusWebSocket(protocolHandler, null);
+            webSocket.onConnect(null, null, null, null, null);
+            webSockets.add(webSocket);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object scheduler() throws Exception {
+        final BroadcastResult result = new BroadcastResult(null);
+
+        scheduler.execute(webSockets.iterator(), webSockets.size(), new BroadcastScheduler.Task<TyrusWebSocket>() {
+            @Override
+            public void execute(TyrusWebSocket webSocket) {
+                result.send(MESSAGE, webSocket, null);
+            }
+        }, executor, result);
+        result.taskFinished();
+
+        result.get();
+        return result;
+    }
+
+    @Benchmark
+    public Object fixedChunks() throws Exception {
+        final BroadcastResult result = new BroadcastResult(null);
+        final int chunkSize = (webSockets.size() + processors - 1) / processors;
+
+        for (int i = 0; i < processors - 1; i++) {
+            final int from = i * chunkSize;
+            final int to = Math.min(from + chunkSize, webSockets.size());
+
+            result.taskStarted();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = from; j < to; j++) {
+                            result.send(MESSAGE, webSockets.get(j), null);
+                        }
+                    } finally {
+                        result.taskFinished();
+                    }
+                }
+            });
+        }
+
+        for (int j = Math.min((processors - 1) * chunkSize, webSockets.size()); j < webSockets.size(); j++) {
+            result.send(MESSAGE, webSockets.get(j), null);
+        }
+        result.taskFinished();
+
+        result.get();
+        return result;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013-2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.container.jdk.client.JdkClientContainer;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.WebSocketEngine;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Connect storm - server side handshakes done in memory, as in the in-memory container, without any network
+ * transport.
+ * <p/>
+ * Every operation upgrades a browser-like handshake request (with a unique key, requested subprotocols and an
+ * extension the endpoint does not support) by {@link TyrusWebSocketEngine}, creates the connection and closes it
+ * again. The endpoint uses the default configurator provided by the server module. With one thread, score is the
+ * number of handshakes per second per core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 15, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class ConnectStormBenchmark {
+
+    private static final String PATH = "/storm/{room}";
+    private static final int KEYS = 1024;
+
+    private static final CloseReason CLOSE_REASON = new CloseReason(CloseReason.CloseCodes.GOING_AWAY, null);
+
+    private static final Writer WRITER = new Writer() {
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    };
+
+    /**
+     * Endpoint which does not do anything.
+     */
+    public static class StormEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+
+    private ClientManager container;
+    private TyrusWebSocketEngine engine;
+    private Map<String, List<String>>[] requestHeaders;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws DeploymentException {
+        container = ClientManager.createClient(JdkClientContainer.class.getName());
+        engine = TyrusWebSocketEngine.builder(container).build();
+        engine.register(ServerEndpointConfig.Builder.create(StormEndpoint.class, PATH)
+                                                   .subprotocols(Arrays.asList("chat", "superchat")).build(), "");
+
+        requestHeaders = new Map[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            final RequestContext clientRequest =
+                    RequestContext.Builder.create().requestURI(URI.create("ws://localhost:8025/storm/lobby")).build();
+            final Handshake handshake = Handshake.createClientHandshake(clientRequest);
+            handshake.setSubProtocols(Arrays.asList("superchat", "chat"));
+            final UpgradeRequest upgradeRequest = handshake.prepareRequest();
+
+            final Map<String, List<String>> headers = upgradeRequest.getHeaders();
+            headers.put(HandshakeRequest.SEC_WEBSOCKET_EXTENSIONS,
+                        Collections.singletonList("permessage-deflate; client_max_window_bits"));
+            headers.put("User-Agent", Collections.singletonList("Mozilla/5.0 (X11; Linux x86_64) Gecko/20100101"));
+            headers.put("Cache-Control", Collections.singletonList("no-cache"));
+            requestHeaders[i] = headers;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.shutdown();
+    }
+
+    @Benchmark
+    public int connect() {
+        final RequestContext request =
+                RequestContext.Builder.create().requestURI(URI.create("/storm/lobby")).build();
+        request.getHeaders().putAll(requestHeaders[ThreadLocalRandom.current().nextInt(KEYS)]);
+
+        final TyrusUpgradeResponse response = new TyrusUpgradeResponse();
+        final WebSocketEngine.UpgradeInfo upgradeInfo = engine.upgrade(request, response);
+        if (upgradeInfo.getStatus() != WebSocketEngine.UpgradeStatus.SUCCESS) {
+            throw new IllegalStateException("Upgrade failed: " + upgradeInfo.getStatus());
+        }
+
+        final Connection connection = upgradeInfo.createConnection(WRITER, null);
+        connection.close(CLOSE_REASON);
+        return response.getHeaders().size();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Restarting idle timeouts of many sessions from several threads, as done on every received or sent message.
+ * <p/>
+ * {@link #wheel()} reports an activity to {@link IdleTimeoutWheel}, {@link #scheduledExecutor()} cancels and schedules
+ * a task on {@link ScheduledExecutorService} under a per-session lock, as the sessions did before. Score is the number
+ * of restarts (all threads together).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class IdleTimeoutBenchmark {
+
+    private static final long TIMEOUT_MILLIS = 1000;
+
+    private static final Runnable NO_OP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    @Param({"1000000"})
+    private int sessions;
+
+    private ScheduledExecutorService scheduledExecutorService;
+    private IdleTimeoutWheel.Timeout[] timeouts;
+    private ScheduledFuture<?>[] futures;
+    private Object[] locks;
+
+    @Setup
+    public void setup() {
+        scheduledExecutorService = Executors.newScheduledThreadPool(10);
+
+        final IdleTimeoutWheel wheel = new IdleTimeoutWheel(new ExecutorServiceProvider() {
+            @Override
+            public ExecutorService getExecutorService() {
+                return scheduledExecutorService;
+            }
+
+            @Override
+            public ScheduledExecutorService getScheduledExecutorService() {
+                return scheduledExecutorService;
+            }
+        });
+
+        timeouts = new IdleTimeoutWheel.Timeout[sessions];
+        futures = new ScheduledFuture<?>[sessions];
+        locks = new Object[sessions];
+
+        for (int i = 0; i < sessions; i++) {
+            timeouts[i] = wheel.schedule(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, NO_OP);
+            futures[i] = scheduledExecutorService.schedule(NO_OP, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            locks[i] = new Object();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    @Benchmark
+    public void wheel() {
+        timeouts[ThreadLocalRandom.current().nextInt(sessions)].touch();
+    }
+
+    @Benchmark
+    public void scheduledExecutor() {
+        final int session = ThreadLocalRandom.current().nextInt(sessions);
+
+        synchronized (locks[session]) {
+            futures[session].cancel(false);
+            futures[session] = scheduledExecutorService.schedule(NO_OP, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
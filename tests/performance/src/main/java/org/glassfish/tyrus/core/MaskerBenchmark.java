@@ -0,0 +1,169 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Masker} with the original byte-at-a-time implementation.
+ * <p/>
+ * "unmask" benchmarks correspond to server side receiving masked frame, "mask" benchmarks to client side sending a
+ * frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskerBenchmark {
+
+    private static final int MASKING_KEY = 0x1A2B3C4D;
+
+    @Param({"16", "128", "1024", "16384", "131072", "1048576", "4194304"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean direct;
+
+    private ByteBuffer frame;
+    private byte[] payload;
+    private byte[] target;
+
+    @Setup
+    public void setup() {
+        payload = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(payload);
+        target = new byte[payloadSize];
+
+        frame = direct ? ByteBuffer.allocateDirect(4 + payloadSize) : ByteBuffer.allocate(4 + payloadSize);
+        frame.putInt(MASKING_KEY).put(payload).flip();
+    }
+
+    @Benchmark
+    public byte[] unmaskLegacy() {
+        frame.clear();
+        return new LegacyMasker(frame).unmask(payloadSize);
+    }
+
+    @Benchmark
+    public byte[] unmask() {
+        frame.clear();
+        final Masker masker = new Masker(frame);
+        masker.readMask();
+        return masker.unmask(payloadSize);
+    }
+
+    @Benchmark
+    public ByteBuffer unmaskInPlace() {
+        frame.clear();
+        final Masker masker = new Masker(frame);
+        masker.readMask();
+        masker.unmask(frame, frame.position(), payloadSize);
+        return frame;
+    }
+
+    @Benchmark
+    public byte[] maskLegacy() {
+        new LegacyMasker(MASKING_KEY).mask(target, 0, payload, payloadSize);
+        return target;
+    }
+
+    @Benchmark
+    public byte[] mask() {
+        new Masker(MASKING_KEY).mask(target, 0, payload, payloadSize);
+        return target;
+    }
+
+    /**
+     * Original {@link Masker} implementation, which processes the payload one byte at a time.
+     */
+    private static class LegacyMasker {
+        private final ByteBuffer buffer;
+        private final byte[] mask;
+        private int index = 0;
+
+        LegacyMasker(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.mask = new byte[ProtocolHandler.MASK_SIZE];
+            buffer.get(mask);
+        }
+
+        LegacyMasker(int mask) {
+            this.buffer = null;
+            this.mask = new byte[4];
+            this.mask[0] = (byte) (mask >> 24);
+            this.mask[1] = (byte) (mask >> 16);
+            this.mask[2] = (byte) (mask >> 8);
+            this.mask[3] = (byte) mask;
+        }
+
+        byte[] unmask(int count) {
+            byte[] bytes = new byte[count];
+            buffer.get(bytes);
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] ^= mask[index++ % ProtocolHandler.MASK_SIZE];
+            }
+
+            return bytes;
+        }
+
+        void mask(byte[] target, int location, byte[] bytes, int length) {
+            for (int i = 0; i < length; i++) {
+                target[location + i] = (byte) (bytes[i] ^ mask[index++ % ProtocolHandler.MASK_SIZE]);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2015 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Extension;
+import javax.websocket.HandshakeResponse;
+import javax.websocket.Session;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.container.jdk.client.JdkClientContainer;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Connection;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.WebSocketEngine;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * Footprint harness - opens many idle server sessions and reports the heap retained by one session.
+ * <p/>
+ * Sessions are created by {@link TyrusWebSocketEngine} directly, without any network transport, so the reported size
+ * includes only the Tyrus objects (session, socket, protocol handler, remote endpoints, engine and endpoint
+ * registrations, ...) of a session whose endpoint did not register any message handler.
+ * <p/>
+ * Usage: {@code SessionFootprint [sessions] [limit]}; defaults are 100000 sessions and 2048 bytes. The harness exits
+ * with status 1 when the retained size of a session exceeds the limit.
+ */
+public class SessionFootprint {
+
+    private static final String PATH = "/footprint";
+
+    /**
+     * Endpoint which does not do anything.
+     */
+    public static class IdleEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+
+    /**
+     * Configurator not depending on the default one provided by the server module.
+     */
+    private static class IdleConfigurator extends ServerEndpointConfig.Configurator {
+
+        @Override
+        public String getNegotiatedSubprotocol(List<String> supported, List<String> requested) {
+            return "";
+        }
+
+        @Override
+        public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean checkOrigin(String originHeaderValue) {
+            return true;
+        }
+
+        @Override
+        public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+        }
+
+        @Override
+        public <T> T getEndpointInstance(Class<T> endpointClass) throws InstantiationException {
+            try {
+                return endpointClass.newInstance();
+            } catch (IllegalAccessException e) {
+                throw new InstantiationException(e.getMessage());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        final long limit = args.length > 1 ? Long.parseLong(args[1]) : 2048;
+
+        final ClientManager container = ClientManager.createClient(JdkClientContainer.class.getName());
+        final TyrusWebSocketEngine engine = TyrusWebSocketEngine.builder(container).build();
+        engine.register(ServerEndpointConfig.Builder.create(IdleEndpoint.class, PATH)
+                                                   .configurator(new IdleConfigurator()).build(), "");
+
+        // warm up - classes, shared instances and lazily initialized structures of the engine.
+        final List<Connection> warmUp = open(engine, 1000);
+        close(warmUp);
+
+        final long before = usedMemory();
+        final List<Connection> connections = open(engine, sessions);
+        final long after = usedMemory();
+
+        final long perSession = (after - before) / sessions;
+        System.out.printf("Sessions: %d, retained: %d bytes, per session: %d bytes (limit %d bytes)%n",
+                          connections.size(), after - before, perSession, limit);
+
+        close(connections);
+        container.shutdown();
+
+        if (perSession > limit) {
+            System.exit(1);
+        }
+    }
+
+    private static List<Connection> open(TyrusWebSocketEngine engine, int sessions) throws DeploymentException {
+        final List<Connection> connections = new ArrayList<>(sessions);
+        final Writer writer = new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() throws IOException {
+            }
+        };
+
+        for (int i = 0; i < sessions; i++) {
+            final RequestContext request = createRequest();
+            final TyrusUpgradeResponse response = new TyrusUpgradeResponse();
+            final WebSocketEngine.UpgradeInfo upgradeInfo = engine.upgrade(request, response);
+
+            if (upgradeInfo.getStatus() != WebSocketEngine.UpgradeStatus.SUCCESS) {
+                throw new DeploymentException("Upgrade failed: " + upgradeInfo.getStatus());
+            }
+
+            connections.add(upgradeInfo.createConnection(writer, null));
+        }
+
+        return connections;
+    }
+
+    private static RequestContext createRequest() {
+        final RequestContext clientRequest =
+                RequestContext.Builder.create().requestURI(URI.create("ws://localhost" + PATH)).build();
+        final UpgradeRequest upgradeRequest = Handshake.createClientHandshake(clientRequest).prepareRequest();
+
+        final RequestContext request = RequestContext.Builder.create().requestURI(URI.create(PATH)).build();
+        request.getHeaders().putAll(upgradeRequest.getHeaders());
+        return request;
+    }
+
+    private static void close(List<Connection> connections) {
+        for (Connection connection : connections) {
+            connection.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, null));
+        }
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+
+        // repeat until the garbage collection does not free anything more.
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+            final long current = runtime.totalMemory() - runtime.freeMemory();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+
+        return used;
+    }
+}